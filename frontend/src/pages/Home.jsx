@@ -7,7 +7,10 @@ const Home = () => {
     const {user} = useContext(AuthContext); // Get user context
     const navigate = useNavigate(); // Initialize navigate
     const [products, setProducts] = useState([]);
+    const [nextCursor, setNextCursor] = useState(null);
     const [loading, setLoading] = useState(true);
+    const [query, setQuery] = useState("");
+    const [suggestions, setSuggestions] = useState([]);
 
     // 👇 CRITICAL FIX: Redirect Vendors/Admins to their specific page
     useEffect(() => {
@@ -27,6 +30,7 @@ const Home = () => {
         try {
             const response = await api.get("/products");
             setProducts(response.data.data || []);
+            setNextCursor(response.data.nextCursor || null);
         } catch (error) {
             console.error("Error fetching products:", error);
         } finally {
@@ -34,6 +38,49 @@ const Home = () => {
         }
     };
 
+    // The catalog is paginated: fetch the next page with the cursor from the last one
+    const loadMoreProducts = async () => {
+        try {
+            const response = await api.get("/products", {params: {cursor: nextCursor}});
+            setProducts((current) => [...current, ...(response.data.data || [])]);
+            setNextCursor(response.data.nextCursor || null);
+        } catch (error) {
+            console.error("Error loading more products:", error);
+        }
+    };
+
+
+    // Autocomplete is answered from memory on the server, so it is fine to ask on every keystroke
+    const handleQueryChange = async (e) => {
+        const value = e.target.value;
+        setQuery(value);
+        if (!value.trim()) {
+            setSuggestions([]);
+            return;
+        }
+        try {
+            const response = await api.get("/products/suggest", {params: {prefix: value}});
+            setSuggestions(response.data.data || []);
+        } catch (error) {
+            setSuggestions([]);
+        }
+    };
+
+    // Ranked server-side search; an empty box goes back to the full list
+    const handleSearch = async (e) => {
+        e.preventDefault();
+        if (!query.trim()) {
+            fetchProducts();
+            return;
+        }
+        try {
+            const response = await api.get("/products/search", {params: {q: query}});
+            setProducts(response.data.data || []);
+            setNextCursor(null);
+        } catch (error) {
+            console.error("Error searching products:", error);
+        }
+    };
 
     if (loading) return <div className="text-center mt-10">Loading yarn... 🧶</div>;
 
@@ -41,6 +88,25 @@ const Home = () => {
         <div className="p-8 bg-gray-50 min-h-screen">
             <h1 className="text-3xl font-bold text-blue-800 mb-6 text-center">Marketplace</h1>
 
+            <form onSubmit={handleSearch} className="max-w-xl mx-auto mb-8 flex gap-2">
+                <input
+                    type="text"
+                    value={query}
+                    onChange={handleQueryChange}
+                    list="product-suggestions"
+                    placeholder="Search yarn, hooks, needles..."
+                    className="flex-1 border border-gray-300 rounded px-3 py-2"
+                />
+                <datalist id="product-suggestions">
+                    {suggestions.map((suggestion) => (
+                        <option key={suggestion.id} value={suggestion.name}/>
+                    ))}
+                </datalist>
+                <button type="submit" className="bg-blue-600 text-white px-4 py-2 rounded hover:bg-blue-700">
+                    Search
+                </button>
+            </form>
+
             {products.length === 0 ? (
                 <div className="text-center text-gray-500">
                     <p className="text-xl">No products found yet.</p>
@@ -53,7 +119,7 @@ const Home = () => {
                             <div
                                 className="h-48 bg-gray-200 rounded mb-4 overflow-hidden flex items-center justify-center">
                                 {product.imageUrl ? (
-                                    <img src={product.imageUrl} alt={product.name}
+                                    <img src={product.thumbnailUrl || product.imageUrl} alt={product.name}
                                          className="h-full w-full object-cover"/>
                                 ) : (
                                     <span className="text-4xl">🧶</span>
@@ -78,6 +144,16 @@ const Home = () => {
                     ))}
                 </div>
             )}
+            {nextCursor && (
+                <div className="text-center mt-8">
+                    <button
+                        onClick={loadMoreProducts}
+                        className="text-blue-500 hover:text-blue-700 text-sm font-semibold"
+                    >
+                        Load more
+                    </button>
+                </div>
+            )}
         </div>
     );
 };
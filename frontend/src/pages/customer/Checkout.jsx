@@ -1,4 +1,4 @@
-import {useContext, useState} from "react";
+import {useContext, useRef, useState} from "react";
 import {CartContext} from "../../context/CartContext";
 import {AuthContext} from "../../context/AuthContext";
 import {useNavigate} from "react-router-dom";
@@ -9,6 +9,8 @@ const Checkout = () => {
     const {cart, getCartTotal, clearCart} = useContext(CartContext);
     const {user} = useContext(AuthContext);
     const navigate = useNavigate();
+    // One key per checkout: resubmitting after a timeout cannot place the order twice
+    const idempotencyKey = useRef(crypto.randomUUID());
 
     const [address, setAddress] = useState({
         street: "",
@@ -48,7 +50,9 @@ const Checkout = () => {
             // 👇 2. Send to Backend (UNCOMMENTED & FIXED URL)
             // We use "/orders" if your axios baseURL already has "/api",
             // otherwise use "/api/orders". I'll use "/orders" assuming standard setup.
-            await api.post("/orders", orderPayload);
+            await api.post("/orders", orderPayload, {
+                headers: {"Idempotency-Key": idempotencyKey.current}
+            });
 
             // 3. Real Success
             alert("Order Placed Successfully! 🎉");
@@ -6,6 +6,7 @@ import {Link} from "react-router-dom";
 const Orders = () => {
     const {user} = useContext(AuthContext);
     const [orders, setOrders] = useState([]);
+    const [nextCursor, setNextCursor] = useState(null);
     const [loading, setLoading] = useState(true);
 
     useEffect(() => {
@@ -15,6 +16,7 @@ const Orders = () => {
                 const response = await api.get("/orders");
                 // Access the list inside the response structure (ApiResponse)
                 setOrders(response.data.data || []);
+                setNextCursor(response.data.nextCursor || null);
             } catch (error) {
                 console.error("Failed to fetch orders:", error);
             } finally {
@@ -27,6 +29,17 @@ const Orders = () => {
         }
     }, [user]);
 
+    // History is paginated (newest first): fetch the next page with the cursor from the last one
+    const loadMoreOrders = async () => {
+        try {
+            const response = await api.get("/orders", {params: {cursor: nextCursor}});
+            setOrders((current) => [...current, ...(response.data.data || [])]);
+            setNextCursor(response.data.nextCursor || null);
+        } catch (error) {
+            console.error("Failed to load more orders:", error);
+        }
+    };
+
     if (loading) return <div className="text-center mt-20">Loading your history... 📜</div>;
 
     if (orders.length === 0) {
@@ -74,8 +87,7 @@ const Orders = () => {
                                             🧶
                                         </div>
                                         <div>
-                                            {/* Note: In your backend DTO, ensure 'product' is included in 'items' */}
-                                            <p className="font-semibold text-gray-800">{item.product?.name || "Product"}</p>
+                                            <p className="font-semibold text-gray-800">{item.productName || "Product"}</p>
                                             <p className="text-gray-500">Qty: {item.quantity}</p>
                                         </div>
                                     </div>
@@ -86,6 +98,16 @@ const Orders = () => {
                     </div>
                 ))}
             </div>
+            {nextCursor && (
+                <div className="text-center mt-8">
+                    <button
+                        onClick={loadMoreOrders}
+                        className="text-blue-500 hover:text-blue-700 text-sm font-semibold"
+                    >
+                        Load more
+                    </button>
+                </div>
+            )}
         </div>
     );
 };
@@ -2,8 +2,10 @@ package com.swe2project.yarncraft;
 
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
 @SpringBootApplication
+@EnableScheduling
 public class YarncraftApplication {
     public static void main(String[] args) {
         SpringApplication.run(YarncraftApplication.class, args);
@@ -12,8 +12,10 @@ import lombok.extern.slf4j.Slf4j;
 @Slf4j
 public class LoggingAspect {
     // "Around" advice wraps the method execution
-    // This pattern matches ANY method inside ANY class in the 'modules' package
-    @Around("execution(* com.swe2project.yarncraft.modules..*(..))")
+    // This pattern matches ANY method inside ANY class in the 'modules' package,
+    // except hot-path beans marked with @NoExecutionLogging
+    @Around("execution(* com.swe2project.yarncraft.modules..*(..)) " +
+            "&& !@within(com.swe2project.yarncraft.aspect.NoExecutionLogging)")
     public Object logExecutionTime(ProceedingJoinPoint joinPoint) throws Throwable {
         long start = System.currentTimeMillis();
 
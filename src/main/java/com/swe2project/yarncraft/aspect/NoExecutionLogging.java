@@ -0,0 +1,16 @@
+package com.swe2project.yarncraft.aspect;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Opts a bean out of {@link LoggingAspect}.
+ * Use it on in-memory hot-path components (called thousands of times per second)
+ * where an INFO line per call would cost more than the call itself.
+ */
+@Target(ElementType.TYPE)
+@Retention(RetentionPolicy.RUNTIME)
+public @interface NoExecutionLogging {
+}
@@ -1,6 +1,9 @@
 package com.swe2project.yarncraft.common.dto;
 
+import com.fasterxml.jackson.annotation.JsonInclude;
+
 import java.time.LocalDateTime;
+import java.util.List;
 
 import lombok.AllArgsConstructor;
 import lombok.Builder;
@@ -17,6 +20,10 @@ public class ApiResponse<T> {
     private T data;
     private LocalDateTime timestamp;
 
+    // Opaque keyset cursor for the next page of a list; absent on the last page and on non-list responses
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private String nextCursor;
+
     public static <T> ApiResponse<T> success(T data, String message) {
         return ApiResponse.<T>builder()
                 .success(true)
@@ -26,6 +33,16 @@ public class ApiResponse<T> {
                 .build();
     }
 
+    public static <T> ApiResponse<List<T>> page(CursorPage<T> page, String message) {
+        return ApiResponse.<List<T>>builder()
+                .success(true)
+                .message(message)
+                .data(page.getItems())
+                .nextCursor(page.getNextCursor())
+                .timestamp(LocalDateTime.now())
+                .build();
+    }
+
     public static <T> ApiResponse<T> error(String message) {
         return ApiResponse.<T>builder()
                 .success(false)
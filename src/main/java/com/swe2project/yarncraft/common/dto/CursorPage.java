@@ -0,0 +1,17 @@
+package com.swe2project.yarncraft.common.dto;
+
+import java.util.List;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+/**
+ * One page of a keyset-paginated list.
+ * Pass {@code nextCursor} back as {@code cursor} to get the next page; null means this was the last one.
+ */
+@Data
+@AllArgsConstructor
+public class CursorPage<T> {
+    private List<T> items;
+    private String nextCursor;
+}
@@ -0,0 +1,73 @@
+package com.swe2project.yarncraft.common.util;
+
+/**
+ * CRC-32 of a concatenation from the CRCs of its parts (zlib's {@code crc32_combine}).
+ * <p>
+ * Appending {@code n} zero bits to a message is a linear map on its CRC, i.e. a 32x32 matrix
+ * over GF(2). The matrix for {@code len2} zero bytes is built by repeated squaring, so combining
+ * costs O(log len2) matrix products and never touches the bytes themselves.
+ */
+public class Crc32Combine {
+
+    private static final int POLYNOMIAL = 0xedb88320; // reflected CRC-32, as in java.util.zip.CRC32
+
+    /**
+     * @param crc1 CRC-32 of the first part
+     * @param crc2 CRC-32 of the second part
+     * @param len2 length of the second part in bytes
+     * @return CRC-32 of the first part followed by the second
+     */
+    public static long combine(long crc1, long crc2, long len2) {
+        if (len2 <= 0) {
+            return crc1;
+        }
+        int[] even = new int[32]; // operator for an even power of two zero bits
+        int[] odd = new int[32];  // operator for an odd power of two zero bits
+
+        // One zero bit
+        odd[0] = POLYNOMIAL;
+        int row = 1;
+        for (int n = 1; n < 32; n++) {
+            odd[n] = row;
+            row <<= 1;
+        }
+        square(even, odd); // two zero bits
+        square(odd, even); // four zero bits
+
+        // Apply len2 zero bytes to crc1: the first square below gives one byte (eight bits)
+        int crc = (int) crc1;
+        do {
+            square(even, odd);
+            if ((len2 & 1) != 0) {
+                crc = times(even, crc);
+            }
+            len2 >>= 1;
+            if (len2 == 0) {
+                break;
+            }
+            square(odd, even);
+            if ((len2 & 1) != 0) {
+                crc = times(odd, crc);
+            }
+            len2 >>= 1;
+        } while (len2 != 0);
+
+        return (crc ^ (int) crc2) & 0xffffffffL;
+    }
+
+    private static int times(int[] matrix, int vector) {
+        int sum = 0;
+        for (int i = 0; vector != 0; i++, vector >>>= 1) {
+            if ((vector & 1) != 0) {
+                sum ^= matrix[i];
+            }
+        }
+        return sum;
+    }
+
+    private static void square(int[] square, int[] matrix) {
+        for (int n = 0; n < 32; n++) {
+            square[n] = times(matrix, matrix[n]);
+        }
+    }
+}
@@ -0,0 +1,34 @@
+package com.swe2project.yarncraft.common.util;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+/**
+ * Opaque keyset cursors: the sort key values of the last row of a page, joined and
+ * base64url-encoded so clients treat them as tokens rather than something to build by hand.
+ */
+public class CursorCodec {
+
+    private static final String SEPARATOR = "\u001F"; // unit separator, never part of a key value
+
+    public static String encode(String... parts) {
+        byte[] joined = String.join(SEPARATOR, parts).getBytes(StandardCharsets.UTF_8);
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(joined);
+    }
+
+    /**
+     * @throws IllegalArgumentException if the cursor is malformed or does not have {@code expectedParts} parts
+     */
+    public static String[] decode(String cursor, int expectedParts) {
+        String[] parts;
+        try {
+            parts = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8).split(SEPARATOR, -1);
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Invalid cursor");
+        }
+        if (parts.length != expectedParts) {
+            throw new IllegalArgumentException("Invalid cursor");
+        }
+        return parts;
+    }
+}
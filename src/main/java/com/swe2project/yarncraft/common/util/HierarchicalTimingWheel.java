@@ -0,0 +1,170 @@
+package com.swe2project.yarncraft.common.util;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Hashed hierarchical timing wheel (Varghese &amp; Lauck, as used by the Linux kernel timers).
+ * <p>
+ * Four levels of 256 slots each. Level 0 slots are one tick wide, level n slots are
+ * 256^n ticks wide. Scheduling and cancelling are O(1) (doubly linked slot lists);
+ * advancing one tick touches one level-0 slot plus, every 256^n ticks, one level-n slot
+ * whose entries cascade down. Millions of pending timeouts cost nothing until they fire.
+ * <p>
+ * Thread-safe: all operations synchronize on the wheel. {@link #advance(long)} is meant
+ * to be driven by a single scheduler thread.
+ *
+ * @param <T> payload handed back when a timeout expires
+ */
+public class HierarchicalTimingWheel<T> {
+
+    private static final int BITS = 8;
+    private static final int WHEEL_SIZE = 1 << BITS;
+    private static final int MASK = WHEEL_SIZE - 1;
+    private static final int LEVELS = 4;
+    private static final long MAX_DELTA = (1L << (BITS * LEVELS)) - 1;
+
+    private final long tickMillis;
+    private final long startMillis;
+    private final Timeout<T>[][] slots; // sentinel node per slot
+    private long currentTick;
+    private int size;
+
+    @SuppressWarnings("unchecked")
+    public HierarchicalTimingWheel(long tickMillis, long startMillis) {
+        if (tickMillis <= 0) {
+            throw new IllegalArgumentException("Tick must be positive");
+        }
+        this.tickMillis = tickMillis;
+        this.startMillis = startMillis;
+        this.slots = (Timeout<T>[][]) new Timeout<?>[LEVELS][WHEEL_SIZE];
+        for (int level = 0; level < LEVELS; level++) {
+            for (int slot = 0; slot < WHEEL_SIZE; slot++) {
+                Timeout<T> sentinel = new Timeout<>(null, 0);
+                sentinel.prev = sentinel;
+                sentinel.next = sentinel;
+                slots[level][slot] = sentinel;
+            }
+        }
+    }
+
+    /**
+     * Schedule a payload to expire at the given wall-clock time (rounded up to a tick).
+     */
+    public synchronized Timeout<T> schedule(T payload, long deadlineMillis) {
+        long deadlineTick = Math.floorDiv(deadlineMillis - startMillis + tickMillis - 1, tickMillis);
+        Timeout<T> timeout = new Timeout<>(payload, Math.max(deadlineTick, currentTick + 1));
+        place(timeout);
+        size++;
+        return timeout;
+    }
+
+    /**
+     * @return true if the timeout was still pending
+     */
+    public synchronized boolean cancel(Timeout<T> timeout) {
+        if (timeout.next == null) {
+            return false; // already fired or cancelled
+        }
+        unlink(timeout);
+        size--;
+        return true;
+    }
+
+    /**
+     * Move the wheel up to the given wall-clock time.
+     *
+     * @return payloads whose deadline has passed
+     */
+    public synchronized List<T> advance(long nowMillis) {
+        long targetTick = Math.floorDiv(nowMillis - startMillis, tickMillis);
+        List<T> expired = new ArrayList<>();
+
+        while (currentTick < targetTick) {
+            currentTick++;
+
+            // Cascade: when the lower levels wrap, pull the matching higher-level slot down.
+            for (int level = 1; level < LEVELS; level++) {
+                if ((currentTick & ((1L << (BITS * level)) - 1)) != 0) {
+                    break;
+                }
+                int slot = (int) ((currentTick >>> (BITS * level)) & MASK);
+                for (Timeout<T> timeout : drain(slots[level][slot])) {
+                    place(timeout);
+                }
+            }
+
+            for (Timeout<T> timeout : drain(slots[0][(int) (currentTick & MASK)])) {
+                if (timeout.deadlineTick <= currentTick) {
+                    size--;
+                    expired.add(timeout.payload);
+                } else {
+                    place(timeout); // parked beyond the wheel horizon, not due yet
+                }
+            }
+        }
+        return expired;
+    }
+
+    public synchronized int size() {
+        return size;
+    }
+
+    private void place(Timeout<T> timeout) {
+        long delta = Math.min(timeout.deadlineTick - currentTick, MAX_DELTA);
+        long placementTick = currentTick + Math.max(delta, 0);
+
+        int level = 0;
+        while (level < LEVELS - 1 && delta >= (1L << (BITS * (level + 1)))) {
+            level++;
+        }
+        int slot = (int) ((placementTick >>> (BITS * level)) & MASK);
+
+        Timeout<T> sentinel = slots[level][slot];
+        timeout.prev = sentinel.prev;
+        timeout.next = sentinel;
+        sentinel.prev.next = timeout;
+        sentinel.prev = timeout;
+    }
+
+    private List<Timeout<T>> drain(Timeout<T> sentinel) {
+        List<Timeout<T>> drained = new ArrayList<>();
+        Timeout<T> node = sentinel.next;
+        while (node != sentinel) {
+            Timeout<T> next = node.next;
+            node.prev = null;
+            node.next = null;
+            drained.add(node);
+            node = next;
+        }
+        sentinel.prev = sentinel;
+        sentinel.next = sentinel;
+        return drained;
+    }
+
+    private void unlink(Timeout<T> timeout) {
+        timeout.prev.next = timeout.next;
+        timeout.next.prev = timeout.prev;
+        timeout.prev = null;
+        timeout.next = null;
+    }
+
+    /**
+     * Handle returned by {@link #schedule}, used to cancel.
+     */
+    public static final class Timeout<T> {
+        private final T payload;
+        private final long deadlineTick;
+        private Timeout<T> prev;
+        private Timeout<T> next;
+
+        private Timeout(T payload, long deadlineTick) {
+            this.payload = payload;
+            this.deadlineTick = deadlineTick;
+        }
+
+        public T getPayload() {
+            return payload;
+        }
+    }
+}
@@ -0,0 +1,40 @@
+package com.swe2project.yarncraft.common.util;
+
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Tie in-memory side effects (ledger movements, index updates) to the outcome
+ * of the current Spring transaction. Outside a transaction they behave as if it committed.
+ */
+public class TransactionHooks {
+
+    // Runs the compensation only if the current transaction rolls back
+    public static void onRollback(Runnable compensation) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                if (status == STATUS_ROLLED_BACK) {
+                    compensation.run();
+                }
+            }
+        });
+    }
+
+    // Runs the action once the current transaction commits (immediately if there is none)
+    public static void afterCommit(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
+    }
+}
@@ -0,0 +1,185 @@
+package com.swe2project.yarncraft.common.web;
+
+import com.swe2project.yarncraft.common.util.Crc32Combine;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Locale;
+import java.util.zip.CRC32;
+
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import tools.jackson.databind.ObjectMapper;
+
+/**
+ * Writes a successful ApiResponse whose {@code data} is already serialized.
+ * <p>
+ * Only the envelope (message and timestamp) goes through Jackson per request; the payload
+ * bytes are copied straight to the servlet output stream. Clients that accept gzip get the
+ * payload's precomputed DEFLATE blocks framed by stored (uncompressed) blocks for the envelope.
+ */
+@Component
+@RequiredArgsConstructor
+public class ApiResponseWriter {
+
+    private static final byte[] GZIP_HEADER = {0x1f, (byte) 0x8b, 8, 0, 0, 0, 0, 0, 0, (byte) 0xff};
+    private static final int MAX_STORED_BLOCK = 65_535;
+    private static final int GZIP_TRAILER = 8;
+
+    private final ObjectMapper objectMapper;
+
+    public void writeSuccess(PreSerializedJson data, String message, HttpServletRequest request,
+                             HttpServletResponse response) throws IOException {
+        writeSuccess(data, null, message, request, response);
+    }
+
+    /**
+     * @param nextCursor cursor of the next page of a list, or null (then left out, as in ApiResponse)
+     */
+    public void writeSuccess(PreSerializedJson data, String nextCursor, String message, HttpServletRequest request,
+                             HttpServletResponse response) throws IOException {
+        byte[] head = concat(ascii("{\"success\":true,\"message\":"), objectMapper.writeValueAsBytes(message),
+                ascii(",\"data\":"));
+        byte[] tail = concat(ascii(",\"timestamp\":"), objectMapper.writeValueAsBytes(LocalDateTime.now()),
+                nextCursor != null ? concat(ascii(",\"nextCursor\":"), objectMapper.writeValueAsBytes(nextCursor)) : new byte[0],
+                ascii("}"));
+
+        response.setStatus(HttpServletResponse.SC_OK);
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        response.addHeader(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+
+        OutputStream out = response.getOutputStream();
+        if (acceptsGzip(request)) {
+            response.setHeader(HttpHeaders.CONTENT_ENCODING, "gzip");
+            response.setContentLength(GZIP_HEADER.length + storedLength(head) + data.deflated().length
+                    + storedLength(tail) + GZIP_TRAILER);
+            writeGzip(out, head, data, tail);
+        } else {
+            response.setContentLength(head.length + data.json().length + tail.length);
+            out.write(head);
+            out.write(data.json());
+            out.write(tail);
+        }
+        out.flush();
+    }
+
+    // ========================================================================
+    // GZIP FRAMING
+    // ========================================================================
+
+    /**
+     * Header, envelope head as stored blocks, the payload's DEFLATE blocks, envelope tail as
+     * the final stored block, trailer. Streamed, so nothing but the envelope is copied.
+     */
+    static void writeGzip(OutputStream out, byte[] head, PreSerializedJson data, byte[] tail) throws IOException {
+        out.write(GZIP_HEADER);
+        writeStored(out, head, false);
+        out.write(data.deflated());
+        writeStored(out, tail, true);
+
+        // Trailer: CRC-32 and length of the uncompressed stream. Only the envelope is checksummed
+        // here; the payload's stored CRC is combined in, so the cost does not grow with the payload.
+        CRC32 crc = new CRC32();
+        crc.update(head);
+        long headCrc = crc.getValue();
+        crc.reset();
+        crc.update(tail);
+        long payloadCrc = Crc32Combine.combine(headCrc, data.crc32(), data.json().length);
+        writeIntLE(out, Crc32Combine.combine(payloadCrc, crc.getValue(), tail.length));
+        writeIntLE(out, head.length + data.json().length + tail.length);
+    }
+
+    // Stored block: BFINAL/BTYPE=00 padded to a byte, LEN, ~LEN, raw bytes
+    private static void writeStored(OutputStream out, byte[] bytes, boolean last) throws IOException {
+        int offset = 0;
+        do {
+            int length = Math.min(MAX_STORED_BLOCK, bytes.length - offset);
+            boolean finalBlock = last && offset + length == bytes.length;
+            out.write(finalBlock ? 1 : 0);
+            out.write(length & 0xff);
+            out.write(length >>> 8);
+            out.write(~length & 0xff);
+            out.write((~length >>> 8) & 0xff);
+            out.write(bytes, offset, length);
+            offset += length;
+        } while (offset < bytes.length);
+    }
+
+    // What writeStored emits: 5 header bytes per block, at least one block
+    private static int storedLength(byte[] bytes) {
+        int blocks = Math.max(1, (bytes.length + MAX_STORED_BLOCK - 1) / MAX_STORED_BLOCK);
+        return bytes.length + 5 * blocks;
+    }
+
+    private static void writeIntLE(OutputStream out, long value) throws IOException {
+        for (int i = 0; i < 4; i++) {
+            out.write((int) (value >>> (8 * i)) & 0xff);
+        }
+    }
+
+    /**
+     * True if Accept-Encoding lists gzip (or x-gzip, or else "*") with a non-zero q-value.
+     */
+    static boolean acceptsGzip(HttpServletRequest request) {
+        String accepted = request.getHeader(HttpHeaders.ACCEPT_ENCODING);
+        if (accepted == null) {
+            return false;
+        }
+        Double gzip = null;
+        Double any = null;
+        for (String element : accepted.split(",")) {
+            String[] parts = element.split(";");
+            String coding = parts[0].trim().toLowerCase(Locale.ROOT);
+            double q = 1.0;
+            for (int i = 1; i < parts.length; i++) {
+                String parameter = parts[i].trim();
+                if (parameter.length() > 2 && parameter.substring(0, 2).equalsIgnoreCase("q=")) {
+                    q = quality(parameter.substring(2).trim());
+                }
+            }
+            if (coding.equals("gzip") || coding.equals("x-gzip")) {
+                gzip = gzip == null ? q : Math.max(gzip, q);
+            } else if (coding.equals("*")) {
+                any = q;
+            }
+        }
+        if (gzip != null) {
+            return gzip > 0;
+        }
+        return any != null && any > 0;
+    }
+
+    // A malformed q-value counts as "not acceptable"
+    private static double quality(String value) {
+        try {
+            return Double.parseDouble(value);
+        } catch (NumberFormatException e) {
+            return 0;
+        }
+    }
+
+    private static byte[] ascii(String text) {
+        return text.getBytes(StandardCharsets.US_ASCII);
+    }
+
+    private static byte[] concat(byte[]... parts) {
+        int length = 0;
+        for (byte[] part : parts) {
+            length += part.length;
+        }
+        byte[] joined = new byte[length];
+        int offset = 0;
+        for (byte[] part : parts) {
+            System.arraycopy(part, 0, joined, offset, part.length);
+            offset += part.length;
+        }
+        return joined;
+    }
+}
@@ -0,0 +1,124 @@
+package com.swe2project.yarncraft.common.web;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+/**
+ * Serves immutable files (content-addressed, so the name is the version) without reading them
+ * into the heap.
+ * <p>
+ * On Tomcat's NIO connector the file is handed to the connector through its sendfile request
+ * attributes and goes from the page cache to the socket in the kernel. Elsewhere it falls back to
+ * {@link FileChannel#transferTo}. Supports If-None-Match (304), a single byte Range (206 / 416)
+ * with If-Range, HEAD, and a one-year {@code immutable} Cache-Control. A file that stands in for
+ * another one (a thumbnail not rendered yet) goes through {@link #writeProvisional} instead, which
+ * only lets clients keep it for a minute.
+ */
+@Component
+public class FileResponseWriter {
+
+    private static final String SENDFILE_SUPPORT = "org.apache.tomcat.sendfile.support";
+    private static final String SENDFILE_FILENAME = "org.apache.tomcat.sendfile.filename";
+    private static final String SENDFILE_START = "org.apache.tomcat.sendfile.start";
+    private static final String SENDFILE_END = "org.apache.tomcat.sendfile.end"; // exclusive
+
+    private static final String IMMUTABLE = "public, max-age=31536000, immutable";
+    private static final String PROVISIONAL = "public, max-age=60";
+    private static final Pattern SINGLE_RANGE = Pattern.compile("bytes=(\\d*)-(\\d*)");
+
+    public void writeImmutable(Path file, String version, String contentType, HttpServletRequest request,
+                               HttpServletResponse response) throws IOException {
+        write(file, version, contentType, IMMUTABLE, request, response);
+    }
+
+    /**
+     * Same as {@link #writeImmutable}, but the response may be replaced soon, so it is only cached
+     * briefly and then revalidated (the ETag changes once the real file exists).
+     */
+    public void writeProvisional(Path file, String version, String contentType, HttpServletRequest request,
+                                 HttpServletResponse response) throws IOException {
+        write(file, version, contentType, PROVISIONAL, request, response);
+    }
+
+    private void write(Path file, String version, String contentType, String cacheControl,
+                       HttpServletRequest request, HttpServletResponse response) throws IOException {
+        long length = Files.size(file);
+        String etag = "\"" + version + "\"";
+        response.setHeader(HttpHeaders.CACHE_CONTROL, cacheControl);
+        response.setHeader(HttpHeaders.ETAG, etag);
+        response.setHeader(HttpHeaders.ACCEPT_RANGES, "bytes");
+
+        String ifNoneMatch = request.getHeader(HttpHeaders.IF_NONE_MATCH);
+        if (ifNoneMatch != null && (ifNoneMatch.contains(etag) || ifNoneMatch.trim().equals("*"))) {
+            response.setStatus(HttpServletResponse.SC_NOT_MODIFIED);
+            return;
+        }
+
+        long start = 0;
+        long end = length - 1;
+        String range = request.getHeader(HttpHeaders.RANGE);
+        String ifRange = request.getHeader(HttpHeaders.IF_RANGE);
+        Matcher matcher = range != null ? SINGLE_RANGE.matcher(range.trim()) : null;
+        // Multi-range and malformed headers are ignored: a full 200 is always a valid answer
+        if (matcher != null && matcher.matches() && (ifRange == null || ifRange.equals(etag))
+                && !(matcher.group(1).isEmpty() && matcher.group(2).isEmpty())) {
+            if (matcher.group(1).isEmpty()) {
+                start = Math.max(0, length - Long.parseLong(matcher.group(2))); // suffix: last N bytes
+            } else {
+                start = Long.parseLong(matcher.group(1));
+                if (!matcher.group(2).isEmpty()) {
+                    end = Math.min(end, Long.parseLong(matcher.group(2)));
+                }
+            }
+            if (start >= length || start > end) {
+                response.setStatus(HttpServletResponse.SC_REQUESTED_RANGE_NOT_SATISFIABLE);
+                response.setHeader(HttpHeaders.CONTENT_RANGE, "bytes */" + length);
+                return;
+            }
+            response.setStatus(HttpServletResponse.SC_PARTIAL_CONTENT);
+            response.setHeader(HttpHeaders.CONTENT_RANGE, "bytes " + start + "-" + end + "/" + length);
+        } else {
+            response.setStatus(HttpServletResponse.SC_OK);
+        }
+
+        long count = end - start + 1;
+        response.setContentType(contentType);
+        response.setContentLengthLong(count);
+        if ("HEAD".equals(request.getMethod()) || count == 0) {
+            return;
+        }
+
+        if (Boolean.TRUE.equals(request.getAttribute(SENDFILE_SUPPORT))) {
+            request.setAttribute(SENDFILE_FILENAME, file.toAbsolutePath().toString());
+            request.setAttribute(SENDFILE_START, start);
+            request.setAttribute(SENDFILE_END, end + 1);
+            return; // the connector writes the body after the servlet returns
+        }
+
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            WritableByteChannel out = Channels.newChannel(response.getOutputStream());
+            long position = start;
+            while (count > 0) {
+                long sent = channel.transferTo(position, count, out);
+                if (sent <= 0) {
+                    break; // file shrank underneath us; cannot happen for content-addressed files
+                }
+                position += sent;
+                count -= sent;
+            }
+        }
+    }
+}
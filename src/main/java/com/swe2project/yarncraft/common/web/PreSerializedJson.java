@@ -0,0 +1,83 @@
+package com.swe2project.yarncraft.common.web;
+
+import java.io.ByteArrayOutputStream;
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
+
+import tools.jackson.databind.ObjectMapper;
+
+/**
+ * The JSON bytes of a response payload, serialized once and reused for every request.
+ * <p>
+ * Besides the plain bytes it keeps a raw DEFLATE encoding of them that ends on a byte
+ * boundary without a final block (a sync flush). Back-references in DEFLATE are relative,
+ * so {@link ApiResponseWriter} can splice these blocks between the per-request envelope
+ * bytes and emit a valid gzip stream without compressing the payload again. The CRC-32 of
+ * the plain bytes is kept too, so the gzip trailer is combined from it instead of re-reading them.
+ */
+public final class PreSerializedJson {
+
+    private final byte[] json;
+    private final byte[] deflated;
+    private final long crc32;
+    private final long version;
+
+    private PreSerializedJson(byte[] json, byte[] deflated, long crc32, long version) {
+        this.json = json;
+        this.deflated = deflated;
+        this.crc32 = crc32;
+        this.version = version;
+    }
+
+    /**
+     * @param version identifies the data snapshot this was serialized from
+     */
+    public static PreSerializedJson of(Object data, long version, ObjectMapper objectMapper) {
+        byte[] json = objectMapper.writeValueAsBytes(data);
+        CRC32 crc = new CRC32();
+        crc.update(json);
+        return new PreSerializedJson(json, deflate(json), crc.getValue(), version);
+    }
+
+    public byte[] json() {
+        return json;
+    }
+
+    byte[] deflated() {
+        return deflated;
+    }
+
+    // CRC-32 of json()
+    long crc32() {
+        return crc32;
+    }
+
+    public long version() {
+        return version;
+    }
+
+    /**
+     * Approximate heap footprint, for size-bounded caches.
+     */
+    public int weight() {
+        return 64 + json.length + deflated.length;
+    }
+
+    private static byte[] deflate(byte[] input) {
+        Deflater deflater = new Deflater(Deflater.BEST_COMPRESSION, true); // raw, no zlib header
+        try {
+            deflater.setInput(input);
+            ByteArrayOutputStream out = new ByteArrayOutputStream(Math.max(64, input.length / 4));
+            byte[] buffer = new byte[8192];
+            int written;
+            do {
+                // SYNC_FLUSH drains all input and ends byte-aligned, but never sets BFINAL
+                written = deflater.deflate(buffer, 0, buffer.length, Deflater.SYNC_FLUSH);
+                out.write(buffer, 0, written);
+            } while (written == buffer.length || !deflater.needsInput());
+            return out.toByteArray();
+        } finally {
+            deflater.end();
+        }
+    }
+}
@@ -0,0 +1,134 @@
+package com.swe2project.yarncraft.common.web;
+
+import com.swe2project.yarncraft.aspect.NoExecutionLogging;
+
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpHeaders;
+import org.springframework.stereotype.Component;
+import org.springframework.web.context.request.NativeWebRequest;
+import org.springframework.web.context.request.WebRequest;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Version stamps for conditional GETs (ETag / Last-Modified).
+ * <p>
+ * Writers {@link #touch} the keys of every resource and collection they change; a stamp is
+ * the next value of one global sequence plus the time of the change. A read endpoint asks
+ * {@link #notModified} for the keys it depends on before doing any work: the ETag is the
+ * highest version among them (plus a hash of the URL, query and caller, since one key backs
+ * many list variants), so a matching If-None-Match becomes a 304 without touching the database.
+ * <p>
+ * The tags are weak: the same version is served gzip-encoded or not, and every body carries its
+ * own timestamp, so two responses under one tag are equivalent but never byte-identical.
+ * <p>
+ * Stamps live in memory; the process start is the version and Last-Modified of anything not
+ * written since, and the boot epoch is part of every ETag so tags never survive a restart.
+ * Like the StockLedger this assumes a single application node.
+ */
+@Component
+@NoExecutionLogging
+public class ResourceVersions {
+
+    // Catalog: every product read (lists, search, browse, suggest), one product, one vendor's products
+    public static final String PRODUCTS = "products";
+    // Stock status of any product (facet counts)
+    public static final String STOCK_STATUS = "stock-status";
+    // Inventory: any row, one product's row, one vendor's rows
+    public static final String INVENTORY = "inventory";
+
+    private final String epoch = Long.toString(System.currentTimeMillis(), 36);
+    private final long startedAt = System.currentTimeMillis();
+    private final AtomicLong sequence = new AtomicLong();
+    private final ConcurrentHashMap<String, Stamp> stamps = new ConcurrentHashMap<>();
+
+    public static String product(long productId) {
+        return "product:" + productId;
+    }
+
+    public static String vendorProducts(long vendorId) {
+        return "products:vendor:" + vendorId;
+    }
+
+    public static String inventoryOfProduct(long productId) {
+        return "inventory:product:" + productId;
+    }
+
+    public static String inventoryOfVendor(long vendorId) {
+        return "inventory:vendor:" + vendorId;
+    }
+
+    // ========================================================================
+    // 1. WRITE SIDE
+    // ========================================================================
+
+    public void touch(String... keys) {
+        Stamp stamp = new Stamp(sequence.incrementAndGet(), System.currentTimeMillis());
+        for (String key : keys) {
+            stamps.put(key, stamp);
+        }
+    }
+
+    // ========================================================================
+    // 2. READ SIDE
+    // ========================================================================
+
+    /**
+     * Set ETag and Last-Modified for a response built from {@code keys}, and check the
+     * request's validators against them.
+     *
+     * @return true if the client's copy is current; the response is then already a 304 and
+     * the caller must return without writing a body ({@code null} from a controller)
+     */
+    public boolean notModified(WebRequest request, String... keys) {
+        long version = 0;
+        long lastModified = startedAt;
+        for (String key : keys) {
+            Stamp stamp = stamps.get(key);
+            if (stamp != null) {
+                version = Math.max(version, stamp.version);
+                lastModified = Math.max(lastModified, stamp.at);
+            }
+        }
+        String etag = "W/\"" + epoch + "-" + Long.toString(version, 36) + "-" + Integer.toHexString(variant(request)) + "\"";
+        if (!request.checkNotModified(etag, ceilToSecond(lastModified))) {
+            return false;
+        }
+        // A 200 says this itself (ApiResponseWriter); the 304 must too, or caches would key it
+        // on the URL alone and refresh a gzip entry from an identity validation or vice versa
+        if (request instanceof NativeWebRequest nativeRequest) {
+            HttpServletResponse response = nativeRequest.getNativeResponse(HttpServletResponse.class);
+            if (response != null) {
+                response.addHeader(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+            }
+        }
+        return true;
+    }
+
+    // HTTP dates have whole seconds. Sent as is, the header would be truncated to a time before
+    // the change; rounded up, it never is. Within one second only the ETag tells versions apart.
+    static long ceilToSecond(long epochMillis) {
+        return (epochMillis + 999) / 1000 * 1000;
+    }
+
+    // The same keys back many URLs, queries and per-user views; they must not share a tag
+    private static int variant(WebRequest request) {
+        Map<String, String> parameters = new TreeMap<>();
+        request.getParameterMap().forEach((name, values) -> parameters.put(name, Arrays.toString(values)));
+        return (request.getDescription(false) + "|" + parameters + "|" + request.getRemoteUser()).hashCode();
+    }
+
+    private static final class Stamp {
+        final long version;
+        final long at;
+
+        Stamp(long version, long at) {
+            this.version = version;
+            this.at = at;
+        }
+    }
+}
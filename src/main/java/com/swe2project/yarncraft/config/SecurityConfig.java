@@ -4,6 +4,7 @@ import com.swe2project.yarncraft.security.JwtAuthenticationFilter;
 
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.http.HttpMethod;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.authentication.AuthenticationProvider;
 import org.springframework.security.authentication.dao.DaoAuthenticationProvider;
@@ -46,6 +47,8 @@ public class SecurityConfig {
                                 "/swagger-ui/**",        // Swagger UI HTML
                                 "/swagger-ui.html"       // Swagger Redirect
                         ).permitAll()
+                        // Product images are loaded by <img> tags, which cannot send the token
+                        .requestMatchers(HttpMethod.GET, "/api/products/images/**").permitAll()
 
                         // 2. PRIVATE ZONE: Everything else requires a valid Token
                         .anyRequest().authenticated()
@@ -69,7 +72,8 @@ public class SecurityConfig {
         configuration.setAllowedMethods(Arrays.asList("GET", "POST", "PUT", "DELETE", "OPTIONS"));
 
         // Allow these headers (Crucial for JWT)
-        configuration.setAllowedHeaders(Arrays.asList("Authorization", "Content-Type"));
+        configuration.setAllowedHeaders(Arrays.asList("Authorization", "Content-Type", "Idempotency-Key"));
+        configuration.setExposedHeaders(List.of("Idempotent-Replayed"));
 
         // Allow credentials (Cookies/Tokens)
         configuration.setAllowCredentials(true);
@@ -0,0 +1,175 @@
+package com.swe2project.yarncraft.modules.inventory.alert;
+
+import com.swe2project.yarncraft.aspect.NoExecutionLogging;
+import com.swe2project.yarncraft.modules.inventory.event.StockStatusChangedEvent;
+import com.swe2project.yarncraft.modules.user.entity.User;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Pushes stock status transitions to vendors over Server-Sent Events.
+ * <p>
+ * Every transition the StockLedger publishes is routed to the subscribers of the product's
+ * vendor (admins see all vendors). Each subscriber has a small buffer keyed by product:
+ * repeated transitions of one product between two dispatches collapse into one
+ * (IN_STOCK -> LOW_STOCK -> OUT_OF_STOCK is sent as IN_STOCK -> OUT_OF_STOCK, and a
+ * round trip back to the original status is dropped). When the buffer is full the oldest
+ * product is dropped and the client gets a "resync" event telling it to reload the lists.
+ */
+@Component
+@NoExecutionLogging
+@RequiredArgsConstructor
+@Slf4j
+public class StockAlertHub {
+
+    private static final long ALL_VENDORS = -1L;
+    private static final long HEARTBEAT_MILLIS = 15_000;
+
+    @Value("${yarncraft.inventory.alerts.buffer-size:256}")
+    private int bufferSize;
+
+    @Value("${yarncraft.inventory.alerts.stream-timeout-ms:1800000}")
+    private long streamTimeoutMillis;
+
+    // vendorId (or ALL_VENDORS for admins) -> open streams
+    private final Map<Long, Set<Subscriber>> subscribers = new ConcurrentHashMap<>();
+
+    // ========================================================================
+    // 1. SUBSCRIBE
+    // ========================================================================
+
+    public SseEmitter subscribe(User currentUser) {
+        long key;
+        if (currentUser.isAdmin()) {
+            key = ALL_VENDORS;
+        } else if (currentUser.isApprovedVendor()) {
+            key = currentUser.getId();
+        } else {
+            throw new SecurityException("Only vendors and admins can subscribe to stock alerts");
+        }
+
+        SseEmitter emitter = new SseEmitter(streamTimeoutMillis);
+        Subscriber subscriber = new Subscriber(emitter);
+        Set<Subscriber> group = subscribers.computeIfAbsent(key, k -> ConcurrentHashMap.newKeySet());
+        group.add(subscriber);
+
+        Runnable remove = () -> group.remove(subscriber);
+        emitter.onCompletion(remove);
+        emitter.onTimeout(remove);
+        emitter.onError(error -> remove.run());
+
+        log.info("Stock alert stream opened for {}", currentUser.getEmail());
+        return emitter;
+    }
+
+    // ========================================================================
+    // 2. ROUTE & COALESCE (runs on the ledger's thread, so only buffers)
+    // ========================================================================
+
+    @EventListener
+    public void onStatusChanged(StockStatusChangedEvent event) {
+        buffer(subscribers.get(event.getVendorId()), event);
+        buffer(subscribers.get(ALL_VENDORS), event);
+    }
+
+    private void buffer(Set<Subscriber> group, StockStatusChangedEvent event) {
+        if (group == null) {
+            return;
+        }
+        for (Subscriber subscriber : group) {
+            subscriber.offer(event, bufferSize);
+        }
+    }
+
+    // ========================================================================
+    // 3. DISPATCH
+    // ========================================================================
+
+    @Scheduled(fixedDelayString = "${yarncraft.inventory.alerts.dispatch-ms:250}")
+    public void dispatch() {
+        long now = System.currentTimeMillis();
+        for (Set<Subscriber> group : subscribers.values()) {
+            for (Subscriber subscriber : group) {
+                try {
+                    subscriber.send(now);
+                } catch (IOException | IllegalStateException e) {
+                    group.remove(subscriber); // client went away
+                    subscriber.emitter.completeWithError(e);
+                }
+            }
+        }
+    }
+
+    private static final class Subscriber {
+        final SseEmitter emitter;
+        final LinkedHashMap<Long, StockStatusChangedEvent> pending = new LinkedHashMap<>();
+        boolean overflowed;
+        long lastSentAt = System.currentTimeMillis();
+
+        Subscriber(SseEmitter emitter) {
+            this.emitter = emitter;
+        }
+
+        synchronized void offer(StockStatusChangedEvent event, int capacity) {
+            StockStatusChangedEvent earlier = pending.remove(event.getProductId());
+            StockStatusChangedEvent merged = earlier == null ? event : new StockStatusChangedEvent(
+                    event.getProductId(), event.getVendorId(), earlier.getPreviousStatus(), event.getStatus(),
+                    event.getAvailableStock(), event.getReorderLevel(), event.getOccurredAt());
+            if (merged.getPreviousStatus() == merged.getStatus()) {
+                return; // flapped back to where the client last saw it
+            }
+            pending.put(event.getProductId(), merged);
+
+            if (pending.size() > capacity) {
+                Iterator<Long> eldest = pending.keySet().iterator();
+                eldest.next();
+                eldest.remove();
+                overflowed = true;
+            }
+        }
+
+        void send(long now) throws IOException {
+            List<StockStatusChangedEvent> batch;
+            boolean resync;
+            synchronized (this) {
+                batch = new ArrayList<>(pending.values());
+                pending.clear();
+                resync = overflowed;
+                overflowed = false;
+            }
+
+            if (resync) {
+                emitter.send(SseEmitter.event().name("resync").data("Alert buffer overflowed, reload alerts"));
+            }
+            for (StockStatusChangedEvent event : batch) {
+                emitter.send(SseEmitter.event()
+                        .name("stock-status")
+                        .id(event.getProductId() + "-" + event.getOccurredAt())
+                        .data(event));
+            }
+
+            if (resync || !batch.isEmpty()) {
+                lastSentAt = now;
+            } else if (now - lastSentAt >= HEARTBEAT_MILLIS) {
+                emitter.send(SseEmitter.event().comment("heartbeat"));
+                lastSentAt = now;
+            }
+        }
+    }
+}
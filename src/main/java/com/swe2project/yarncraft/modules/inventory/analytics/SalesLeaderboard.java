@@ -0,0 +1,206 @@
+package com.swe2project.yarncraft.modules.inventory.analytics;
+
+import com.swe2project.yarncraft.aspect.NoExecutionLogging;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Live bestseller boards: one global, one per product Category, one per vendor.
+ * <p>
+ * The StockLedger reports every change of a product's sold counter, so the boards follow
+ * sales as they happen. The ledger also drives {@link #reseed} at startup and every few
+ * minutes (only the top rows of each partition are read), which picks up products that moved
+ * up while a member's count went down. Sales reported while a reseed runs are replayed on
+ * top of it, and boards the reseed finds no rows for are emptied.
+ */
+@Component
+@NoExecutionLogging
+@RequiredArgsConstructor
+@Slf4j
+public class SalesLeaderboard {
+
+    private static final String GLOBAL_SEED_SQL =
+            "SELECT product_id, sold_quantity FROM inventory WHERE is_active AND sold_quantity > 0 " +
+                    "ORDER BY sold_quantity DESC LIMIT ?";
+    private static final String CATEGORY_SEED_SQL =
+            "SELECT product_id, category, sold_quantity FROM (" +
+                    "SELECT i.product_id, p.category, i.sold_quantity, " +
+                    "ROW_NUMBER() OVER (PARTITION BY p.category ORDER BY i.sold_quantity DESC) AS position " +
+                    "FROM inventory i JOIN products p ON p.id = i.product_id " +
+                    "WHERE i.is_active AND i.sold_quantity > 0 AND p.category IS NOT NULL) ranked " +
+                    "WHERE position <= ?";
+    private static final String VENDOR_SEED_SQL =
+            "SELECT product_id, vendor_id, sold_quantity FROM (" +
+                    "SELECT product_id, vendor_id, sold_quantity, " +
+                    "ROW_NUMBER() OVER (PARTITION BY vendor_id ORDER BY sold_quantity DESC) AS position " +
+                    "FROM inventory WHERE is_active AND sold_quantity > 0) ranked " +
+                    "WHERE position <= ?";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Value("${yarncraft.inventory.leaderboard.capacity:200}")
+    private int capacity;
+
+    private volatile TopKBoard global;
+    private final Map<String, TopKBoard> byCategory = new ConcurrentHashMap<>();
+    private final Map<Long, TopKBoard> byVendor = new ConcurrentHashMap<>();
+    private boolean reseeding; // guarded by this
+
+    // ========================================================================
+    // 1. UPDATES (called by StockLedger)
+    // ========================================================================
+
+    /**
+     * A product's sold counter (or active flag) changed.
+     */
+    public void onSold(long productId, long vendorId, String category, boolean active, long sold) {
+        TopKBoard globalBoard = globalBoard();
+        TopKBoard vendorBoard = board(byVendor, vendorId);
+        TopKBoard categoryBoard = category != null ? board(byCategory, category) : null;
+
+        if (active) {
+            globalBoard.offer(productId, sold);
+            vendorBoard.offer(productId, sold);
+            if (categoryBoard != null) categoryBoard.offer(productId, sold);
+        } else {
+            remove(productId, vendorId, category);
+        }
+    }
+
+    public void remove(long productId, long vendorId, String category) {
+        globalBoard().remove(productId);
+        TopKBoard vendorBoard = byVendor.get(vendorId);
+        if (vendorBoard != null) vendorBoard.remove(productId);
+        TopKBoard categoryBoard = category != null ? byCategory.get(category) : null;
+        if (categoryBoard != null) categoryBoard.remove(productId);
+    }
+
+    // ========================================================================
+    // 2. READS
+    // ========================================================================
+
+    /**
+     * Ranked product ids. Board: vendor if vendorId is set, else category if set, else global.
+     */
+    public List<Long> top(Long vendorId, String category, int offset, int limit) {
+        TopKBoard board;
+        if (vendorId != null) {
+            board = byVendor.get(vendorId);
+        } else if (category != null) {
+            board = byCategory.get(category);
+        } else {
+            board = globalBoard();
+        }
+        return board != null ? board.page(offset, limit) : List.of();
+    }
+
+    // ========================================================================
+    // 3. SEEDING
+    // ========================================================================
+
+    /**
+     * Replace every board with the top rows of the inventory table.
+     *
+     * @param flushLedger writes the ledger's unflushed sales to the table; it runs after the
+     *                    boards start recording live sales, so no sale falls between the two
+     */
+    public void reseed(Runnable flushLedger) {
+        synchronized (this) {
+            reseeding = true;
+            globalBoard().beginReplace();
+            byCategory.values().forEach(TopKBoard::beginReplace);
+            byVendor.values().forEach(TopKBoard::beginReplace);
+        }
+        try {
+            flushLedger.run();
+
+            List<TopKBoard.Entry> globalEntries = jdbcTemplate.query(GLOBAL_SEED_SQL,
+                    (rs, rowNum) -> new TopKBoard.Entry(rs.getLong("product_id"), rs.getLong("sold_quantity")),
+                    capacity);
+
+            Map<String, List<TopKBoard.Entry>> categories = new HashMap<>();
+            jdbcTemplate.query(CATEGORY_SEED_SQL, rs -> {
+                categories.computeIfAbsent(rs.getString("category"), c -> new ArrayList<>())
+                        .add(new TopKBoard.Entry(rs.getLong("product_id"), rs.getLong("sold_quantity")));
+            }, capacity);
+
+            Map<Long, List<TopKBoard.Entry>> vendors = new HashMap<>();
+            jdbcTemplate.query(VENDOR_SEED_SQL, rs -> {
+                vendors.computeIfAbsent(rs.getLong("vendor_id"), v -> new ArrayList<>())
+                        .add(new TopKBoard.Entry(rs.getLong("product_id"), rs.getLong("sold_quantity")));
+            }, capacity);
+
+            synchronized (this) {
+                globalBoard().replaceAll(globalEntries);
+                replaceAll(byCategory, categories);
+                replaceAll(byVendor, vendors);
+                reseeding = false;
+            }
+            log.info("Sales leaderboard seeded: {} global, {} categories, {} vendors",
+                    globalEntries.size(), categories.size(), vendors.size());
+        } catch (RuntimeException e) {
+            // The boards keep their live scores; the next reseed corrects them
+            synchronized (this) {
+                reseeding = false;
+                globalBoard().cancelReplace();
+                byCategory.values().forEach(TopKBoard::cancelReplace);
+                byVendor.values().forEach(TopKBoard::cancelReplace);
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * Boards missing from the seed have no active product with sales left, so they are emptied.
+     */
+    private <K> void replaceAll(Map<K, TopKBoard> boards, Map<K, List<TopKBoard.Entry>> seed) {
+        seed.keySet().forEach(key -> boards.computeIfAbsent(key, k -> new TopKBoard(capacity)));
+        boards.forEach((key, board) -> board.replaceAll(seed.getOrDefault(key, List.of())));
+    }
+
+    /**
+     * Boards are created under the monitor, so a board created while a reseed runs starts
+     * recording before the reseed replaces it.
+     */
+    private <K> TopKBoard board(Map<K, TopKBoard> boards, K key) {
+        TopKBoard board = boards.get(key);
+        if (board != null) {
+            return board;
+        }
+        synchronized (this) {
+            return boards.computeIfAbsent(key, k -> newBoard());
+        }
+    }
+
+    private TopKBoard newBoard() {
+        TopKBoard board = new TopKBoard(capacity);
+        if (reseeding) {
+            board.beginReplace();
+        }
+        return board;
+    }
+
+    private TopKBoard globalBoard() {
+        TopKBoard board = global;
+        if (board == null) {
+            synchronized (this) {
+                if (global == null) {
+                    global = newBoard();
+                }
+                board = global;
+            }
+        }
+        return board;
+    }
+}
@@ -0,0 +1,152 @@
+package com.swe2project.yarncraft.modules.inventory.analytics;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Bounded "top K by score" set of product ids.
+ * <p>
+ * Holds at most {@code capacity} entries ordered by score (desc), then product id.
+ * Offers that cannot make the board are rejected without taking the lock, which is the
+ * common case for a sale of a product outside the top K.
+ * <p>
+ * Only members are tracked, so when a member's score drops, a non-member that now ranks
+ * higher is not noticed until the next reseed; keep some slack above the K that is served.
+ * <p>
+ * A reseed reads scores that may be older than the live ones, so between
+ * {@link #beginReplace()} and {@link #replaceAll} every offer and removal is also recorded
+ * and replayed on top of the seeded entries.
+ */
+public class TopKBoard {
+
+    private static final Comparator<Entry> RANKING = Comparator
+            .comparingLong((Entry entry) -> entry.score).reversed()
+            .thenComparingLong(entry -> entry.productId);
+
+    private final int capacity;
+    private final TreeSet<Entry> ranked = new TreeSet<>(RANKING);
+    private final ConcurrentHashMap<Long, Entry> members = new ConcurrentHashMap<>();
+    private volatile long floor = -1; // lowest score on a full board, -1 while there is room
+    private Map<Long, Long> sinceBegin;  // live scores during a reseed (0 = removed), null otherwise
+    private volatile boolean recording;
+
+    public TopKBoard(int capacity) {
+        this.capacity = capacity;
+    }
+
+    public void offer(long productId, long score) {
+        if (score <= floor && !recording && !members.containsKey(productId)) {
+            return; // would not make the board
+        }
+        synchronized (this) {
+            if (sinceBegin != null) {
+                sinceBegin.put(productId, score);
+            }
+            put(productId, score);
+            updateFloor();
+        }
+    }
+
+    public synchronized void remove(long productId) {
+        if (sinceBegin != null) {
+            sinceBegin.put(productId, 0L);
+        }
+        Entry previous = members.remove(productId);
+        if (previous != null) {
+            ranked.remove(previous);
+            updateFloor();
+        }
+    }
+
+    /**
+     * Start recording live changes for the next {@link #replaceAll}. Idempotent.
+     */
+    public synchronized void beginReplace() {
+        if (sinceBegin == null) {
+            sinceBegin = new HashMap<>();
+            recording = true;
+        }
+    }
+
+    /**
+     * Stop recording without replacing anything (the reseed failed).
+     */
+    public synchronized void cancelReplace() {
+        sinceBegin = null;
+        recording = false;
+    }
+
+    /**
+     * Replace the whole board (reseed from the database), then replay what changed
+     * since {@link #beginReplace()}, if it was called.
+     */
+    public synchronized void replaceAll(List<Entry> entries) {
+        ranked.clear();
+        members.clear();
+        for (Entry entry : entries) {
+            if (entry.score > 0) {
+                ranked.add(entry);
+                members.put(entry.productId, entry);
+            }
+        }
+        while (ranked.size() > capacity) {
+            members.remove(ranked.pollLast().productId);
+        }
+        if (sinceBegin != null) {
+            sinceBegin.forEach(this::put);
+            sinceBegin = null;
+            recording = false;
+        }
+        updateFloor();
+    }
+
+    /**
+     * Product ids ranked {@code offset} .. {@code offset + limit - 1}.
+     */
+    public synchronized List<Long> page(int offset, int limit) {
+        List<Long> page = new ArrayList<>(limit);
+        Iterator<Entry> iterator = ranked.iterator();
+        for (int i = 0; iterator.hasNext() && page.size() < limit; i++) {
+            Entry entry = iterator.next();
+            if (i >= offset) {
+                page.add(entry.productId);
+            }
+        }
+        return page;
+    }
+
+    private void put(long productId, long score) {
+        Entry previous = members.remove(productId);
+        if (previous != null) {
+            ranked.remove(previous);
+        }
+        if (score > 0) {
+            Entry entry = new Entry(productId, score);
+            ranked.add(entry);
+            members.put(productId, entry);
+            if (ranked.size() > capacity) {
+                members.remove(ranked.pollLast().productId);
+            }
+        }
+    }
+
+    private void updateFloor() {
+        floor = ranked.size() < capacity ? -1 : ranked.last().score;
+    }
+
+    public static final class Entry {
+        final long productId;
+        final long score;
+
+        public Entry(long productId, long score) {
+            this.productId = productId;
+            this.score = score;
+        }
+    }
+}
@@ -1,21 +1,39 @@
 package com.swe2project.yarncraft.modules.inventory.controller;
 
 import com.swe2project.yarncraft.common.dto.ApiResponse;
+import com.swe2project.yarncraft.common.dto.CursorPage;
 import com.swe2project.yarncraft.common.exception.ResourceNotFoundException;
+import com.swe2project.yarncraft.common.web.ResourceVersions;
+import com.swe2project.yarncraft.modules.inventory.alert.StockAlertHub;
+import com.swe2project.yarncraft.modules.inventory.dto.InventoryPageRequest;
+import com.swe2project.yarncraft.modules.inventory.dto.ReservationRequest;
+import com.swe2project.yarncraft.modules.inventory.dto.ReservationResponse;
+import com.swe2project.yarncraft.modules.inventory.dto.StockMovementPage;
 import com.swe2project.yarncraft.modules.inventory.entity.InventoryItem;
 import com.swe2project.yarncraft.modules.inventory.entity.InventoryItem.StockStatus;
+import com.swe2project.yarncraft.modules.inventory.service.BulkStockService;
 import com.swe2project.yarncraft.modules.inventory.service.InventoryService;
+import com.swe2project.yarncraft.modules.inventory.service.ReservationService;
+import com.swe2project.yarncraft.modules.inventory.service.StockMovementService;
+import com.swe2project.yarncraft.modules.product.entity.Category;
 import com.swe2project.yarncraft.modules.user.entity.User;
 import com.swe2project.yarncraft.modules.user.repository.UserRepository;
 
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.Authentication;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Map;
 
+import jakarta.servlet.http.HttpServletRequest;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 
@@ -26,7 +44,12 @@ import lombok.extern.slf4j.Slf4j;
 public class InventoryController {
 
     private final InventoryService inventoryService;
+    private final ReservationService reservationService;
+    private final StockMovementService stockMovementService;
+    private final BulkStockService bulkStockService;
+    private final StockAlertHub stockAlertHub;
     private final UserRepository userRepository;
+    private final ResourceVersions resourceVersions;
 
     // ==================== HELPER METHOD ====================
 
@@ -67,18 +90,29 @@ public class InventoryController {
     }
 
     // ==================== READ ENDPOINTS ====================
+    // Lists are keyset-paginated: ?sort=&direction=&size=, then ?cursor=<nextCursor> for the next page.
+    // Reads carry ETag/Last-Modified; a matching If-None-Match is a 304 before any lookup (even the user's).
 
     @GetMapping
-    public ResponseEntity<ApiResponse<List<InventoryItem>>> getAllInventory(Authentication authentication) {
+    public ResponseEntity<ApiResponse<List<InventoryItem>>> getAllInventory(
+            InventoryPageRequest page,
+            Authentication authentication,
+            WebRequest webRequest) {
+        if (resourceVersions.notModified(webRequest, ResourceVersions.INVENTORY)) {
+            return null;
+        }
         User currentUser = getCurrentUser(authentication);
-        return ResponseEntity.ok(ApiResponse.success(
-                inventoryService.getAllInventory(currentUser),
+        return ResponseEntity.ok(ApiResponse.page(
+                inventoryService.getAllInventory(currentUser, page),
                 "Inventory fetched successfully"
         ));
     }
 
     @GetMapping("/{id}")
-    public ResponseEntity<ApiResponse<InventoryItem>> getInventoryById(@PathVariable Long id) {
+    public ResponseEntity<ApiResponse<InventoryItem>> getInventoryById(@PathVariable Long id, WebRequest webRequest) {
+        if (resourceVersions.notModified(webRequest, ResourceVersions.INVENTORY)) {
+            return null;
+        }
         return ResponseEntity.ok(ApiResponse.success(
                 inventoryService.getInventoryById(id),
                 "Inventory item fetched successfully"
@@ -86,7 +120,11 @@ public class InventoryController {
     }
 
     @GetMapping("/product/{productId}")
-    public ResponseEntity<ApiResponse<InventoryItem>> getInventoryByProduct(@PathVariable Long productId) {
+    public ResponseEntity<ApiResponse<InventoryItem>> getInventoryByProduct(@PathVariable Long productId,
+                                                                            WebRequest webRequest) {
+        if (resourceVersions.notModified(webRequest, ResourceVersions.inventoryOfProduct(productId))) {
+            return null;
+        }
         return ResponseEntity.ok(ApiResponse.success(
                 inventoryService.getInventoryByProductId(productId),
                 "Inventory for product fetched successfully"
@@ -96,35 +134,56 @@ public class InventoryController {
     @GetMapping("/vendor/{vendorId}")
     public ResponseEntity<ApiResponse<List<InventoryItem>>> getVendorInventory(
             @PathVariable Long vendorId,
-            Authentication authentication) {
+            InventoryPageRequest page,
+            Authentication authentication,
+            WebRequest webRequest) {
 
+        if (resourceVersions.notModified(webRequest, ResourceVersions.inventoryOfVendor(vendorId))) {
+            return null;
+        }
         User currentUser = getCurrentUser(authentication);
-        return ResponseEntity.ok(ApiResponse.success(
-                inventoryService.getVendorInventory(vendorId, currentUser),
+        return ResponseEntity.ok(ApiResponse.page(
+                inventoryService.getVendorInventory(vendorId, currentUser, page),
                 "Vendor inventory fetched successfully"
         ));
     }
 
     @GetMapping("/active")
-    public ResponseEntity<ApiResponse<List<InventoryItem>>> getActiveInventory() {
-        return ResponseEntity.ok(ApiResponse.success(
-                inventoryService.getActiveInventory(),
+    public ResponseEntity<ApiResponse<List<InventoryItem>>> getActiveInventory(InventoryPageRequest page,
+                                                                               WebRequest webRequest) {
+        if (resourceVersions.notModified(webRequest, ResourceVersions.INVENTORY)) {
+            return null;
+        }
+        return ResponseEntity.ok(ApiResponse.page(
+                inventoryService.getActiveInventory(page),
                 "Active inventory fetched successfully"
         ));
     }
 
     @GetMapping("/category/{category}")
-    public ResponseEntity<ApiResponse<List<InventoryItem>>> getInventoryByCategory(@PathVariable String category) {
-        return ResponseEntity.ok(ApiResponse.success(
-                inventoryService.getInventoryByCategory(category),
+    public ResponseEntity<ApiResponse<List<InventoryItem>>> getInventoryByCategory(
+            @PathVariable String category,
+            InventoryPageRequest page,
+            WebRequest webRequest) {
+        if (resourceVersions.notModified(webRequest, ResourceVersions.INVENTORY)) {
+            return null;
+        }
+        return ResponseEntity.ok(ApiResponse.page(
+                inventoryService.getInventoryByCategory(category, page),
                 "Inventory by category fetched successfully"
         ));
     }
 
     @GetMapping("/search")
-    public ResponseEntity<ApiResponse<List<InventoryItem>>> searchInventory(@RequestParam String q) {
-        return ResponseEntity.ok(ApiResponse.success(
-                inventoryService.searchInventory(q),
+    public ResponseEntity<ApiResponse<List<InventoryItem>>> searchInventory(
+            @RequestParam String q,
+            InventoryPageRequest page,
+            WebRequest webRequest) {
+        if (resourceVersions.notModified(webRequest, ResourceVersions.INVENTORY)) {
+            return null;
+        }
+        return ResponseEntity.ok(ApiResponse.page(
+                inventoryService.searchInventory(q, page),
                 "Search results fetched successfully"
         ));
     }
@@ -134,11 +193,16 @@ public class InventoryController {
             @RequestParam(required = false) String name,
             @RequestParam(required = false) String category,
             @RequestParam(required = false) Long vendorId,
-            Authentication authentication) {
+            InventoryPageRequest page,
+            Authentication authentication,
+            WebRequest webRequest) {
 
+        if (resourceVersions.notModified(webRequest, ResourceVersions.INVENTORY)) {
+            return null;
+        }
         User currentUser = getCurrentUser(authentication);
-        return ResponseEntity.ok(ApiResponse.success(
-                inventoryService.searchInventoryAdvanced(name, category, vendorId, currentUser),
+        return ResponseEntity.ok(ApiResponse.page(
+                inventoryService.searchInventoryAdvanced(name, category, vendorId, currentUser, page),
                 "Advanced search results fetched successfully"
         ));
     }
@@ -148,8 +212,12 @@ public class InventoryController {
     @GetMapping("/check/{productId}")
     public ResponseEntity<ApiResponse<Map<String, Object>>> checkStock(
             @PathVariable Long productId,
-            @RequestParam Integer quantity) {
+            @RequestParam Integer quantity,
+            WebRequest webRequest) {
 
+        if (resourceVersions.notModified(webRequest, ResourceVersions.inventoryOfProduct(productId))) {
+            return null;
+        }
         boolean hasStock = inventoryService.checkStock(productId, quantity);
         return ResponseEntity.ok(ApiResponse.success(
                 Map.of(
@@ -162,7 +230,11 @@ public class InventoryController {
     }
 
     @GetMapping("/available/{productId}")
-    public ResponseEntity<ApiResponse<Map<String, Object>>> getAvailableStock(@PathVariable Long productId) {
+    public ResponseEntity<ApiResponse<Map<String, Object>>> getAvailableStock(@PathVariable Long productId,
+                                                                              WebRequest webRequest) {
+        if (resourceVersions.notModified(webRequest, ResourceVersions.inventoryOfProduct(productId))) {
+            return null;
+        }
         Integer stock = inventoryService.getAvailableStock(productId);
         return ResponseEntity.ok(ApiResponse.success(
                 Map.of("productId", productId, "availableStock", stock),
@@ -193,22 +265,150 @@ public class InventoryController {
         return ResponseEntity.ok(ApiResponse.success(updated, "Stock adjusted manually"));
     }
 
+    /**
+     * Bulk restock/adjust. Body: NDJSON (application/x-ndjson) or CSV (text/csv), one operation per line.
+     * The upload is parsed as it arrives and one NDJSON result per line is streamed back.
+     */
+    @PostMapping(value = "/bulk", consumes = {"application/x-ndjson", "text/csv"}, produces = "application/x-ndjson")
+    public ResponseEntity<StreamingResponseBody> bulkStock(
+            HttpServletRequest request,
+            Authentication authentication) {
+
+        User currentUser = getCurrentUser(authentication);
+        if (!currentUser.canManageInventory()) {
+            throw new SecurityException("You don't have permission to modify inventory");
+        }
+
+        BulkStockService.Format format = MediaType.parseMediaType(request.getContentType())
+                .isCompatibleWith(MediaType.parseMediaType("text/csv"))
+                ? BulkStockService.Format.CSV
+                : BulkStockService.Format.NDJSON;
+
+        StreamingResponseBody body = out -> bulkStockService.process(request.getInputStream(), format, currentUser, out);
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType("application/x-ndjson"))
+                .body(body);
+    }
+
+    @PutMapping("/hot-sku/{productId}")
+    public ResponseEntity<ApiResponse<InventoryItem>> setHotSku(
+            @PathVariable Long productId,
+            @RequestParam boolean enabled,
+            Authentication authentication) {
+
+        User currentUser = getCurrentUser(authentication);
+        InventoryItem updated = inventoryService.setHotSku(productId, enabled, currentUser);
+        return ResponseEntity.ok(ApiResponse.success(updated,
+                enabled ? "Hot-SKU mode enabled" : "Hot-SKU mode disabled"));
+    }
+
+    // ==================== STOCK MOVEMENTS ====================
+
+    @GetMapping("/movements/product/{productId}")
+    public ResponseEntity<ApiResponse<StockMovementPage>> getProductMovements(
+            @PathVariable Long productId,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+            @RequestParam(required = false) Long beforeId,
+            @RequestParam(required = false) Integer size,
+            Authentication authentication) {
+
+        User currentUser = getCurrentUser(authentication);
+        return ResponseEntity.ok(ApiResponse.success(
+                stockMovementService.getProductMovements(productId, from, to, beforeId, size, currentUser),
+                "Stock movements fetched successfully"
+        ));
+    }
+
+    @GetMapping("/movements/vendor/{vendorId}")
+    public ResponseEntity<ApiResponse<StockMovementPage>> getVendorMovements(
+            @PathVariable Long vendorId,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+            @RequestParam(required = false) Long beforeId,
+            @RequestParam(required = false) Integer size,
+            Authentication authentication) {
+
+        User currentUser = getCurrentUser(authentication);
+        return ResponseEntity.ok(ApiResponse.success(
+                stockMovementService.getVendorMovements(vendorId, from, to, beforeId, size, currentUser),
+                "Vendor stock movements fetched successfully"
+        ));
+    }
+
+    @GetMapping("/movements/product/{productId}/rebuild")
+    public ResponseEntity<ApiResponse<Map<String, Object>>> rebuildFromMovements(
+            @PathVariable Long productId,
+            Authentication authentication) {
+
+        User currentUser = getCurrentUser(authentication);
+        return ResponseEntity.ok(ApiResponse.success(
+                stockMovementService.rebuildLevels(productId, currentUser),
+                "Stock rebuilt from snapshot and movements"
+        ));
+    }
+
+    // ==================== RESERVATIONS ====================
+
+    @PostMapping("/reservations")
+    public ResponseEntity<ApiResponse<ReservationResponse>> reserveStock(
+            @RequestBody ReservationRequest request,
+            Authentication authentication) {
+
+        User currentUser = getCurrentUser(authentication);
+        ReservationResponse reservation = reservationService.reserve(request, currentUser.getEmail());
+        return ResponseEntity.status(HttpStatus.CREATED)
+                .body(ApiResponse.success(reservation, "Stock reserved until " + reservation.getExpiresAt()));
+    }
+
+    @DeleteMapping("/reservations/{reservationId}")
+    public ResponseEntity<ApiResponse<String>> releaseReservation(
+            @PathVariable String reservationId,
+            Authentication authentication) {
+
+        User currentUser = getCurrentUser(authentication);
+        reservationService.release(reservationId, currentUser.getEmail());
+        return ResponseEntity.ok(ApiResponse.success("Reservation released", "Success"));
+    }
+
     // ==================== MONITORING & ALERTS ====================
 
     @GetMapping("/alerts/low-stock")
-    public ResponseEntity<ApiResponse<List<InventoryItem>>> getLowStockItems(Authentication authentication) {
+    public ResponseEntity<ApiResponse<List<InventoryItem>>> getLowStockItems(
+            InventoryPageRequest page,
+            Authentication authentication,
+            WebRequest webRequest) {
+        if (resourceVersions.notModified(webRequest, ResourceVersions.INVENTORY)) {
+            return null;
+        }
         User currentUser = getCurrentUser(authentication);
-        return ResponseEntity.ok(ApiResponse.success(
-                inventoryService.getLowStockItems(currentUser),
+        return ResponseEntity.ok(ApiResponse.page(
+                inventoryService.getLowStockItems(currentUser, page),
                 "Low stock alerts retrieved"
         ));
     }
 
+    /**
+     * Server-Sent Events: one "stock-status" event per status change of the caller's products
+     * (all products for admins). Use the two endpoints around this one for the initial state.
+     */
+    @GetMapping(value = "/alerts/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter streamStockAlerts(Authentication authentication) {
+        User currentUser = getCurrentUser(authentication);
+        return stockAlertHub.subscribe(currentUser);
+    }
+
     @GetMapping("/alerts/out-of-stock")
-    public ResponseEntity<ApiResponse<List<InventoryItem>>> getOutOfStockItems(Authentication authentication) {
+    public ResponseEntity<ApiResponse<List<InventoryItem>>> getOutOfStockItems(
+            InventoryPageRequest page,
+            Authentication authentication,
+            WebRequest webRequest) {
+        if (resourceVersions.notModified(webRequest, ResourceVersions.INVENTORY)) {
+            return null;
+        }
         User currentUser = getCurrentUser(authentication);
-        return ResponseEntity.ok(ApiResponse.success(
-                inventoryService.getOutOfStockItems(currentUser),
+        return ResponseEntity.ok(ApiResponse.page(
+                inventoryService.getOutOfStockItems(currentUser, page),
                 "Out of stock alerts retrieved"
         ));
     }
@@ -216,11 +416,16 @@ public class InventoryController {
     @GetMapping("/status/{status}")
     public ResponseEntity<ApiResponse<List<InventoryItem>>> getInventoryByStatus(
             @PathVariable StockStatus status,
-            Authentication authentication) {
+            InventoryPageRequest page,
+            Authentication authentication,
+            WebRequest webRequest) {
 
+        if (resourceVersions.notModified(webRequest, ResourceVersions.INVENTORY)) {
+            return null;
+        }
         User currentUser = getCurrentUser(authentication);
-        return ResponseEntity.ok(ApiResponse.success(
-                inventoryService.getInventoryByStatus(status, currentUser),
+        return ResponseEntity.ok(ApiResponse.page(
+                inventoryService.getInventoryByStatus(status, currentUser, page),
                 "Inventory items by status retrieved"
         ));
     }
@@ -254,10 +459,16 @@ public class InventoryController {
     }
 
     @GetMapping("/analytics/top-selling")
-    public ResponseEntity<ApiResponse<List<InventoryItem>>> getTopSellingProducts(Authentication authentication) {
+    public ResponseEntity<ApiResponse<List<InventoryItem>>> getTopSellingProducts(
+            @RequestParam(defaultValue = "10") int k,
+            @RequestParam(required = false) Category category,
+            @RequestParam(required = false) Long vendorId,
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "20") int size,
+            Authentication authentication) {
         User currentUser = getCurrentUser(authentication);
         return ResponseEntity.ok(ApiResponse.success(
-                inventoryService.getTopSellingProducts(currentUser),
+                inventoryService.getTopSellingProducts(k, category, vendorId, page, size, currentUser),
                 "Top selling products retrieved"
         ));
     }
@@ -327,14 +538,15 @@ public class InventoryController {
 
     @GetMapping("/my-inventory")
     public ResponseEntity<ApiResponse<List<InventoryItem>>> getMyInventory(
+            InventoryPageRequest page,
             Authentication authentication) {
 
         User currentUser = getCurrentUser(authentication);
 
-        // This relies on inventoryService.getVendorInventory(vendorId, currentUser)
+        // This relies on inventoryService.getVendorInventory(vendorId, currentUser, page)
         // which already handles the security check (if the user is the vendor or admin)
-        List<InventoryItem> inventoryItems = inventoryService.getVendorInventory(currentUser.getId(), currentUser);
+        CursorPage<InventoryItem> inventoryItems = inventoryService.getVendorInventory(currentUser.getId(), currentUser, page);
 
-        return ResponseEntity.ok(ApiResponse.success(inventoryItems, "My inventory list retrieved successfully"));
+        return ResponseEntity.ok(ApiResponse.page(inventoryItems, "My inventory list retrieved successfully"));
     }
 }
\ No newline at end of file
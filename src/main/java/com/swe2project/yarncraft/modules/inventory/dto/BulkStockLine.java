@@ -0,0 +1,21 @@
+package com.swe2project.yarncraft.modules.inventory.dto;
+
+import lombok.Data;
+
+/**
+ * One line of a bulk stock upload.
+ * NDJSON: {"op":"RESTOCK","productId":42,"quantity":10}
+ * CSV:    op,productId,quantity[,reason]   (a header line starting with "op" is skipped)
+ */
+@Data
+public class BulkStockLine {
+    private Operation op;
+    private Long productId;
+    private Integer quantity;   // RESTOCK: units to add, ADJUST: counted stock
+    private String reason;      // ADJUST only
+
+    public enum Operation {
+        RESTOCK,
+        ADJUST      // Admin only, like PUT /adjust/{productId}
+    }
+}
@@ -0,0 +1,21 @@
+package com.swe2project.yarncraft.modules.inventory.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+import lombok.Builder;
+import lombok.Data;
+
+/**
+ * Outcome of one bulk line, streamed back as one NDJSON line in input order.
+ */
+@Data
+@Builder
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class BulkStockResult {
+    private long line;
+    private Long productId;
+    private boolean success;
+    private Integer stockQuantity;
+    private Integer availableStock;
+    private String error;
+}
@@ -0,0 +1,18 @@
+package com.swe2project.yarncraft.modules.inventory.dto;
+
+import org.springframework.data.domain.Sort;
+
+import lombok.Data;
+
+/**
+ * Query parameters shared by the inventory list endpoints:
+ * {@code ?sort=NAME&direction=ASC&size=50&cursor=...}. Leave {@code cursor} out for the first page.
+ */
+@Data
+public class InventoryPageRequest {
+
+    private InventorySort sort = InventorySort.ID;
+    private Sort.Direction direction = Sort.Direction.ASC;
+    private Integer size;
+    private String cursor;
+}
@@ -0,0 +1,51 @@
+package com.swe2project.yarncraft.modules.inventory.dto;
+
+import com.swe2project.yarncraft.modules.inventory.entity.InventoryItem;
+
+import java.time.LocalDateTime;
+import java.util.function.Function;
+
+/**
+ * Sort keys the inventory lists can seek on. Every key is a non-null column and the
+ * id is always the tie-breaker, so (key, id) is unique and pages never skip or repeat rows.
+ * Stock and sold are ledger columns: InventoryService flushes the ledger before it seeks on them.
+ */
+public enum InventorySort {
+    ID("id", InventoryItem::getId, Long::valueOf, false),
+    NAME("productName", InventoryItem::getProductName, value -> value, false),
+    STOCK("stockQuantity", InventoryItem::getStockQuantity, Integer::valueOf, true),
+    SOLD("soldQuantity", InventoryItem::getSoldQuantity, Integer::valueOf, true),
+    UPDATED("updatedAt", InventoryItem::getUpdatedAt, LocalDateTime::parse, false);
+
+    private final String property;
+    private final Function<InventoryItem, Comparable<?>> extractor;
+    private final Function<String, Comparable<?>> parser;
+    private final boolean ledgerColumn;
+
+    InventorySort(String property, Function<InventoryItem, Comparable<?>> extractor,
+                  Function<String, Comparable<?>> parser, boolean ledgerColumn) {
+        this.property = property;
+        this.extractor = extractor;
+        this.parser = parser;
+        this.ledgerColumn = ledgerColumn;
+    }
+
+    public String getProperty() {
+        return property;
+    }
+
+    /**
+     * Whether the column is written behind by the StockLedger.
+     */
+    public boolean isLedgerColumn() {
+        return ledgerColumn;
+    }
+
+    public String format(InventoryItem item) {
+        return String.valueOf(extractor.apply(item));
+    }
+
+    public Comparable<?> parse(String value) {
+        return parser.apply(value);
+    }
+}
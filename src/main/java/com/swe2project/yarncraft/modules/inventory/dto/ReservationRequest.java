@@ -0,0 +1,19 @@
+package com.swe2project.yarncraft.modules.inventory.dto;
+
+import java.util.List;
+
+import lombok.Data;
+
+@Data
+public class ReservationRequest {
+    private List<Line> items;
+
+    // Optional, defaults to the configured TTL
+    private Integer ttlSeconds;
+
+    @Data
+    public static class Line {
+        private Long productId;
+        private int quantity;
+    }
+}
@@ -0,0 +1,15 @@
+package com.swe2project.yarncraft.modules.inventory.dto;
+
+import java.time.LocalDateTime;
+import java.util.Map;
+
+import lombok.Builder;
+import lombok.Data;
+
+@Data
+@Builder
+public class ReservationResponse {
+    private String reservationId;
+    private Map<Long, Integer> items; // productId -> quantity
+    private LocalDateTime expiresAt;
+}
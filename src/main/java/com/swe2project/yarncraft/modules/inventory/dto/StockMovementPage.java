@@ -0,0 +1,19 @@
+package com.swe2project.yarncraft.modules.inventory.dto;
+
+import com.swe2project.yarncraft.modules.inventory.entity.StockMovement;
+
+import java.util.List;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+/**
+ * One page of stock movements, newest first.
+ * Pass {@code nextBeforeId} back as {@code beforeId} to get the next page; null means this was the last one.
+ */
+@Data
+@AllArgsConstructor
+public class StockMovementPage {
+    private List<StockMovement> items;
+    private Long nextBeforeId;
+}
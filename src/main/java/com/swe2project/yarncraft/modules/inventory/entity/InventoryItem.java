@@ -20,7 +20,11 @@ import lombok.NoArgsConstructor;
 @Table(name = "inventory", indexes = {
         @Index(name = "idx_product_id", columnList = "product_id"),
         @Index(name = "idx_vendor_id", columnList = "vendor_id"),
-        @Index(name = "idx_status", columnList = "status")
+        @Index(name = "idx_status", columnList = "status"),
+        @Index(name = "idx_sold_quantity", columnList = "sold_quantity"),
+        @Index(name = "idx_product_name", columnList = "product_name"),
+        @Index(name = "idx_product_category", columnList = "product_category"),
+        @Index(name = "idx_updated_at", columnList = "updated_at")
 })
 @Data
 @NoArgsConstructor
@@ -46,15 +50,17 @@ public class InventoryItem {
     private String productCategory;
 
     // Stock Management
-    @Column(name = "stock_quantity", nullable = false)
+    // After the initial insert these counters are owned by the StockLedger,
+    // which writes them back in batches, so JPA never updates them.
+    @Column(name = "stock_quantity", nullable = false, updatable = false)
     @Builder.Default
     private Integer stockQuantity = 0;
 
-    @Column(name = "reserved_quantity", nullable = false)
+    @Column(name = "reserved_quantity", nullable = false, updatable = false)
     @Builder.Default
     private Integer reservedQuantity = 0;
 
-    @Column(name = "sold_quantity", nullable = false)
+    @Column(name = "sold_quantity", nullable = false, updatable = false)
     @Builder.Default
     private Integer soldQuantity = 0;
 
@@ -100,6 +106,11 @@ public class InventoryItem {
     @Builder.Default
     private Boolean requiresApproval = false;
 
+    // Flash-sale mode: sales are served from in-memory stock shards (see HotStockShards)
+    @Column(name = "is_hot_sku", nullable = false)
+    @Builder.Default
+    private Boolean isHotSku = false;
+
     // Audit Fields - Who made changes
     @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "created_by")
@@ -167,21 +178,28 @@ public class InventoryItem {
      * Automatically updates stock status based on current quantities
      */
     public void updateStockStatus() {
-        if (!isActive) {
-            this.status = StockStatus.DISCONTINUED;
-            return;
+        this.status = statusFor(isActive, stockQuantity, reservedQuantity, reorderLevel);
+    }
+
+    /**
+     * The status rule itself, shared with the StockLedger (which tracks transitions
+     * without loading the entity) and mirrored by its flush SQL.
+     */
+    public static StockStatus statusFor(boolean active, int stockQuantity, int reservedQuantity, int reorderLevel) {
+        if (!active) {
+            return StockStatus.DISCONTINUED;
         }
 
-        int availableStock = getAvailableStock();
+        int availableStock = Math.max(0, stockQuantity - reservedQuantity);
 
         if (availableStock == 0 && reservedQuantity > 0) {
-            this.status = StockStatus.RESERVED;
+            return StockStatus.RESERVED;
         } else if (availableStock == 0) {
-            this.status = StockStatus.OUT_OF_STOCK;
+            return StockStatus.OUT_OF_STOCK;
         } else if (availableStock <= reorderLevel) {
-            this.status = StockStatus.LOW_STOCK;
+            return StockStatus.LOW_STOCK;
         } else {
-            this.status = StockStatus.IN_STOCK;
+            return StockStatus.IN_STOCK;
         }
     }
 
@@ -0,0 +1,82 @@
+package com.swe2project.yarncraft.modules.inventory.entity;
+
+import java.time.LocalDateTime;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * One stock movement, append-only. Every change the StockLedger makes to a product's
+ * counters produces exactly one row, carrying the deltas and the resulting levels.
+ * Rows are inserted in JDBC batches by StockMovementLog; JPA is only used to read them.
+ */
+@Entity
+@Table(name = "stock_movements", indexes = {
+        @Index(name = "idx_movement_product", columnList = "product_id, id"),
+        @Index(name = "idx_movement_vendor", columnList = "vendor_id, id"),
+        @Index(name = "idx_movement_created_at", columnList = "created_at")
+})
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class StockMovement {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "product_id", nullable = false)
+    private Long productId;
+
+    // Copied from the inventory row at insert time, so vendor queries need no join
+    @Column(name = "vendor_id", nullable = false)
+    private Long vendorId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "movement_type", nullable = false, length = 20)
+    private MovementType movementType;
+
+    // Signed changes
+    @Column(name = "stock_delta", nullable = false)
+    private Integer stockDelta;
+
+    @Column(name = "reserved_delta", nullable = false)
+    private Integer reservedDelta;
+
+    @Column(name = "sold_delta", nullable = false)
+    private Integer soldDelta;
+
+    // Levels right after this movement
+    @Column(name = "stock_after", nullable = false)
+    private Integer stockAfter;
+
+    @Column(name = "reserved_after", nullable = false)
+    private Integer reservedAfter;
+
+    @Column(name = "sold_after", nullable = false)
+    private Integer soldAfter;
+
+    // Email of the user who caused it, or "system" for scheduled jobs
+    @Column(name = "actor", nullable = false)
+    private String actor;
+
+    @Column(name = "reason", length = 500)
+    private String reason;
+
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt;
+
+    public enum MovementType {
+        RESTOCK,         // Vendor added stock
+        SALE,            // Sold straight from available stock
+        SALE_REVERSAL,   // Sale undone (order rolled back)
+        RESERVE,         // Held for a checkout
+        RELEASE,         // Hold given back (cancelled or expired)
+        CONFIRM,         // Hold turned into a sale
+        ADJUST           // Admin set the stock to a counted value
+    }
+}
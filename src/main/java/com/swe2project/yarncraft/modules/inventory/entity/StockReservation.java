@@ -0,0 +1,46 @@
+package com.swe2project.yarncraft.modules.inventory.entity;
+
+import java.time.LocalDateTime;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * One line of a pending stock hold (a reservation covers one or more products).
+ * Rows exist only while the hold is pending; they let ReservationService re-arm
+ * its expiry timers after a restart. Written and deleted with JDBC batches.
+ */
+@Entity
+@Table(name = "stock_reservations", indexes = {
+        @Index(name = "idx_reservation_id", columnList = "reservation_id"),
+        @Index(name = "idx_reservation_expires_at", columnList = "expires_at")
+})
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class StockReservation {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "reservation_id", nullable = false, length = 36)
+    private String reservationId;
+
+    @Column(name = "product_id", nullable = false)
+    private Long productId;
+
+    @Column(name = "quantity", nullable = false)
+    private Integer quantity;
+
+    // Email of the user holding the stock (only they can confirm or release it)
+    @Column(name = "owner_email", nullable = false)
+    private String ownerEmail;
+
+    @Column(name = "expires_at", nullable = false)
+    private LocalDateTime expiresAt;
+}
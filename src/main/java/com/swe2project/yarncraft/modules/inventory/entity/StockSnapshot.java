@@ -0,0 +1,46 @@
+package com.swe2project.yarncraft.modules.inventory.entity;
+
+import java.time.LocalDateTime;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * A product's levels as of one stock movement. Current levels = latest snapshot
+ * plus the deltas of the movements after {@code lastMovementId} (a short tail).
+ */
+@Entity
+@Table(name = "stock_snapshots", indexes = {
+        @Index(name = "idx_snapshot_product", columnList = "product_id, last_movement_id")
+})
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class StockSnapshot {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "product_id", nullable = false)
+    private Long productId;
+
+    @Column(name = "last_movement_id", nullable = false)
+    private Long lastMovementId;
+
+    @Column(name = "stock_quantity", nullable = false)
+    private Integer stockQuantity;
+
+    @Column(name = "reserved_quantity", nullable = false)
+    private Integer reservedQuantity;
+
+    @Column(name = "sold_quantity", nullable = false)
+    private Integer soldQuantity;
+
+    @Column(name = "taken_at", nullable = false)
+    private LocalDateTime takenAt;
+}
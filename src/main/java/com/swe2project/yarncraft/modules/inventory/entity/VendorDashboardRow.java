@@ -0,0 +1,57 @@
+package com.swe2project.yarncraft.modules.inventory.entity;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Persisted per-vendor dashboard totals (the VendorDashboardStats fields).
+ * Maintained in memory by VendorDashboardAggregates and upserted with JDBC; never written through JPA.
+ */
+@Entity
+@Table(name = "vendor_dashboard_stats")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class VendorDashboardRow {
+
+    @Id
+    @Column(name = "vendor_id")
+    private Long vendorId;
+
+    @Column(name = "total_products", nullable = false)
+    private Long totalProducts;
+
+    @Column(name = "active_products", nullable = false)
+    private Long activeProducts;
+
+    @Column(name = "low_stock_count", nullable = false)
+    private Long lowStockCount;
+
+    @Column(name = "out_of_stock_count", nullable = false)
+    private Long outOfStockCount;
+
+    @Column(name = "total_stock", nullable = false)
+    private Long totalStock;
+
+    @Column(name = "total_reserved", nullable = false)
+    private Long totalReserved;
+
+    @Column(name = "total_sold", nullable = false)
+    private Long totalSold;
+
+    @Column(name = "total_inventory_value", nullable = false, precision = 19, scale = 2)
+    private BigDecimal totalInventoryValue;
+
+    @Column(name = "potential_revenue", nullable = false, precision = 19, scale = 2)
+    private BigDecimal potentialRevenue;
+
+    @Column(name = "updated_at", nullable = false)
+    private LocalDateTime updatedAt;
+}
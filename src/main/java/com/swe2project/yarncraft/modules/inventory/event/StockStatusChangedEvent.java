@@ -0,0 +1,20 @@
+package com.swe2project.yarncraft.modules.inventory.event;
+
+import com.swe2project.yarncraft.modules.inventory.entity.InventoryItem.StockStatus;
+
+import lombok.Value;
+
+/**
+ * Published by the StockLedger whenever a product's StockStatus changes
+ * (e.g. IN_STOCK -> LOW_STOCK). Listeners run on the publishing thread, so keep them cheap.
+ */
+@Value
+public class StockStatusChangedEvent {
+    long productId;
+    long vendorId;
+    StockStatus previousStatus;
+    StockStatus status;
+    int availableStock;
+    int reorderLevel;
+    long occurredAt;    // epoch millis
+}
@@ -0,0 +1,307 @@
+package com.swe2project.yarncraft.modules.inventory.ledger;
+
+import com.swe2project.yarncraft.aspect.NoExecutionLogging;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.LongAdder;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.Meter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Flash-sale mode for "hot SKUs".
+ * <p>
+ * Even with the striped {@link StockLedger}, every sale of one product serializes on that
+ * product's stripe. A hot product instead leases a block of its available units from the
+ * ledger and spreads them over N shards (one per core by default). Buyers decrement a random
+ * shard with a single CAS and only look at other shards ("steal") when theirs runs dry.
+ * A background rebalancer settles what was sold back into the ledger and tops the shards
+ * up in batches, so the stripe lock is taken once per tick instead of once per sale.
+ * <p>
+ * Units sold from a shard reach the ledger's counters on the next settle, but the lease itself
+ * is in the ledger's WAL, which counts leased units as sold until they are settled. A crash
+ * therefore never makes a unit sold from a shard available again; the leased-but-unsold ones
+ * come back as sold too, and a recount returns them to stock.
+ */
+@Component
+@NoExecutionLogging
+@RequiredArgsConstructor
+@Slf4j
+public class HotStockShards {
+
+    private static final int PAD = 16; // ints per shard slot: 64 bytes, one cache line each
+    private static final String LOAD_HOT_SQL = "SELECT product_id FROM inventory WHERE is_hot_sku = TRUE";
+
+    private final StockLedger stockLedger;
+    private final JdbcTemplate jdbcTemplate;
+    private final MeterRegistry meterRegistry;
+
+    @Value("${yarncraft.inventory.hot-sku.shards:0}")
+    private int configuredShards;
+
+    @Value("${yarncraft.inventory.hot-sku.shard-batch:64}")
+    private int shardBatch;
+
+    private final ConcurrentHashMap<Long, ShardSet> sets = new ConcurrentHashMap<>();
+
+    // ========================================================================
+    // 1. ENABLE / DISABLE
+    // ========================================================================
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void restoreHotProducts() {
+        List<Long> productIds = jdbcTemplate.queryForList(LOAD_HOT_SQL, Long.class);
+        productIds.forEach(this::enable);
+        if (!productIds.isEmpty()) {
+            log.info("Hot-SKU mode restored for products {}", productIds);
+        }
+    }
+
+    /**
+     * Start selling this product from shards. No-op if it is already hot.
+     */
+    public void enable(long productId) {
+        ShardSet set = sets.compute(productId,
+                (id, existing) -> existing == null || existing.retired ? newShardSet(id) : existing);
+        rebalance(set);
+    }
+
+    /**
+     * Stop sharding: settle sold units and hand every unsold unit back to the ledger.
+     */
+    public void disable(long productId) {
+        ShardSet set = sets.get(productId);
+        if (set != null) {
+            retire(set); // before removal, so a concurrent giveBack waits for the final settle
+            sets.remove(productId, set);
+        }
+    }
+
+    public boolean isHot(long productId) {
+        return sets.containsKey(productId);
+    }
+
+    @PreDestroy
+    void shutdown() {
+        for (Long productId : new ArrayList<>(sets.keySet())) {
+            disable(productId);
+        }
+    }
+
+    // ========================================================================
+    // 2. BUYER PATH
+    // ========================================================================
+
+    /**
+     * Take units from the shards: a random home shard first, then steal from the others.
+     *
+     * @return false if the product is not hot or the shards hold fewer units than asked
+     * (nothing is taken in that case; the caller falls back to the ledger)
+     */
+    public boolean take(long productId, int quantity) {
+        ShardSet set = sets.get(productId);
+        if (set == null) {
+            return false;
+        }
+
+        int home = ThreadLocalRandom.current().nextInt(set.shardCount);
+        int got = set.takeUpTo(home, quantity);
+        if (got == quantity) {
+            return true;
+        }
+
+        int remaining = quantity - got;
+        for (int k = 1; k < set.shardCount && remaining > 0; k++) {
+            int victim = (home + k) % set.shardCount;
+            int stolen = set.takeUpTo(victim, remaining);
+            if (stolen > 0) {
+                set.steals[victim].increment();
+                remaining -= stolen;
+            }
+        }
+        if (remaining == 0) {
+            return true;
+        }
+
+        giveBack(productId, quantity - remaining); // not enough in total: put the partial grab back
+        return false;
+    }
+
+    /**
+     * Undo a successful {@link #take} (e.g. the order transaction rolled back).
+     */
+    public void giveBack(long productId, int quantity) {
+        if (quantity <= 0) {
+            return;
+        }
+        ShardSet set = sets.get(productId);
+        if (set != null) {
+            synchronized (set) {
+                if (!set.retired) {
+                    set.returned += quantity; // the rebalancer puts them back into a shard
+                    return;
+                }
+            }
+        }
+        // The shards were retired meanwhile and counted these units as sold.
+        stockLedger.restoreSale(productId, quantity);
+    }
+
+    // ========================================================================
+    // 3. REBALANCER
+    // ========================================================================
+
+    @Scheduled(fixedDelayString = "${yarncraft.inventory.hot-sku.rebalance-ms:50}")
+    public void rebalanceAll() {
+        sets.values().forEach(this::rebalance);
+    }
+
+    /**
+     * Settle sales since the last tick and refill shards that fell below half a batch.
+     * Buyers never block on this: they only CAS-decrement, the rebalancer only adds.
+     */
+    private void rebalance(ShardSet set) {
+        synchronized (set) {
+            if (set.retired) {
+                return;
+            }
+            if (set.returned > 0) {
+                set.units.addAndGet(0, set.returned);
+                set.returned = 0;
+            }
+
+            long remaining = 0;
+            int wanted = 0;
+            int[] topUps = new int[set.shardCount];
+            for (int i = 0; i < set.shardCount; i++) {
+                int units = set.units(i);
+                remaining += units;
+                if (units < shardBatch / 2) {
+                    topUps[i] = shardBatch - units;
+                    wanted += topUps[i];
+                }
+            }
+
+            // Units read above can only have shrunk since, so this never over-counts sales.
+            int sold = (int) (set.leased - remaining);
+            if (sold != 0) {
+                stockLedger.settleLease(set.productId, sold, 0);
+                set.leased -= sold;
+            }
+
+            int granted = wanted > 0 ? stockLedger.lease(set.productId, wanted) : 0;
+            set.leased += granted;
+            for (int i = 0; i < set.shardCount && granted > 0; i++) {
+                int add = Math.min(topUps[i], granted);
+                if (add > 0) {
+                    set.units.addAndGet(i * PAD, add);
+                    granted -= add;
+                }
+            }
+        }
+    }
+
+    private void retire(ShardSet set) {
+        synchronized (set) {
+            set.retired = true;
+            long unsold = set.returned;
+            set.returned = 0;
+            for (int i = 0; i < set.shardCount; i++) {
+                unsold += set.units.getAndSet(i * PAD, 0); // a drained shard can no longer be decremented
+            }
+            int sold = (int) (set.leased - unsold);
+            stockLedger.settleLease(set.productId, sold, (int) unsold);
+            set.leased = 0;
+            log.info("Hot-SKU mode off for product {} ({} unsold units returned)", set.productId, unsold);
+        }
+        set.meters.forEach(meterRegistry::remove);
+    }
+
+    // ========================================================================
+    // 4. INTERNALS
+    // ========================================================================
+
+    private ShardSet newShardSet(long productId) {
+        int shardCount = configuredShards > 0 ? configuredShards : Runtime.getRuntime().availableProcessors();
+        ShardSet set = new ShardSet(productId, shardCount);
+
+        for (int i = 0; i < shardCount; i++) {
+            int shard = i;
+            String product = String.valueOf(productId);
+            String shardTag = String.valueOf(shard);
+            set.meters.add(Gauge.builder("yarncraft.inventory.hot_sku.shard.units", set, s -> s.units(shard))
+                    .description("Units left in a hot-SKU shard")
+                    .tag("productId", product)
+                    .tag("shard", shardTag)
+                    .register(meterRegistry));
+            set.meters.add(FunctionCounter.builder("yarncraft.inventory.hot_sku.shard.steals",
+                            set.steals[shard], LongAdder::sum)
+                    .description("Times buyers took units from this shard after their own ran dry")
+                    .tag("productId", product)
+                    .tag("shard", shardTag)
+                    .register(meterRegistry));
+        }
+
+        log.info("Hot-SKU mode on for product {} with {} shards", productId, shardCount);
+        return set;
+    }
+
+    /**
+     * Shard counters for one product. {@code units} is written by buyers (CAS decrement) and
+     * the rebalancer (add); everything else is guarded by the set's monitor.
+     */
+    private static final class ShardSet {
+        final long productId;
+        final int shardCount;
+        final AtomicIntegerArray units;
+        final LongAdder[] steals;
+        final List<Meter> meters = new ArrayList<>();
+        long leased;      // units leased from the ledger and not yet settled
+        int returned;     // given back by buyers, not yet put into a shard
+        volatile boolean retired;
+
+        ShardSet(long productId, int shardCount) {
+            this.productId = productId;
+            this.shardCount = shardCount;
+            this.units = new AtomicIntegerArray(shardCount * PAD);
+            this.steals = new LongAdder[shardCount];
+            for (int i = 0; i < shardCount; i++) {
+                steals[i] = new LongAdder();
+            }
+        }
+
+        int units(int shard) {
+            return units.get(shard * PAD);
+        }
+
+        int takeUpTo(int shard, int max) {
+            int index = shard * PAD;
+            while (true) {
+                int current = units.get(index);
+                if (current <= 0) {
+                    return 0;
+                }
+                int taken = Math.min(current, max);
+                if (units.compareAndSet(index, current, current - taken)) {
+                    return taken;
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,886 @@
+package com.swe2project.yarncraft.modules.inventory.ledger;
+
+import com.swe2project.yarncraft.aspect.NoExecutionLogging;
+import com.swe2project.yarncraft.common.exception.ResourceNotFoundException;
+import com.swe2project.yarncraft.common.web.ResourceVersions;
+import com.swe2project.yarncraft.modules.inventory.analytics.SalesLeaderboard;
+import com.swe2project.yarncraft.modules.inventory.entity.InventoryItem;
+import com.swe2project.yarncraft.modules.inventory.entity.InventoryItem.StockStatus;
+import com.swe2project.yarncraft.modules.inventory.entity.StockMovement.MovementType;
+import com.swe2project.yarncraft.modules.inventory.event.StockStatusChangedEvent;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.file.Path;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.IntConsumer;
+import java.util.function.Supplier;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Authoritative in-process stock table: productId -> (stock, reserved, sold).
+ * <p>
+ * Stock movements never go through JPA. Each mutation takes one striped lock, updates
+ * primitive counters, and appends an after-image to the {@link StockWriteAheadLog}.
+ * A scheduled write-behind flush copies dirty rows into the {@code inventory} table
+ * with one JDBC batch. On startup the ledger replays any WAL segments left over from a
+ * crash on top of the last flushed rows.
+ * <p>
+ * Mutations return as soon as their record is buffered; the WAL is fsynced every
+ * {@code yarncraft.inventory.ledger.wal-sync-ms} (20ms by default), off the stripe locks.
+ * A crash of the machine (not just the process) can therefore lose the movements
+ * acknowledged in the last sync interval. That is the price of microsecond decrements;
+ * lower the interval to narrow the window.
+ * <p>
+ * Units leased to {@link HotStockShards} are sold without touching the ledger until the
+ * shards settle, so the WAL never records a lease as available: every record written while
+ * units are leased counts them as sold, and each flush carries the open leases into the new
+ * segment before the old one goes. After a crash the unsold part of a lease therefore comes
+ * back as sold rather than as available stock (never oversold; a recount puts it back).
+ * The table itself always gets the exact counters.
+ * <p>
+ * Every change to a product's counters is also handed to the {@link StockMovementLog}
+ * (under the same lock), which becomes the {@code stock_movements} audit trail, and every
+ * StockStatus transition is published as a {@link StockStatusChangedEvent} once the lock is released.
+ * The change in the product's dashboard contribution goes to {@link VendorDashboardAggregates},
+ * and every change of the sold counter to the {@link SalesLeaderboard}, which it also reseeds
+ * from the table right after a flush. Every change also bumps the product's and vendor's
+ * inventory {@link ResourceVersions} (conditional GETs).
+ * <p>
+ * NOTE: this assumes a single application node owns the inventory table.
+ */
+@Component
+@NoExecutionLogging
+@RequiredArgsConstructor
+@Slf4j
+public class StockLedger {
+
+    private static final int STRIPE_COUNT = 256; // must be a power of two
+    private static final int FLUSH_BATCH_SIZE = 500;
+
+    private static final String CELL_COLUMNS =
+            "SELECT product_id, vendor_id, stock_quantity, reserved_quantity, sold_quantity, reorder_level, is_active, " +
+                    "unit_cost, unit_price, (SELECT p.category FROM products p WHERE p.id = inventory.product_id) AS category " +
+                    "FROM inventory ";
+    private static final String LOAD_SQL = CELL_COLUMNS + "WHERE product_id = ?";
+    private static final String PRELOAD_SQL = CELL_COLUMNS + "WHERE product_id IN (%s)";
+
+    // MySQL evaluates single-table SET clauses left to right, so the status CASE
+    // sees the new quantities. Mirrors InventoryItem.updateStockStatus().
+    private static final String FLUSH_SQL =
+            "UPDATE inventory SET stock_quantity = ?, reserved_quantity = ?, sold_quantity = ?, " +
+                    "last_sold_at = COALESCE(?, last_sold_at), " +
+                    "last_restocked_at = COALESCE(?, last_restocked_at), " +
+                    "status = CASE " +
+                    "WHEN is_active = FALSE THEN 'DISCONTINUED' " +
+                    "WHEN stock_quantity - reserved_quantity <= 0 AND reserved_quantity > 0 THEN 'RESERVED' " +
+                    "WHEN stock_quantity - reserved_quantity <= 0 THEN 'OUT_OF_STOCK' " +
+                    "WHEN stock_quantity - reserved_quantity <= reorder_level THEN 'LOW_STOCK' " +
+                    "ELSE 'IN_STOCK' END, " +
+                    "updated_at = CURRENT_TIMESTAMP " +
+                    "WHERE product_id = ?";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final StockMovementLog movementLog;
+    private final ApplicationEventPublisher eventPublisher;
+    private final VendorDashboardAggregates vendorDashboard;
+    private final SalesLeaderboard leaderboard;
+    private final ResourceVersions resourceVersions;
+
+    @Value("${yarncraft.inventory.ledger.wal-dir:data/ledger}")
+    private String walDirectory;
+
+    @Value("${yarncraft.inventory.ledger.wal-buffer-bytes:65536}")
+    private int walBufferBytes;
+
+    private final ReentrantLock[] stripes = new ReentrantLock[STRIPE_COUNT];
+    private final ConcurrentHashMap<Long, Cell> cells = new ConcurrentHashMap<>();
+    private final Set<Long> dirty = ConcurrentHashMap.newKeySet();
+    private final Set<Long> leasing = ConcurrentHashMap.newKeySet(); // may hold leased units, see flushDirty
+
+    private StockWriteAheadLog wal;
+    private volatile boolean recoveredFromWal;
+
+    // ========================================================================
+    // 1. LIFECYCLE (RECOVERY & SHUTDOWN)
+    // ========================================================================
+
+    @PostConstruct
+    void recover() throws IOException {
+        for (int i = 0; i < STRIPE_COUNT; i++) {
+            stripes[i] = new ReentrantLock();
+        }
+
+        wal = new StockWriteAheadLog(Path.of(walDirectory), walBufferBytes);
+
+        // Anything still in a sealed segment was acknowledged but maybe not flushed.
+        // Once it is written back, the cells load lazily from the repaired rows.
+        Map<Long, StockLevels> recovered = wal.replaySealedSegments();
+        if (!recovered.isEmpty()) {
+            log.warn("Stock ledger recovering {} products from WAL", recovered.size());
+            writeToDatabase(recovered.values());
+            recoveredFromWal = true;
+        }
+        wal.deleteSegmentsUpTo(wal.currentSegment() - 1);
+        log.info("Stock ledger ready (WAL directory: {})", walDirectory);
+    }
+
+    @PreDestroy
+    void shutdown() throws IOException {
+        flush();
+        wal.close();
+    }
+
+    // ========================================================================
+    // 2. STOCK MOVEMENTS
+    // ========================================================================
+
+    /**
+     * Sell units straight from available stock (stock -= q, sold += q).
+     */
+    public StockLevels deduct(long productId, int quantity) {
+        return mutate(productId, MovementType.SALE, null, cell -> {
+            if (cell.available() < quantity) {
+                throw new IllegalStateException("Not enough stock! Available: " + cell.available());
+            }
+            cell.stock -= quantity;
+            cell.sold += quantity;
+            cell.lastSoldAt = System.currentTimeMillis();
+        });
+    }
+
+    /**
+     * Sell several products at once, all or nothing.
+     * Stripe locks are taken in ascending stripe order, so two carts sharing products
+     * can never deadlock; every line is checked before any counter moves.
+     *
+     * @param quantities productId -> units (duplicate cart lines already merged)
+     */
+    public List<StockLevels> deductAll(Map<Long, Integer> quantities) {
+        long now = System.currentTimeMillis();
+        return mutateAll(quantities, MovementType.SALE,
+                (cell, quantity) -> cell.available() >= quantity ? null :
+                        "Not enough stock for product " + cell.productId + "! Available: " + cell.available(),
+                (cell, quantity) -> {
+                    cell.stock -= quantity;
+                    cell.sold += quantity;
+                    cell.lastSoldAt = now;
+                });
+    }
+
+    /**
+     * Undo a {@link #deduct} whose surrounding transaction rolled back.
+     */
+    public StockLevels restoreSale(long productId, int quantity) {
+        return mutate(productId, MovementType.SALE_REVERSAL, null, cell -> {
+            cell.stock += quantity;
+            cell.sold = Math.max(0, cell.sold - quantity);
+        });
+    }
+
+    public StockLevels restock(long productId, int quantity) {
+        return mutate(productId, MovementType.RESTOCK, null, cell -> {
+            cell.stock += quantity;
+            cell.lastRestockedAt = System.currentTimeMillis();
+        });
+    }
+
+    /**
+     * Admin correction to a counted value. The reason ends up in stock_movements.
+     */
+    public StockLevels setStock(long productId, int newQuantity, String reason) {
+        return setStock(productId, newQuantity, reason, added -> { });
+    }
+
+    /**
+     * Same, also reporting (under the lock) the units the correction added, negative if it
+     * removed some, so a caller whose transaction rolls back can take exactly that back.
+     */
+    public StockLevels setStock(long productId, int newQuantity, String reason, IntConsumer added) {
+        return mutate(productId, MovementType.ADJUST, reason, cell -> {
+            added.accept(newQuantity - cell.stock);
+            cell.stock = newQuantity;
+        });
+    }
+
+    /**
+     * Undo a {@link #restock} or {@link #setStock} whose surrounding transaction rolled back:
+     * stock moves back by the {@code added} units, so sales made in between are kept.
+     */
+    public StockLevels revertStock(long productId, int added) {
+        return mutate(productId, MovementType.ADJUST, "Rolled back",
+                cell -> cell.stock = Math.max(0, cell.stock - added));
+    }
+
+    /**
+     * Hold units for a checkout (reserved += q). Available = stock - reserved.
+     */
+    public StockLevels reserve(long productId, int quantity) {
+        return mutate(productId, MovementType.RESERVE, null, cell -> {
+            if (cell.available() < quantity) {
+                throw new IllegalStateException("Insufficient stock available for product: " + productId);
+            }
+            cell.reserved += quantity;
+        });
+    }
+
+    /**
+     * Give held units back. Releases at most what is currently reserved.
+     */
+    public StockLevels release(long productId, int quantity) {
+        return mutate(productId, MovementType.RELEASE, null,
+                cell -> cell.reserved -= Math.min(quantity, cell.reserved));
+    }
+
+    /**
+     * Hold units for several products at once, all or nothing (same lock order as {@link #deductAll}).
+     */
+    public List<StockLevels> reserveAll(Map<Long, Integer> quantities) {
+        return mutateAll(quantities, MovementType.RESERVE,
+                (cell, quantity) -> cell.available() >= quantity ? null :
+                        "Insufficient stock available for product: " + cell.productId,
+                (cell, quantity) -> cell.reserved += quantity);
+    }
+
+    /**
+     * Turn a multi-product hold into a sale, all or nothing.
+     */
+    public List<StockLevels> confirmAll(Map<Long, Integer> quantities) {
+        long now = System.currentTimeMillis();
+        return mutateAll(quantities, MovementType.CONFIRM,
+                (cell, quantity) -> cell.reserved >= quantity ? null : "Failed to confirm reservation.",
+                (cell, quantity) -> {
+                    cell.reserved -= quantity;
+                    cell.stock -= quantity;
+                    cell.sold += quantity;
+                    cell.lastSoldAt = now;
+                });
+    }
+
+    /**
+     * Undo a {@link #confirmAll} whose surrounding transaction rolled back: the units are held again.
+     */
+    public List<StockLevels> unconfirmAll(Map<Long, Integer> quantities) {
+        return mutateAll(quantities, MovementType.SALE_REVERSAL,
+                (cell, quantity) -> null,
+                (cell, quantity) -> {
+                    cell.stock += quantity;
+                    cell.sold = Math.max(0, cell.sold - quantity);
+                    cell.reserved += quantity;
+                });
+    }
+
+    /**
+     * Turn held units into a sale (reserved -= q, stock -= q, sold += q).
+     */
+    public StockLevels confirm(long productId, int quantity) {
+        return mutate(productId, MovementType.CONFIRM, null, cell -> {
+            if (cell.reserved < quantity) {
+                throw new IllegalStateException("Failed to confirm reservation.");
+            }
+            cell.reserved -= quantity;
+            cell.stock -= quantity;
+            cell.sold += quantity;
+            cell.lastSoldAt = System.currentTimeMillis();
+        });
+    }
+
+    /**
+     * Lease up to {@code wanted} available units to {@link HotStockShards}. Leased units stay in
+     * stock but stop counting as available here; the WAL counts them as sold until they are
+     * settled, so a crash cannot make them available a second time.
+     *
+     * @return units actually leased (0 if nothing is available)
+     */
+    public int lease(long productId, int wanted) {
+        Cell cell = cell(productId);
+        ReentrantLock lock = stripeFor(productId);
+        lock.lock();
+        try {
+            int granted = Math.min(wanted, cell.available());
+            if (granted > 0) {
+                cell.leased += granted;
+                leasing.add(productId);
+                dirty.add(productId); // before the append, see flush()
+                wal.append(cell.durable());
+            }
+            return granted;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Settle a lease: {@code sold} leased units were sold (negative undoes earlier sales),
+     * {@code returned} unsold units go back to available.
+     */
+    public StockLevels settleLease(long productId, int sold, int returned) {
+        MovementType type = sold < 0 ? MovementType.SALE_REVERSAL : MovementType.SALE;
+        return mutate(productId, type, "hot-SKU shards", cell -> {
+            cell.leased = Math.max(0, cell.leased - sold - returned);
+            if (sold != 0) {
+                cell.stock -= sold;
+                cell.sold = Math.max(0, cell.sold + sold);
+                if (sold > 0) {
+                    cell.lastSoldAt = System.currentTimeMillis();
+                }
+            }
+        });
+    }
+
+    // ========================================================================
+    // 3. READS
+    // ========================================================================
+
+    /**
+     * Current levels, loading the row on first use.
+     */
+    public StockLevels levels(long productId) {
+        Cell cell = cell(productId);
+        ReentrantLock lock = stripeFor(productId);
+        lock.lock();
+        try {
+            return cell.snapshot();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Current levels only if the product is already in memory (never hits the database).
+     */
+    public Optional<StockLevels> peek(long productId) {
+        return cells.containsKey(productId) ? Optional.of(levels(productId)) : Optional.empty();
+    }
+
+    /**
+     * Keep the inputs that live outside the counters (reorder level, active flag, cost, price)
+     * in step with the inventory row. Products not in memory pick the new values up when they
+     * are loaded; callers load the product before changing the row so its dashboard delta is right.
+     */
+    public void updateAttributes(long productId, int reorderLevel, boolean active,
+                                 BigDecimal unitCost, BigDecimal unitPrice) {
+        Cell cell = cells.get(productId);
+        if (cell == null) {
+            return;
+        }
+        ReentrantLock lock = stripeFor(productId);
+        StockStatusChangedEvent changed;
+        lock.lock();
+        try {
+            long[] before = cell.contribution();
+            boolean wasActive = cell.active;
+            cell.reorderLevel = reorderLevel;
+            cell.active = active;
+            cell.unitCostCents = VendorDashboardAggregates.toCents(unitCost);
+            cell.unitPriceCents = VendorDashboardAggregates.toCents(unitPrice);
+            vendorDashboard.apply(cell.vendorId, before, cell.contribution());
+            touch(cell);
+            if (wasActive != active) {
+                rank(cell);
+            }
+            changed = transition(cell);
+        } finally {
+            lock.unlock();
+        }
+        publish(changed);
+    }
+
+    /**
+     * A new inventory row was committed: count it in its vendor's dashboard totals.
+     */
+    public void register(long productId) {
+        Cell cell = cell(productId);
+        ReentrantLock lock = stripeFor(productId);
+        lock.lock();
+        try {
+            vendorDashboard.apply(cell.vendorId, new long[VendorDashboardAggregates.FIELDS], cell.contribution());
+            touch(cell);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * True if this start replayed WAL records, i.e. the previous run did not shut down cleanly.
+     */
+    public boolean isRecoveredFromWal() {
+        return recoveredFromWal;
+    }
+
+    /**
+     * Load every product not yet in memory with one query, instead of one lazy load each.
+     * Used by bulk operations before they touch thousands of products.
+     */
+    public void preload(Collection<Long> productIds) {
+        List<Long> missing = productIds.stream().filter(id -> !cells.containsKey(id)).distinct().toList();
+        if (missing.isEmpty()) {
+            return;
+        }
+        String placeholders = String.join(",", Collections.nCopies(missing.size(), "?"));
+        jdbcTemplate.query(String.format(PRELOAD_SQL, placeholders), rs -> {
+            Cell cell = mapCell(rs);
+            cells.putIfAbsent(cell.productId, cell); // a concurrent lazy load may have won
+        }, missing.toArray());
+    }
+
+    /**
+     * Forget a product (inventory row deleted).
+     */
+    public void evict(long productId) {
+        ReentrantLock lock = stripeFor(productId);
+        lock.lock();
+        try {
+            Cell cell = cells.remove(productId);
+            dirty.remove(productId);
+            leasing.remove(productId);
+            if (cell != null) {
+                vendorDashboard.apply(cell.vendorId, cell.contribution(), new long[VendorDashboardAggregates.FIELDS]);
+                leaderboard.remove(productId, cell.vendorId, cell.category);
+                touch(cell);
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // ========================================================================
+    // 4. WRITE-BEHIND
+    // ========================================================================
+
+    @Scheduled(fixedDelayString = "${yarncraft.inventory.ledger.wal-sync-ms:20}")
+    public void syncWal() {
+        wal.sync();
+    }
+
+    /**
+     * Copy dirty rows to the inventory table, then drop the WAL segments they cover.
+     */
+    @Scheduled(fixedDelayString = "${yarncraft.inventory.ledger.flush-interval-ms:1000}")
+    public void flush() {
+        flushDirty();
+    }
+
+    /**
+     * @return false if the rows could not be written (they stay dirty and are retried)
+     */
+    private synchronized boolean flushDirty() {
+        if (dirty.isEmpty()) {
+            return true;
+        }
+
+        // Seal first. A mutation marks its product dirty before appending, both under the
+        // stripe lock, so any record in the sealed segment belongs to a product that is already
+        // in the dirty set when the loop below starts; the loop takes that product's stripe lock,
+        // so its snapshot includes the record and the segment can go once the batch commits.
+        // (Carried leases are the exception: they restate counters the table already has.)
+        long sealed = wal.rotate();
+        carryLeasesForward();
+
+        List<StockLevels> batch = new ArrayList<>(dirty.size());
+        for (Long productId : dirty) {
+            dirty.remove(productId);
+            ReentrantLock lock = stripeFor(productId);
+            lock.lock();
+            try {
+                Cell cell = cells.get(productId);
+                if (cell != null) {
+                    batch.add(cell.snapshot());
+                }
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        try {
+            writeToDatabase(batch);
+        } catch (DataAccessException e) {
+            log.error("Stock ledger flush failed, will retry: {}", e.getMessage());
+            batch.forEach(levels -> dirty.add(levels.getProductId()));
+            return false;
+        }
+        // The sealed records' dashboard deltas were applied under the stripe locks taken above.
+        // Persist them before the segment goes: if that fails, a crash still finds the segment,
+        // replays it and rebuilds the dashboards (VendorDashboardService.start).
+        if (vendorDashboard.persist()) {
+            wal.sync(); // the carried leases are on disk before the segment that held them goes
+            wal.deleteSegmentsUpTo(sealed);
+        }
+        log.debug("Stock ledger flushed {} products", batch.size());
+        return true;
+    }
+
+    /**
+     * A lease changes no column, so the flushed row says nothing about it: append the current
+     * record of every product with leased units to the new segment, so it survives the
+     * deletion of the sealed one.
+     */
+    private void carryLeasesForward() {
+        for (Long productId : leasing) {
+            ReentrantLock lock = stripeFor(productId);
+            lock.lock();
+            try {
+                Cell cell = cells.get(productId);
+                if (cell == null || cell.leased == 0) {
+                    leasing.remove(productId);
+                } else {
+                    wal.append(cell.durable());
+                }
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+
+    /**
+     * Reseed the sales leaderboard from the inventory table, flushing first so the table
+     * holds every sold counter the boards have already seen.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(fixedDelayString = "${yarncraft.inventory.leaderboard.reseed-interval-ms:600000}",
+            initialDelayString = "${yarncraft.inventory.leaderboard.reseed-interval-ms:600000}")
+    public void reseedLeaderboard() {
+        leaderboard.reseed(() -> {
+            if (!flushDirty()) {
+                throw new IllegalStateException("Stock ledger flush failed, leaderboard reseed skipped");
+            }
+        });
+    }
+
+    /**
+     * Run {@code action} while no counter can move: every stripe is held and the dirty rows
+     * are written to the inventory table first, so the table, the ledger and the dashboard
+     * deltas (applied under the stripe locks) agree for the whole call. Stock movements wait
+     * meanwhile, so keep the action to one query.
+     */
+    public <T> T whileFrozen(Supplier<T> action) {
+        for (ReentrantLock stripe : stripes) {
+            stripe.lock(); // ascending, the same global order as mutateAll
+        }
+        try {
+            List<StockLevels> batch = new ArrayList<>(dirty.size());
+            for (Long productId : dirty) {
+                Cell cell = cells.get(productId);
+                if (cell != null) {
+                    batch.add(cell.snapshot());
+                }
+            }
+            writeToDatabase(batch); // left dirty, the next flush drops their WAL segments
+            return action.get();
+        } finally {
+            for (int i = stripes.length - 1; i >= 0; i--) {
+                stripes[i].unlock();
+            }
+        }
+    }
+
+    // ========================================================================
+    // 5. INTERNALS
+    // ========================================================================
+
+    @FunctionalInterface
+    private interface CellMutation {
+        void apply(Cell cell);
+    }
+
+    private StockLevels mutate(long productId, MovementType type, String reason, CellMutation mutation) {
+        Cell cell = cell(productId);
+        ReentrantLock lock = stripeFor(productId);
+        StockLevels after;
+        StockStatusChangedEvent changed = null;
+        lock.lock();
+        try {
+            StockLevels before = cell.snapshot();
+            int leasedBefore = cell.leased;
+            long[] contributionBefore = cell.contribution();
+            mutation.apply(cell); // throws before touching the cell if the movement is invalid
+            after = cell.snapshot();
+            boolean moved = !after.hasSameCounters(before);
+            if (moved || cell.leased != leasedBefore) {
+                dirty.add(productId); // before the append, see flush()
+                wal.append(cell.durable());
+            }
+            if (moved) {
+                movementLog.record(type, before, after, reason);
+                vendorDashboard.apply(cell.vendorId, contributionBefore, cell.contribution());
+                touch(cell);
+                if (after.getSoldQuantity() != before.getSoldQuantity()) {
+                    rank(cell);
+                }
+                changed = transition(cell);
+            }
+        } finally {
+            lock.unlock();
+        }
+        publish(changed);
+        return after;
+    }
+
+    @FunctionalInterface
+    private interface LineCheck {
+        /**
+         * @return null if the line can be applied, otherwise the error message
+         */
+        String reject(Cell cell, int quantity);
+    }
+
+    @FunctionalInterface
+    private interface LineMutation {
+        void apply(Cell cell, int quantity);
+    }
+
+    /**
+     * Multi-product movement: lock every involved stripe in ascending order,
+     * check every line, then apply them all (or throw without touching anything).
+     */
+    private List<StockLevels> mutateAll(Map<Long, Integer> quantities, MovementType type,
+                                        LineCheck check, LineMutation mutation) {
+        List<Long> productIds = new ArrayList<>(quantities.keySet());
+        productIds.sort(Long::compare);
+
+        // Load missing rows before taking any lock (the load may hit the database).
+        List<Cell> lineCells = new ArrayList<>(productIds.size());
+        for (Long productId : productIds) {
+            lineCells.add(cell(productId));
+        }
+
+        ReentrantLock[] held = stripesInLockOrder(productIds);
+        List<StockStatusChangedEvent> changes = new ArrayList<>();
+        List<StockLevels> after;
+        for (ReentrantLock lock : held) {
+            lock.lock();
+        }
+        try {
+            for (int i = 0; i < lineCells.size(); i++) {
+                String error = check.reject(lineCells.get(i), quantities.get(productIds.get(i)));
+                if (error != null) {
+                    throw new IllegalStateException(error);
+                }
+            }
+
+            after = new ArrayList<>(lineCells.size());
+            for (int i = 0; i < lineCells.size(); i++) {
+                Cell cell = lineCells.get(i);
+                StockLevels before = cell.snapshot();
+                long[] contributionBefore = cell.contribution();
+                mutation.apply(cell, quantities.get(productIds.get(i)));
+                StockLevels levels = cell.snapshot();
+                dirty.add(cell.productId); // before the append, see flush()
+                wal.append(cell.durable());
+                movementLog.record(type, before, levels, null);
+                vendorDashboard.apply(cell.vendorId, contributionBefore, cell.contribution());
+                touch(cell);
+                if (levels.getSoldQuantity() != before.getSoldQuantity()) {
+                    rank(cell);
+                }
+                StockStatusChangedEvent changed = transition(cell);
+                if (changed != null) {
+                    changes.add(changed);
+                }
+                after.add(levels);
+            }
+        } finally {
+            for (int i = held.length - 1; i >= 0; i--) {
+                held[i].unlock();
+            }
+        }
+        changes.forEach(this::publish);
+        return after;
+    }
+
+    private Cell cell(long productId) {
+        Cell cell = cells.get(productId);
+        if (cell != null) {
+            return cell;
+        }
+        return cells.computeIfAbsent(productId, this::load);
+    }
+
+    private Cell load(Long productId) {
+        List<Cell> rows = jdbcTemplate.query(LOAD_SQL, (rs, rowNum) -> mapCell(rs), productId);
+        if (rows.isEmpty()) {
+            throw new ResourceNotFoundException("Inventory not found for product: " + productId);
+        }
+        return rows.get(0);
+    }
+
+    private static Cell mapCell(ResultSet rs) throws SQLException {
+        Cell cell = new Cell(rs.getLong("product_id"));
+        cell.vendorId = rs.getLong("vendor_id");
+        cell.stock = rs.getInt("stock_quantity");
+        cell.reserved = rs.getInt("reserved_quantity");
+        cell.sold = rs.getInt("sold_quantity");
+        cell.reorderLevel = rs.getInt("reorder_level");
+        cell.active = rs.getBoolean("is_active");
+        cell.unitCostCents = VendorDashboardAggregates.toCents(rs.getBigDecimal("unit_cost"));
+        cell.unitPriceCents = VendorDashboardAggregates.toCents(rs.getBigDecimal("unit_price"));
+        cell.category = rs.getString("category");
+        cell.status = cell.computeStatus();
+        return cell;
+    }
+
+    /**
+     * Re-evaluate the cell's status (caller holds its stripe lock).
+     *
+     * @return the transition, or null if the status did not change
+     */
+    private static StockStatusChangedEvent transition(Cell cell) {
+        StockStatus status = cell.computeStatus();
+        if (status == cell.status) {
+            return null;
+        }
+        StockStatus previous = cell.status;
+        cell.status = status;
+        return new StockStatusChangedEvent(cell.productId, cell.vendorId, previous, status,
+                Math.max(0, cell.stock - cell.reserved), cell.reorderLevel, System.currentTimeMillis());
+    }
+
+    /**
+     * Hand the cell's sold counter to the leaderboard (caller holds its stripe lock,
+     * so boards see one product's counts in order).
+     */
+    private void rank(Cell cell) {
+        leaderboard.onSold(cell.productId, cell.vendorId, cell.category, cell.active, cell.sold);
+    }
+
+    private void touch(Cell cell) {
+        resourceVersions.touch(ResourceVersions.INVENTORY, ResourceVersions.inventoryOfProduct(cell.productId),
+                ResourceVersions.inventoryOfVendor(cell.vendorId));
+    }
+
+    private void publish(StockStatusChangedEvent event) {
+        if (event != null) {
+            eventPublisher.publishEvent(event);
+        }
+    }
+
+    private ReentrantLock stripeFor(long productId) {
+        return stripes[stripeIndex(productId)];
+    }
+
+    private static int stripeIndex(long productId) {
+        long h = productId * 0x9E3779B97F4A7C15L; // spread sequential ids across stripes
+        return (int) (h >>> 32) & (STRIPE_COUNT - 1);
+    }
+
+    /**
+     * Distinct stripes covering the given products, in ascending stripe index (the global lock order).
+     */
+    private ReentrantLock[] stripesInLockOrder(Collection<Long> productIds) {
+        int[] indexes = productIds.stream()
+                .mapToInt(StockLedger::stripeIndex)
+                .distinct()
+                .sorted()
+                .toArray();
+        ReentrantLock[] locks = new ReentrantLock[indexes.length];
+        for (int i = 0; i < indexes.length; i++) {
+            locks[i] = stripes[indexes[i]];
+        }
+        return locks;
+    }
+
+    private void writeToDatabase(Collection<StockLevels> rows) {
+        transactionTemplate.executeWithoutResult(status ->
+                jdbcTemplate.batchUpdate(FLUSH_SQL, rows, FLUSH_BATCH_SIZE, (ps, levels) -> {
+                    ps.setInt(1, levels.getStockQuantity());
+                    ps.setInt(2, levels.getReservedQuantity());
+                    ps.setInt(3, levels.getSoldQuantity());
+                    ps.setTimestamp(4, toTimestamp(levels.getLastSoldAt()));
+                    ps.setTimestamp(5, toTimestamp(levels.getLastRestockedAt()));
+                    ps.setLong(6, levels.getProductId());
+                }));
+    }
+
+    private static Timestamp toTimestamp(long epochMillis) {
+        return epochMillis == 0 ? null : new Timestamp(epochMillis);
+    }
+
+    /**
+     * Mutable row guarded by its stripe lock.
+     */
+    private static final class Cell {
+        final long productId;
+        int stock;
+        int reserved;
+        int sold;
+        long lastSoldAt;
+        long lastRestockedAt;
+        int leased; // held by HotStockShards; sold as far as the WAL is concerned
+
+        // Status inputs that are not counters, and the last status published
+        long vendorId;
+        int reorderLevel;
+        boolean active;
+        StockStatus status;
+        long unitCostCents;
+        long unitPriceCents;
+        String category; // Category name, null if the product has none
+
+        Cell(long productId) {
+            this.productId = productId;
+        }
+
+        /**
+         * This product's share of its vendor's dashboard (same rules as InventoryItem's helpers).
+         */
+        long[] contribution() {
+            int available = Math.max(0, stock - reserved);
+            long[] c = new long[VendorDashboardAggregates.FIELDS];
+            c[VendorDashboardAggregates.PRODUCTS] = 1;
+            c[VendorDashboardAggregates.ACTIVE] = active ? 1 : 0;
+            c[VendorDashboardAggregates.LOW_STOCK] = active && available <= reorderLevel ? 1 : 0;
+            c[VendorDashboardAggregates.OUT_OF_STOCK] = stock == 0 ? 1 : 0;
+            c[VendorDashboardAggregates.STOCK] = stock;
+            c[VendorDashboardAggregates.RESERVED] = reserved;
+            c[VendorDashboardAggregates.SOLD] = sold;
+            c[VendorDashboardAggregates.VALUE_CENTS] = unitCostCents * stock;
+            c[VendorDashboardAggregates.REVENUE_CENTS] = unitPriceCents * available;
+            return c;
+        }
+
+        StockStatus computeStatus() {
+            return InventoryItem.statusFor(active, stock, reserved, reorderLevel);
+        }
+
+        int available() {
+            return Math.max(0, stock - reserved - leased);
+        }
+
+        StockLevels snapshot() {
+            return new StockLevels(productId, stock, reserved, sold, lastSoldAt, lastRestockedAt);
+        }
+
+        /**
+         * What the WAL records: the snapshot with leased units counted as sold.
+         */
+        StockLevels durable() {
+            return new StockLevels(productId, stock - leased, reserved, sold + leased, lastSoldAt, lastRestockedAt);
+        }
+    }
+}
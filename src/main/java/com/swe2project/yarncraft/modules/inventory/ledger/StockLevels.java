@@ -0,0 +1,33 @@
+package com.swe2project.yarncraft.modules.inventory.ledger;
+
+import lombok.Value;
+
+/**
+ * Immutable after-image of one product's counters in the {@link StockLedger}.
+ * This is exactly what gets written to the WAL and flushed to the inventory table.
+ */
+@Value
+public class StockLevels {
+    long productId;
+    int stockQuantity;
+    int reservedQuantity;
+    int soldQuantity;
+    long lastSoldAt;        // epoch millis, 0 = never
+    long lastRestockedAt;   // epoch millis, 0 = never
+
+    /**
+     * Same rule as InventoryItem.getAvailableStock()
+     */
+    public int getAvailableStock() {
+        return Math.max(0, stockQuantity - reservedQuantity);
+    }
+
+    /**
+     * True if stock, reserved and sold are unchanged (timestamps ignored).
+     */
+    public boolean hasSameCounters(StockLevels other) {
+        return stockQuantity == other.stockQuantity
+                && reservedQuantity == other.reservedQuantity
+                && soldQuantity == other.soldQuantity;
+    }
+}
@@ -0,0 +1,151 @@
+package com.swe2project.yarncraft.modules.inventory.ledger;
+
+import com.swe2project.yarncraft.aspect.NoExecutionLogging;
+import com.swe2project.yarncraft.modules.inventory.entity.StockMovement.MovementType;
+
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Component;
+
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Write side of the {@code stock_movements} table.
+ * <p>
+ * The {@link StockLedger} calls {@link #record} while it still holds the product's stripe
+ * lock, so the queue order matches the order the counters actually moved in. A scheduled
+ * drain inserts the queue with JDBC batches (ids therefore follow that order too), and a
+ * slower job snapshots the latest levels of every product that moved since the last run.
+ */
+@Component
+@NoExecutionLogging
+@RequiredArgsConstructor
+@Slf4j
+public class StockMovementLog {
+
+    private static final int BATCH_SIZE = 500;
+    private static final String SYSTEM_ACTOR = "system";
+
+    // vendor_id is picked up from the inventory row by the insert itself
+    private static final String INSERT_SQL =
+            "INSERT INTO stock_movements (product_id, vendor_id, movement_type, stock_delta, reserved_delta, " +
+                    "sold_delta, stock_after, reserved_after, sold_after, actor, reason, created_at) " +
+                    "SELECT ?, vendor_id, ?, ?, ?, ?, ?, ?, ?, ?, ?, ? FROM inventory WHERE product_id = ?";
+
+    private static final String SNAPSHOT_HIGH_WATER_SQL =
+            "SELECT COALESCE(MAX(last_movement_id), 0) FROM stock_snapshots";
+
+    // The newest movement of each product already carries its levels after the move
+    private static final String SNAPSHOT_SQL =
+            "INSERT INTO stock_snapshots (product_id, last_movement_id, stock_quantity, reserved_quantity, " +
+                    "sold_quantity, taken_at) " +
+                    "SELECT m.product_id, m.id, m.stock_after, m.reserved_after, m.sold_after, CURRENT_TIMESTAMP " +
+                    "FROM stock_movements m " +
+                    "JOIN (SELECT MAX(id) AS id FROM stock_movements WHERE id > ? GROUP BY product_id) latest " +
+                    "ON latest.id = m.id";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    private final ConcurrentLinkedQueue<PendingMovement> queue = new ConcurrentLinkedQueue<>();
+    private List<PendingMovement> failedBatch = List.of(); // retried before anything newer
+
+    // ========================================================================
+    // 1. RECORD (called by StockLedger under the stripe lock)
+    // ========================================================================
+
+    void record(MovementType type, StockLevels before, StockLevels after, String reason) {
+        queue.add(new PendingMovement(type, before, after, currentActor(), reason, System.currentTimeMillis()));
+    }
+
+    // ========================================================================
+    // 2. BATCH INSERT & SNAPSHOTS
+    // ========================================================================
+
+    @Scheduled(fixedDelayString = "${yarncraft.inventory.movements.flush-interval-ms:500}")
+    public synchronized void flush() {
+        List<PendingMovement> batch = new ArrayList<>(failedBatch);
+        PendingMovement next;
+        while ((next = queue.poll()) != null) {
+            batch.add(next);
+        }
+        if (batch.isEmpty()) {
+            return;
+        }
+
+        try {
+            jdbcTemplate.batchUpdate(INSERT_SQL, batch, BATCH_SIZE, (ps, movement) -> {
+                ps.setLong(1, movement.after.getProductId());
+                ps.setString(2, movement.type.name());
+                ps.setInt(3, movement.after.getStockQuantity() - movement.before.getStockQuantity());
+                ps.setInt(4, movement.after.getReservedQuantity() - movement.before.getReservedQuantity());
+                ps.setInt(5, movement.after.getSoldQuantity() - movement.before.getSoldQuantity());
+                ps.setInt(6, movement.after.getStockQuantity());
+                ps.setInt(7, movement.after.getReservedQuantity());
+                ps.setInt(8, movement.after.getSoldQuantity());
+                ps.setString(9, movement.actor);
+                ps.setString(10, movement.reason);
+                ps.setTimestamp(11, new Timestamp(movement.at));
+                ps.setLong(12, movement.after.getProductId());
+            });
+            failedBatch = List.of();
+        } catch (DataAccessException e) {
+            log.error("Stock movement flush failed, will retry {} rows: {}", batch.size(), e.getMessage());
+            failedBatch = batch;
+        }
+    }
+
+    /**
+     * Snapshot every product that moved since the previous run, so rebuilding its levels
+     * only has to add up the movements written after the snapshot.
+     */
+    @Scheduled(fixedDelayString = "${yarncraft.inventory.movements.snapshot-interval-ms:600000}")
+    public synchronized void snapshot() {
+        Long highWater = jdbcTemplate.queryForObject(SNAPSHOT_HIGH_WATER_SQL, Long.class);
+        int products = jdbcTemplate.update(SNAPSHOT_SQL, highWater);
+        if (products > 0) {
+            log.info("Stock snapshots taken for {} products", products);
+        }
+    }
+
+    @PreDestroy
+    void shutdown() {
+        flush();
+    }
+
+    // ========================================================================
+    // 3. HELPERS
+    // ========================================================================
+
+    private static String currentActor() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        return authentication != null && authentication.isAuthenticated() ? authentication.getName() : SYSTEM_ACTOR;
+    }
+
+    private static final class PendingMovement {
+        final MovementType type;
+        final StockLevels before;
+        final StockLevels after;
+        final String actor;
+        final String reason;
+        final long at;
+
+        PendingMovement(MovementType type, StockLevels before, StockLevels after, String actor, String reason, long at) {
+            this.type = type;
+            this.before = before;
+            this.after = after;
+            this.actor = actor;
+            this.reason = reason;
+            this.at = at;
+        }
+    }
+}
@@ -0,0 +1,260 @@
+package com.swe2project.yarncraft.modules.inventory.ledger;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+import java.util.zip.CRC32;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Append-only, segmented log of {@link StockLevels} after-images.
+ * <p>
+ * Records are absolute values (not deltas), so replaying a segment twice is harmless:
+ * the last record per product wins. Appends go into an in-memory buffer and reach the
+ * disk on {@link #sync()}, which the ledger calls every few milliseconds (group commit).
+ * <p>
+ * Two buffers take turns: {@link #append} only copies into the active one under this
+ * object's monitor, and {@link #sync()} swaps them under the monitor, then writes and
+ * fsyncs the full one outside it, so appenders never wait for the disk. Syncs and
+ * rotations are serialized by {@code syncLock}, which keeps records in append order.
+ * <p>
+ * Record layout (40 bytes): productId(8) stock(4) reserved(4) sold(4)
+ * lastSoldAt(8) lastRestockedAt(8) crc32(4)
+ */
+@Slf4j
+class StockWriteAheadLog implements Closeable {
+
+    static final int RECORD_SIZE = 40;
+    private static final int PAYLOAD_SIZE = RECORD_SIZE - 4;
+    private static final Pattern SEGMENT_NAME = Pattern.compile("stock-ledger-(\\d+)\\.wal");
+
+    private final Path directory;
+    private final byte[] record = new byte[RECORD_SIZE];
+    private final ByteBuffer recordView = ByteBuffer.wrap(record);
+    private final CRC32 crc = new CRC32();
+    private final ReentrantLock syncLock = new ReentrantLock();
+
+    private ByteBuffer active;   // appenders fill this one (guarded by the monitor)
+    private ByteBuffer standby;  // written out by sync (guarded by syncLock)
+
+    private FileChannel channel; // replaced only under both syncLock and the monitor
+    private long segment;
+
+    StockWriteAheadLog(Path directory, int bufferBytes) throws IOException {
+        this.directory = directory;
+        Files.createDirectories(directory);
+        int capacity = Math.max(bufferBytes, RECORD_SIZE * 16);
+        this.active = ByteBuffer.allocateDirect(capacity);
+        this.standby = ByteBuffer.allocateDirect(capacity);
+        List<Long> existing = listSegments();
+        this.segment = existing.isEmpty() ? 1 : existing.get(existing.size() - 1) + 1;
+        this.channel = open(segment);
+    }
+
+    /**
+     * Buffer one after-image. Reaches the disk on the next {@link #sync()}.
+     * If the buffer is full, the caller runs that sync itself (back pressure).
+     */
+    void append(StockLevels levels) {
+        while (!tryAppend(levels)) {
+            sync();
+        }
+    }
+
+    private synchronized boolean tryAppend(StockLevels levels) {
+        if (active.remaining() < RECORD_SIZE) {
+            return false;
+        }
+        recordView.clear();
+        recordView.putLong(levels.getProductId())
+                .putInt(levels.getStockQuantity())
+                .putInt(levels.getReservedQuantity())
+                .putInt(levels.getSoldQuantity())
+                .putLong(levels.getLastSoldAt())
+                .putLong(levels.getLastRestockedAt());
+        crc.reset();
+        crc.update(record, 0, PAYLOAD_SIZE);
+        recordView.putInt((int) crc.getValue());
+        active.put(record);
+        return true;
+    }
+
+    /**
+     * Write buffered records to the current segment and fsync it.
+     * Appends made while the disk is busy go to the other buffer and wait for the next sync.
+     */
+    void sync() {
+        syncLock.lock();
+        try {
+            FileChannel target;
+            synchronized (this) {
+                ByteBuffer full = active;
+                active = standby;
+                standby = full;
+                target = channel;
+            }
+            drain(standby, target);
+            target.force(false);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to fsync stock ledger WAL", e);
+        } finally {
+            syncLock.unlock();
+        }
+    }
+
+    /**
+     * Seal the current segment and start a new one.
+     * <p>
+     * Every record appended before this call is in the sealed segment; a record appended
+     * concurrently lands in either segment, so callers that need a boundary must order their
+     * appends against this call themselves (see StockLedger.flush).
+     *
+     * @return the number of the sealed segment; everything up to it may be deleted
+     * once the ledger state has been flushed to the database
+     */
+    long rotate() {
+        syncLock.lock();
+        try {
+            FileChannel next = open(segment + 1);
+            FileChannel sealedChannel;
+            long sealed;
+            synchronized (this) {
+                // Whatever is buffered now belongs to the sealed segment
+                ByteBuffer full = active;
+                active = standby;
+                standby = full;
+                sealedChannel = channel;
+                sealed = segment;
+                channel = next;
+                segment++;
+            }
+            drain(standby, sealedChannel);
+            sealedChannel.force(false);
+            sealedChannel.close();
+            return sealed;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to rotate stock ledger WAL", e);
+        } finally {
+            syncLock.unlock();
+        }
+    }
+
+    /**
+     * Replay every sealed segment (all but the one currently being written).
+     * A torn or corrupt tail record ends the replay of that segment.
+     */
+    Map<Long, StockLevels> replaySealedSegments() throws IOException {
+        Map<Long, StockLevels> latest = new LinkedHashMap<>();
+        ByteBuffer in = ByteBuffer.allocate(RECORD_SIZE);
+        byte[] bytes = in.array();
+        CRC32 checksum = new CRC32();
+        long current = currentSegment();
+
+        for (long number : listSegments()) {
+            if (number >= current) {
+                continue;
+            }
+            try (FileChannel reader = FileChannel.open(segmentPath(number), StandardOpenOption.READ)) {
+                while (true) {
+                    in.clear();
+                    while (in.hasRemaining() && reader.read(in) > 0) {
+                        // keep reading until the record is complete or EOF
+                    }
+                    if (in.hasRemaining()) {
+                        break; // EOF or partially written record
+                    }
+                    checksum.reset();
+                    checksum.update(bytes, 0, PAYLOAD_SIZE);
+                    in.flip();
+                    StockLevels levels = new StockLevels(in.getLong(), in.getInt(), in.getInt(), in.getInt(),
+                            in.getLong(), in.getLong());
+                    if (in.getInt() != (int) checksum.getValue()) {
+                        log.warn("Corrupt record in WAL segment {}, ignoring the rest of it", number);
+                        break;
+                    }
+                    latest.put(levels.getProductId(), levels);
+                }
+            }
+        }
+        return latest;
+    }
+
+    /**
+     * Delete sealed segments whose contents are now reflected in the database.
+     */
+    void deleteSegmentsUpTo(long sealed) {
+        long current = currentSegment();
+        try {
+            for (long number : listSegments()) {
+                if (number <= sealed && number != current) {
+                    Files.deleteIfExists(segmentPath(number));
+                }
+            }
+        } catch (IOException e) {
+            log.warn("Could not delete flushed WAL segments: {}", e.getMessage());
+        }
+    }
+
+    synchronized long currentSegment() {
+        return segment;
+    }
+
+    @Override
+    public void close() throws IOException {
+        syncLock.lock();
+        try {
+            sync();
+            channel.close();
+        } finally {
+            syncLock.unlock();
+        }
+    }
+
+    private static void drain(ByteBuffer buffer, FileChannel target) throws IOException {
+        buffer.flip();
+        try {
+            while (buffer.hasRemaining()) {
+                target.write(buffer);
+            }
+        } finally {
+            buffer.clear();
+        }
+    }
+
+    private FileChannel open(long number) throws IOException {
+        return FileChannel.open(segmentPath(number),
+                StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+    }
+
+    private Path segmentPath(long number) {
+        return directory.resolve(String.format("stock-ledger-%020d.wal", number));
+    }
+
+    private List<Long> listSegments() throws IOException {
+        List<Long> numbers = new ArrayList<>();
+        try (Stream<Path> files = Files.list(directory)) {
+            files.forEach(file -> {
+                Matcher matcher = SEGMENT_NAME.matcher(file.getFileName().toString());
+                if (matcher.matches()) {
+                    numbers.add(Long.parseLong(matcher.group(1)));
+                }
+            });
+        }
+        numbers.sort(Long::compare);
+        return numbers;
+    }
+}
@@ -0,0 +1,229 @@
+package com.swe2project.yarncraft.modules.inventory.ledger;
+
+import com.swe2project.yarncraft.aspect.NoExecutionLogging;
+
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Per-vendor dashboard totals, maintained by deltas.
+ * <p>
+ * Every product contributes a fixed vector (1 product, active?, low stock?, out of stock?,
+ * stock, reserved, sold, value, revenue) to its vendor's totals. The {@link StockLedger}
+ * hands over the before/after vector of each mutation while it holds the product's lock,
+ * so a dashboard read is a handful of adder sums instead of a pass over the catalog.
+ * Totals are written to {@code vendor_dashboard_stats} every few seconds, and by every ledger
+ * flush before it deletes the WAL segment those deltas came from: after a crash the persisted
+ * totals either cover every flushed movement, or the WAL replay triggers a full rebuild.
+ * Money is kept in cents. VendorDashboardService seeds unknown vendors and reconciles nightly.
+ */
+@Component
+@NoExecutionLogging
+@RequiredArgsConstructor
+@Slf4j
+public class VendorDashboardAggregates {
+
+    // Positions in a contribution / totals vector
+    public static final int PRODUCTS = 0;
+    public static final int ACTIVE = 1;
+    public static final int LOW_STOCK = 2;
+    public static final int OUT_OF_STOCK = 3;
+    public static final int STOCK = 4;
+    public static final int RESERVED = 5;
+    public static final int SOLD = 6;
+    public static final int VALUE_CENTS = 7;
+    public static final int REVENUE_CENTS = 8;
+    public static final int FIELDS = 9;
+
+    private static final String LOAD_SQL =
+            "SELECT vendor_id, total_products, active_products, low_stock_count, out_of_stock_count, total_stock, " +
+                    "total_reserved, total_sold, total_inventory_value, potential_revenue FROM vendor_dashboard_stats";
+
+    private static final String UPSERT_SQL =
+            "INSERT INTO vendor_dashboard_stats (vendor_id, total_products, active_products, low_stock_count, " +
+                    "out_of_stock_count, total_stock, total_reserved, total_sold, total_inventory_value, " +
+                    "potential_revenue, updated_at) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, CURRENT_TIMESTAMP) " +
+                    "ON DUPLICATE KEY UPDATE total_products = VALUES(total_products), " +
+                    "active_products = VALUES(active_products), low_stock_count = VALUES(low_stock_count), " +
+                    "out_of_stock_count = VALUES(out_of_stock_count), total_stock = VALUES(total_stock), " +
+                    "total_reserved = VALUES(total_reserved), total_sold = VALUES(total_sold), " +
+                    "total_inventory_value = VALUES(total_inventory_value), " +
+                    "potential_revenue = VALUES(potential_revenue), updated_at = CURRENT_TIMESTAMP";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    private final ConcurrentHashMap<Long, Totals> totals = new ConcurrentHashMap<>();
+    private final Set<Long> dirty = ConcurrentHashMap.newKeySet();
+
+    // ========================================================================
+    // 1. DELTAS (called by StockLedger under the product's stripe lock)
+    // ========================================================================
+
+    void apply(long vendorId, long[] before, long[] after) {
+        Totals vendor = totals.computeIfAbsent(vendorId, id -> new Totals());
+        boolean changed = false;
+        for (int i = 0; i < FIELDS; i++) {
+            long delta = after[i] - before[i];
+            if (delta != 0) {
+                vendor.fields[i].add(delta);
+                changed = true;
+            }
+        }
+        if (changed) {
+            dirty.add(vendorId);
+        }
+    }
+
+    // ========================================================================
+    // 2. READ / SEED
+    // ========================================================================
+
+    /**
+     * Current totals, or empty if this vendor was never seeded (deltas alone are not enough).
+     */
+    public Optional<long[]> current(long vendorId) {
+        Totals vendor = totals.get(vendorId);
+        return vendor != null && vendor.seeded ? Optional.of(vendor.sum()) : Optional.empty();
+    }
+
+    /**
+     * Replace a vendor's totals with freshly computed ones. Only exact while no delta can land,
+     * so call it inside {@link StockLedger#whileFrozen} together with the query it resets from.
+     *
+     * @return the difference that was corrected (all zeros when the deltas had stayed exact)
+     */
+    public long[] reset(long vendorId, long[] absolute) {
+        Totals vendor = totals.computeIfAbsent(vendorId, id -> new Totals());
+        long[] drift = new long[FIELDS];
+        for (int i = 0; i < FIELDS; i++) {
+            drift[i] = absolute[i] - vendor.fields[i].sum();
+            vendor.fields[i].add(drift[i]);
+        }
+        vendor.seeded = true;
+        dirty.add(vendorId);
+        return drift;
+    }
+
+    public Set<Long> vendorIds() {
+        return totals.keySet();
+    }
+
+    /**
+     * Add the persisted totals as the base under any deltas recorded since startup.
+     */
+    public void loadPersisted() {
+        jdbcTemplate.query(LOAD_SQL, rs -> {
+            Totals vendor = totals.computeIfAbsent(rs.getLong("vendor_id"), id -> new Totals());
+            vendor.fields[PRODUCTS].add(rs.getLong("total_products"));
+            vendor.fields[ACTIVE].add(rs.getLong("active_products"));
+            vendor.fields[LOW_STOCK].add(rs.getLong("low_stock_count"));
+            vendor.fields[OUT_OF_STOCK].add(rs.getLong("out_of_stock_count"));
+            vendor.fields[STOCK].add(rs.getLong("total_stock"));
+            vendor.fields[RESERVED].add(rs.getLong("total_reserved"));
+            vendor.fields[SOLD].add(rs.getLong("total_sold"));
+            vendor.fields[VALUE_CENTS].add(toCents(rs.getBigDecimal("total_inventory_value")));
+            vendor.fields[REVENUE_CENTS].add(toCents(rs.getBigDecimal("potential_revenue")));
+            vendor.seeded = true;
+        });
+        log.info("Vendor dashboard totals loaded for {} vendors", totals.size());
+    }
+
+    // ========================================================================
+    // 3. WRITE-BEHIND
+    // ========================================================================
+
+    @Scheduled(fixedDelayString = "${yarncraft.inventory.dashboard.flush-interval-ms:5000}")
+    public void persistDirty() {
+        persist();
+    }
+
+    /**
+     * Write the totals of every dirty, seeded vendor.
+     *
+     * @return false if the write failed (the vendors stay dirty and are retried)
+     */
+    public synchronized boolean persist() {
+        List<Long> vendorIds = new ArrayList<>();
+        for (Long vendorId : dirty) {
+            dirty.remove(vendorId);
+            Totals vendor = totals.get(vendorId);
+            if (vendor != null && vendor.seeded) {
+                vendorIds.add(vendorId); // unseeded deltas stay in memory until the vendor is seeded
+            }
+        }
+        if (vendorIds.isEmpty()) {
+            return true;
+        }
+
+        try {
+            jdbcTemplate.batchUpdate(UPSERT_SQL, vendorIds, 500, (ps, vendorId) -> {
+                long[] sum = totals.get(vendorId).sum();
+                ps.setLong(1, vendorId);
+                ps.setLong(2, sum[PRODUCTS]);
+                ps.setLong(3, sum[ACTIVE]);
+                ps.setLong(4, sum[LOW_STOCK]);
+                ps.setLong(5, sum[OUT_OF_STOCK]);
+                ps.setLong(6, sum[STOCK]);
+                ps.setLong(7, sum[RESERVED]);
+                ps.setLong(8, sum[SOLD]);
+                ps.setBigDecimal(9, fromCents(sum[VALUE_CENTS]));
+                ps.setBigDecimal(10, fromCents(sum[REVENUE_CENTS]));
+            });
+        } catch (DataAccessException e) {
+            log.error("Vendor dashboard flush failed, will retry: {}", e.getMessage());
+            dirty.addAll(vendorIds);
+            return false;
+        }
+        return true;
+    }
+
+    @PreDestroy
+    void shutdown() {
+        persist();
+    }
+
+    // ========================================================================
+    // 4. HELPERS
+    // ========================================================================
+
+    public static long toCents(BigDecimal amount) {
+        return amount == null ? 0 : amount.movePointRight(2).longValue();
+    }
+
+    public static BigDecimal fromCents(long cents) {
+        return BigDecimal.valueOf(cents, 2);
+    }
+
+    private static final class Totals {
+        final LongAdder[] fields = new LongAdder[FIELDS];
+        volatile boolean seeded;
+
+        Totals() {
+            for (int i = 0; i < FIELDS; i++) {
+                fields[i] = new LongAdder();
+            }
+        }
+
+        long[] sum() {
+            long[] sum = new long[FIELDS];
+            for (int i = 0; i < FIELDS; i++) {
+                sum[i] = fields[i].sum();
+            }
+            return sum;
+        }
+    }
+}
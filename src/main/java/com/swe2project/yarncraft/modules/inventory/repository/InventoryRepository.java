@@ -1,20 +1,24 @@
 package com.swe2project.yarncraft.modules.inventory.repository;
 
 import com.swe2project.yarncraft.modules.inventory.entity.InventoryItem;
-import com.swe2project.yarncraft.modules.inventory.entity.InventoryItem.StockStatus;
-import com.swe2project.yarncraft.modules.user.entity.User;
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
 import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
+/**
+ * List reads go through {@link JpaSpecificationExecutor} with {@link InventorySpecifications}
+ * so they can be keyset-paginated; the queries here are single-row, analytics and stock helpers.
+ */
 @Repository
-public interface InventoryRepository extends JpaRepository<InventoryItem, Long> {
+public interface InventoryRepository extends JpaRepository<InventoryItem, Long>, JpaSpecificationExecutor<InventoryItem> {
 
     // ==================== BASIC QUERIES ====================
 
@@ -24,61 +28,8 @@ public interface InventoryRepository extends JpaRepository<InventoryItem, Long>
      */
     Optional<InventoryItem> findByProductId(Long productId);
 
-    /**
-     * Find all inventory items for a specific vendor
-     * Used when vendor wants to see their inventory dashboard
-     */
-    List<InventoryItem> findByVendor(User vendor);
-
-    /**
-     * Find inventory by vendor ID
-     * Alternative way to get vendor's inventory
-     */
-    @Query("SELECT i FROM InventoryItem i WHERE i.vendor.id = :vendorId")
-    List<InventoryItem> findByVendorId(@Param("vendorId") Long vendorId);
-
-    /**
-     * Find all active inventory items
-     * Used for displaying available products to customers
-     */
-    List<InventoryItem> findByIsActiveTrue();
-
-    /**
-     * Find inventory by status
-     * Used for filtering (e.g., show only IN_STOCK items)
-     */
-    List<InventoryItem> findByStatus(StockStatus status);
-
-    /**
-     * Find inventory by category
-     * Used for browsing by product type (bags, purses, etc.)
-     */
-    List<InventoryItem> findByProductCategory(String category);
-
     // ==================== ADVANCED QUERIES ====================
 
-    /**
-     * Find items with low stock (at or below reorder level)
-     * Used for alerting vendors to restock
-     */
-    @Query("SELECT i FROM InventoryItem i WHERE i.stockQuantity <= i.reorderLevel AND i.isActive = true")
-    List<InventoryItem> findLowStockItems();
-
-    /**
-     * Find low stock items for a specific vendor
-     * Used in vendor dashboard to show what needs restocking
-     */
-    @Query("SELECT i FROM InventoryItem i WHERE i.vendor.id = :vendorId " +
-            "AND i.stockQuantity <= i.reorderLevel AND i.isActive = true")
-    List<InventoryItem> findLowStockItemsByVendor(@Param("vendorId") Long vendorId);
-
-    /**
-     * Find out of stock items
-     * Used for reporting and alerting
-     */
-    @Query("SELECT i FROM InventoryItem i WHERE i.stockQuantity = 0 AND i.isActive = true")
-    List<InventoryItem> findOutOfStockItems();
-
     /**
      * Check if product has sufficient stock available
      * Used before adding items to cart or processing orders
@@ -172,40 +123,14 @@ public interface InventoryRepository extends JpaRepository<InventoryItem, Long>
     Long countActiveProductsByVendor(@Param("vendorId") Long vendorId);
 
     /**
-     * Find top selling products (by sold quantity)
-     * Used for analytics dashboard
+     * Find inventory rows for a set of products (order not guaranteed)
+     * Used to hydrate a page of leaderboard ids
      */
-    @Query("SELECT i FROM InventoryItem i WHERE i.isActive = true ORDER BY i.soldQuantity DESC")
-    List<InventoryItem> findTopSellingProducts();
+    List<InventoryItem> findByProductIdIn(Collection<Long> productIds);
 
     /**
      * Find products that need approval before restocking
      */
     @Query("SELECT i FROM InventoryItem i WHERE i.requiresApproval = true AND i.isActive = true")
     List<InventoryItem> findItemsRequiringApproval();
-
-    // ==================== SEARCH QUERIES ====================
-
-    /**
-     * Search inventory by product name (case-insensitive)
-     * Used for search functionality
-     */
-    @Query("SELECT i FROM InventoryItem i WHERE LOWER(i.productName) LIKE LOWER(CONCAT('%', :searchTerm, '%')) " +
-            "AND i.isActive = true")
-    List<InventoryItem> searchByProductName(@Param("searchTerm") String searchTerm);
-
-    /**
-     * Search inventory with multiple filters
-     * Can search by name, category, and vendor
-     */
-    @Query("SELECT i FROM InventoryItem i WHERE " +
-            "(:productName IS NULL OR LOWER(i.productName) LIKE LOWER(CONCAT('%', :productName, '%'))) AND " +
-            "(:category IS NULL OR i.productCategory = :category) AND " +
-            "(:vendorId IS NULL OR i.vendor.id = :vendorId) AND " +
-            "i.isActive = true")
-    List<InventoryItem> searchInventory(
-            @Param("productName") String productName,
-            @Param("category") String category,
-            @Param("vendorId") Long vendorId
-    );
 }
@@ -0,0 +1,66 @@
+package com.swe2project.yarncraft.modules.inventory.repository;
+
+import com.swe2project.yarncraft.modules.inventory.entity.InventoryItem;
+import com.swe2project.yarncraft.modules.inventory.entity.InventoryItem.StockStatus;
+
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.Expression;
+import jakarta.persistence.criteria.Predicate;
+
+/**
+ * Filters for the paginated inventory lists, plus the keyset "seek" predicate.
+ * They mirror the old list queries in InventoryRepository and are combined with {@code and}.
+ */
+public class InventorySpecifications {
+
+    public static Specification<InventoryItem> all() {
+        return (root, query, cb) -> cb.conjunction();
+    }
+
+    public static Specification<InventoryItem> active() {
+        return (root, query, cb) -> cb.isTrue(root.get("isActive"));
+    }
+
+    public static Specification<InventoryItem> ofVendor(Long vendorId) {
+        return (root, query, cb) -> cb.equal(root.get("vendor").get("id"), vendorId);
+    }
+
+    public static Specification<InventoryItem> inCategory(String category) {
+        return (root, query, cb) -> cb.equal(root.get("productCategory"), category);
+    }
+
+    public static Specification<InventoryItem> withStatus(StockStatus status) {
+        return (root, query, cb) -> cb.equal(root.get("status"), status);
+    }
+
+    public static Specification<InventoryItem> lowStock() {
+        return (root, query, cb) -> cb.lessThanOrEqualTo(root.get("stockQuantity"), root.get("reorderLevel"));
+    }
+
+    public static Specification<InventoryItem> outOfStock() {
+        return (root, query, cb) -> cb.equal(root.get("stockQuantity"), 0);
+    }
+
+    /**
+     * Rows strictly after (value, id) in the given order: key past value, or key equal and id past id.
+     * {@code value} must have the property's Java type (InventorySort parses it from the cursor).
+     */
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    public static Specification<InventoryItem> after(String property, Comparable<?> value, long id,
+                                                     Sort.Direction direction) {
+        return (root, query, cb) -> {
+            Expression<Comparable> key = root.get(property);
+            Predicate keyPast = past(cb, key, (Comparable) value, direction);
+            Predicate tiePast = cb.and(cb.equal(key, value), past(cb, root.<Long>get("id"), id, direction));
+            return cb.or(keyPast, tiePast);
+        };
+    }
+
+    private static <Y extends Comparable<? super Y>> Predicate past(
+            CriteriaBuilder cb, Expression<? extends Y> expression, Y value, Sort.Direction direction) {
+        return direction.isAscending() ? cb.greaterThan(expression, value) : cb.lessThan(expression, value);
+    }
+}
@@ -0,0 +1,43 @@
+package com.swe2project.yarncraft.modules.inventory.repository;
+
+import com.swe2project.yarncraft.modules.inventory.entity.StockMovement;
+
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface StockMovementRepository extends JpaRepository<StockMovement, Long> {
+
+    // ==================== KEYSET PAGES (newest first) ====================
+
+    /**
+     * One page of a product's movements in a time range.
+     * Keyset on id (idx_movement_product): pass the last id of the previous page as beforeId.
+     */
+    @Query("SELECT m FROM StockMovement m WHERE m.productId = :productId " +
+            "AND m.id < :beforeId AND m.createdAt >= :from AND m.createdAt < :to " +
+            "ORDER BY m.id DESC")
+    List<StockMovement> findProductPage(@Param("productId") Long productId,
+                                        @Param("beforeId") Long beforeId,
+                                        @Param("from") LocalDateTime from,
+                                        @Param("to") LocalDateTime to,
+                                        Limit limit);
+
+    /**
+     * Same as findProductPage, across all of a vendor's products (idx_movement_vendor).
+     */
+    @Query("SELECT m FROM StockMovement m WHERE m.vendorId = :vendorId " +
+            "AND m.id < :beforeId AND m.createdAt >= :from AND m.createdAt < :to " +
+            "ORDER BY m.id DESC")
+    List<StockMovement> findVendorPage(@Param("vendorId") Long vendorId,
+                                       @Param("beforeId") Long beforeId,
+                                       @Param("from") LocalDateTime from,
+                                       @Param("to") LocalDateTime to,
+                                       Limit limit);
+}
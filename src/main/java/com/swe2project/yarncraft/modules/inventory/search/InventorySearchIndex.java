@@ -0,0 +1,272 @@
+package com.swe2project.yarncraft.modules.inventory.search;
+
+import com.swe2project.yarncraft.aspect.NoExecutionLogging;
+import com.swe2project.yarncraft.modules.inventory.entity.InventoryItem;
+
+import org.roaringbitmap.IntIterator;
+import org.roaringbitmap.RoaringBitmap;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * In-process trigram index over productName, productSku and productCategory.
+ * <p>
+ * {@code LIKE '%term%'} cannot use a B-tree index, so every search scanned the inventory
+ * table. Here each inventory row is a document keyed by its id. Every 3-character window of
+ * its lower-cased fields points at a compressed posting list (RoaringBitmap). Active rows,
+ * vendors and categories have bitmaps of their own. A search intersects the term's trigram
+ * lists (smallest first) with the filter bitmaps. It then confirms each candidate with a
+ * real substring check (trigrams can match across fields or out of order) and stops after
+ * one page.
+ * <p>
+ * Terms shorter than three characters have no trigrams and are checked row by row over the
+ * filter bitmap, which still stops at the first page of matches.
+ * InventoryService keeps the index in step after each commit; it is rebuilt from the table at startup.
+ */
+@Component
+@NoExecutionLogging
+@RequiredArgsConstructor
+@Slf4j
+public class InventorySearchIndex {
+
+    private static final String LOAD_SQL =
+            "SELECT id, vendor_id, product_name, product_sku, product_category, is_active FROM inventory";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Map<Integer, Document> documents = new HashMap<>();
+    private final Map<Long, RoaringBitmap> postings = new HashMap<>();
+    private final Map<Long, RoaringBitmap> byVendor = new HashMap<>();
+    private final Map<String, RoaringBitmap> byCategory = new HashMap<>();
+    private final RoaringBitmap active = new RoaringBitmap();
+
+    // ========================================================================
+    // 1. BUILD & MAINTENANCE
+    // ========================================================================
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        long start = System.currentTimeMillis();
+        lock.writeLock().lock();
+        try {
+            documents.clear();
+            postings.clear();
+            byVendor.clear();
+            byCategory.clear();
+            active.clear();
+            jdbcTemplate.query(LOAD_SQL, rs -> {
+                add(new Document(docId(rs.getLong("id")), rs.getLong("vendor_id"), rs.getString("product_name"),
+                        rs.getString("product_sku"), rs.getString("product_category"), rs.getBoolean("is_active")));
+            });
+            postings.values().forEach(RoaringBitmap::runOptimize);
+        } finally {
+            lock.writeLock().unlock();
+        }
+        log.info("Inventory search index built: {} rows, {} trigrams in {} ms", documents.size(), postings.size(),
+                System.currentTimeMillis() - start);
+    }
+
+    /**
+     * Add or replace a row (call after the change has committed).
+     */
+    public void index(InventoryItem item) {
+        Document document = new Document(docId(item.getId()), item.getVendor().getId(), item.getProductName(),
+                item.getProductSku(), item.getProductCategory(), Boolean.TRUE.equals(item.getIsActive()));
+        lock.writeLock().lock();
+        try {
+            Document previous = documents.get(document.id);
+            if (previous != null) {
+                removeDocument(previous);
+            }
+            add(document);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void remove(long inventoryId) {
+        lock.writeLock().lock();
+        try {
+            Document previous = documents.get(docId(inventoryId));
+            if (previous != null) {
+                removeDocument(previous);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // ========================================================================
+    // 2. SEARCH
+    // ========================================================================
+
+    /**
+     * Ids of active rows whose fields contain {@code term} (case-insensitive), in id order,
+     * strictly after {@code afterId} (null for the first page). At most {@code limit} ids.
+     *
+     * @param term     substring to find, or null/blank for "any"
+     * @param nameOnly match productName only (advanced search), otherwise name, SKU or category
+     * @param vendorId only this vendor's rows, or null
+     * @param category exact productCategory, or null
+     */
+    public List<Long> search(String term, boolean nameOnly, Long vendorId, String category,
+                             Long afterId, boolean ascending, int limit) {
+        String needle = term == null || term.isBlank() ? null : term.toLowerCase(Locale.ROOT);
+        lock.readLock().lock();
+        try {
+            RoaringBitmap candidates = candidates(needle, vendorId, category);
+            if (afterId != null) {
+                if (ascending) {
+                    candidates.remove(0L, afterId + 1);
+                } else {
+                    candidates.remove(afterId, 1L << 32);
+                }
+            }
+
+            List<Long> ids = new ArrayList<>(limit);
+            IntIterator iterator = ascending ? candidates.getIntIterator() : candidates.getReverseIntIterator();
+            while (iterator.hasNext() && ids.size() < limit) {
+                Document document = documents.get(iterator.next());
+                if (needle == null || document.matches(needle, nameOnly)) {
+                    ids.add((long) document.id);
+                }
+            }
+            return ids;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Filter bitmaps AND the term's posting lists. Always a fresh bitmap the caller may modify.
+     */
+    private RoaringBitmap candidates(String needle, Long vendorId, String category) {
+        List<RoaringBitmap> lists = new ArrayList<>();
+        lists.add(active);
+        if (vendorId != null) {
+            lists.add(byVendor.getOrDefault(vendorId, new RoaringBitmap()));
+        }
+        if (category != null) {
+            lists.add(byCategory.getOrDefault(category, new RoaringBitmap()));
+        }
+        if (needle != null) {
+            for (long gram : trigrams(needle)) {
+                RoaringBitmap posting = postings.get(gram);
+                if (posting == null) {
+                    return new RoaringBitmap(); // a trigram nobody has: no match
+                }
+                lists.add(posting);
+            }
+        }
+
+        lists.sort(Comparator.comparingLong(RoaringBitmap::getLongCardinality));
+        RoaringBitmap result = lists.get(0).clone();
+        for (int i = 1; i < lists.size() && !result.isEmpty(); i++) {
+            result.and(lists.get(i));
+        }
+        return result;
+    }
+
+    // ========================================================================
+    // 3. INTERNALS (caller holds the write lock)
+    // ========================================================================
+
+    private void add(Document document) {
+        documents.put(document.id, document);
+        for (long gram : document.trigrams()) {
+            postings.computeIfAbsent(gram, g -> new RoaringBitmap()).add(document.id);
+        }
+        byVendor.computeIfAbsent(document.vendorId, v -> new RoaringBitmap()).add(document.id);
+        if (document.category != null) {
+            byCategory.computeIfAbsent(document.category, c -> new RoaringBitmap()).add(document.id);
+        }
+        if (document.active) {
+            active.add(document.id);
+        }
+    }
+
+    private void removeDocument(Document document) {
+        documents.remove(document.id);
+        for (long gram : document.trigrams()) {
+            removeFrom(postings, gram, document.id);
+        }
+        removeFrom(byVendor, document.vendorId, document.id);
+        if (document.category != null) {
+            removeFrom(byCategory, document.category, document.id);
+        }
+        active.remove(document.id);
+    }
+
+    private static <K> void removeFrom(Map<K, RoaringBitmap> lists, K key, int id) {
+        RoaringBitmap list = lists.get(key);
+        if (list != null) {
+            list.remove(id);
+            if (list.isEmpty()) {
+                lists.remove(key);
+            }
+        }
+    }
+
+    private static int docId(long inventoryId) {
+        return Math.toIntExact(inventoryId); // bitmaps hold 32-bit ids
+    }
+
+    /**
+     * Every 3-char window, packed as three 16-bit chars in one long.
+     */
+    static List<Long> trigrams(String lowerCased) {
+        List<Long> grams = new ArrayList<>(Math.max(0, lowerCased.length() - 2));
+        for (int i = 0; i + 3 <= lowerCased.length(); i++) {
+            grams.add(((long) lowerCased.charAt(i) << 32) | ((long) lowerCased.charAt(i + 1) << 16)
+                    | lowerCased.charAt(i + 2));
+        }
+        return grams;
+    }
+
+    private static final class Document {
+        final int id;
+        final long vendorId;
+        final String name;      // lower-cased
+        final String sku;       // lower-cased, may be null
+        final String category;  // as stored (exact filter)
+        final String categoryLower;
+        final boolean active;
+
+        Document(int id, long vendorId, String name, String sku, String category, boolean active) {
+            this.id = id;
+            this.vendorId = vendorId;
+            this.name = name != null ? name.toLowerCase(Locale.ROOT) : "";
+            this.sku = sku != null ? sku.toLowerCase(Locale.ROOT) : null;
+            this.category = category;
+            this.categoryLower = category != null ? category.toLowerCase(Locale.ROOT) : null;
+            this.active = active;
+        }
+
+        boolean matches(String needle, boolean nameOnly) {
+            if (name.contains(needle)) return true;
+            if (nameOnly) return false;
+            return (sku != null && sku.contains(needle)) || (categoryLower != null && categoryLower.contains(needle));
+        }
+
+        List<Long> trigrams() {
+            List<Long> grams = InventorySearchIndex.trigrams(name);
+            if (sku != null) grams.addAll(InventorySearchIndex.trigrams(sku));
+            if (categoryLower != null) grams.addAll(InventorySearchIndex.trigrams(categoryLower));
+            return grams;
+        }
+    }
+}
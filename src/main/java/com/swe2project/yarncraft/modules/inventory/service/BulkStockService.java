@@ -0,0 +1,235 @@
+package com.swe2project.yarncraft.modules.inventory.service;
+
+import com.swe2project.yarncraft.aspect.NoExecutionLogging;
+import com.swe2project.yarncraft.modules.inventory.dto.BulkStockLine;
+import com.swe2project.yarncraft.modules.inventory.dto.BulkStockLine.Operation;
+import com.swe2project.yarncraft.modules.inventory.dto.BulkStockResult;
+import com.swe2project.yarncraft.modules.inventory.ledger.StockLedger;
+import com.swe2project.yarncraft.modules.inventory.ledger.StockLevels;
+import com.swe2project.yarncraft.modules.user.entity.User;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import tools.jackson.databind.ObjectMapper;
+
+/**
+ * Bulk restock / adjust from a streamed NDJSON or CSV upload.
+ * <p>
+ * The body is read line by line and handled in chunks of {@value #CHUNK_SIZE}: one query
+ * fetches owner and approval flags for the whole chunk, the ledger preloads the chunk's
+ * products in one more, then every line is applied in memory. The database sees the result
+ * through the ledger's batched write-behind flush and the batched movement log, never one
+ * UPDATE per line. Results are streamed back (NDJSON, input order) after each chunk.
+ */
+@Service
+@NoExecutionLogging
+@RequiredArgsConstructor
+@Slf4j
+public class BulkStockService {
+
+    private static final int CHUNK_SIZE = 1000;
+    private static final String OWNERS_SQL =
+            "SELECT product_id, vendor_id, requires_approval FROM inventory WHERE product_id IN (%s)";
+
+    private final StockLedger stockLedger;
+    private final JdbcTemplate jdbcTemplate;
+    private final ObjectMapper objectMapper;
+
+    public enum Format {
+        NDJSON,
+        CSV
+    }
+
+    /**
+     * @return number of lines processed
+     */
+    public long process(InputStream body, Format format, User currentUser, OutputStream results) throws IOException {
+        BufferedReader reader = new BufferedReader(new InputStreamReader(body, StandardCharsets.UTF_8), 64 * 1024);
+        Map<Long, Boolean> vendorAllowed = new HashMap<>(); // permission checked once per vendor
+        List<ParsedLine> chunk = new ArrayList<>(CHUNK_SIZE);
+        long lineNumber = 0;
+        long start = System.currentTimeMillis();
+
+        String text;
+        while ((text = reader.readLine()) != null) {
+            lineNumber++;
+            if (text.isBlank() || (format == Format.CSV && lineNumber == 1 && isCsvHeader(text))) {
+                continue;
+            }
+            chunk.add(parse(text, format, lineNumber));
+            if (chunk.size() == CHUNK_SIZE) {
+                applyChunk(chunk, currentUser, vendorAllowed, results);
+                chunk.clear();
+            }
+        }
+        if (!chunk.isEmpty()) {
+            applyChunk(chunk, currentUser, vendorAllowed, results);
+        }
+
+        log.info("Bulk stock upload by {}: {} lines in {} ms", currentUser.getEmail(), lineNumber,
+                System.currentTimeMillis() - start);
+        return lineNumber;
+    }
+
+    // ========================================================================
+    // CHUNK PROCESSING
+    // ========================================================================
+
+    private void applyChunk(List<ParsedLine> chunk, User currentUser, Map<Long, Boolean> vendorAllowed,
+                            OutputStream results) throws IOException {
+        List<Long> productIds = chunk.stream()
+                .filter(parsed -> parsed.error == null)
+                .map(parsed -> parsed.line.getProductId())
+                .distinct()
+                .toList();
+        Map<Long, Owner> owners = loadOwners(productIds);
+        stockLedger.preload(owners.keySet());
+
+        for (ParsedLine parsed : chunk) {
+            BulkStockResult result = parsed.error != null
+                    ? failure(parsed, parsed.error)
+                    : apply(parsed, owners.get(parsed.line.getProductId()), currentUser, vendorAllowed);
+            results.write(objectMapper.writeValueAsBytes(result));
+            results.write('\n');
+        }
+        results.flush();
+    }
+
+    private BulkStockResult apply(ParsedLine parsed, Owner owner, User currentUser, Map<Long, Boolean> vendorAllowed) {
+        BulkStockLine line = parsed.line;
+        if (owner == null) {
+            return failure(parsed, "Inventory not found for product: " + line.getProductId());
+        }
+        boolean allowed = vendorAllowed.computeIfAbsent(owner.vendorId, vendorId ->
+                currentUser.isAdmin() || (currentUser.isApprovedVendor() && vendorId.equals(currentUser.getId())));
+        if (!allowed) {
+            return failure(parsed, "You don't have permission to modify this inventory");
+        }
+
+        try {
+            StockLevels levels;
+            if (line.getOp() == Operation.RESTOCK) {
+                if (line.getQuantity() <= 0) {
+                    return failure(parsed, "Restock quantity must be positive");
+                }
+                if (owner.requiresApproval && !currentUser.isAdmin()) {
+                    return failure(parsed, "This inventory requires admin approval for restocking");
+                }
+                levels = stockLedger.restock(line.getProductId(), line.getQuantity());
+            } else {
+                if (!currentUser.isAdmin()) {
+                    return failure(parsed, "Only admins can manually adjust stock");
+                }
+                if (line.getQuantity() < 0) {
+                    return failure(parsed, "Stock quantity cannot be negative");
+                }
+                String reason = line.getReason() != null ? line.getReason() : "Bulk adjustment";
+                levels = stockLedger.setStock(line.getProductId(), line.getQuantity(), reason);
+            }
+            return BulkStockResult.builder()
+                    .line(parsed.number)
+                    .productId(line.getProductId())
+                    .success(true)
+                    .stockQuantity(levels.getStockQuantity())
+                    .availableStock(levels.getAvailableStock())
+                    .build();
+        } catch (RuntimeException e) {
+            return failure(parsed, e.getMessage());
+        }
+    }
+
+    private Map<Long, Owner> loadOwners(List<Long> productIds) {
+        Map<Long, Owner> owners = new HashMap<>();
+        if (productIds.isEmpty()) {
+            return owners;
+        }
+        String placeholders = String.join(",", Collections.nCopies(productIds.size(), "?"));
+        jdbcTemplate.query(String.format(OWNERS_SQL, placeholders), rs -> {
+            owners.put(rs.getLong("product_id"),
+                    new Owner(rs.getLong("vendor_id"), rs.getBoolean("requires_approval")));
+        }, productIds.toArray());
+        return owners;
+    }
+
+    // ========================================================================
+    // PARSING
+    // ========================================================================
+
+    private ParsedLine parse(String text, Format format, long number) {
+        try {
+            BulkStockLine line = format == Format.CSV ? parseCsv(text) : objectMapper.readValue(text, BulkStockLine.class);
+            if (line.getOp() == null || line.getProductId() == null || line.getQuantity() == null) {
+                return new ParsedLine(number, line, "op, productId and quantity are required");
+            }
+            return new ParsedLine(number, line, null);
+        } catch (RuntimeException e) {
+            return new ParsedLine(number, null, "Unreadable line: " + e.getMessage());
+        }
+    }
+
+    // op,productId,quantity[,reason] - the reason is the last column, so it may contain commas
+    private static BulkStockLine parseCsv(String text) {
+        String[] columns = text.split(",", 4);
+        if (columns.length < 3) {
+            throw new IllegalArgumentException("expected op,productId,quantity[,reason]");
+        }
+        BulkStockLine line = new BulkStockLine();
+        line.setOp(Operation.valueOf(columns[0].trim().toUpperCase()));
+        line.setProductId(Long.parseLong(columns[1].trim()));
+        line.setQuantity(Integer.parseInt(columns[2].trim()));
+        if (columns.length == 4 && !columns[3].isBlank()) {
+            line.setReason(columns[3].trim());
+        }
+        return line;
+    }
+
+    private static boolean isCsvHeader(String text) {
+        return text.trim().toLowerCase().startsWith("op");
+    }
+
+    private static BulkStockResult failure(ParsedLine parsed, String error) {
+        return BulkStockResult.builder()
+                .line(parsed.number)
+                .productId(parsed.line != null ? parsed.line.getProductId() : null)
+                .success(false)
+                .error(error)
+                .build();
+    }
+
+    private static final class ParsedLine {
+        final long number;
+        final BulkStockLine line;
+        final String error;
+
+        ParsedLine(long number, BulkStockLine line, String error) {
+            this.number = number;
+            this.line = line;
+            this.error = error;
+        }
+    }
+
+    private static final class Owner {
+        final Long vendorId;
+        final boolean requiresApproval;
+
+        Owner(Long vendorId, boolean requiresApproval) {
+            this.vendorId = vendorId;
+            this.requiresApproval = requiresApproval;
+        }
+    }
+}
@@ -1,18 +1,40 @@
 package com.swe2project.yarncraft.modules.inventory.service;
 
+import com.swe2project.yarncraft.common.dto.CursorPage;
 import com.swe2project.yarncraft.common.exception.ResourceNotFoundException;
+import com.swe2project.yarncraft.common.util.CursorCodec;
+import com.swe2project.yarncraft.common.util.TransactionHooks;
+import com.swe2project.yarncraft.common.web.ResourceVersions;
+import com.swe2project.yarncraft.modules.inventory.analytics.SalesLeaderboard;
+import com.swe2project.yarncraft.modules.inventory.dto.InventoryPageRequest;
+import com.swe2project.yarncraft.modules.inventory.dto.InventorySort;
 import com.swe2project.yarncraft.modules.inventory.entity.InventoryItem;
 import com.swe2project.yarncraft.modules.inventory.entity.InventoryItem.StockStatus;
+import com.swe2project.yarncraft.modules.inventory.ledger.HotStockShards;
+import com.swe2project.yarncraft.modules.inventory.ledger.StockLedger;
+import com.swe2project.yarncraft.modules.inventory.ledger.StockLevels;
 import com.swe2project.yarncraft.modules.inventory.repository.InventoryRepository;
+import com.swe2project.yarncraft.modules.inventory.repository.InventorySpecifications;
+import com.swe2project.yarncraft.modules.inventory.search.InventorySearchIndex;
+import com.swe2project.yarncraft.modules.product.entity.Category;
 import com.swe2project.yarncraft.modules.user.entity.User;
 import com.swe2project.yarncraft.modules.user.repository.UserRepository;
 
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
+import java.time.Instant;
 import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.TreeMap;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.stream.Collectors;
 
 import lombok.RequiredArgsConstructor;
@@ -23,8 +45,18 @@ import lombok.extern.slf4j.Slf4j;
 @Slf4j
 public class InventoryService {
 
+    private static final int MAX_TOP_SELLING = 100;
+    private static final int DEFAULT_PAGE_SIZE = 50;
+    private static final int MAX_PAGE_SIZE = 200;
+
     private final InventoryRepository inventoryRepository;
     private final UserRepository userRepository;
+    private final StockLedger stockLedger;
+    private final HotStockShards hotStockShards;
+    private final VendorDashboardService vendorDashboardService;
+    private final SalesLeaderboard salesLeaderboard;
+    private final InventorySearchIndex searchIndex;
+    private final ResourceVersions resourceVersions;
 
     // ========================================================================
     // 1. CREATE & UPDATE OPERATIONS
@@ -56,7 +88,12 @@ public class InventoryService {
         inventoryItem.setLastModifiedBy(currentUser);
         inventoryItem.updateStockStatus();
 
-        return inventoryRepository.save(inventoryItem);
+        InventoryItem saved = inventoryRepository.save(inventoryItem);
+        TransactionHooks.afterCommit(() -> {
+            stockLedger.register(saved.getProductId());
+            searchIndex.index(saved);
+        });
+        return saved;
     }
 
     /**
@@ -87,9 +124,12 @@ public class InventoryService {
         if (updatedItem.getIsActive() != null) existing.setIsActive(updatedItem.getIsActive());
 
         existing.setLastModifiedBy(currentUser);
-        existing.updateStockStatus();
+        withLiveStock(existing);
+        syncLedgerAttributes(existing);
 
-        return inventoryRepository.save(existing);
+        InventoryItem saved = inventoryRepository.save(existing);
+        TransactionHooks.afterCommit(() -> searchIndex.index(saved));
+        return saved;
     }
 
     // ========================================================================
@@ -98,48 +138,157 @@ public class InventoryService {
 
     public InventoryItem getInventoryById(Long id) {
         return inventoryRepository.findById(id)
+                .map(this::withLiveStock)
                 .orElseThrow(() -> new RuntimeException("Inventory not found with ID: " + id));
     }
 
     public InventoryItem getInventoryByProductId(Long productId) {
         return inventoryRepository.findByProductId(productId)
+                .map(this::withLiveStock)
                 .orElseThrow(() -> new RuntimeException("Inventory not found for product: " + productId));
     }
 
-    public List<InventoryItem> getAllInventory(User currentUser) {
+    // List reads are keyset-paginated (see page()): each call reads at most one page of rows.
+
+    public CursorPage<InventoryItem> getAllInventory(User currentUser, InventoryPageRequest request) {
         if (currentUser.isAdmin()) {
-            return inventoryRepository.findAll();
+            return page(InventorySpecifications.all(), request);
         } else if (currentUser.isApprovedVendor()) {
-            return inventoryRepository.findByVendor(currentUser);
+            return page(InventorySpecifications.ofVendor(currentUser.getId()), request);
         } else {
-            return inventoryRepository.findByIsActiveTrue();
+            return page(InventorySpecifications.active(), request);
         }
     }
 
-    public List<InventoryItem> getVendorInventory(Long vendorId, User currentUser) {
+    public CursorPage<InventoryItem> getVendorInventory(Long vendorId, User currentUser, InventoryPageRequest request) {
         if (!currentUser.isAdmin() && !currentUser.getId().equals(vendorId)) {
             throw new SecurityException("You can only view your own inventory");
         }
-        return inventoryRepository.findByVendorId(vendorId);
+        return page(InventorySpecifications.ofVendor(vendorId), request);
     }
 
-    public List<InventoryItem> getActiveInventory() {
-        return inventoryRepository.findByIsActiveTrue();
+    public CursorPage<InventoryItem> getActiveInventory(InventoryPageRequest request) {
+        return page(InventorySpecifications.active(), request);
     }
 
-    public List<InventoryItem> getInventoryByCategory(String category) {
-        return inventoryRepository.findByProductCategory(category);
+    public CursorPage<InventoryItem> getInventoryByCategory(String category, InventoryPageRequest request) {
+        return page(InventorySpecifications.inCategory(category), request);
     }
 
-    public List<InventoryItem> searchInventory(String searchTerm) {
-        return inventoryRepository.searchByProductName(searchTerm);
+    // Searches are served by the in-memory trigram index, in id order (see searchPage()).
+
+    public CursorPage<InventoryItem> searchInventory(String searchTerm, InventoryPageRequest request) {
+        return searchPage(searchTerm, false, null, null, request);
     }
 
-    public List<InventoryItem> searchInventoryAdvanced(String productName, String category, Long vendorId, User currentUser) {
+    public CursorPage<InventoryItem> searchInventoryAdvanced(String productName, String category, Long vendorId,
+                                                             User currentUser, InventoryPageRequest request) {
         if (vendorId != null && !currentUser.isAdmin() && !currentUser.getId().equals(vendorId)) {
             throw new SecurityException("You can only search your own inventory");
         }
-        return inventoryRepository.searchInventory(productName, category, vendorId);
+        return searchPage(productName, true, vendorId, category, request);
+    }
+
+    private CursorPage<InventoryItem> page(Specification<InventoryItem> filter, InventoryPageRequest request) {
+        return page(filter, false, request);
+    }
+
+    /**
+     * Keyset pagination: seek past the cursor's (sort key, id) and read {@code size + 1} rows,
+     * the extra one only telling whether there is a next page. The cursor is taken from the
+     * row as stored, before live ledger counters are applied, so it matches what the next seek compares.
+     * <p>
+     * Stock columns are written behind by the ledger. When the filter or the sort reads them
+     * ({@code stockFilter}, {@link InventorySort#isLedgerColumn()}) the ledger is flushed first,
+     * so rows are selected and ordered by the counters as of this call. They can still move
+     * before the page is returned, and a failed flush leaves the last flushed values.
+     */
+    private CursorPage<InventoryItem> page(Specification<InventoryItem> filter, boolean stockFilter,
+                                           InventoryPageRequest request) {
+        InventorySort sort = request.getSort() != null ? request.getSort() : InventorySort.ID;
+        Sort.Direction direction = direction(request);
+        int limit = pageLimit(request);
+        if (stockFilter || sort.isLedgerColumn()) {
+            stockLedger.flush();
+        }
+
+        Specification<InventoryItem> spec = filter;
+        if (request.getCursor() != null && !request.getCursor().isBlank()) {
+            String[] parts = CursorCodec.decode(request.getCursor(), 4);
+            if (!parts[0].equals(sort.name()) || !parts[1].equals(direction.name())) {
+                throw new IllegalArgumentException("Cursor belongs to a different sort order");
+            }
+            try {
+                spec = spec.and(InventorySpecifications.after(sort.getProperty(), sort.parse(parts[2]),
+                        Long.parseLong(parts[3]), direction));
+            } catch (RuntimeException e) {
+                throw new IllegalArgumentException("Invalid cursor");
+            }
+        }
+
+        Sort order = sort == InventorySort.ID
+                ? Sort.by(direction, "id")
+                : Sort.by(direction, sort.getProperty()).and(Sort.by(direction, "id"));
+        List<InventoryItem> rows = inventoryRepository.findBy(spec, query -> query.sortBy(order).limit(limit + 1).all());
+
+        String nextCursor = null;
+        if (rows.size() > limit) {
+            rows = new ArrayList<>(rows.subList(0, limit));
+            InventoryItem last = rows.get(limit - 1);
+            nextCursor = CursorCodec.encode(sort.name(), direction.name(), sort.format(last), String.valueOf(last.getId()));
+        }
+        return new CursorPage<>(withLiveStock(rows), nextCursor);
+    }
+
+    /**
+     * A page of index search hits. The index only orders by id, so the cursor has the same
+     * shape as an ID-sorted page from page().
+     */
+    private CursorPage<InventoryItem> searchPage(String term, boolean nameOnly, Long vendorId, String category,
+                                                 InventoryPageRequest request) {
+        if (request.getSort() != null && request.getSort() != InventorySort.ID) {
+            throw new IllegalArgumentException("Search results can only be sorted by ID");
+        }
+        Sort.Direction direction = direction(request);
+        int limit = pageLimit(request);
+
+        Long afterId = null;
+        if (request.getCursor() != null && !request.getCursor().isBlank()) {
+            String[] parts = CursorCodec.decode(request.getCursor(), 4);
+            if (!parts[0].equals(InventorySort.ID.name()) || !parts[1].equals(direction.name())) {
+                throw new IllegalArgumentException("Cursor belongs to a different sort order");
+            }
+            try {
+                afterId = Long.parseLong(parts[3]);
+            } catch (NumberFormatException e) {
+                throw new IllegalArgumentException("Invalid cursor");
+            }
+        }
+
+        List<Long> ids = searchIndex.search(term, nameOnly, vendorId, category, afterId,
+                direction.isAscending(), limit + 1);
+        String nextCursor = null;
+        if (ids.size() > limit) {
+            ids = ids.subList(0, limit);
+            String lastId = String.valueOf(ids.get(limit - 1));
+            nextCursor = CursorCodec.encode(InventorySort.ID.name(), direction.name(), lastId, lastId);
+        }
+
+        Map<Long, InventoryItem> byId = inventoryRepository.findAllById(ids).stream()
+                .collect(Collectors.toMap(InventoryItem::getId, item -> item));
+        List<InventoryItem> rows = ids.stream()
+                .map(byId::get)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toList());
+        return new CursorPage<>(withLiveStock(rows), nextCursor);
+    }
+
+    private static Sort.Direction direction(InventoryPageRequest request) {
+        return request.getDirection() != null ? request.getDirection() : Sort.Direction.ASC;
+    }
+
+    private static int pageLimit(InventoryPageRequest request) {
+        return request.getSize() == null ? DEFAULT_PAGE_SIZE : Math.max(1, Math.min(request.getSize(), MAX_PAGE_SIZE));
     }
 
     // ========================================================================
@@ -148,12 +297,11 @@ public class InventoryService {
 
     public boolean checkStock(Long productId, Integer quantity) {
         if (quantity <= 0) throw new IllegalArgumentException("Quantity must be positive");
-        return inventoryRepository.hasAvailableStock(productId, quantity);
+        return stockLedger.levels(productId).getAvailableStock() >= quantity;
     }
 
     public Integer getAvailableStock(Long productId) {
-        Integer stock = inventoryRepository.getAvailableStock(productId);
-        return stock != null ? stock : 0;
+        return stockLedger.levels(productId).getAvailableStock();
     }
 
     @Transactional
@@ -161,19 +309,15 @@ public class InventoryService {
         log.info("Reserving {} units for product {}", quantity, productId);
         if (quantity <= 0) throw new IllegalArgumentException("Quantity must be positive");
 
-        if (!checkStock(productId, quantity)) {
-            throw new IllegalStateException("Insufficient stock available for product: " + productId);
-        }
-
-        int updated = inventoryRepository.reserveStock(productId, quantity);
-        if (updated == 0) throw new IllegalStateException("Failed to reserve stock.");
+        stockLedger.reserve(productId, quantity);
+        TransactionHooks.onRollback(() -> stockLedger.release(productId, quantity));
     }
 
     @Transactional
     public void releaseReservedStock(Long productId, Integer quantity) {
         log.info("Releasing {} reserved units for product {}", quantity, productId);
         if (quantity <= 0) throw new IllegalArgumentException("Quantity must be positive");
-        inventoryRepository.releaseReservedStock(productId, quantity);
+        stockLedger.release(productId, quantity);
     }
 
     @Transactional
@@ -181,35 +325,66 @@ public class InventoryService {
         log.info("Confirming reservation of {} units for product {}", quantity, productId);
         if (quantity <= 0) throw new IllegalArgumentException("Quantity must be positive");
 
-        int updated = inventoryRepository.confirmReservation(productId, quantity);
-        if (updated == 0) throw new IllegalStateException("Failed to confirm reservation.");
+        stockLedger.confirm(productId, quantity);
     }
 
     /**
-     * THE CRITICAL FIX: Direct stock deduction logic
-     * Used by OrderService to finalize purchases.
+     * Direct stock deduction, used by OrderService to finalize purchases.
+     * Goes through the in-memory StockLedger (one striped lock, no SELECT/UPDATE);
+     * if the caller's transaction rolls back, the units are put back.
      */
     @Transactional
     public void deductStock(Long productId, int quantity) {
-        // 1. Find the inventory
-        InventoryItem inventory = inventoryRepository.findByProductId(productId)
-                .orElseThrow(() -> new RuntimeException("Inventory not found"));
+        if (quantity <= 0) throw new IllegalArgumentException("Quantity must be positive");
 
-        // 2. Check if we have enough
-        if (inventory.getAvailableStock() < quantity) {
-            throw new RuntimeException("Not enough stock! Available: " + inventory.getAvailableStock());
+        if (hotStockShards.take(productId, quantity)) {
+            TransactionHooks.onRollback(() -> hotStockShards.giveBack(productId, quantity));
+            return;
         }
+        stockLedger.deduct(productId, quantity);
+        TransactionHooks.onRollback(() -> stockLedger.restoreSale(productId, quantity));
+    }
 
-        // 3. CORRECT: Update the physical stock quantity
-        inventory.setStockQuantity(inventory.getStockQuantity() - quantity);
+    /**
+     * Batched checkout deduction: every line succeeds or none does.
+     * Used by OrderService.placeOrder instead of one deductStock call per item.
+     *
+     * @param quantities productId -> units, duplicate lines already merged
+     */
+    @Transactional
+    public void deductStockBatch(Map<Long, Integer> quantities) {
+        takeStockBatch(quantities);
+    }
 
-        // 4. Update sales stats and status
-        inventory.setSoldQuantity(inventory.getSoldQuantity() + quantity);
-        inventory.setLastSoldAt(LocalDateTime.now());
-        inventory.updateStockStatus();
+    /**
+     * Same as {@link #deductStockBatch}, but not a transaction boundary: it joins the caller's
+     * transaction only through its rollback hook. A failure (out of stock) therefore leaves that
+     * transaction usable instead of marking it rollback-only, which is what OrderIntake needs
+     * when one order of a batch fails and the others still commit.
+     */
+    public void takeStockBatch(Map<Long, Integer> quantities) {
+        if (quantities.values().stream().anyMatch(quantity -> quantity == null || quantity <= 0)) {
+            throw new IllegalArgumentException("Quantity must be positive");
+        }
 
-        // 5. SAVE IT!
-        inventoryRepository.save(inventory);
+        // Hot SKUs come out of their shards; everything else (or a dry shard set) from the ledger
+        Map<Long, Integer> fromShards = new TreeMap<>();
+        Map<Long, Integer> fromLedger = new TreeMap<>();
+        quantities.forEach((productId, quantity) ->
+                (hotStockShards.take(productId, quantity) ? fromShards : fromLedger).put(productId, quantity));
+
+        try {
+            if (!fromLedger.isEmpty()) {
+                stockLedger.deductAll(fromLedger);
+            }
+        } catch (RuntimeException e) {
+            fromShards.forEach(hotStockShards::giveBack);
+            throw e;
+        }
+        TransactionHooks.onRollback(() -> {
+            fromShards.forEach(hotStockShards::giveBack);
+            fromLedger.forEach(stockLedger::restoreSale);
+        });
     }
 
     /**
@@ -236,11 +411,9 @@ public class InventoryService {
         }
 
         // Increase physical stock
-        inventory.setStockQuantity(inventory.getStockQuantity() + quantity);
-
-        inventory.setLastRestockedAt(LocalDateTime.now());
+        applyLevels(inventory, stockLedger.restock(productId, quantity));
+        TransactionHooks.onRollback(() -> stockLedger.revertStock(productId, quantity));
         inventory.setLastModifiedBy(currentUser);
-        inventory.updateStockStatus();
 
         return inventoryRepository.save(inventory);
     }
@@ -257,15 +430,38 @@ public class InventoryService {
         }
 
         InventoryItem inventory = getInventoryByProductId(productId);
-        inventory.setStockQuantity(newQuantity);
+        // Who, when and why are recorded as an ADJUST row in stock_movements
+        AtomicInteger added = new AtomicInteger();
+        applyLevels(inventory, stockLedger.setStock(productId, newQuantity, reason, added::set));
+        TransactionHooks.onRollback(() -> stockLedger.revertStock(productId, added.get()));
         inventory.setLastModifiedBy(currentUser);
 
-        String newNote = (inventory.getNotes() != null ? inventory.getNotes() + "\n" : "") +
-                "Stock adjusted by admin: " + reason + " at " + LocalDateTime.now();
-        inventory.setNotes(newNote);
+        return inventoryRepository.save(inventory);
+    }
 
-        inventory.updateStockStatus();
+    /**
+     * Turn flash-sale mode on or off for one product. The shards follow the flag once it is committed.
+     */
+    @Transactional
+    public InventoryItem setHotSku(Long productId, boolean enabled, User currentUser) {
+        log.info("Setting hot-SKU mode for product {} to {}", productId, enabled);
 
+        InventoryItem inventory = getInventoryByProductId(productId);
+        if (!inventory.canBeModifiedBy(currentUser)) {
+            throw new SecurityException("You don't have permission to modify this inventory");
+        }
+
+        inventory.setIsHotSku(enabled);
+        inventory.setLastModifiedBy(currentUser);
+        TransactionHooks.afterCommit(() -> {
+            if (enabled) {
+                hotStockShards.enable(productId);
+            } else {
+                hotStockShards.disable(productId);
+            }
+            resourceVersions.touch(ResourceVersions.INVENTORY, ResourceVersions.inventoryOfProduct(productId),
+                    ResourceVersions.inventoryOfVendor(inventory.getVendor().getId()));
+        });
         return inventoryRepository.save(inventory);
     }
 
@@ -273,40 +469,27 @@ public class InventoryService {
     // 4. ALERTS & ANALYTICS
     // ========================================================================
 
-    public List<InventoryItem> getLowStockItems(User currentUser) {
-        List<InventoryItem> lowStockItems = inventoryRepository.findLowStockItems();
-        if (currentUser.isAdmin()) return lowStockItems;
-        if (currentUser.isVendor()) {
-            return lowStockItems.stream()
-                    .filter(item -> item.getVendor().getId().equals(currentUser.getId()))
-                    .collect(Collectors.toList());
-        }
-        return List.of();
+    // Live changes are pushed by StockAlertHub (GET /alerts/stream); these serve the initial load.
+    public CursorPage<InventoryItem> getLowStockItems(User currentUser, InventoryPageRequest request) {
+        Specification<InventoryItem> filter = InventorySpecifications.lowStock().and(InventorySpecifications.active());
+        if (currentUser.isAdmin()) return page(filter, true, request);
+        if (currentUser.isVendor()) return page(filter.and(InventorySpecifications.ofVendor(currentUser.getId())), true, request);
+        return new CursorPage<>(List.of(), null);
     }
 
-    public List<InventoryItem> getOutOfStockItems(User currentUser) {
-        List<InventoryItem> outOfStockItems = inventoryRepository.findOutOfStockItems();
-        if (currentUser.isAdmin()) return outOfStockItems;
-        if (currentUser.isVendor()) {
-            return outOfStockItems.stream()
-                    .filter(item -> item.getVendor().getId().equals(currentUser.getId()))
-                    .collect(Collectors.toList());
-        }
-        return List.of();
+    public CursorPage<InventoryItem> getOutOfStockItems(User currentUser, InventoryPageRequest request) {
+        Specification<InventoryItem> filter = InventorySpecifications.outOfStock().and(InventorySpecifications.active());
+        if (currentUser.isAdmin()) return page(filter, true, request);
+        if (currentUser.isVendor()) return page(filter.and(InventorySpecifications.ofVendor(currentUser.getId())), true, request);
+        return new CursorPage<>(List.of(), null);
     }
 
-    public List<InventoryItem> getInventoryByStatus(StockStatus status, User currentUser) {
-        List<InventoryItem> items = inventoryRepository.findByStatus(status);
-        if (currentUser.isAdmin()) return items;
-        if (currentUser.isVendor()) {
-            return items.stream()
-                    .filter(item -> item.getVendor().getId().equals(currentUser.getId()))
-                    .collect(Collectors.toList());
-        } else {
-            return items.stream()
-                    .filter(InventoryItem::getIsActive)
-                    .collect(Collectors.toList());
-        }
+    public CursorPage<InventoryItem> getInventoryByStatus(StockStatus status, User currentUser,
+                                                          InventoryPageRequest request) {
+        Specification<InventoryItem> filter = InventorySpecifications.withStatus(status);
+        if (currentUser.isAdmin()) return page(filter, true, request);
+        if (currentUser.isVendor()) return page(filter.and(InventorySpecifications.ofVendor(currentUser.getId())), true, request);
+        return page(filter.and(InventorySpecifications.active()), true, request);
     }
 
     public Double getTotalInventoryValue(Long vendorId, User currentUser) {
@@ -324,15 +507,39 @@ public class InventoryService {
         return inventoryRepository.countActiveProductsByVendor(vendorId);
     }
 
-    public List<InventoryItem> getTopSellingProducts(User currentUser) {
-        List<InventoryItem> topProducts = inventoryRepository.findTopSellingProducts();
-        if (currentUser.isAdmin()) return topProducts;
-        if (currentUser.isVendor()) {
-            return topProducts.stream()
-                    .filter(item -> item.getVendor().getId().equals(currentUser.getId()))
-                    .collect(Collectors.toList());
+    /**
+     * One page of the top {@code k} sellers, read from the in-memory leaderboards.
+     * Vendors always get their own board, admins may pick a vendor; otherwise the
+     * category board (if given) or the global one. Only the page's rows are loaded.
+     */
+    public List<InventoryItem> getTopSellingProducts(int k, Category category, Long vendorId,
+                                                     int page, int size, User currentUser) {
+        if (k < 1 || k > MAX_TOP_SELLING) {
+            throw new IllegalArgumentException("k must be between 1 and " + MAX_TOP_SELLING);
+        }
+        if (page < 0 || size < 1) {
+            throw new IllegalArgumentException("page must be >= 0 and size >= 1");
         }
-        return topProducts.stream().filter(InventoryItem::getIsActive).collect(Collectors.toList());
+        Long boardVendor = currentUser.isAdmin() ? vendorId
+                : currentUser.isVendor() ? currentUser.getId() : null;
+
+        int offset = page * size;
+        if (offset >= k) {
+            return List.of();
+        }
+        List<Long> productIds = salesLeaderboard.top(boardVendor,
+                category != null ? category.name() : null, offset, Math.min(size, k - offset));
+        if (productIds.isEmpty()) {
+            return List.of();
+        }
+
+        Map<Long, InventoryItem> byProduct = inventoryRepository.findByProductIdIn(productIds).stream()
+                .collect(Collectors.toMap(InventoryItem::getProductId, item -> item));
+        return productIds.stream()
+                .map(byProduct::get)
+                .filter(Objects::nonNull)
+                .map(this::withLiveStock)
+                .collect(Collectors.toList());
     }
 
     public VendorDashboardStats getVendorDashboard(Long vendorId, User currentUser) {
@@ -340,37 +547,8 @@ public class InventoryService {
             throw new SecurityException("You can only view your own dashboard");
         }
 
-        List<InventoryItem> vendorInventory = inventoryRepository.findByVendorId(vendorId);
-
-        long totalProducts = vendorInventory.size();
-        long activeProducts = vendorInventory.stream().filter(InventoryItem::getIsActive).count();
-        long lowStockCount = vendorInventory.stream().filter(InventoryItem::needsReorder).count();
-        long outOfStockCount = vendorInventory.stream().filter(item -> item.getStockQuantity() == 0).count();
-
-        int totalStock = vendorInventory.stream().mapToInt(InventoryItem::getStockQuantity).sum();
-        int totalReserved = vendorInventory.stream().mapToInt(InventoryItem::getReservedQuantity).sum();
-        int totalSold = vendorInventory.stream().mapToInt(InventoryItem::getSoldQuantity).sum();
-
-        BigDecimal totalValue = vendorInventory.stream()
-                .map(InventoryItem::getTotalInventoryValue)
-                .reduce(BigDecimal.ZERO, BigDecimal::add);
-
-        BigDecimal potentialRevenue = vendorInventory.stream()
-                .map(InventoryItem::getPotentialRevenue)
-                .reduce(BigDecimal.ZERO, BigDecimal::add);
-
-        return VendorDashboardStats.builder()
-                .vendorId(vendorId)
-                .totalProducts(totalProducts)
-                .activeProducts(activeProducts)
-                .lowStockCount(lowStockCount)
-                .outOfStockCount(outOfStockCount)
-                .totalStock(totalStock)
-                .totalReserved(totalReserved)
-                .totalSold(totalSold)
-                .totalInventoryValue(totalValue)
-                .potentialRevenue(potentialRevenue)
-                .build();
+        // Maintained by deltas from the StockLedger, so this no longer scans the vendor's catalog
+        return vendorDashboardService.getStats(vendorId);
     }
 
     // ========================================================================
@@ -386,7 +564,9 @@ public class InventoryService {
         inventory.setIsActive(false);
         inventory.setStatus(StockStatus.DISCONTINUED);
         inventory.setLastModifiedBy(currentUser);
+        syncLedgerAttributes(inventory);
         inventoryRepository.save(inventory);
+        TransactionHooks.afterCommit(() -> searchIndex.index(inventory));
     }
 
     @Transactional
@@ -398,7 +578,9 @@ public class InventoryService {
         inventory.setIsActive(true);
         inventory.updateStockStatus();
         inventory.setLastModifiedBy(currentUser);
+        syncLedgerAttributes(inventory);
         inventoryRepository.save(inventory);
+        TransactionHooks.afterCommit(() -> searchIndex.index(inventory));
     }
 
     @Transactional
@@ -410,7 +592,12 @@ public class InventoryService {
         if (inventory.getReservedQuantity() > 0) {
             throw new IllegalStateException("Cannot delete inventory with reserved stock");
         }
+        stockLedger.levels(inventory.getProductId()); // loaded, so evict can take it off the dashboard
         inventoryRepository.deleteById(id);
+        TransactionHooks.afterCommit(() -> {
+            forget(inventory.getProductId());
+            searchIndex.remove(id);
+        });
     }
 
     @Transactional
@@ -422,13 +609,74 @@ public class InventoryService {
             throw new IllegalStateException("Cannot delete inventory with reserved stock. Release reservation first.");
         }
 
+        stockLedger.levels(productId); // loaded, so evict can take it off the dashboard
         inventoryRepository.delete(inventory);
+        TransactionHooks.afterCommit(() -> {
+            forget(productId);
+            searchIndex.remove(inventory.getId());
+        });
         log.info("Successfully deleted inventory for Product ID: {}", productId);
     }
+
+    /**
+     * Drop a deleted product's shards and ledger cell. Only after the delete commits: a caller
+     * that fails later (ProductService.deleteProduct on an ordered product) rolls the row back,
+     * and an evicted cell would take its unflushed counters with it.
+     */
+    private void forget(Long productId) {
+        hotStockShards.disable(productId);
+        stockLedger.evict(productId);
+    }
     // ========================================================================
     // 6. HELPER CLASSES
     // ========================================================================
 
+    /**
+     * Copy the ledger's live counters onto an entity loaded from the (write-behind) table.
+     */
+    private InventoryItem withLiveStock(InventoryItem item) {
+        stockLedger.peek(item.getProductId()).ifPresent(levels -> applyLevels(item, levels));
+        return item;
+    }
+
+    private List<InventoryItem> withLiveStock(List<InventoryItem> items) {
+        items.forEach(this::withLiveStock);
+        return items;
+    }
+
+    /**
+     * Reorder level, active flag, cost and price feed the ledger's status tracking (alerts) and the
+     * vendor dashboard; hand them over on commit. The product is loaded first, while the row still
+     * has the old values, so the dashboard delta is taken from the right starting point.
+     */
+    private void syncLedgerAttributes(InventoryItem item) {
+        long productId = item.getProductId();
+        int reorderLevel = item.getReorderLevel();
+        boolean active = item.getIsActive();
+        BigDecimal unitCost = item.getUnitCost();
+        BigDecimal unitPrice = item.getUnitPrice();
+        stockLedger.levels(productId);
+        TransactionHooks.afterCommit(() ->
+                stockLedger.updateAttributes(productId, reorderLevel, active, unitCost, unitPrice));
+    }
+
+    private static void applyLevels(InventoryItem item, StockLevels levels) {
+        item.setStockQuantity(levels.getStockQuantity());
+        item.setReservedQuantity(levels.getReservedQuantity());
+        item.setSoldQuantity(levels.getSoldQuantity());
+        if (levels.getLastSoldAt() != 0) {
+            item.setLastSoldAt(toLocalDateTime(levels.getLastSoldAt()));
+        }
+        if (levels.getLastRestockedAt() != 0) {
+            item.setLastRestockedAt(toLocalDateTime(levels.getLastRestockedAt()));
+        }
+        item.updateStockStatus();
+    }
+
+    private static LocalDateTime toLocalDateTime(long epochMillis) {
+        return LocalDateTime.ofInstant(Instant.ofEpochMilli(epochMillis), ZoneId.systemDefault());
+    }
+
     @lombok.Data
     @lombok.Builder
     public static class VendorDashboardStats {
@@ -469,7 +717,11 @@ public class InventoryService {
                 .status(StockStatus.IN_STOCK)
                 .build();
 
-        inventoryRepository.save(item);
+        InventoryItem saved = inventoryRepository.save(item);
+        TransactionHooks.afterCommit(() -> {
+            stockLedger.register(product.getId());
+            searchIndex.index(saved);
+        });
         log.info("Initialized inventory for Product ID: {}", product.getId());
     }
 }
\ No newline at end of file
@@ -0,0 +1,289 @@
+package com.swe2project.yarncraft.modules.inventory.service;
+
+import com.swe2project.yarncraft.aspect.NoExecutionLogging;
+import com.swe2project.yarncraft.common.util.HierarchicalTimingWheel;
+import com.swe2project.yarncraft.common.util.TransactionHooks;
+import com.swe2project.yarncraft.modules.inventory.dto.ReservationRequest;
+import com.swe2project.yarncraft.modules.inventory.dto.ReservationResponse;
+import com.swe2project.yarncraft.modules.inventory.ledger.StockLedger;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Time-limited stock holds for checkout.
+ * <p>
+ * A reservation moves units from available to reserved in the {@link StockLedger} and
+ * gets an id and a TTL. Pending holds live in a {@link HierarchicalTimingWheel}, so each
+ * tick costs O(1) no matter how many are pending; expired holds are released grouped by
+ * product (one ledger release per product per tick). The {@code stock_reservations}
+ * table only exists so timers can be re-armed after a restart, never for scanning.
+ */
+@Service
+@NoExecutionLogging
+@RequiredArgsConstructor
+@Slf4j
+public class ReservationService {
+
+    private static final String INSERT_SQL =
+            "INSERT INTO stock_reservations (reservation_id, product_id, quantity, owner_email, expires_at) " +
+                    "VALUES (?, ?, ?, ?, ?)";
+    private static final String DELETE_SQL = "DELETE FROM stock_reservations WHERE reservation_id = ?";
+    private static final String LOAD_SQL =
+            "SELECT reservation_id, product_id, quantity, owner_email, expires_at FROM stock_reservations";
+
+    private final StockLedger stockLedger;
+    private final JdbcTemplate jdbcTemplate;
+
+    @Value("${yarncraft.inventory.reservations.default-ttl-seconds:900}")
+    private long defaultTtlSeconds;
+
+    @Value("${yarncraft.inventory.reservations.max-ttl-seconds:3600}")
+    private long maxTtlSeconds;
+
+    @Value("${yarncraft.inventory.reservations.tick-ms:100}")
+    private long tickMillis;
+
+    private final ConcurrentHashMap<String, Hold> holds = new ConcurrentHashMap<>();
+    private HierarchicalTimingWheel<String> wheel;
+
+    // ========================================================================
+    // 1. STARTUP: RE-ARM PENDING HOLDS
+    // ========================================================================
+
+    @PostConstruct
+    void restore() {
+        wheel = new HierarchicalTimingWheel<>(tickMillis, System.currentTimeMillis());
+
+        Map<String, Hold> pending = new HashMap<>();
+        jdbcTemplate.query(LOAD_SQL, rs -> {
+            String id = rs.getString("reservation_id");
+            String ownerEmail = rs.getString("owner_email");
+            long expiresAt = rs.getTimestamp("expires_at").getTime();
+            Hold hold = pending.computeIfAbsent(id, key -> new Hold(key, ownerEmail, expiresAt, new TreeMap<>()));
+            hold.lines.merge(rs.getLong("product_id"), rs.getInt("quantity"), Integer::sum);
+        });
+
+        long now = System.currentTimeMillis();
+        List<Hold> expired = new ArrayList<>();
+        for (Hold hold : pending.values()) {
+            if (hold.expiresAt <= now) {
+                expired.add(hold);
+            } else {
+                holds.put(hold.id, hold);
+                hold.timeout = wheel.schedule(hold.id, hold.expiresAt);
+            }
+        }
+        releaseExpired(expired);
+        log.info("Reservation wheel armed with {} pending holds ({} expired while down)",
+                holds.size(), expired.size());
+    }
+
+    // ========================================================================
+    // 2. RESERVE / RELEASE / CONFIRM
+    // ========================================================================
+
+    /**
+     * Hold stock for a checkout. All lines are reserved or none.
+     */
+    public ReservationResponse reserve(ReservationRequest request, String ownerEmail) {
+        if (request.getItems() == null || request.getItems().isEmpty()) {
+            throw new IllegalArgumentException("Reservation must contain at least one item");
+        }
+
+        Map<Long, Integer> lines = new TreeMap<>();
+        for (ReservationRequest.Line line : request.getItems()) {
+            if (line.getProductId() == null || line.getQuantity() <= 0) {
+                throw new IllegalArgumentException("Each item needs a product id and a positive quantity");
+            }
+            lines.merge(line.getProductId(), line.getQuantity(), Integer::sum);
+        }
+
+        long ttlSeconds = request.getTtlSeconds() != null ? request.getTtlSeconds() : defaultTtlSeconds;
+        if (ttlSeconds <= 0 || ttlSeconds > maxTtlSeconds) {
+            throw new IllegalArgumentException("TTL must be between 1 and " + maxTtlSeconds + " seconds");
+        }
+
+        String id = UUID.randomUUID().toString();
+        long expiresAt = System.currentTimeMillis() + ttlSeconds * 1000;
+        Hold hold = new Hold(id, ownerEmail, expiresAt, lines);
+
+        stockLedger.reserveAll(lines);
+        try {
+            persist(hold);
+        } catch (RuntimeException e) {
+            lines.forEach(stockLedger::release);
+            throw e;
+        }
+
+        holds.put(id, hold);
+        hold.timeout = wheel.schedule(id, expiresAt);
+
+        log.info("Reserved {} for {} until {}", lines, ownerEmail, toLocalDateTime(expiresAt));
+        return toResponse(hold);
+    }
+
+    /**
+     * Give the stock back before the TTL runs out (e.g. cart abandoned).
+     */
+    public void release(String reservationId, String ownerEmail) {
+        Hold hold = claim(reservationId, ownerEmail);
+        hold.lines.forEach(stockLedger::release);
+        jdbcTemplate.update(DELETE_SQL, reservationId);
+        log.info("Released reservation {}", reservationId);
+    }
+
+    /**
+     * Turn a hold into a sale. Used by OrderService when an order carries a reservation id.
+     * If the caller's transaction rolls back, the hold is pending again with its original
+     * expiry: the units go back to reserved and the timer is re-armed. Its row needs no
+     * compensation, the rollback already undid the delete.
+     *
+     * @return productId -> quantity of the confirmed hold
+     */
+    public Map<Long, Integer> confirm(String reservationId, String ownerEmail) {
+        Hold hold = claim(reservationId, ownerEmail);
+        try {
+            stockLedger.confirmAll(hold.lines);
+        } catch (RuntimeException e) {
+            rearm(hold); // nothing moved, the units are still held
+            throw e;
+        }
+        jdbcTemplate.update(DELETE_SQL, reservationId);
+        TransactionHooks.onRollback(() -> {
+            stockLedger.unconfirmAll(hold.lines);
+            rearm(hold);
+        });
+
+        log.info("Confirmed reservation {}", reservationId);
+        return Collections.unmodifiableMap(hold.lines);
+    }
+
+    // ========================================================================
+    // 3. EXPIRY
+    // ========================================================================
+
+    @Scheduled(fixedDelayString = "${yarncraft.inventory.reservations.tick-ms:100}")
+    public void expire() {
+        List<String> due = wheel.advance(System.currentTimeMillis());
+        if (due.isEmpty()) {
+            return;
+        }
+
+        List<Hold> expired = new ArrayList<>(due.size());
+        for (String id : due) {
+            Hold hold = holds.remove(id); // confirm/release may have won the race
+            if (hold != null) {
+                expired.add(hold);
+            }
+        }
+        releaseExpired(expired);
+    }
+
+    private void releaseExpired(List<Hold> expired) {
+        if (expired.isEmpty()) {
+            return;
+        }
+
+        // One release per product, however many holds on it expired this tick
+        Map<Long, Integer> totals = new TreeMap<>();
+        for (Hold hold : expired) {
+            hold.lines.forEach((productId, quantity) -> totals.merge(productId, quantity, Integer::sum));
+        }
+        totals.forEach(stockLedger::release);
+
+        jdbcTemplate.batchUpdate(DELETE_SQL, expired, 500, (ps, hold) -> ps.setString(1, hold.id));
+        log.info("Expired {} reservations, released {}", expired.size(), totals);
+    }
+
+    // ========================================================================
+    // 4. HELPERS
+    // ========================================================================
+
+    /**
+     * Take exclusive ownership of a pending hold (removes it from the wheel).
+     */
+    private Hold claim(String reservationId, String ownerEmail) {
+        Hold hold = holds.get(reservationId);
+        if (hold == null) {
+            throw new IllegalStateException("Reservation not found or already expired: " + reservationId);
+        }
+        if (!hold.ownerEmail.equals(ownerEmail)) {
+            throw new SecurityException("This reservation belongs to another user");
+        }
+        if (!holds.remove(reservationId, hold)) {
+            throw new IllegalStateException("Reservation not found or already expired: " + reservationId);
+        }
+        if (hold.timeout != null) {
+            wheel.cancel(hold.timeout);
+        }
+        return hold;
+    }
+
+    /**
+     * Put a claimed hold back (expiry unchanged; one already past due fires on the next tick).
+     */
+    private void rearm(Hold hold) {
+        holds.put(hold.id, hold);
+        hold.timeout = wheel.schedule(hold.id, hold.expiresAt);
+    }
+
+    private void persist(Hold hold) {
+        Timestamp expiresAt = new Timestamp(hold.expiresAt);
+        List<Map.Entry<Long, Integer>> rows = new ArrayList<>(hold.lines.entrySet());
+        jdbcTemplate.batchUpdate(INSERT_SQL, rows, rows.size(), (ps, line) -> {
+            ps.setString(1, hold.id);
+            ps.setLong(2, line.getKey());
+            ps.setInt(3, line.getValue());
+            ps.setString(4, hold.ownerEmail);
+            ps.setTimestamp(5, expiresAt);
+        });
+    }
+
+    private static ReservationResponse toResponse(Hold hold) {
+        return ReservationResponse.builder()
+                .reservationId(hold.id)
+                .items(new LinkedHashMap<>(hold.lines))
+                .expiresAt(toLocalDateTime(hold.expiresAt))
+                .build();
+    }
+
+    private static LocalDateTime toLocalDateTime(long epochMillis) {
+        return LocalDateTime.ofInstant(Instant.ofEpochMilli(epochMillis), ZoneId.systemDefault());
+    }
+
+    private static final class Hold {
+        final String id;
+        final String ownerEmail;
+        final long expiresAt;
+        final Map<Long, Integer> lines;
+        volatile HierarchicalTimingWheel.Timeout<String> timeout;
+
+        Hold(String id, String ownerEmail, long expiresAt, Map<Long, Integer> lines) {
+            this.id = id;
+            this.ownerEmail = ownerEmail;
+            this.expiresAt = expiresAt;
+            this.lines = lines;
+        }
+    }
+}
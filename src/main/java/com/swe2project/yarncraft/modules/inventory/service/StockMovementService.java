@@ -0,0 +1,156 @@
+package com.swe2project.yarncraft.modules.inventory.service;
+
+import com.swe2project.yarncraft.common.exception.ResourceNotFoundException;
+import com.swe2project.yarncraft.modules.inventory.dto.StockMovementPage;
+import com.swe2project.yarncraft.modules.inventory.entity.InventoryItem;
+import com.swe2project.yarncraft.modules.inventory.entity.StockMovement;
+import com.swe2project.yarncraft.modules.inventory.ledger.StockLedger;
+import com.swe2project.yarncraft.modules.inventory.ledger.StockLevels;
+import com.swe2project.yarncraft.modules.inventory.repository.InventoryRepository;
+import com.swe2project.yarncraft.modules.inventory.repository.StockMovementRepository;
+import com.swe2project.yarncraft.modules.user.entity.User;
+
+import org.springframework.data.domain.Limit;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Read side of the stock_movements ledger (the write side is StockMovementLog).
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class StockMovementService {
+
+    private static final int DEFAULT_PAGE_SIZE = 50;
+    private static final int MAX_PAGE_SIZE = 200;
+    private static final int DEFAULT_RANGE_DAYS = 30;
+
+    private static final String LATEST_SNAPSHOT_SQL =
+            "SELECT last_movement_id, stock_quantity, reserved_quantity, sold_quantity FROM stock_snapshots " +
+                    "WHERE product_id = ? ORDER BY last_movement_id DESC LIMIT 1";
+    // Without a snapshot, the first movement tells us the levels just before it
+    private static final String FIRST_MOVEMENT_SQL =
+            "SELECT id - 1 AS last_movement_id, stock_after - stock_delta AS stock_quantity, " +
+                    "reserved_after - reserved_delta AS reserved_quantity, sold_after - sold_delta AS sold_quantity " +
+                    "FROM stock_movements WHERE product_id = ? ORDER BY id LIMIT 1";
+    private static final String TAIL_SQL =
+            "SELECT COUNT(*) AS movements, COALESCE(SUM(stock_delta), 0) AS stock_delta, " +
+                    "COALESCE(SUM(reserved_delta), 0) AS reserved_delta, COALESCE(SUM(sold_delta), 0) AS sold_delta " +
+                    "FROM stock_movements WHERE product_id = ? AND id > ?";
+
+    private final StockMovementRepository stockMovementRepository;
+    private final InventoryRepository inventoryRepository;
+    private final StockLedger stockLedger;
+    private final JdbcTemplate jdbcTemplate;
+
+    // ========================================================================
+    // 1. TIME-RANGE QUERIES (KEYSET PAGINATION)
+    // ========================================================================
+
+    public StockMovementPage getProductMovements(Long productId, LocalDateTime from, LocalDateTime to,
+                                                 Long beforeId, Integer size, User currentUser) {
+        InventoryItem inventory = inventoryRepository.findByProductId(productId)
+                .orElseThrow(() -> new ResourceNotFoundException("Inventory not found for product: " + productId));
+        if (!inventory.canBeModifiedBy(currentUser)) {
+            throw new SecurityException("You can only view movements of your own inventory");
+        }
+
+        int limit = pageSize(size);
+        List<StockMovement> rows = stockMovementRepository.findProductPage(productId, cursor(beforeId),
+                rangeStart(from), rangeEnd(to), Limit.of(limit));
+        return toPage(rows, limit);
+    }
+
+    public StockMovementPage getVendorMovements(Long vendorId, LocalDateTime from, LocalDateTime to,
+                                                Long beforeId, Integer size, User currentUser) {
+        if (!currentUser.isAdmin() && !currentUser.getId().equals(vendorId)) {
+            throw new SecurityException("You can only view your own stock movements");
+        }
+
+        int limit = pageSize(size);
+        List<StockMovement> rows = stockMovementRepository.findVendorPage(vendorId, cursor(beforeId),
+                rangeStart(from), rangeEnd(to), Limit.of(limit));
+        return toPage(rows, limit);
+    }
+
+    // ========================================================================
+    // 2. REBUILD FROM SNAPSHOT + TAIL
+    // ========================================================================
+
+    /**
+     * Recompute a product's levels from its latest snapshot plus the movements after it,
+     * and compare with the live ledger (a movement still queued for insert shows up as a mismatch).
+     */
+    public Map<String, Object> rebuildLevels(Long productId, User currentUser) {
+        if (!currentUser.isAdmin()) {
+            throw new SecurityException("Only admins can rebuild stock from movements");
+        }
+
+        List<Map<String, Object>> base = jdbcTemplate.queryForList(LATEST_SNAPSHOT_SQL, productId);
+        boolean fromSnapshot = !base.isEmpty();
+        if (!fromSnapshot) {
+            base = jdbcTemplate.queryForList(FIRST_MOVEMENT_SQL, productId);
+            if (base.isEmpty()) {
+                throw new ResourceNotFoundException("No stock movements recorded for product: " + productId);
+            }
+        }
+        Map<String, Object> start = base.get(0);
+        long lastMovementId = ((Number) start.get("last_movement_id")).longValue();
+        Map<String, Object> tail = jdbcTemplate.queryForMap(TAIL_SQL, productId, lastMovementId);
+
+        int stock = intOf(start, "stock_quantity") + intOf(tail, "stock_delta");
+        int reserved = intOf(start, "reserved_quantity") + intOf(tail, "reserved_delta");
+        int sold = intOf(start, "sold_quantity") + intOf(tail, "sold_delta");
+        StockLevels live = stockLedger.levels(productId);
+
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("productId", productId);
+        result.put("stockQuantity", stock);
+        result.put("reservedQuantity", reserved);
+        result.put("soldQuantity", sold);
+        result.put("fromSnapshot", fromSnapshot);
+        result.put("tailMovements", intOf(tail, "movements"));
+        result.put("matchesLedger", stock == live.getStockQuantity()
+                && reserved == live.getReservedQuantity() && sold == live.getSoldQuantity());
+        return result;
+    }
+
+    // ========================================================================
+    // 3. HELPERS
+    // ========================================================================
+
+    private static int pageSize(Integer size) {
+        if (size == null) return DEFAULT_PAGE_SIZE;
+        return Math.max(1, Math.min(size, MAX_PAGE_SIZE));
+    }
+
+    private static long cursor(Long beforeId) {
+        return beforeId != null ? beforeId : Long.MAX_VALUE;
+    }
+
+    private static LocalDateTime rangeStart(LocalDateTime from) {
+        return from != null ? from : LocalDateTime.now().minusDays(DEFAULT_RANGE_DAYS);
+    }
+
+    private static LocalDateTime rangeEnd(LocalDateTime to) {
+        return to != null ? to : LocalDateTime.now().plusSeconds(1);
+    }
+
+    private static StockMovementPage toPage(List<StockMovement> rows, int limit) {
+        Long next = rows.size() == limit ? rows.get(rows.size() - 1).getId() : null;
+        return new StockMovementPage(rows, next);
+    }
+
+    private static int intOf(Map<String, Object> row, String column) {
+        return ((Number) row.get(column)).intValue();
+    }
+}
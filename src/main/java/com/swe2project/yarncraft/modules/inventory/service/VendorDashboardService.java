@@ -0,0 +1,131 @@
+package com.swe2project.yarncraft.modules.inventory.service;
+
+import com.swe2project.yarncraft.modules.inventory.ledger.StockLedger;
+import com.swe2project.yarncraft.modules.inventory.ledger.VendorDashboardAggregates;
+import com.swe2project.yarncraft.modules.inventory.service.InventoryService.VendorDashboardStats;
+
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+import static com.swe2project.yarncraft.modules.inventory.ledger.VendorDashboardAggregates.*;
+
+/**
+ * O(1) vendor dashboards backed by {@link VendorDashboardAggregates}, plus the full
+ * rebuild that seeds a vendor the first time and corrects drift every night.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class VendorDashboardService {
+
+    // Same rules as InventoryItem.needsReorder / getTotalInventoryValue / getPotentialRevenue
+    private static final String REBUILD_SQL =
+            "SELECT vendor_id, COUNT(*) AS products, " +
+                    "SUM(CASE WHEN is_active THEN 1 ELSE 0 END) AS active, " +
+                    "SUM(CASE WHEN is_active AND GREATEST(stock_quantity - reserved_quantity, 0) <= reorder_level " +
+                    "THEN 1 ELSE 0 END) AS low_stock, " +
+                    "SUM(CASE WHEN stock_quantity = 0 THEN 1 ELSE 0 END) AS out_of_stock, " +
+                    "SUM(stock_quantity) AS stock, SUM(reserved_quantity) AS reserved, SUM(sold_quantity) AS sold, " +
+                    "SUM(COALESCE(unit_cost, 0) * stock_quantity) AS inventory_value, " +
+                    "SUM(COALESCE(unit_price, 0) * GREATEST(stock_quantity - reserved_quantity, 0)) AS revenue " +
+                    "FROM inventory ";
+    private static final String REBUILD_ALL_SQL = REBUILD_SQL + "GROUP BY vendor_id";
+    private static final String REBUILD_VENDOR_SQL = REBUILD_SQL + "WHERE vendor_id = ? GROUP BY vendor_id";
+
+    private final VendorDashboardAggregates aggregates;
+    private final StockLedger stockLedger;
+    private final JdbcTemplate jdbcTemplate;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        aggregates.loadPersisted();
+        if (stockLedger.isRecoveredFromWal()) {
+            log.warn("Previous run did not stop cleanly, rebuilding vendor dashboards");
+            reconcileAll();
+        }
+    }
+
+    public VendorDashboardStats getStats(Long vendorId) {
+        long[] totals = aggregates.current(vendorId).orElseGet(() -> rebuildVendor(vendorId));
+        return VendorDashboardStats.builder()
+                .vendorId(vendorId)
+                .totalProducts(totals[PRODUCTS])
+                .activeProducts(totals[ACTIVE])
+                .lowStockCount(totals[LOW_STOCK])
+                .outOfStockCount(totals[OUT_OF_STOCK])
+                .totalStock((int) totals[STOCK])
+                .totalReserved((int) totals[RESERVED])
+                .totalSold((int) totals[SOLD])
+                .totalInventoryValue(fromCents(totals[VALUE_CENTS]))
+                .potentialRevenue(fromCents(totals[REVENUE_CENTS]))
+                .build();
+    }
+
+    /**
+     * Nightly safety net: recompute every vendor from the inventory table and log any drift.
+     * The query and the reset run with the ledger frozen, so no delta lands in between.
+     */
+    @Scheduled(cron = "${yarncraft.inventory.dashboard.reconcile-cron:0 30 3 * * *}")
+    public void reconcileAll() {
+        Map<Long, long[]> drifts = stockLedger.whileFrozen(() -> {
+            Map<Long, long[]> rebuilt = new HashMap<>();
+            jdbcTemplate.query(REBUILD_ALL_SQL, rs -> {
+                rebuilt.put(rs.getLong("vendor_id"), readTotals(rs));
+            });
+
+            Set<Long> vendorIds = new HashSet<>(aggregates.vendorIds());
+            vendorIds.addAll(rebuilt.keySet());
+            Map<Long, long[]> corrected = new HashMap<>();
+            for (Long vendorId : vendorIds) {
+                corrected.put(vendorId, aggregates.reset(vendorId, rebuilt.getOrDefault(vendorId, new long[FIELDS])));
+            }
+            return corrected;
+        });
+
+        int drifted = 0;
+        for (Map.Entry<Long, long[]> drift : drifts.entrySet()) {
+            if (Arrays.stream(drift.getValue()).anyMatch(d -> d != 0)) {
+                drifted++;
+                log.warn("Vendor {} dashboard drift corrected: {}", drift.getKey(), Arrays.toString(drift.getValue()));
+            }
+        }
+        log.info("Vendor dashboards reconciled: {} vendors, {} drifted", drifts.size(), drifted);
+    }
+
+    private long[] rebuildVendor(Long vendorId) {
+        return stockLedger.whileFrozen(() -> {
+            long[] totals = jdbcTemplate.query(REBUILD_VENDOR_SQL,
+                    rs -> rs.next() ? readTotals(rs) : new long[FIELDS], vendorId);
+            aggregates.reset(vendorId, totals);
+            return totals;
+        });
+    }
+
+    private static long[] readTotals(ResultSet rs) throws SQLException {
+        long[] totals = new long[FIELDS];
+        totals[PRODUCTS] = rs.getLong("products");
+        totals[ACTIVE] = rs.getLong("active");
+        totals[LOW_STOCK] = rs.getLong("low_stock");
+        totals[OUT_OF_STOCK] = rs.getLong("out_of_stock");
+        totals[STOCK] = rs.getLong("stock");
+        totals[RESERVED] = rs.getLong("reserved");
+        totals[SOLD] = rs.getLong("sold");
+        totals[VALUE_CENTS] = toCents(rs.getBigDecimal("inventory_value"));
+        totals[REVENUE_CENTS] = toCents(rs.getBigDecimal("revenue"));
+        return totals;
+    }
+}
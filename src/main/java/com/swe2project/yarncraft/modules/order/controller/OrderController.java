@@ -1,14 +1,25 @@
 package com.swe2project.yarncraft.modules.order.controller;
 
 import com.swe2project.yarncraft.common.dto.ApiResponse;
+import com.swe2project.yarncraft.common.dto.CursorPage;
 import com.swe2project.yarncraft.modules.order.dto.OrderRequest;
+import com.swe2project.yarncraft.modules.order.dto.OrderSubmissionResponse;
+import com.swe2project.yarncraft.modules.order.dto.OrderSummary;
+import com.swe2project.yarncraft.modules.order.dto.VendorOrderSummary;
 import com.swe2project.yarncraft.modules.order.entity.Order;
+import com.swe2project.yarncraft.modules.order.idempotency.OrderIdempotencyStore;
+import com.swe2project.yarncraft.modules.order.service.OrderIntake;
+import com.swe2project.yarncraft.modules.order.service.OrderPipeline;
 import com.swe2project.yarncraft.modules.order.service.OrderService;
 
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.Authentication;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
+import java.net.URI;
 import java.util.List;
 
 import lombok.RequiredArgsConstructor;
@@ -19,25 +30,90 @@ import lombok.RequiredArgsConstructor;
 public class OrderController {
 
     private final OrderService orderService;
+    private final OrderIntake orderIntake;
+    private final OrderPipeline orderPipeline;
 
-    // 1. Place Order
+    // 1. Place Order (group-committed with concurrent checkouts, see OrderIntake)
     @PostMapping
     public ResponseEntity<ApiResponse<Order>> placeOrder(
             @RequestBody OrderRequest request,
             Authentication authentication
     ) {
-        Order order = orderService.placeOrder(authentication.getName(), request);
-        return ResponseEntity.ok(ApiResponse.success(order, "Order placed successfully!"));
+        Order order = orderIntake.placeOrder(authentication.getName(), request);
+        return ResponseEntity.ok(ApiResponse.success(order, OrderService.ORDER_PLACED));
     }
 
-    // 2. Get My Orders (History)
+    // 1b. Place Order with an Idempotency-Key: retries get the first response back (Idempotent-Replayed: true)
+    @PostMapping(headers = OrderIdempotencyStore.HEADER)
+    public ResponseEntity<byte[]> placeOrderIdempotently(
+            @RequestHeader(OrderIdempotencyStore.HEADER) String idempotencyKey,
+            @RequestBody OrderRequest request,
+            Authentication authentication
+    ) {
+        OrderIdempotencyStore.Result result =
+                orderService.placeOrderIdempotently(authentication.getName(), request, idempotencyKey);
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_JSON)
+                .header("Idempotent-Replayed", String.valueOf(result.isReplayed()))
+                .body(result.getBody());
+    }
+
+    // 1c. Place Order asynchronously: 202 Accepted with a handle; the order is placed by a worker
+    @PostMapping("/async")
+    public ResponseEntity<ApiResponse<OrderSubmissionResponse>> submitOrder(
+            @RequestBody OrderRequest request,
+            Authentication authentication
+    ) {
+        OrderSubmissionResponse submission = orderPipeline.submit(authentication.getName(), request);
+        return ResponseEntity.status(HttpStatus.ACCEPTED)
+                .location(URI.create("/api/orders/submissions/" + submission.getHandle()))
+                .body(ApiResponse.success(submission, "Order accepted"));
+    }
+
+    // 1d. Poll an async submission (QUEUED, PLACED with the order id and status, or FAILED with the reason)
+    @GetMapping("/submissions/{handle}")
+    public ResponseEntity<ApiResponse<OrderSubmissionResponse>> getSubmission(
+            @PathVariable String handle,
+            Authentication authentication
+    ) {
+        OrderSubmissionResponse submission = orderPipeline.getSubmission(handle, authentication.getName());
+        return ResponseEntity.ok(ApiResponse.success(submission, "Order submission retrieved successfully"));
+    }
+
+    // 1e. Or wait for it: one "order-submission" event with the final state, then the stream closes
+    @GetMapping(value = "/submissions/{handle}/events", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter subscribeToSubmission(@PathVariable String handle, Authentication authentication) {
+        return orderPipeline.subscribe(handle, authentication.getName());
+    }
+
+    // 2. Get My Orders (History): newest first, keyset-paginated. Pass nextCursor back as cursor.
+    //    Admins may pass customerId to see a customer's history.
     @GetMapping
-    public ResponseEntity<ApiResponse<List<Order>>> getMyOrders(Authentication authentication) {
-        List<Order> orders = orderService.getUserOrders(authentication.getName());
-        return ResponseEntity.ok(ApiResponse.success(orders, "Orders retrieved successfully"));
+    public ResponseEntity<ApiResponse<List<OrderSummary>>> getMyOrders(
+            @RequestParam(required = false) Long customerId,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer size,
+            Authentication authentication
+    ) {
+        CursorPage<OrderSummary> page =
+                orderService.getUserOrderHistory(authentication.getName(), customerId, cursor, size);
+        return ResponseEntity.ok(ApiResponse.page(page, "Orders retrieved successfully"));
+    }
+
+    // 2b. Orders containing my products (Vendor), only my lines, newest first. Admins pass vendorId.
+    @GetMapping("/vendor")
+    public ResponseEntity<ApiResponse<List<VendorOrderSummary>>> getVendorOrders(
+            @RequestParam(required = false) Long vendorId,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer size,
+            Authentication authentication
+    ) {
+        CursorPage<VendorOrderSummary> page =
+                orderService.getVendorOrders(authentication.getName(), vendorId, cursor, size);
+        return ResponseEntity.ok(ApiResponse.page(page, "Vendor orders retrieved successfully"));
     }
 
-    // 3. Get Single Order Details
+    // 3. Get Single Order Details (items, products and customizations in a fixed number of queries)
     @GetMapping("/{id}")
     public ResponseEntity<ApiResponse<Order>> getOrderById(
             @PathVariable Long id,
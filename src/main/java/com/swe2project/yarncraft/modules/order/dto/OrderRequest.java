@@ -14,6 +14,10 @@ public class OrderRequest {
 
     private String paymentMethod; // e.g. "CREDIT_CARD" (Optional for now)
 
+    // Optional: id from POST /api/inventory/reservations. When set, the held stock
+    // is confirmed and the reservation's lines replace 'items'.
+    private String reservationId;
+
     private List<OrderItemRequest> items;
 
     @Data
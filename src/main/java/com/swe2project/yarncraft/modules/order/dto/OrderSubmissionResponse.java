@@ -0,0 +1,27 @@
+package com.swe2project.yarncraft.modules.order.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.swe2project.yarncraft.modules.order.entity.OrderStatus;
+import com.swe2project.yarncraft.modules.order.entity.OrderSubmission;
+
+import java.time.LocalDateTime;
+
+import lombok.Builder;
+import lombok.Data;
+
+/**
+ * Where an asynchronously submitted order stands. orderId and orderStatus appear once it is
+ * PLACED, error once it has FAILED.
+ */
+@Data
+@Builder
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class OrderSubmissionResponse {
+    private String handle;
+    private OrderSubmission.State state;
+    private Long orderId;
+    private OrderStatus orderStatus;
+    private String error;
+    private LocalDateTime createdAt;
+    private LocalDateTime completedAt;
+}
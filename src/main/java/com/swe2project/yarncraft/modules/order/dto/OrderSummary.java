@@ -0,0 +1,60 @@
+package com.swe2project.yarncraft.modules.order.dto;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.swe2project.yarncraft.modules.order.entity.OrderStatus;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * One row of the order history: the order's own columns plus a flat line per item.
+ * Built from the order read model (customer_order_lines), or for the newest page from two
+ * projection queries on the orders table (orders, then their lines); never from entities.
+ */
+@Data
+@NoArgsConstructor
+public class OrderSummary {
+    private Long id;
+    private LocalDateTime orderDate;
+    private OrderStatus status;
+    private BigDecimal totalAmount;
+    private List<Line> items = new ArrayList<>();
+
+    // JPQL constructor expression
+    public OrderSummary(Long id, LocalDateTime orderDate, OrderStatus status, BigDecimal totalAmount) {
+        this.id = id;
+        this.orderDate = orderDate;
+        this.status = status;
+        this.totalAmount = totalAmount;
+    }
+
+    @Data
+    @NoArgsConstructor
+    public static class Line {
+        private Long id;
+        private Long productId;
+        private String productName;
+        private int quantity;
+        private BigDecimal priceAtPurchase;
+
+        // Not part of the JSON: which order of the page the line belongs to
+        @JsonIgnore
+        private Long orderId;
+
+        // JPQL constructor expression
+        public Line(Long orderId, Long id, Long productId, String productName, int quantity,
+                    BigDecimal priceAtPurchase) {
+            this.orderId = orderId;
+            this.id = id;
+            this.productId = productId;
+            this.productName = productName;
+            this.quantity = quantity;
+            this.priceAtPurchase = priceAtPurchase;
+        }
+    }
+}
@@ -0,0 +1,19 @@
+package com.swe2project.yarncraft.modules.order.dto;
+
+import lombok.Data;
+import lombok.EqualsAndHashCode;
+import lombok.NoArgsConstructor;
+
+/**
+ * An order as one vendor sees it for fulfilment: only the lines of that vendor's products,
+ * totalAmount being their subtotal, plus where to ship them.
+ */
+@Data
+@NoArgsConstructor
+@EqualsAndHashCode(callSuper = true)
+public class VendorOrderSummary extends OrderSummary {
+    private Long customerId;
+    private String customerName;
+    private String shippingAddress;
+    private String phone;
+}
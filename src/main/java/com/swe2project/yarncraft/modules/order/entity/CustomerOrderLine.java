@@ -0,0 +1,63 @@
+package com.swe2project.yarncraft.modules.order.entity;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Read model: one row per order item, keyed for a customer's order history.
+ * Written by OrderReadModel after the placing transaction commits and read with JDBC; never written through JPA.
+ */
+@Entity
+@Table(name = "customer_order_lines", indexes = {
+        @Index(name = "uk_customer_line_item", columnList = "order_item_id", unique = true),
+        @Index(name = "idx_customer_line_owner_date", columnList = "customer_id, order_date, order_id, order_item_id")
+})
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class CustomerOrderLine {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "customer_id", nullable = false)
+    private Long customerId;
+
+    @Column(name = "order_id", nullable = false)
+    private Long orderId;
+
+    @Column(name = "order_item_id", nullable = false)
+    private Long orderItemId;
+
+    @Column(name = "order_date", nullable = false)
+    private LocalDateTime orderDate;
+
+    @Column(name = "status", nullable = false, length = 16)
+    private String status;
+
+    @Column(name = "order_total")
+    private BigDecimal orderTotal;
+
+    @Column(name = "product_id", nullable = false)
+    private Long productId;
+
+    @Column(name = "product_name")
+    private String productName;
+
+    @Column(name = "vendor_id", nullable = false)
+    private Long vendorId;
+
+    @Column(name = "quantity", nullable = false)
+    private Integer quantity;
+
+    @Column(name = "price_at_purchase")
+    private BigDecimal priceAtPurchase;
+}
@@ -0,0 +1,53 @@
+package com.swe2project.yarncraft.modules.order.entity;
+
+import java.time.LocalDateTime;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * The stored outcome of an order placed with an Idempotency-Key.
+ * The row is inserted and completed inside the order's own transaction, so it exists
+ * exactly when the order does. Read and written with JDBC by OrderIdempotencyStore.
+ */
+@Entity
+@Table(name = "idempotency_keys", uniqueConstraints = {
+        @UniqueConstraint(name = "uk_idempotency_owner_key", columnNames = {"owner_email", "idempotency_key"})
+}, indexes = {
+        @Index(name = "idx_idempotency_expires_at", columnList = "expires_at")
+})
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class IdempotencyRecord {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    // Keys are scoped to the user that sent them
+    @Column(name = "owner_email", nullable = false)
+    private String ownerEmail;
+
+    @Column(name = "idempotency_key", nullable = false, length = 100)
+    private String idempotencyKey;
+
+    // SHA-256 (hex) of the request body, to reject a key reused for a different order
+    @Column(name = "request_hash", nullable = false, length = 64)
+    private String requestHash;
+
+    // The JSON response sent the first time
+    @Lob
+    @Column(name = "response_body", columnDefinition = "MEDIUMBLOB")
+    private byte[] responseBody;
+
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt;
+
+    @Column(name = "expires_at", nullable = false)
+    private LocalDateTime expiresAt;
+}
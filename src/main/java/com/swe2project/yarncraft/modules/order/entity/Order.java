@@ -18,7 +18,9 @@ import lombok.NoArgsConstructor;
 @NoArgsConstructor
 @AllArgsConstructor
 @Builder
-@Table(name = "orders") // "order" is a reserved SQL keyword, so we use "orders"
+@Table(name = "orders", indexes = { // "order" is a reserved SQL keyword, so we use "orders"
+        @Index(name = "idx_orders_user_date", columnList = "user_id, order_date, id")
+})
 public class Order {
 
     @Id
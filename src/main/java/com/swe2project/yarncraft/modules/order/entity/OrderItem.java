@@ -3,6 +3,8 @@ package com.swe2project.yarncraft.modules.order.entity;
 import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.swe2project.yarncraft.modules.product.entity.Product;
 
+import org.hibernate.annotations.BatchSize;
+
 import java.math.BigDecimal;
 import java.util.List;
 
@@ -39,5 +41,6 @@ public class OrderItem {
 
     // One Item has Many Customizations (Color=Red, Size=M)
     @OneToMany(mappedBy = "orderItem", cascade = CascadeType.ALL)
+    @BatchSize(size = 100) // one query for all items of an order, not one per item
     private List<Customization> customizations;
 }
\ No newline at end of file
@@ -0,0 +1,65 @@
+package com.swe2project.yarncraft.modules.order.entity;
+
+import java.time.LocalDateTime;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * A checkout accepted by POST /api/orders/async and not necessarily placed yet.
+ * The table doubles as the work queue: OrderPipeline workers claim QUEUED rows with
+ * SELECT ... FOR UPDATE SKIP LOCKED and place the order in the same transaction.
+ * Read and written with JDBC.
+ */
+@Entity
+@Table(name = "order_submissions", indexes = {
+        @Index(name = "uk_order_submission_handle", columnList = "handle", unique = true),
+        @Index(name = "idx_order_submission_state_id", columnList = "state, id")
+})
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class OrderSubmission {
+
+    public enum State {
+        QUEUED,
+        PLACED,
+        FAILED
+    }
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    // Public id handed to the client (202 Accepted)
+    @Column(name = "handle", nullable = false, length = 36)
+    private String handle;
+
+    @Column(name = "owner_email", nullable = false)
+    private String ownerEmail;
+
+    // The OrderRequest as JSON
+    @Lob
+    @Column(name = "payload", nullable = false, columnDefinition = "TEXT")
+    private String payload;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "state", nullable = false, length = 16)
+    private State state;
+
+    @Column(name = "order_id")
+    private Long orderId;
+
+    @Column(name = "error", length = 500)
+    private String error;
+
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt;
+
+    @Column(name = "completed_at")
+    private LocalDateTime completedAt;
+}
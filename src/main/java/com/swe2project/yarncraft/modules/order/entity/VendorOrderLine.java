@@ -0,0 +1,70 @@
+package com.swe2project.yarncraft.modules.order.entity;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Read model: one row per order item, keyed by the vendor of the product for fulfilment.
+ * Carries the customer and shipping details so the vendor view needs no joins.
+ * Written by OrderReadModel after the placing transaction commits and read with JDBC; never written through JPA.
+ */
+@Entity
+@Table(name = "vendor_order_lines", indexes = {
+        @Index(name = "uk_vendor_line_item", columnList = "order_item_id", unique = true),
+        @Index(name = "idx_vendor_line_owner_date", columnList = "vendor_id, order_date, order_id, order_item_id")
+})
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class VendorOrderLine {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "vendor_id", nullable = false)
+    private Long vendorId;
+
+    @Column(name = "order_id", nullable = false)
+    private Long orderId;
+
+    @Column(name = "order_item_id", nullable = false)
+    private Long orderItemId;
+
+    @Column(name = "order_date", nullable = false)
+    private LocalDateTime orderDate;
+
+    @Column(name = "status", nullable = false, length = 16)
+    private String status;
+
+    @Column(name = "customer_id", nullable = false)
+    private Long customerId;
+
+    @Column(name = "customer_name")
+    private String customerName;
+
+    @Column(name = "shipping_address")
+    private String shippingAddress;
+
+    @Column(name = "phone")
+    private String phone;
+
+    @Column(name = "product_id", nullable = false)
+    private Long productId;
+
+    @Column(name = "product_name")
+    private String productName;
+
+    @Column(name = "quantity", nullable = false)
+    private Integer quantity;
+
+    @Column(name = "price_at_purchase")
+    private BigDecimal priceAtPurchase;
+}
@@ -0,0 +1,51 @@
+package com.swe2project.yarncraft.modules.order.event;
+
+import com.swe2project.yarncraft.modules.order.entity.Order;
+import com.swe2project.yarncraft.modules.order.entity.OrderItem;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import lombok.Value;
+
+/**
+ * Published inside the placing transaction (by OrderService and OrderIntake) once an order
+ * and its items have ids; the order read model projects it once that transaction commits.
+ */
+@Value
+public class OrderPlacedEvent {
+    long orderId;
+    long customerId;
+    String customerName;
+    LocalDateTime orderDate;
+    String status;
+    BigDecimal totalAmount;
+    String shippingAddress;
+    String phone;
+    List<Line> lines;
+
+    @Value
+    public static class Line {
+        long orderItemId;
+        long productId;
+        String productName;
+        long vendorId;
+        int quantity;
+        BigDecimal priceAtPurchase;
+    }
+
+    public static OrderPlacedEvent of(Order order) {
+        List<Line> lines = order.getItems().stream()
+                .map(OrderPlacedEvent::line)
+                .toList();
+        return new OrderPlacedEvent(order.getId(), order.getUser().getId(), order.getUser().getName(),
+                order.getOrderDate(), order.getStatus().name(), order.getTotalAmount(), order.getShippingAddress(),
+                order.getPhone(), lines);
+    }
+
+    private static Line line(OrderItem item) {
+        return new Line(item.getId(), item.getProduct().getId(), item.getProduct().getName(),
+                item.getProduct().getVendor().getId(), item.getQuantity(), item.getPriceAtPurchase());
+    }
+}
@@ -0,0 +1,243 @@
+package com.swe2project.yarncraft.modules.order.idempotency;
+
+import com.swe2project.yarncraft.aspect.NoExecutionLogging;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import jakarta.annotation.PostConstruct;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Dedupe store behind the Idempotency-Key header of POST /api/orders.
+ * <p>
+ * A key is scoped to the user that sent it and remembers the hash of the request and the
+ * response bytes of its first successful execution. Lookups go to a bounded in-memory cache
+ * first, then to the {@code idempotency_keys} table. A cached entry expires with its row
+ * ({@code created_at} + TTL), not a TTL after it was cached, so a key loaded late in its life
+ * is not replayed from memory after the table has let it go. Concurrent requests with the same key
+ * wait for the one already running instead of placing a second order; a request that fails
+ * leaves no record, so the client may retry it.
+ * <p>
+ * The row is claimed and completed inside the order transaction (see
+ * OrderService.placeOrderIdempotently): on a second node the claim blocks on the unique key
+ * until the first commits, then fails with a duplicate and the stored response is replayed.
+ */
+@Component
+@NoExecutionLogging
+@RequiredArgsConstructor
+@Slf4j
+public class OrderIdempotencyStore {
+
+    public static final String HEADER = "Idempotency-Key";
+    private static final int MAX_KEY_LENGTH = 100;
+
+    private static final String RELEASE_EXPIRED_SQL =
+            "DELETE FROM idempotency_keys WHERE owner_email = ? AND idempotency_key = ? AND expires_at <= ?";
+    private static final String CLAIM_SQL =
+            "INSERT INTO idempotency_keys (owner_email, idempotency_key, request_hash, created_at, expires_at) " +
+                    "VALUES (?, ?, ?, ?, ?)";
+    private static final String COMPLETE_SQL =
+            "UPDATE idempotency_keys SET response_body = ? WHERE owner_email = ? AND idempotency_key = ?";
+    private static final String LOAD_SQL =
+            "SELECT request_hash, response_body, expires_at FROM idempotency_keys " +
+                    "WHERE owner_email = ? AND idempotency_key = ? AND expires_at > ?";
+    private static final String PURGE_SQL = "DELETE FROM idempotency_keys WHERE expires_at <= ? LIMIT 10000";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final MeterRegistry meterRegistry;
+
+    @Value("${yarncraft.orders.idempotency.ttl-hours:24}")
+    private long ttlHours;
+
+    @Value("${yarncraft.orders.idempotency.cache-max-bytes:16777216}")
+    private long cacheMaxBytes;
+
+    @Value("${yarncraft.orders.idempotency.wait-seconds:30}")
+    private long waitSeconds;
+
+    private Cache<String, Snapshot> snapshots;
+    private final ConcurrentHashMap<String, CompletableFuture<Snapshot>> inFlight = new ConcurrentHashMap<>();
+
+    @PostConstruct
+    void init() {
+        snapshots = Caffeine.newBuilder()
+                .maximumWeight(cacheMaxBytes)
+                .weigher((String id, Snapshot snapshot) -> id.length() + snapshot.body.length + 64)
+                .expireAfter(Expiry.writing((String id, Snapshot snapshot) -> snapshot.timeLeft()))
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, snapshots, "orders.idempotency");
+    }
+
+    /**
+     * The stored response for (owner, key), or the result of running {@code work} once.
+     *
+     * @param work places the order; must call {@link #claim} and {@link #complete} in its transaction
+     */
+    public Result execute(String owner, String key, String requestHash, Supplier<byte[]> work) {
+        validateKey(key);
+        String id = owner + '\n' + key;
+
+        Snapshot cached = snapshots.getIfPresent(id);
+        if (cached != null) {
+            return replay(cached, requestHash);
+        }
+
+        CompletableFuture<Snapshot> mine = new CompletableFuture<>();
+        CompletableFuture<Snapshot> running = inFlight.putIfAbsent(id, mine);
+        if (running != null) {
+            return replay(await(running), requestHash);
+        }
+
+        try {
+            Snapshot stored = load(owner, key);
+            boolean replayed = stored != null;
+            if (!replayed) {
+                // The claim inside work stamps the row a moment later, so this never outlives it
+                LocalDateTime expiresAt = LocalDateTime.now().plusHours(ttlHours);
+                try {
+                    stored = new Snapshot(requestHash, work.get(), Timestamp.valueOf(expiresAt).getTime());
+                } catch (DuplicateKeyException e) {
+                    // Another node claimed the key and has committed by now
+                    stored = load(owner, key);
+                    if (stored == null) {
+                        throw new IllegalStateException("A request with this Idempotency-Key is still being processed");
+                    }
+                    replayed = true;
+                }
+            }
+            snapshots.put(id, stored);
+            mine.complete(stored);
+            return replayed ? replay(stored, requestHash) : new Result(stored.body, false);
+        } catch (RuntimeException e) {
+            mine.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(id, mine);
+        }
+    }
+
+    // ========================================================================
+    // CALLED INSIDE THE ORDER TRANSACTION
+    // ========================================================================
+
+    /**
+     * @throws DuplicateKeyException if the key was already used (and committed) by this owner
+     */
+    public void claim(String owner, String key, String requestHash) {
+        LocalDateTime now = LocalDateTime.now();
+        jdbcTemplate.update(RELEASE_EXPIRED_SQL, owner, key, Timestamp.valueOf(now)); // not purged yet
+        jdbcTemplate.update(CLAIM_SQL, owner, key, requestHash, Timestamp.valueOf(now),
+                Timestamp.valueOf(now.plusHours(ttlHours)));
+    }
+
+    public void complete(String owner, String key, byte[] responseBody) {
+        jdbcTemplate.update(COMPLETE_SQL, responseBody, owner, key);
+    }
+
+    // ========================================================================
+    // HELPERS
+    // ========================================================================
+
+    public static String hash(byte[] requestBody) {
+        try {
+            return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(requestBody));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${yarncraft.orders.idempotency.purge-interval-ms:3600000}")
+    public void purgeExpired() {
+        int deleted = jdbcTemplate.update(PURGE_SQL, Timestamp.valueOf(LocalDateTime.now()));
+        if (deleted > 0) {
+            log.info("Purged {} expired idempotency keys", deleted);
+        }
+    }
+
+    private Snapshot load(String owner, String key) {
+        List<Snapshot> rows = jdbcTemplate.query(LOAD_SQL,
+                (rs, i) -> new Snapshot(rs.getString("request_hash"), rs.getBytes("response_body"),
+                        rs.getTimestamp("expires_at").getTime()),
+                owner, key, Timestamp.valueOf(LocalDateTime.now()));
+        return rows.isEmpty() || rows.get(0).body == null ? null : rows.get(0);
+    }
+
+    private Snapshot await(CompletableFuture<Snapshot> running) {
+        try {
+            return running.get(waitSeconds, TimeUnit.SECONDS);
+        } catch (ExecutionException e) {
+            // The first execution failed and stored nothing; this duplicate reports the same failure
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw new IllegalStateException(e.getCause());
+        } catch (TimeoutException e) {
+            throw new IllegalStateException("A request with this Idempotency-Key is still being processed");
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for the original request");
+        }
+    }
+
+    private static Result replay(Snapshot snapshot, String requestHash) {
+        if (!snapshot.requestHash.equals(requestHash)) {
+            throw new IllegalArgumentException("Idempotency-Key was already used for a different order request");
+        }
+        return new Result(snapshot.body, true);
+    }
+
+    private static void validateKey(String key) {
+        if (key == null || key.isBlank() || key.length() > MAX_KEY_LENGTH) {
+            throw new IllegalArgumentException(HEADER + " must be 1 to " + MAX_KEY_LENGTH + " characters");
+        }
+    }
+
+    private static final class Snapshot {
+        final String requestHash;
+        final byte[] body;
+        final long expiresAt; // epoch millis of the row's expires_at
+
+        Snapshot(String requestHash, byte[] body, long expiresAt) {
+            this.requestHash = requestHash;
+            this.body = body;
+            this.expiresAt = expiresAt;
+        }
+
+        Duration timeLeft() {
+            return Duration.ofMillis(Math.max(0, expiresAt - System.currentTimeMillis()));
+        }
+    }
+
+    @Getter
+    @RequiredArgsConstructor
+    public static class Result {
+        private final byte[] body;      // the JSON response of the original execution
+        private final boolean replayed; // true when this request did not place the order itself
+    }
+}
@@ -0,0 +1,342 @@
+package com.swe2project.yarncraft.modules.order.readmodel;
+
+import com.swe2project.yarncraft.aspect.NoExecutionLogging;
+import com.swe2project.yarncraft.common.dto.CursorPage;
+import com.swe2project.yarncraft.common.util.CursorCodec;
+import com.swe2project.yarncraft.common.util.TransactionHooks;
+import com.swe2project.yarncraft.modules.order.dto.OrderSummary;
+import com.swe2project.yarncraft.modules.order.dto.VendorOrderSummary;
+import com.swe2project.yarncraft.modules.order.entity.OrderStatus;
+import com.swe2project.yarncraft.modules.order.event.OrderPlacedEvent;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Denormalized order read model: flat order lines per customer and per vendor.
+ * <p>
+ * The write side is unchanged: OrderService and OrderIntake publish an {@link OrderPlacedEvent}
+ * inside the placing transaction. Once that transaction commits, the event is queued for a
+ * projector thread, which copies the orders it finds queued into {@code customer_order_lines} and
+ * {@code vendor_order_lines} (one row per item, with the product name, the customer and the
+ * shipping details copied in) with one batch insert per table. Checkout therefore does not wait
+ * for the projection, and a new order shows up in these tables a moment after it is placed; the
+ * customer's newest page is read from the orders table instead (OrderService.getUserOrderHistory),
+ * so customers always see their own new orders. The vendor view has no such fallback.
+ * Inserts are idempotent ({@code INSERT IGNORE} on the order item id). If the queue is full or a
+ * write fails, a repair pass runs the backfill on its next tick. The same backfill runs at startup
+ * and inserts whatever is missing, which covers orders placed before the tables existed or while
+ * the projector was behind at shutdown.
+ * <p>
+ * Reads are one range scan of the {@code (owner, order_date, order_id, order_item_id)} index per page,
+ * newest first. A page holds whole orders: rows are grouped by order, and an order cut off by the
+ * row limit is left for the next page (or completed with one extra query when it is the only one).
+ */
+@Component
+@NoExecutionLogging
+@RequiredArgsConstructor
+@Slf4j
+public class OrderReadModel {
+
+    private static final int LINES_PER_ORDER_HINT = 4;
+
+    private static final String INSERT_CUSTOMER_SQL =
+            "INSERT IGNORE INTO customer_order_lines (customer_id, order_id, order_item_id, order_date, status, " +
+                    "order_total, product_id, product_name, vendor_id, quantity, price_at_purchase) " +
+                    "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+    private static final String INSERT_VENDOR_SQL =
+            "INSERT IGNORE INTO vendor_order_lines (vendor_id, order_id, order_item_id, order_date, status, " +
+                    "customer_id, customer_name, shipping_address, phone, product_id, product_name, quantity, " +
+                    "price_at_purchase) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+
+    private static final String BACKFILL_CUSTOMER_SQL =
+            "INSERT IGNORE INTO customer_order_lines (customer_id, order_id, order_item_id, order_date, status, " +
+                    "order_total, product_id, product_name, vendor_id, quantity, price_at_purchase) " +
+                    "SELECT o.user_id, o.id, oi.id, COALESCE(o.order_date, TIMESTAMP '1970-01-01 00:00:00'), " +
+                    "COALESCE(o.status, 'PENDING'), o.total_amount, p.id, p.name, p.vendor_id, oi.quantity, " +
+                    "oi.price_at_purchase FROM order_items oi JOIN orders o ON o.id = oi.order_id " +
+                    "JOIN products p ON p.id = oi.product_id " +
+                    "LEFT JOIN customer_order_lines c ON c.order_item_id = oi.id WHERE c.id IS NULL";
+    private static final String BACKFILL_VENDOR_SQL =
+            "INSERT IGNORE INTO vendor_order_lines (vendor_id, order_id, order_item_id, order_date, status, " +
+                    "customer_id, customer_name, shipping_address, phone, product_id, product_name, quantity, " +
+                    "price_at_purchase) " +
+                    "SELECT p.vendor_id, o.id, oi.id, COALESCE(o.order_date, TIMESTAMP '1970-01-01 00:00:00'), " +
+                    "COALESCE(o.status, 'PENDING'), o.user_id, u.name, o.shipping_address, o.phone, p.id, p.name, " +
+                    "oi.quantity, oi.price_at_purchase FROM order_items oi JOIN orders o ON o.id = oi.order_id " +
+                    "JOIN products p ON p.id = oi.product_id JOIN users u ON u.id = o.user_id " +
+                    "LEFT JOIN vendor_order_lines v ON v.order_item_id = oi.id WHERE v.id IS NULL";
+
+    private static final String CUSTOMER_COLUMNS =
+            "SELECT order_id, order_date, status, order_total, order_item_id, product_id, product_name, quantity, " +
+                    "price_at_purchase FROM customer_order_lines WHERE customer_id = ? ";
+    private static final String VENDOR_COLUMNS =
+            "SELECT order_id, order_date, status, customer_id, customer_name, shipping_address, phone, " +
+                    "order_item_id, product_id, product_name, quantity, price_at_purchase " +
+                    "FROM vendor_order_lines WHERE vendor_id = ? ";
+    private static final String PAGE_CONDITION =
+            "AND (order_date < ? OR (order_date = ? AND order_id < ?)) " +
+                    "ORDER BY order_date DESC, order_id DESC, order_item_id DESC LIMIT ?";
+    private static final String REST_OF_ORDER_CONDITION =
+            "AND order_id = ? AND order_item_id < ? ORDER BY order_item_id DESC";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Value("${yarncraft.orders.read-model.queue-capacity:10000}")
+    private int queueCapacity;
+
+    @Value("${yarncraft.orders.read-model.max-batch:256}")
+    private int maxBatch;
+
+    private BlockingQueue<OrderPlacedEvent> queue;
+    private Thread projector;
+    private volatile boolean running;
+    private volatile boolean repairNeeded; // an event was dropped or failed to project
+
+    @PostConstruct
+    void start() {
+        queue = new ArrayBlockingQueue<>(queueCapacity);
+        running = true;
+        projector = new Thread(this::work, "order-read-model");
+        projector.setDaemon(true);
+        projector.start();
+    }
+
+    @PreDestroy
+    void stop() {
+        running = false;
+        projector.interrupt();
+        projectQueued(); // whatever is left would otherwise wait for the startup backfill
+    }
+
+    // ========================================================================
+    // 1. PROJECT (after the placing transaction commits)
+    // ========================================================================
+
+    @EventListener
+    public void onOrderPlaced(OrderPlacedEvent event) {
+        if (event.getLines().isEmpty()) {
+            return;
+        }
+        TransactionHooks.afterCommit(() -> {
+            if (!queue.offer(event)) {
+                repairNeeded = true;
+                log.warn("Order read model queue full, order {} left to the repair pass", event.getOrderId());
+            }
+        });
+    }
+
+    private void work() {
+        while (running) {
+            try {
+                OrderPlacedEvent first = queue.poll(1, TimeUnit.SECONDS);
+                if (first != null) {
+                    List<OrderPlacedEvent> batch = new ArrayList<>(List.of(first));
+                    queue.drainTo(batch, maxBatch - 1);
+                    project(batch);
+                }
+            } catch (InterruptedException e) {
+                return;
+            }
+        }
+    }
+
+    /**
+     * Projects everything queued so far on the calling thread.
+     */
+    void projectQueued() {
+        List<OrderPlacedEvent> batch = new ArrayList<>();
+        while (queue.drainTo(batch, maxBatch) > 0) {
+            project(batch);
+            batch.clear();
+        }
+    }
+
+    private void project(List<OrderPlacedEvent> events) {
+        List<Object[]> customerRows = new ArrayList<>();
+        List<Object[]> vendorRows = new ArrayList<>();
+        for (OrderPlacedEvent event : events) {
+            Timestamp orderDate = Timestamp.valueOf(event.getOrderDate());
+            for (OrderPlacedEvent.Line line : event.getLines()) {
+                customerRows.add(new Object[]{event.getCustomerId(), event.getOrderId(), line.getOrderItemId(),
+                        orderDate, event.getStatus(), event.getTotalAmount(), line.getProductId(),
+                        line.getProductName(), line.getVendorId(), line.getQuantity(), line.getPriceAtPurchase()});
+                vendorRows.add(new Object[]{line.getVendorId(), event.getOrderId(), line.getOrderItemId(), orderDate,
+                        event.getStatus(), event.getCustomerId(), event.getCustomerName(),
+                        event.getShippingAddress(), event.getPhone(), line.getProductId(), line.getProductName(),
+                        line.getQuantity(), line.getPriceAtPurchase()});
+            }
+        }
+        try {
+            jdbcTemplate.batchUpdate(INSERT_CUSTOMER_SQL, customerRows);
+            jdbcTemplate.batchUpdate(INSERT_VENDOR_SQL, vendorRows);
+        } catch (RuntimeException e) {
+            repairNeeded = true;
+            log.error("Order read model projection of {} orders failed, left to the repair pass: {}",
+                    events.size(), e.getMessage());
+        }
+    }
+
+    /**
+     * Runs the backfill after a dropped or failed projection.
+     */
+    @Scheduled(fixedDelayString = "${yarncraft.orders.read-model.repair-interval-ms:60000}")
+    public void repair() {
+        if (!repairNeeded) {
+            return;
+        }
+        repairNeeded = false;
+        try {
+            backfill();
+        } catch (RuntimeException e) {
+            repairNeeded = true;
+            log.error("Order read model repair failed, will retry: {}", e.getMessage());
+        }
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void backfill() {
+        int customerLines = jdbcTemplate.update(BACKFILL_CUSTOMER_SQL);
+        int vendorLines = jdbcTemplate.update(BACKFILL_VENDOR_SQL);
+        if (customerLines > 0 || vendorLines > 0) {
+            log.info("Order read model backfilled: {} customer lines, {} vendor lines", customerLines, vendorLines);
+        }
+    }
+
+    // ========================================================================
+    // 2. READ
+    // ========================================================================
+
+    public CursorPage<OrderSummary> customerOrders(long customerId, String cursor, int limit) {
+        return page(CUSTOMER_COLUMNS, customerId, cursor, limit, OrderSummary::new, (rs, summary) -> {
+            summary.setTotalAmount(rs.getBigDecimal("order_total"));
+        });
+    }
+
+    public CursorPage<VendorOrderSummary> vendorOrders(long vendorId, String cursor, int limit) {
+        CursorPage<VendorOrderSummary> page = page(VENDOR_COLUMNS, vendorId, cursor, limit, VendorOrderSummary::new,
+                (rs, summary) -> {
+                    summary.setCustomerId(rs.getLong("customer_id"));
+                    summary.setCustomerName(rs.getString("customer_name"));
+                    summary.setShippingAddress(rs.getString("shipping_address"));
+                    summary.setPhone(rs.getString("phone"));
+                });
+        // The vendor's share of each order
+        for (VendorOrderSummary order : page.getItems()) {
+            order.setTotalAmount(order.getItems().stream()
+                    .filter(line -> line.getPriceAtPurchase() != null)
+                    .map(line -> line.getPriceAtPurchase().multiply(BigDecimal.valueOf(line.getQuantity())))
+                    .reduce(BigDecimal.ZERO, BigDecimal::add));
+        }
+        return page;
+    }
+
+    private <T extends OrderSummary> CursorPage<T> page(String columns, long ownerId, String cursor, int limit,
+                                                        Supplier<T> factory, HeaderReader<T> header) {
+        LocalDateTime beforeDate = LocalDateTime.of(9999, 12, 31, 23, 59);
+        long beforeId = Long.MAX_VALUE;
+        if (cursor != null && !cursor.isBlank()) {
+            String[] parts = CursorCodec.decode(cursor, 2);
+            try {
+                beforeDate = LocalDateTime.parse(parts[0]);
+                beforeId = Long.parseLong(parts[1]);
+            } catch (RuntimeException e) {
+                throw new IllegalArgumentException("Invalid cursor");
+            }
+        }
+
+        int rowLimit = limit * LINES_PER_ORDER_HINT + 1;
+        List<T> orders = new ArrayList<>();
+        Timestamp before = Timestamp.valueOf(beforeDate);
+        int rows = collect(jdbcTemplate.query(columns + PAGE_CONDITION, rowMapper(factory, header),
+                ownerId, before, before, beforeId, rowLimit), orders);
+
+        boolean more = rows == rowLimit;
+        if (more) {
+            // The last order may have been cut off by the row limit
+            T last = orders.get(orders.size() - 1);
+            if (orders.size() > 1) {
+                orders.remove(orders.size() - 1);
+            } else {
+                Long lastItemId = last.getItems().get(last.getItems().size() - 1).getId();
+                collect(jdbcTemplate.query(columns + REST_OF_ORDER_CONDITION, rowMapper(factory, header),
+                        ownerId, last.getId(), lastItemId), orders);
+            }
+        }
+
+        String nextCursor = null;
+        if (orders.size() > limit) {
+            orders = new ArrayList<>(orders.subList(0, limit));
+            more = true;
+        }
+        if (more && !orders.isEmpty()) {
+            T last = orders.get(orders.size() - 1);
+            nextCursor = CursorCodec.encode(last.getOrderDate().toString(), String.valueOf(last.getId()));
+        }
+        return new CursorPage<>(orders, nextCursor);
+    }
+
+    /**
+     * Appends rows (one line each) to {@code orders}, merging consecutive rows of one order.
+     *
+     * @return number of rows read
+     */
+    private static <T extends OrderSummary> int collect(List<T> rows, List<T> orders) {
+        for (T row : rows) {
+            T current = orders.isEmpty() ? null : orders.get(orders.size() - 1);
+            if (current != null && Objects.equals(current.getId(), row.getId())) {
+                current.getItems().addAll(row.getItems());
+            } else {
+                orders.add(row);
+            }
+        }
+        return rows.size();
+    }
+
+    private static <T extends OrderSummary> RowMapper<T> rowMapper(Supplier<T> factory, HeaderReader<T> header) {
+        return (rs, i) -> {
+            T summary = factory.get();
+            summary.setId(rs.getLong("order_id"));
+            summary.setOrderDate(rs.getTimestamp("order_date").toLocalDateTime());
+            summary.setStatus(OrderStatus.valueOf(rs.getString("status")));
+            header.read(rs, summary);
+
+            OrderSummary.Line line = new OrderSummary.Line();
+            line.setId(rs.getLong("order_item_id"));
+            line.setProductId(rs.getLong("product_id"));
+            line.setProductName(rs.getString("product_name"));
+            line.setQuantity(rs.getInt("quantity"));
+            line.setPriceAtPurchase(rs.getBigDecimal("price_at_purchase"));
+            summary.getItems().add(line);
+            return summary;
+        };
+    }
+
+    @FunctionalInterface
+    private interface HeaderReader<T> {
+        void read(ResultSet rs, T summary) throws SQLException;
+    }
+}
@@ -1,18 +1,53 @@
 package com.swe2project.yarncraft.modules.order.repository;
 
+import com.swe2project.yarncraft.modules.order.dto.OrderSummary;
 import com.swe2project.yarncraft.modules.order.entity.Order;
 import com.swe2project.yarncraft.modules.user.entity.User;
 
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 
 public interface OrderRepository extends JpaRepository<Order, Long> {
 
     List<Order> findByUser(User user);
 
+    // ==================== ORDER HISTORY (newest page, see OrderService) ====================
+
+    /**
+     * One page of a user's orders as summaries. Keyset on (orderDate, id) over idx_orders_user_date:
+     * pass the last row of the previous page as (beforeDate, beforeId).
+     */
+    @Query("SELECT new com.swe2project.yarncraft.modules.order.dto.OrderSummary(o.id, o.orderDate, o.status, o.totalAmount) " +
+            "FROM Order o WHERE o.user.id = :userId " +
+            "AND (o.orderDate < :beforeDate OR (o.orderDate = :beforeDate AND o.id < :beforeId)) " +
+            "ORDER BY o.orderDate DESC, o.id DESC")
+    List<OrderSummary> findSummaryPage(@Param("userId") Long userId,
+                                       @Param("beforeDate") LocalDateTime beforeDate,
+                                       @Param("beforeId") Long beforeId,
+                                       Limit limit);
+
+    /**
+     * The lines of a page of summaries, all in one query (newest line first, as in the read model).
+     */
+    @Query("SELECT new com.swe2project.yarncraft.modules.order.dto.OrderSummary$Line(" +
+            "i.order.id, i.id, p.id, p.name, i.quantity, i.priceAtPurchase) " +
+            "FROM OrderItem i JOIN i.product p WHERE i.order.id IN :orderIds ORDER BY i.id DESC")
+    List<OrderSummary.Line> findSummaryLines(@Param("orderIds") Collection<Long> orderIds);
+
+    /**
+     * Order details: user, items and products in one query (customizations are batch-fetched).
+     */
+    @EntityGraph(attributePaths = {"user", "items", "items.product"})
+    Optional<Order> findWithItemsById(Long id);
+
     @Query("SELECT SUM(oi.product.price * oi.quantity) FROM OrderItem oi WHERE oi.product.vendor.id = :vendorId")
     Double calculateTotalRevenueForVendor(@Param("vendorId") Long vendorId);
 
@@ -0,0 +1,361 @@
+package com.swe2project.yarncraft.modules.order.service;
+
+import com.swe2project.yarncraft.aspect.NoExecutionLogging;
+import com.swe2project.yarncraft.common.exception.ResourceNotFoundException;
+import com.swe2project.yarncraft.modules.inventory.service.InventoryService;
+import com.swe2project.yarncraft.modules.order.dto.OrderRequest;
+import com.swe2project.yarncraft.modules.order.entity.Order;
+import com.swe2project.yarncraft.modules.order.entity.OrderItem;
+import com.swe2project.yarncraft.modules.order.event.OrderPlacedEvent;
+import com.swe2project.yarncraft.modules.product.entity.Product;
+import com.swe2project.yarncraft.modules.product.repository.ProductRepository;
+import com.swe2project.yarncraft.modules.user.entity.User;
+import com.swe2project.yarncraft.modules.user.repository.UserRepository;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Group commit for checkout: concurrent placeOrder calls share one transaction.
+ * <p>
+ * Callers queue their request and wait. A worker takes the first waiting request, collects
+ * more for up to {@code window-ms} or until {@code max-batch}, then in one transaction loads
+ * every user and product of the batch, takes each order's stock (in arrival order), writes all
+ * orders and all order items with two JDBC batch inserts and commits once. An order that fails
+ * validation or runs out of stock fails alone; the rest of the batch goes on without it (stock is
+ * taken through InventoryService.takeStockBatch, which is not a transaction boundary, so that
+ * failure does not mark the batch rollback-only). If the batch itself cannot be written, its
+ * stock comes back through the rollback hooks and each order is retried on its own through
+ * OrderService.
+ * <p>
+ * A caller waits at most {@code wait-seconds}. If its order is still queued by then it is
+ * withdrawn and the caller may simply retry. If a batch already holds it, the caller gets an
+ * error but the order may still be placed, and a blind retry would place it twice: clients that
+ * retry on errors should send an Idempotency-Key, which takes the OrderService path instead.
+ * <p>
+ * Orders that confirm a reservation skip the batch (their stock is already held). The
+ * {@code orders.intake.commits} / {@code orders.intake.orders} counters give commits/sec
+ * against orders/sec under load.
+ */
+@Component
+@NoExecutionLogging
+@RequiredArgsConstructor
+@Slf4j
+public class OrderIntake {
+
+    private static final String INSERT_ORDER_SQL =
+            "INSERT INTO orders (user_id, order_date, total_amount, shipping_address, phone, status) " +
+                    "VALUES (?, ?, ?, ?, ?, ?)";
+    private static final String INSERT_ITEM_SQL =
+            "INSERT INTO order_items (order_id, product_id, quantity, price_at_purchase) VALUES (?, ?, ?, ?)";
+
+    private final OrderService orderService;
+    private final InventoryService inventoryService;
+    private final UserRepository userRepository;
+    private final ProductRepository productRepository;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final MeterRegistry meterRegistry;
+    private final ApplicationEventPublisher eventPublisher;
+
+    @Value("${yarncraft.orders.intake.enabled:true}")
+    private boolean enabled;
+
+    @Value("${yarncraft.orders.intake.window-ms:2}")
+    private long windowMillis;
+
+    @Value("${yarncraft.orders.intake.max-batch:64}")
+    private int maxBatch;
+
+    @Value("${yarncraft.orders.intake.queue-capacity:4096}")
+    private int queueCapacity;
+
+    @Value("${yarncraft.orders.intake.workers:2}")
+    private int workers;
+
+    @Value("${yarncraft.orders.intake.wait-seconds:30}")
+    private long waitSeconds;
+
+    private BlockingQueue<Pending> queue;
+    private final List<Thread> threads = new ArrayList<>();
+    private volatile boolean running;
+
+    private Counter commits;
+    private Counter orders;
+    private DistributionSummary batchSizes;
+
+    @PostConstruct
+    void start() {
+        commits = Counter.builder("orders.intake.commits").description("Order intake transactions committed")
+                .register(meterRegistry);
+        orders = Counter.builder("orders.intake.orders").description("Orders placed through the intake")
+                .register(meterRegistry);
+        batchSizes = DistributionSummary.builder("orders.intake.batch.size").register(meterRegistry);
+        if (!enabled) {
+            return;
+        }
+
+        queue = new ArrayBlockingQueue<>(queueCapacity);
+        running = true;
+        for (int i = 0; i < workers; i++) {
+            Thread thread = new Thread(this::work, "order-intake-" + i);
+            thread.setDaemon(true);
+            thread.start();
+            threads.add(thread);
+        }
+    }
+
+    @PreDestroy
+    void stop() {
+        running = false;
+        threads.forEach(Thread::interrupt);
+        if (queue != null) {
+            List<Pending> left = new ArrayList<>();
+            queue.drainTo(left);
+            left.forEach(pending -> pending.result.completeExceptionally(
+                    new IllegalStateException("Server is shutting down, please retry")));
+        }
+    }
+
+    // ========================================================================
+    // 1. SUBMIT (request thread)
+    // ========================================================================
+
+    public Order placeOrder(String userEmail, OrderRequest request) {
+        if (!enabled || request.getReservationId() != null) {
+            return orderService.placeOrder(userEmail, request);
+        }
+
+        Pending pending = new Pending(userEmail, request);
+        if (!queue.offer(pending)) {
+            throw new IllegalStateException("Too many orders in progress, please retry");
+        }
+        try {
+            return pending.result.get(waitSeconds, TimeUnit.SECONDS);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw new IllegalStateException(e.getCause());
+        } catch (TimeoutException e) {
+            if (queue.remove(pending)) {
+                // No worker took it, so it will never be placed
+                throw new IllegalStateException("Too many orders in progress, please retry");
+            }
+            // In a batch that has not finished; the order may yet be placed
+            throw new IllegalStateException("Order is taking longer than expected, check your orders before retrying");
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while placing the order");
+        }
+    }
+
+    // ========================================================================
+    // 2. COLLECT
+    // ========================================================================
+
+    private void work() {
+        List<Pending> batch = new ArrayList<>(maxBatch);
+        while (running) {
+            try {
+                batch.add(queue.take());
+                long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(windowMillis);
+                while (batch.size() < maxBatch) {
+                    Pending next = queue.poll(deadline - System.nanoTime(), TimeUnit.NANOSECONDS);
+                    if (next == null) {
+                        break;
+                    }
+                    batch.add(next);
+                }
+                process(batch);
+            } catch (InterruptedException e) {
+                batch.forEach(pending -> pending.result.completeExceptionally(
+                        new IllegalStateException("Server is shutting down, please retry")));
+                return;
+            } catch (RuntimeException e) {
+                log.error("Order intake batch failed", e);
+                batch.forEach(pending -> pending.result.completeExceptionally(e)); // no-op for completed ones
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+
+    // ========================================================================
+    // 3. ONE TRANSACTION PER BATCH
+    // ========================================================================
+
+    private void process(List<Pending> batch) {
+        batchSizes.record(batch.size());
+        List<Pending> placed;
+        try {
+            placed = transactionTemplate.execute(status -> placeAll(batch));
+        } catch (RuntimeException e) {
+            // Nothing was written and every deduction was given back; place them one by one
+            log.warn("Order batch of {} failed ({}), placing its orders one by one", batch.size(), e.getMessage());
+            retryIndividually(batch);
+            return;
+        }
+        commits.increment();
+        orders.increment(placed.size());
+        // Callers hear back only once the batch is durable
+        for (Pending pending : batch) {
+            if (pending.error != null) {
+                pending.result.completeExceptionally(pending.error);
+            } else {
+                pending.result.complete(pending.order);
+            }
+        }
+    }
+
+    private List<Pending> placeAll(List<Pending> batch) {
+        Map<String, Optional<User>> users = new HashMap<>();
+        Set<Long> productIds = new HashSet<>();
+        for (Pending pending : batch) {
+            pending.error = null;
+            try {
+                pending.quantities = OrderService.mergeLines(pending.request.getItems());
+                productIds.addAll(pending.quantities.keySet());
+            } catch (RuntimeException e) {
+                pending.error = e;
+            }
+        }
+        Map<Long, Product> products = new HashMap<>();
+        productRepository.findAllById(productIds).forEach(product -> products.put(product.getId(), product));
+
+        List<Pending> placed = new ArrayList<>(batch.size());
+        for (Pending pending : batch) {
+            if (pending.error != null) {
+                continue;
+            }
+            try {
+                User user = users.computeIfAbsent(pending.userEmail, userRepository::findByEmail)
+                        .orElseThrow(() -> new ResourceNotFoundException("User not found"));
+                for (Long productId : pending.quantities.keySet()) {
+                    if (!products.containsKey(productId)) {
+                        throw new ResourceNotFoundException("Product not found: " + productId);
+                    }
+                }
+                Order order = orderService.buildOrder(user, pending.request, pending.quantities, products);
+                // All or nothing per order; undone by the transaction's rollback hooks if the batch fails
+                inventoryService.takeStockBatch(pending.quantities);
+                pending.order = order;
+                placed.add(pending);
+            } catch (RuntimeException e) {
+                pending.error = e; // this order alone fails
+            }
+        }
+
+        if (!placed.isEmpty()) {
+            insertOrders(placed);
+            insertItems(placed);
+            placed.forEach(pending -> eventPublisher.publishEvent(OrderPlacedEvent.of(pending.order)));
+        }
+        return placed;
+    }
+
+    private void insertOrders(List<Pending> placed) {
+        jdbcTemplate.execute((ConnectionCallback<Void>) connection -> {
+            try (PreparedStatement ps = connection.prepareStatement(INSERT_ORDER_SQL, Statement.RETURN_GENERATED_KEYS)) {
+                for (Pending pending : placed) {
+                    Order order = pending.order;
+                    ps.setLong(1, order.getUser().getId());
+                    ps.setTimestamp(2, Timestamp.valueOf(order.getOrderDate()));
+                    ps.setBigDecimal(3, order.getTotalAmount());
+                    ps.setString(4, order.getShippingAddress());
+                    ps.setString(5, order.getPhone());
+                    ps.setString(6, order.getStatus().name());
+                    ps.addBatch();
+                }
+                ps.executeBatch();
+                try (ResultSet keys = ps.getGeneratedKeys()) {
+                    for (Pending pending : placed) {
+                        keys.next();
+                        pending.order.setId(keys.getLong(1));
+                    }
+                }
+            }
+            return null;
+        });
+    }
+
+    private void insertItems(List<Pending> placed) {
+        List<OrderItem> items = new ArrayList<>();
+        placed.forEach(pending -> items.addAll(pending.order.getItems()));
+        jdbcTemplate.execute((ConnectionCallback<Void>) connection -> {
+            try (PreparedStatement ps = connection.prepareStatement(INSERT_ITEM_SQL, Statement.RETURN_GENERATED_KEYS)) {
+                for (OrderItem item : items) {
+                    ps.setLong(1, item.getOrder().getId());
+                    ps.setLong(2, item.getProduct().getId());
+                    ps.setInt(3, item.getQuantity());
+                    ps.setBigDecimal(4, item.getPriceAtPurchase());
+                    ps.addBatch();
+                }
+                ps.executeBatch();
+                try (ResultSet keys = ps.getGeneratedKeys()) {
+                    for (OrderItem item : items) {
+                        keys.next();
+                        item.setId(keys.getLong(1));
+                    }
+                }
+            }
+            return null;
+        });
+    }
+
+    private void retryIndividually(List<Pending> batch) {
+        for (Pending pending : batch) {
+            try {
+                pending.result.complete(orderService.placeOrder(pending.userEmail, pending.request));
+                commits.increment();
+                orders.increment();
+            } catch (RuntimeException e) {
+                pending.result.completeExceptionally(e);
+            }
+        }
+    }
+
+    private static final class Pending {
+        final String userEmail;
+        final OrderRequest request;
+        final CompletableFuture<Order> result = new CompletableFuture<>();
+        Map<Long, Integer> quantities;
+        Order order;
+        RuntimeException error;
+
+        Pending(String userEmail, OrderRequest request) {
+            this.userEmail = userEmail;
+            this.request = request;
+        }
+    }
+}
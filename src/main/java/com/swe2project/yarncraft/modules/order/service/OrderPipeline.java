@@ -0,0 +1,371 @@
+package com.swe2project.yarncraft.modules.order.service;
+
+import com.swe2project.yarncraft.aspect.NoExecutionLogging;
+import com.swe2project.yarncraft.common.exception.ResourceNotFoundException;
+import com.swe2project.yarncraft.modules.order.dto.OrderRequest;
+import com.swe2project.yarncraft.modules.order.dto.OrderSubmissionResponse;
+import com.swe2project.yarncraft.modules.order.entity.Order;
+import com.swe2project.yarncraft.modules.order.entity.OrderStatus;
+import com.swe2project.yarncraft.modules.order.entity.OrderSubmission.State;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.dao.RecoverableDataAccessException;
+import org.springframework.dao.TransientDataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.TransactionException;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import tools.jackson.databind.ObjectMapper;
+
+/**
+ * Asynchronous checkout: accept now, place the order on a worker.
+ * <p>
+ * {@link #submit} only checks the request's shape and inserts it into {@code order_submissions};
+ * the caller gets a handle back at once (202 Accepted). Workers claim the oldest QUEUED row with
+ * {@code SELECT ... FOR UPDATE SKIP LOCKED} and, holding that row lock, run OrderService.placeOrder
+ * and mark the row PLACED in the same transaction, so a crash simply returns the row to the
+ * queue and an order is never placed twice. A business failure (out of stock, unknown product)
+ * rolls the attempt back and marks the row FAILED with the message, in a second transaction
+ * that locks the row again and only fails it if it is still QUEUED: in between another worker
+ * may have claimed it, and then its outcome stands. A transient database failure
+ * (deadlock, lock wait timeout, lost connection) also rolls it back but leaves the row QUEUED,
+ * so it is claimed again after the worker's pause.
+ * <p>
+ * The number of workers ({@code yarncraft.orders.async.workers}) caps how many checkouts hold
+ * a database connection at once; a spike grows the table, not the pools. Clients poll the
+ * handle or subscribe to it over Server-Sent Events for the final state.
+ */
+@Component
+@NoExecutionLogging
+@RequiredArgsConstructor
+@Slf4j
+public class OrderPipeline {
+
+    private static final String ENQUEUE_SQL =
+            "INSERT INTO order_submissions (handle, owner_email, payload, state, created_at) VALUES (?, ?, ?, ?, ?)";
+    private static final String CLAIM_SQL =
+            "SELECT id, handle, owner_email, payload FROM order_submissions WHERE state = 'QUEUED' " +
+                    "ORDER BY id LIMIT 1 FOR UPDATE SKIP LOCKED";
+    private static final String PLACED_SQL =
+            "UPDATE order_submissions SET state = 'PLACED', order_id = ?, completed_at = ? WHERE id = ?";
+    private static final String RELOCK_SQL = "SELECT state FROM order_submissions WHERE id = ? FOR UPDATE";
+    private static final String FAILED_SQL =
+            "UPDATE order_submissions SET state = 'FAILED', error = ?, completed_at = ? WHERE id = ?";
+    private static final String FIND_SQL =
+            "SELECT s.handle, s.owner_email, s.state, s.order_id, s.error, s.created_at, s.completed_at, " +
+                    "o.status AS order_status FROM order_submissions s LEFT JOIN orders o ON o.id = s.order_id " +
+                    "WHERE s.handle IN (%s)";
+
+    private final OrderService orderService;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final ObjectMapper objectMapper;
+
+    @Value("${yarncraft.orders.async.workers:4}")
+    private int workers;
+
+    @Value("${yarncraft.orders.async.poll-ms:1000}")
+    private long pollMillis;
+
+    @Value("${yarncraft.orders.async.stream-timeout-ms:120000}")
+    private long streamTimeoutMillis;
+
+    private final List<Thread> threads = new ArrayList<>();
+    private final Semaphore work = new Semaphore(0);
+    private volatile boolean running;
+
+    // handle -> open SSE streams waiting for the final state
+    private final Map<String, Set<SseEmitter>> subscribers = new ConcurrentHashMap<>();
+
+    // ========================================================================
+    // 1. ACCEPT
+    // ========================================================================
+
+    public OrderSubmissionResponse submit(String userEmail, OrderRequest request) {
+        if (request.getReservationId() == null) {
+            OrderService.mergeLines(request.getItems()).values().forEach(quantity -> {
+                if (quantity <= 0) {
+                    throw new IllegalArgumentException("Quantity must be positive");
+                }
+            });
+        }
+
+        String handle = UUID.randomUUID().toString();
+        LocalDateTime now = LocalDateTime.now();
+        jdbcTemplate.update(ENQUEUE_SQL, handle, userEmail, objectMapper.writeValueAsString(request),
+                State.QUEUED.name(), Timestamp.valueOf(now));
+        wakeUp();
+
+        return OrderSubmissionResponse.builder()
+                .handle(handle)
+                .state(State.QUEUED)
+                .createdAt(now)
+                .build();
+    }
+
+    // ========================================================================
+    // 2. STATUS (poll or subscribe)
+    // ========================================================================
+
+    public OrderSubmissionResponse getSubmission(String handle, String userEmail) {
+        Submission submission = find(List.of(handle)).stream()
+                .filter(found -> found.ownerEmail.equals(userEmail))
+                .findFirst()
+                .orElseThrow(() -> new ResourceNotFoundException("Order submission not found"));
+        return submission.response;
+    }
+
+    /**
+     * A stream that receives one "order-submission" event with the final state, then completes.
+     */
+    public SseEmitter subscribe(String handle, String userEmail) {
+        OrderSubmissionResponse current = getSubmission(handle, userEmail);
+        SseEmitter emitter = new SseEmitter(streamTimeoutMillis);
+        if (current.getState() != State.QUEUED) {
+            send(emitter, current);
+            return emitter;
+        }
+
+        Set<SseEmitter> group = subscribers.computeIfAbsent(handle, h -> ConcurrentHashMap.newKeySet());
+        group.add(emitter);
+        Runnable remove = () -> group.remove(emitter);
+        emitter.onCompletion(remove);
+        emitter.onTimeout(remove);
+        emitter.onError(error -> remove.run());
+        return emitter;
+    }
+
+    // Catches submissions finished by other nodes (and any missed local notification)
+    @Scheduled(fixedDelayString = "${yarncraft.orders.async.notify-ms:1000}")
+    public void notifySubscribers() {
+        subscribers.values().removeIf(Set::isEmpty);
+        if (subscribers.isEmpty()) {
+            return;
+        }
+        for (Submission submission : find(new ArrayList<>(subscribers.keySet()))) {
+            if (submission.response.getState() != State.QUEUED) {
+                publish(submission.response);
+            }
+        }
+    }
+
+    private void publish(OrderSubmissionResponse response) {
+        Set<SseEmitter> group = subscribers.remove(response.getHandle());
+        if (group != null) {
+            group.forEach(emitter -> send(emitter, response));
+        }
+    }
+
+    private static void send(SseEmitter emitter, OrderSubmissionResponse response) {
+        try {
+            emitter.send(SseEmitter.event().name("order-submission").id(response.getHandle()).data(response));
+            emitter.complete();
+        } catch (IOException | IllegalStateException e) {
+            emitter.completeWithError(e); // client went away
+        }
+    }
+
+    // ========================================================================
+    // 3. WORKERS
+    // ========================================================================
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        running = true;
+        for (int i = 0; i < workers; i++) {
+            Thread thread = new Thread(this::work, "order-pipeline-" + i);
+            thread.setDaemon(true);
+            thread.start();
+            threads.add(thread);
+        }
+        log.info("Order pipeline started with {} workers", workers);
+    }
+
+    @PreDestroy
+    void stop() {
+        running = false;
+        threads.forEach(Thread::interrupt);
+    }
+
+    private void wakeUp() {
+        if (work.availablePermits() < workers) {
+            work.release();
+        }
+    }
+
+    private void work() {
+        while (running) {
+            try {
+                if (!placeNext()) {
+                    work.tryAcquire(pollMillis, TimeUnit.MILLISECONDS); // queue empty: wait for a submit or the next poll
+                }
+            } catch (InterruptedException e) {
+                return;
+            } catch (RuntimeException e) {
+                if (isTransient(e)) {
+                    log.warn("Order pipeline attempt will be retried: {}", e.getMessage());
+                } else {
+                    log.error("Order pipeline worker error", e);
+                }
+                sleepQuietly();
+            }
+        }
+    }
+
+    /**
+     * Claims and places one queued order.
+     *
+     * @return false when nothing was queued
+     */
+    boolean placeNext() {
+        Attempt attempt = transactionTemplate.execute(status -> {
+            List<Claimed> rows = jdbcTemplate.query(CLAIM_SQL, (rs, i) -> new Claimed(rs.getLong("id"),
+                    rs.getString("handle"), rs.getString("owner_email"), rs.getString("payload")));
+            if (rows.isEmpty()) {
+                return null;
+            }
+            Claimed claimed = rows.get(0);
+            try {
+                OrderRequest request = objectMapper.readValue(claimed.payload, OrderRequest.class);
+                Order order = orderService.placeOrder(claimed.ownerEmail, request);
+                jdbcTemplate.update(PLACED_SQL, order.getId(), Timestamp.valueOf(LocalDateTime.now()), claimed.id);
+                return new Attempt(claimed, null);
+            } catch (RuntimeException e) {
+                if (isTransient(e)) {
+                    throw e; // rolled back with the claim; the row stays QUEUED for the next attempt
+                }
+                status.setRollbackOnly(); // gives the stock back; the row is marked FAILED below
+                return new Attempt(claimed, e);
+            }
+        });
+        if (attempt == null) {
+            return false;
+        }
+
+        if (attempt.error != null) {
+            markFailed(attempt.claimed.id, attempt.error);
+        }
+        // Only this handle changed; look it up if someone here is waiting for it
+        if (subscribers.containsKey(attempt.claimed.handle)) {
+            find(List.of(attempt.claimed.handle)).stream()
+                    .filter(submission -> submission.response.getState() != State.QUEUED)
+                    .forEach(submission -> publish(submission.response));
+        }
+        return true;
+    }
+
+    // The claim's lock went with the rollback; waits for any worker that claimed the row since
+    private void markFailed(long id, RuntimeException error) {
+        String message = error.getMessage() != null ? error.getMessage() : error.toString();
+        transactionTemplate.executeWithoutResult(status -> {
+            List<String> state = jdbcTemplate.queryForList(RELOCK_SQL, String.class, id);
+            if (state.isEmpty() || !State.QUEUED.name().equals(state.get(0))) {
+                return; // placed or failed by whoever claimed it in between
+            }
+            jdbcTemplate.update(FAILED_SQL, message.length() > 500 ? message.substring(0, 500) : message,
+                    Timestamp.valueOf(LocalDateTime.now()), id);
+        });
+    }
+
+    /**
+     * Failures worth retrying as they are: the order itself may be fine.
+     */
+    static boolean isTransient(RuntimeException e) {
+        return e instanceof TransientDataAccessException       // deadlock, lock wait timeout, query timeout
+                || e instanceof RecoverableDataAccessException
+                || e instanceof DataAccessResourceFailureException // connection lost
+                || e instanceof TransactionException;            // no connection from the pool
+    }
+
+    // ========================================================================
+    // HELPERS
+    // ========================================================================
+
+    private List<Submission> find(List<String> handles) {
+        if (handles.isEmpty()) {
+            return List.of();
+        }
+        String placeholders = String.join(",", Collections.nCopies(handles.size(), "?"));
+        return jdbcTemplate.query(String.format(FIND_SQL, placeholders), SUBMISSION_MAPPER, handles.toArray());
+    }
+
+    private static final RowMapper<Submission> SUBMISSION_MAPPER = (rs, i) -> {
+        Timestamp completedAt = rs.getTimestamp("completed_at");
+        String orderStatus = rs.getString("order_status");
+        OrderSubmissionResponse response = OrderSubmissionResponse.builder()
+                .handle(rs.getString("handle"))
+                .state(State.valueOf(rs.getString("state")))
+                .orderId(rs.getObject("order_id", Long.class))
+                .orderStatus(orderStatus != null ? OrderStatus.valueOf(orderStatus) : null)
+                .error(rs.getString("error"))
+                .createdAt(rs.getTimestamp("created_at").toLocalDateTime())
+                .completedAt(completedAt != null ? completedAt.toLocalDateTime() : null)
+                .build();
+        return new Submission(rs.getString("owner_email"), response);
+    };
+
+    private void sleepQuietly() {
+        try {
+            Thread.sleep(pollMillis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static final class Claimed {
+        final long id;
+        final String handle;
+        final String ownerEmail;
+        final String payload;
+
+        Claimed(long id, String handle, String ownerEmail, String payload) {
+            this.id = id;
+            this.handle = handle;
+            this.ownerEmail = ownerEmail;
+            this.payload = payload;
+        }
+    }
+
+    private static final class Attempt {
+        final Claimed claimed;
+        final RuntimeException error;
+
+        Attempt(Claimed claimed, RuntimeException error) {
+            this.claimed = claimed;
+            this.error = error;
+        }
+    }
+
+    private static final class Submission {
+        final String ownerEmail;
+        final OrderSubmissionResponse response;
+
+        Submission(String ownerEmail, OrderSubmissionResponse response) {
+            this.ownerEmail = ownerEmail;
+            this.response = response;
+        }
+    }
+}
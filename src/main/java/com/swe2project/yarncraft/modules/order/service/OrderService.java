@@ -1,11 +1,20 @@
 package com.swe2project.yarncraft.modules.order.service;
 
+import com.swe2project.yarncraft.common.dto.ApiResponse;
+import com.swe2project.yarncraft.common.dto.CursorPage;
 import com.swe2project.yarncraft.common.exception.ResourceNotFoundException;
+import com.swe2project.yarncraft.common.util.CursorCodec;
 import com.swe2project.yarncraft.modules.inventory.service.InventoryService;
+import com.swe2project.yarncraft.modules.inventory.service.ReservationService;
 import com.swe2project.yarncraft.modules.order.dto.OrderRequest;
+import com.swe2project.yarncraft.modules.order.dto.OrderSummary;
+import com.swe2project.yarncraft.modules.order.dto.VendorOrderSummary;
 import com.swe2project.yarncraft.modules.order.entity.Order;
 import com.swe2project.yarncraft.modules.order.entity.OrderItem;
 import com.swe2project.yarncraft.modules.order.entity.OrderStatus;
+import com.swe2project.yarncraft.modules.order.event.OrderPlacedEvent;
+import com.swe2project.yarncraft.modules.order.idempotency.OrderIdempotencyStore;
+import com.swe2project.yarncraft.modules.order.readmodel.OrderReadModel;
 import com.swe2project.yarncraft.modules.order.repository.OrderRepository;
 import com.swe2project.yarncraft.modules.product.entity.Product;
 import com.swe2project.yarncraft.modules.product.repository.ProductRepository;
@@ -13,24 +22,43 @@ import com.swe2project.yarncraft.modules.user.entity.Role;
 import com.swe2project.yarncraft.modules.user.entity.User;
 import com.swe2project.yarncraft.modules.user.repository.UserRepository;
 
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
 
 import lombok.RequiredArgsConstructor;
+import tools.jackson.databind.ObjectMapper;
 
 @Service
 @RequiredArgsConstructor
 public class OrderService {
 
+    public static final String ORDER_PLACED = "Order placed successfully!";
+
+    private static final int DEFAULT_HISTORY_PAGE_SIZE = 20;
+    private static final int MAX_HISTORY_PAGE_SIZE = 100;
+
     private final OrderRepository orderRepository;
     private final ProductRepository productRepository;
     private final UserRepository userRepository;
     private final InventoryService inventoryService;
+    private final ReservationService reservationService;
+    private final OrderIdempotencyStore orderIdempotencyStore;
+    private final ObjectMapper objectMapper;
+    private final TransactionTemplate transactionTemplate;
+    private final OrderReadModel orderReadModel;
+    private final ApplicationEventPublisher eventPublisher;
 
     @Transactional
     public Order placeOrder(String userEmail, OrderRequest request) {
@@ -39,7 +67,32 @@ public class OrderService {
         User user = userRepository.findByEmail(userEmail)
                 .orElseThrow(() -> new ResourceNotFoundException("User not found"));
 
-        // 2. Prepare Order Object
+        // 2. Work out the lines (one per product) and take the stock
+        Map<Long, Integer> quantities;
+        Map<Long, Product> products;
+        if (request.getReservationId() != null) {
+            // A. Stock is already held: turn the reservation into a sale
+            quantities = reservationService.confirm(request.getReservationId(), userEmail);
+            products = loadProducts(quantities.keySet());
+        } else {
+            // B. Merge duplicate lines, load every product in one query, deduct all lines at once
+            quantities = mergeLines(request.getItems());
+            products = loadProducts(quantities.keySet());
+            inventoryService.deductStockBatch(quantities);
+        }
+
+        // 3. Build the order and its items
+        Order saved = orderRepository.save(buildOrder(user, request, quantities, products));
+        eventPublisher.publishEvent(OrderPlacedEvent.of(saved)); // read model, projected after commit
+        return saved;
+    }
+
+    /**
+     * The Order (not saved) for lines whose stock has been taken. Shared with OrderIntake.
+     */
+    Order buildOrder(User user, OrderRequest request, Map<Long, Integer> quantities, Map<Long, Product> products) {
+
+        // 1. Prepare Order Object
         // 🛠️ FIX: Use 'user' instead of 'customer', 'orderDate' instead of 'createdAt'
         Order order = Order.builder()
                 .user(user)                        // ✅ Fixed Name
@@ -53,25 +106,22 @@ public class OrderService {
 
         BigDecimal calculatedTotal = BigDecimal.ZERO;
 
-        // 3. Process Each Item
-        for (OrderRequest.OrderItemRequest itemRequest : request.getItems()) {
-
-            // A. Fetch Product
-            Product product = productRepository.findById(itemRequest.getProductId())
-                    .orElseThrow(() -> new ResourceNotFoundException("Product not found: " + itemRequest.getProductId()));
+        // 2. Build Each Item
+        for (Map.Entry<Long, Integer> line : quantities.entrySet()) {
 
-            // B. Deduct Stock
-            inventoryService.deductStock(product.getId(), itemRequest.getQuantity());
+            // A. Product was fetched above
+            Product product = products.get(line.getKey());
+            int quantity = line.getValue();
 
-            // C. Create OrderItem
+            // B. Create OrderItem
             OrderItem orderItem = OrderItem.builder()
                     .order(order)
                     .product(product)
-                    .quantity(itemRequest.getQuantity())
+                    .quantity(quantity)
                     .priceAtPurchase(product.getPrice()) // Using DB price is safer
                     .build();
 
-            // D. Handle Customizations (OPTIONAL)
+            // C. Handle Customizations (OPTIONAL)
             /* * ⚠️ NOTE: The 'Order' entity I provided earlier did NOT have Customizations.
              * If you want to support this, you must create a Customization Entity
              * and add 'private List<Customization> customizations' to OrderItem.java.
@@ -82,29 +132,139 @@ public class OrderService {
             order.getItems().add(orderItem);
 
             // Add to Total
-            BigDecimal itemTotal = product.getPrice().multiply(BigDecimal.valueOf(itemRequest.getQuantity()));
+            BigDecimal itemTotal = product.getPrice().multiply(BigDecimal.valueOf(quantity));
             calculatedTotal = calculatedTotal.add(itemTotal);
         }
 
-        // 4. Finalize Order
+        // 3. Finalize Order
         // 🛠️ FIX: Use 'setTotalAmount' instead of 'setTotalPrice'
         order.setTotalAmount(calculatedTotal);
 
-        return orderRepository.save(order);
+        return order;
+    }
+
+    /**
+     * placeOrder behind an Idempotency-Key: a retry gets the first response back and touches no stock.
+     *
+     * @return the JSON response body, as sent the first time
+     */
+    public OrderIdempotencyStore.Result placeOrderIdempotently(String userEmail, OrderRequest request, String key) {
+        String requestHash = OrderIdempotencyStore.hash(objectMapper.writeValueAsBytes(request));
+        // The claim, the order and the stored response share one transaction
+        return orderIdempotencyStore.execute(userEmail, key, requestHash, () -> transactionTemplate.execute(status -> {
+            orderIdempotencyStore.claim(userEmail, key, requestHash); // before any stock is taken
+            Order order = placeOrder(userEmail, request);
+            byte[] body = objectMapper.writeValueAsBytes(ApiResponse.success(order, ORDER_PLACED));
+            orderIdempotencyStore.complete(userEmail, key, body);
+            return body;
+        }));
+    }
+
+    /**
+     * productId -> total quantity, in productId order.
+     */
+    static Map<Long, Integer> mergeLines(List<OrderRequest.OrderItemRequest> items) {
+        if (items == null || items.isEmpty()) {
+            throw new IllegalArgumentException("Order must contain at least one item");
+        }
+        Map<Long, Integer> quantities = new TreeMap<>();
+        for (OrderRequest.OrderItemRequest item : items) {
+            if (item.getProductId() == null) {
+                throw new IllegalArgumentException("Product id is required for every order item");
+            }
+            quantities.merge(item.getProductId(), item.getQuantity(), Integer::sum);
+        }
+        return quantities;
+    }
+
+    /**
+     * One findAllById for the whole cart instead of one findById per line.
+     */
+    private Map<Long, Product> loadProducts(Collection<Long> productIds) {
+        Map<Long, Product> products = new HashMap<>();
+        productRepository.findAllById(productIds).forEach(product -> products.put(product.getId(), product));
+
+        for (Long productId : productIds) {
+            if (!products.containsKey(productId)) {
+                throw new ResourceNotFoundException("Product not found: " + productId);
+            }
+        }
+        return products;
     }
 
     // --- READ OPERATIONS ---
 
-    public List<Order> getUserOrders(String userEmail) {
+    /**
+     * A customer's orders, newest first. Admins may pass another customer's id.
+     * <p>
+     * The read model is filled after commit, so an order just placed may not be in it yet. The
+     * first page (no cursor) therefore comes from the orders table: two projection queries over
+     * idx_orders_user_date, the orders and then all their lines. Later pages are one range scan of
+     * the read model; the orders they hold are older than anything the projector is still behind on.
+     */
+    public CursorPage<OrderSummary> getUserOrderHistory(String userEmail, Long customerId, String cursor, Integer size) {
+        User user = userRepository.findByEmail(userEmail)
+                .orElseThrow(() -> new ResourceNotFoundException("User not found"));
+        if (customerId != null && !customerId.equals(user.getId()) && !user.isAdmin()) {
+            throw new SecurityException("You can only view your own orders");
+        }
+        long owner = customerId != null ? customerId : user.getId();
+        if (cursor == null || cursor.isBlank()) {
+            return newestOrders(owner, historyPageSize(size));
+        }
+        return orderReadModel.customerOrders(owner, cursor, historyPageSize(size));
+    }
+
+    // Same page shape and cursor as OrderReadModel.customerOrders, read from the source tables
+    private CursorPage<OrderSummary> newestOrders(long customerId, int limit) {
+        List<OrderSummary> orders = orderRepository.findSummaryPage(customerId, LocalDateTime.of(9999, 12, 31, 23, 59),
+                Long.MAX_VALUE, Limit.of(limit + 1));
+        String nextCursor = null;
+        if (orders.size() > limit) {
+            orders = new ArrayList<>(orders.subList(0, limit));
+            OrderSummary last = orders.get(limit - 1);
+            nextCursor = CursorCodec.encode(last.getOrderDate().toString(), String.valueOf(last.getId()));
+        }
+
+        if (!orders.isEmpty()) {
+            Map<Long, OrderSummary> byId = new HashMap<>();
+            orders.forEach(order -> byId.put(order.getId(), order));
+            for (OrderSummary.Line line : orderRepository.findSummaryLines(byId.keySet())) {
+                byId.get(line.getOrderId()).getItems().add(line);
+            }
+        }
+        return new CursorPage<>(orders, nextCursor);
+    }
+
+    /**
+     * Orders containing a vendor's products (only those lines), newest first, for fulfilment.
+     * Vendors see their own; admins pass the vendor's id. Read from the read model only, so an
+     * order shows up here a moment after it commits (the orders table has no vendor column to fall
+     * back on).
+     */
+    public CursorPage<VendorOrderSummary> getVendorOrders(String userEmail, Long vendorId, String cursor, Integer size) {
         User user = userRepository.findByEmail(userEmail)
                 .orElseThrow(() -> new ResourceNotFoundException("User not found"));
+        long owner;
+        if (user.isAdmin()) {
+            if (vendorId == null) {
+                throw new IllegalArgumentException("vendorId is required");
+            }
+            owner = vendorId;
+        } else if (user.isApprovedVendor() && (vendorId == null || vendorId.equals(user.getId()))) {
+            owner = user.getId();
+        } else {
+            throw new SecurityException("Only vendors can view their orders");
+        }
+        return orderReadModel.vendorOrders(owner, cursor, historyPageSize(size));
+    }
 
-        // 👇 MAKE SURE THIS MATCHES YOUR REPOSITORY
-        return orderRepository.findByUser(user);
+    private static int historyPageSize(Integer size) {
+        return size == null ? DEFAULT_HISTORY_PAGE_SIZE : Math.max(1, Math.min(size, MAX_HISTORY_PAGE_SIZE));
     }
 
     public Order getOrderById(Long orderId, String userEmail) {
-        Order order = orderRepository.findById(orderId)
+        Order order = orderRepository.findWithItemsById(orderId)
                 .orElseThrow(() -> new ResourceNotFoundException("Order not found"));
 
         User user = userRepository.findByEmail(userEmail)
@@ -0,0 +1,215 @@
+package com.swe2project.yarncraft.modules.product.cache;
+
+import com.swe2project.yarncraft.aspect.NoExecutionLogging;
+import com.swe2project.yarncraft.common.dto.CursorPage;
+import com.swe2project.yarncraft.common.web.PreSerializedJson;
+import com.swe2project.yarncraft.common.web.ResourceVersions;
+import com.swe2project.yarncraft.modules.product.dto.ProductResponse;
+import com.swe2project.yarncraft.modules.user.event.VendorApprovedEvent;
+import com.swe2project.yarncraft.modules.user.event.VendorRejectedEvent;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+import tools.jackson.databind.ObjectMapper;
+
+/**
+ * Bounded cache of catalog read results: single ProductResponses by id, the first page of
+ * the public catalog (the homepage) and each vendor's products.
+ * <p>
+ * Both caches are bounded by an estimate of their size in bytes rather than an entry count,
+ * since one list entry can hold the whole catalog. Entries never expire on their own:
+ * ProductService invalidates exactly the product, its vendor's list and (for approved vendors)
+ * the public list after a write commits, and vendor approval/rejection drops that vendor's lists.
+ * Hit, miss and eviction counters are published as the {@code cache.*} metrics
+ * (tag {@code cache=catalog.products} / {@code catalog.lists}).
+ * <p>
+ * Each entry also carries its JSON bytes (and their gzip blocks), serialized on first use,
+ * so hot endpoints can skip Jackson entirely. Bytes live and die with their entry, and every
+ * entry gets a new version number from a global sequence when it is loaded.
+ * <p>
+ * Every invalidation also bumps the matching {@link ResourceVersions}, so conditional GETs
+ * on the catalog turn into 304s without reaching this cache at all.
+ */
+@Component
+@NoExecutionLogging
+@RequiredArgsConstructor
+@Slf4j
+public class CatalogCache {
+
+    private static final String PUBLIC_CATALOG = "public";
+    private static final String VENDOR_PREFIX = "vendor:";
+
+    private final MeterRegistry meterRegistry;
+    private final ObjectMapper objectMapper;
+    private final ResourceVersions resourceVersions;
+
+    @Value("${yarncraft.products.cache.product-max-bytes:16777216}")
+    private long productMaxBytes;
+
+    @Value("${yarncraft.products.cache.list-max-bytes:67108864}")
+    private long listMaxBytes;
+
+    private final AtomicLong versions = new AtomicLong();
+    private Cache<Long, Entry<ProductResponse>> products;
+    private Cache<String, Entry<List<ProductResponse>>> lists;
+
+    @PostConstruct
+    void init() {
+        products = Caffeine.newBuilder()
+                .maximumWeight(productMaxBytes)
+                .weigher((Long id, Entry<ProductResponse> entry) -> 2 * weigh(entry.value))
+                .recordStats()
+                .build();
+        lists = Caffeine.newBuilder()
+                .maximumWeight(listMaxBytes)
+                .weigher((String key, Entry<List<ProductResponse>> entry) -> 2 * weigh(entry.value))
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, products, "catalog.products");
+        CaffeineCacheMetrics.monitor(meterRegistry, lists, "catalog.lists");
+    }
+
+    // ========================================================================
+    // 1. READ-THROUGH
+    // ========================================================================
+
+    public ProductResponse product(long productId, Function<Long, ProductResponse> loader) {
+        return productEntry(productId, loader).value;
+    }
+
+    public PreSerializedJson productJson(long productId, Function<Long, ProductResponse> loader) {
+        return productEntry(productId, loader).json(objectMapper);
+    }
+
+    /**
+     * First page of approved vendors' products, as served on the homepage. Later pages are
+     * not cached: each is one indexed range query.
+     */
+    public SerializedPage publicFirstPageJson(Supplier<CursorPage<ProductResponse>> loader) {
+        Entry<List<ProductResponse>> entry = listEntry(PUBLIC_CATALOG, loader);
+        return new SerializedPage(entry.json(objectMapper), entry.nextCursor);
+    }
+
+    public List<ProductResponse> vendorProducts(long vendorId, Supplier<List<ProductResponse>> loader) {
+        return listEntry(VENDOR_PREFIX + vendorId, () -> new CursorPage<>(loader.get(), null)).value;
+    }
+
+    private Entry<ProductResponse> productEntry(long productId, Function<Long, ProductResponse> loader) {
+        return products.get(productId, id -> new Entry<>(loader.apply(id), null, versions.incrementAndGet()));
+    }
+
+    private Entry<List<ProductResponse>> listEntry(String key, Supplier<CursorPage<ProductResponse>> loader) {
+        return lists.get(key, k -> {
+            CursorPage<ProductResponse> page = loader.get();
+            return new Entry<>(List.copyOf(page.getItems()), page.getNextCursor(), versions.incrementAndGet());
+        });
+    }
+
+    // ========================================================================
+    // 2. INVALIDATION (call after the write has committed)
+    // ========================================================================
+
+    /**
+     * A product was created, changed or deleted.
+     *
+     * @param publiclyVisible whether its vendor is approved, i.e. whether the public list shows it
+     */
+    public void productChanged(long productId, long vendorId, boolean publiclyVisible) {
+        products.invalidate(productId);
+        lists.invalidate(VENDOR_PREFIX + vendorId);
+        if (publiclyVisible) {
+            lists.invalidate(PUBLIC_CATALOG);
+        }
+        // Unapproved vendors' products still show up by id and category
+        resourceVersions.touch(ResourceVersions.PRODUCTS, ResourceVersions.product(productId),
+                ResourceVersions.vendorProducts(vendorId));
+    }
+
+    @EventListener
+    public void onVendorApproved(VendorApprovedEvent event) {
+        vendorChanged(event.getVendorId());
+    }
+
+    @EventListener
+    public void onVendorRejected(VendorRejectedEvent event) {
+        vendorChanged(event.getVendorId());
+    }
+
+    private void vendorChanged(long vendorId) {
+        lists.invalidate(VENDOR_PREFIX + vendorId);
+        lists.invalidate(PUBLIC_CATALOG);
+        resourceVersions.touch(ResourceVersions.PRODUCTS, ResourceVersions.vendorProducts(vendorId));
+        log.info("Catalog lists invalidated for vendor {}", vendorId);
+    }
+
+    // ========================================================================
+    // 3. SIZE ESTIMATES
+    // ========================================================================
+
+    // Rough heap footprint: object headers and fields plus two bytes per string char.
+    // Entries are weighed at twice this to leave room for their serialized bytes.
+    private static int weigh(ProductResponse product) {
+        return 128 + chars(product.getName()) + chars(product.getDescription())
+                + chars(product.getImageUrl()) + chars(product.getVendorName());
+    }
+
+    private static int weigh(List<ProductResponse> list) {
+        long total = 64;
+        for (ProductResponse product : list) {
+            total += 8 + weigh(product);
+        }
+        return (int) Math.min(total, Integer.MAX_VALUE);
+    }
+
+    private static int chars(String value) {
+        return value == null ? 0 : 40 + 2 * value.length();
+    }
+
+    /**
+     * A cached page: its items as JSON plus the cursor of the page after it.
+     */
+    @Getter
+    @RequiredArgsConstructor
+    public static class SerializedPage {
+        private final PreSerializedJson items;
+        private final String nextCursor;
+    }
+
+    private static final class Entry<T> {
+        final T value;
+        final String nextCursor; // lists cached as a first page only
+        final long version;
+        volatile PreSerializedJson json;
+
+        Entry(T value, String nextCursor, long version) {
+            this.value = value;
+            this.nextCursor = nextCursor;
+            this.version = version;
+        }
+
+        // Racing first readers may both serialize; the results are identical
+        PreSerializedJson json(ObjectMapper objectMapper) {
+            PreSerializedJson serialized = json;
+            if (serialized == null) {
+                serialized = PreSerializedJson.of(value, version, objectMapper);
+                json = serialized;
+            }
+            return serialized;
+        }
+    }
+}
@@ -1,18 +1,39 @@
 package com.swe2project.yarncraft.modules.product.controller;
 
 import com.swe2project.yarncraft.common.dto.ApiResponse;
+import com.swe2project.yarncraft.common.web.ApiResponseWriter;
+import com.swe2project.yarncraft.common.web.FileResponseWriter;
+import com.swe2project.yarncraft.common.web.ResourceVersions;
+import com.swe2project.yarncraft.modules.inventory.entity.InventoryItem.StockStatus;
+import com.swe2project.yarncraft.modules.product.cache.CatalogCache;
+import com.swe2project.yarncraft.modules.product.dto.CatalogBrowseResult;
 import com.swe2project.yarncraft.modules.product.dto.ProductRequest;
 import com.swe2project.yarncraft.modules.product.dto.ProductResponse;
+import com.swe2project.yarncraft.modules.product.dto.ProductSuggestion;
 import com.swe2project.yarncraft.modules.product.entity.Category;
 import com.swe2project.yarncraft.modules.product.entity.Product;
+import com.swe2project.yarncraft.modules.product.image.ProductImageStore;
+import com.swe2project.yarncraft.modules.product.search.PriceRange;
+import com.swe2project.yarncraft.modules.product.service.CatalogExportService;
 import com.swe2project.yarncraft.modules.product.service.ProductService;
 
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.Authentication;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.ServletWebRequest;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.file.Path;
 import java.util.List;
+import java.util.Optional;
 
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
 import lombok.RequiredArgsConstructor;
 
 @RestController
@@ -21,6 +42,13 @@ import lombok.RequiredArgsConstructor;
 public class ProductController {
 
     private final ProductService productService;
+    private final CatalogExportService catalogExportService;
+    private final ApiResponseWriter apiResponseWriter;
+    private final ResourceVersions resourceVersions;
+    private final ProductImageStore productImageStore;
+    private final FileResponseWriter fileResponseWriter;
+
+    // GETs answer If-None-Match / If-Modified-Since with a 304 before touching the service
 
     // 1. Create Product (Vendor only) - KEEP AS PRODUCT (Service returns Entity)
     @PostMapping
@@ -32,21 +60,102 @@ public class ProductController {
         return ResponseEntity.ok(ApiResponse.success(product, "Product created successfully"));
     }
 
-    // 2. Get All Products (Public) - 👇 CHANGED TO ProductResponse
+    // 2. Get Products (Public), keyset-paginated: ?size=, then ?cursor=<nextCursor>.
+    // The default first page (the homepage) is written from pre-serialized bytes.
     @GetMapping
-    public ResponseEntity<ApiResponse<List<ProductResponse>>> getAllProducts() {
-        return ResponseEntity.ok(ApiResponse.success(productService.getAllProducts(), "Fetched all products"));
+    public ResponseEntity<ApiResponse<List<ProductResponse>>> getAllProducts(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer size,
+            HttpServletRequest request,
+            HttpServletResponse response
+    ) throws IOException {
+        if (resourceVersions.notModified(new ServletWebRequest(request, response), ResourceVersions.PRODUCTS)) {
+            return null;
+        }
+        if (cursor == null && size == null) {
+            CatalogCache.SerializedPage firstPage = productService.getCatalogFirstPageJson();
+            apiResponseWriter.writeSuccess(firstPage.getItems(), firstPage.getNextCursor(), "Fetched products",
+                    request, response);
+            return null;
+        }
+        return ResponseEntity.ok(ApiResponse.page(productService.getCatalogPage(cursor, size), "Fetched products"));
+    }
+
+    // Whole public catalog as one streamed JSON array, constant memory however large (Public)
+    @GetMapping(value = "/export", produces = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> exportProducts() {
+        StreamingResponseBody body = catalogExportService::exportPublicCatalog;
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(body);
     }
 
-    // 3. Get Single Product (Public) - 👇 CHANGED TO ProductResponse
+    // 3. Get Single Product (Public) - ApiResponse<ProductResponse>, data pre-serialized
     @GetMapping("/{id}")
-    public ResponseEntity<ApiResponse<ProductResponse>> getProductById(@PathVariable Long id) {
-        return ResponseEntity.ok(ApiResponse.success(productService.getProductById(id), "Fetched product details"));
+    public void getProductById(@PathVariable Long id, HttpServletRequest request, HttpServletResponse response)
+            throws IOException {
+        if (resourceVersions.notModified(new ServletWebRequest(request, response), ResourceVersions.product(id))) {
+            return;
+        }
+        apiResponseWriter.writeSuccess(productService.getProductJsonById(id), "Fetched product details", request, response);
+    }
+
+    // Full-text search over name and description, best match first (Public)
+    @GetMapping("/search")
+    public ResponseEntity<ApiResponse<List<ProductResponse>>> searchProducts(
+            @RequestParam String q,
+            @RequestParam(required = false) Category category,
+            @RequestParam(required = false) BigDecimal minPrice,
+            @RequestParam(required = false) BigDecimal maxPrice,
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "20") int size,
+            WebRequest webRequest
+    ) {
+        if (resourceVersions.notModified(webRequest, ResourceVersions.PRODUCTS)) {
+            return null;
+        }
+        return ResponseEntity.ok(ApiResponse.success(
+                productService.searchProducts(q, category, minPrice, maxPrice, page, size), "Search results"));
+    }
+
+    // Autocomplete on every keystroke, served from memory (Public)
+    @GetMapping("/suggest")
+    public ResponseEntity<ApiResponse<List<ProductSuggestion>>> suggestProducts(
+            @RequestParam String prefix,
+            @RequestParam(defaultValue = "10") int limit,
+            WebRequest webRequest
+    ) {
+        if (resourceVersions.notModified(webRequest, ResourceVersions.PRODUCTS)) {
+            return null;
+        }
+        return ResponseEntity.ok(ApiResponse.success(productService.suggestProducts(prefix, limit), "Suggestions"));
+    }
+
+    // Faceted browse with sidebar counts; repeat a parameter to OR its values (Public)
+    @GetMapping("/browse")
+    public ResponseEntity<ApiResponse<CatalogBrowseResult>> browseProducts(
+            @RequestParam(required = false) List<Category> category,
+            @RequestParam(required = false) List<PriceRange> price,
+            @RequestParam(required = false) List<Long> vendorId,
+            @RequestParam(required = false) List<StockStatus> status,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") int size,
+            WebRequest webRequest
+    ) {
+        if (resourceVersions.notModified(webRequest, ResourceVersions.PRODUCTS, ResourceVersions.STOCK_STATUS)) {
+            return null;
+        }
+        return ResponseEntity.ok(ApiResponse.success(
+                productService.browseProducts(category, price, vendorId, status, cursor, size), "Browse results"));
     }
 
     // Get Single Product by Category (Public) - KEEP AS PRODUCT (Service still returns Entity here)
     @GetMapping("/category")
-    public ResponseEntity<ApiResponse<List<Product>>> getProductsByCategory(@RequestParam Category category) {
+    public ResponseEntity<ApiResponse<List<Product>>> getProductsByCategory(@RequestParam Category category,
+                                                                          WebRequest webRequest) {
+        if (resourceVersions.notModified(webRequest, ResourceVersions.PRODUCTS)) {
+            return null;
+        }
         return ResponseEntity.ok(ApiResponse.success(productService.getProductsByCategory(category), "Fetched products by category"));
     }
 
@@ -61,6 +170,48 @@ public class ProductController {
         return ResponseEntity.ok(ApiResponse.success(updatedProduct, "Product updated successfully"));
     }
 
+    // Upload the product image (Vendor Owner only). Multipart field "file"; JPEG, PNG or GIF.
+    @PostMapping(value = "/{id}/image", consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
+    public ResponseEntity<ApiResponse<Product>> uploadProductImage(
+            @PathVariable Long id,
+            @RequestParam("file") MultipartFile file,
+            Authentication authentication
+    ) throws IOException {
+        Product updated = productService.updateProductImage(id, authentication.getName(), file);
+        return ResponseEntity.ok(ApiResponse.success(updated, "Product image uploaded successfully"));
+    }
+
+    // Stored images and their thumbnails (Public, no token: loaded by <img> tags). Cached for a year,
+    // except an original standing in for a thumbnail that is not rendered yet.
+    @GetMapping("/images/{name:.+}")
+    public void getProductImage(@PathVariable String name, HttpServletRequest request,
+                                HttpServletResponse response) throws IOException {
+        serveImage(productImageStore.original(name), "", request, response);
+    }
+
+    @GetMapping("/images/thumbs/{name:.+}")
+    public void getProductThumbnail(@PathVariable String name, HttpServletRequest request,
+                                    HttpServletResponse response) throws IOException {
+        serveImage(productImageStore.thumbnail(name), "thumb-", request, response);
+    }
+
+    private void serveImage(Optional<Path> file, String tagPrefix, HttpServletRequest request,
+                            HttpServletResponse response) throws IOException {
+        if (file.isEmpty()) {
+            response.sendError(HttpServletResponse.SC_NOT_FOUND);
+            return;
+        }
+        // A thumbnail may be served as its original until rendered: only briefly cacheable, and under
+        // the original's tag (a JPEG original and its thumbnail share the file name)
+        Path path = file.get();
+        String contentType = ProductImageStore.contentType(path.getFileName().toString());
+        if (!tagPrefix.isEmpty() && !productImageStore.isThumbnail(path)) {
+            fileResponseWriter.writeProvisional(path, path.getFileName().toString(), contentType, request, response);
+        } else {
+            fileResponseWriter.writeImmutable(path, tagPrefix + path.getFileName(), contentType, request, response);
+        }
+    }
+
     // 5. Delete Product (Vendor Owner only)
     @DeleteMapping("/{id}")
     public ResponseEntity<ApiResponse<Void>> deleteProduct(
@@ -74,15 +225,23 @@ public class ProductController {
     // 👇 ADD THIS ENDPOINT (Vendor Only)
     @GetMapping("/my-products")
     public ResponseEntity<ApiResponse<List<ProductResponse>>> getMyProducts(
-            Authentication authentication
+            Authentication authentication,
+            WebRequest webRequest
     ) {
+        if (resourceVersions.notModified(webRequest, ResourceVersions.PRODUCTS)) { // ETag varies by caller
+            return null;
+        }
         List<ProductResponse> products = productService.getMyProducts(authentication.getName());
         return ResponseEntity.ok(ApiResponse.success(products, "Fetched my products successfully"));
     }
 
     // 6. Get Vendor's Products - 👇 CHANGED TO ProductResponse
     @GetMapping("/vendor/{vendorId}")
-    public ResponseEntity<ApiResponse<List<ProductResponse>>> getVendorProducts(@PathVariable Long vendorId) {
+    public ResponseEntity<ApiResponse<List<ProductResponse>>> getVendorProducts(@PathVariable Long vendorId,
+                                                                                WebRequest webRequest) {
+        if (resourceVersions.notModified(webRequest, ResourceVersions.vendorProducts(vendorId))) {
+            return null;
+        }
         return ResponseEntity.ok(ApiResponse.success(productService.getProductsByVendor(vendorId), "Fetched vendor products"));
     }
 }
\ No newline at end of file
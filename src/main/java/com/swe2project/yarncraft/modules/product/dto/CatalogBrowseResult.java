@@ -0,0 +1,26 @@
+package com.swe2project.yarncraft.modules.product.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+import java.util.List;
+import java.util.Map;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+/**
+ * One page of a faceted browse plus the sidebar counts.
+ * {@code facets} maps facet name (category, price, vendor, status) to value -> matching products,
+ * where each facet's counts ignore that facet's own selection (so other values stay clickable).
+ */
+@Data
+@AllArgsConstructor
+public class CatalogBrowseResult {
+    private List<ProductResponse> items;
+    private long total;
+    private Map<String, Map<String, Long>> facets;
+
+    // Opaque cursor for the next page; absent on the last page
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private String nextCursor;
+}
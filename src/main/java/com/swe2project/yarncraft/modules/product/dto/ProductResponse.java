@@ -17,6 +17,9 @@ public class ProductResponse {
     private Category category;
     private String imageUrl;
 
+    // Small fixed-size variant for listings (same as imageUrl for images hosted elsewhere)
+    private String thumbnailUrl;
+
     // 👇 THIS IS THE FIELD WE NEED FOR THE FRONTEND
     private String vendorName;
 }
\ No newline at end of file
@@ -0,0 +1,11 @@
+package com.swe2project.yarncraft.modules.product.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+@Data
+@AllArgsConstructor
+public class ProductSuggestion {
+    private Long id;
+    private String name;
+}
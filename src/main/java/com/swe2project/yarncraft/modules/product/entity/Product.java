@@ -16,7 +16,10 @@ import lombok.NoArgsConstructor;
 @Builder
 @NoArgsConstructor
 @AllArgsConstructor
-@Table(name = "products")
+@Table(name = "products", indexes = {
+        // Catalog pages scan (visible = TRUE, id > cursor) straight off this index
+        @Index(name = "idx_visible_id", columnList = "visible, id")
+})
 public class Product {
 
     @Id
@@ -44,4 +47,10 @@ public class Product {
     @JoinColumn(name = "vendor_id", nullable = false)
     @JsonIgnore
     private User vendor;
+
+    // Denormalized vendor.isApproved, so public catalog reads need no join to users.
+    // Set on create and rewritten in bulk when the vendor's approval changes.
+    @Column(nullable = false)
+    @Builder.Default
+    private boolean visible = false;
 }
\ No newline at end of file
@@ -0,0 +1,346 @@
+package com.swe2project.yarncraft.modules.product.image;
+
+import com.swe2project.yarncraft.aspect.NoExecutionLogging;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.Iterator;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReadParam;
+import javax.imageio.ImageReader;
+import javax.imageio.stream.ImageInputStream;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Content-addressed product images on local disk.
+ * <p>
+ * An upload is moved (not copied) from the servlet's temp file into the store, hashed with
+ * SHA-256 through a direct buffer and renamed to {@code <sha256>.<ext>}, so identical uploads
+ * share one file and a name never changes content (responses can be cached forever). Thumbnails
+ * ({@code thumbs/<sha256>.jpg}, fitted into a fixed square) are rendered on a small bounded pool;
+ * when the queue is full the job is dropped, and the original is served in its place (briefly
+ * cacheable) until a later thumbnail request (or the startup sweep) schedules it again. An image
+ * whose rendering failed is not retried before the next restart; its original stays the thumbnail.
+ * Only thumbnail rendering decodes pixels into the heap, and only after the header's dimensions
+ * passed {@code max-pixels}: the raster is subsampled while decoding to about the thumbnail size,
+ * so a small file declaring a huge canvas cannot exhaust the heap. Serving goes through
+ * {@link com.swe2project.yarncraft.common.web.FileResponseWriter}.
+ */
+@Component
+@NoExecutionLogging
+@Slf4j
+public class ProductImageStore {
+
+    public static final String URL_PATH = "/api/products/images/";
+    public static final String THUMBS = "thumbs/";
+
+    // <sha256>.<ext>, also what the serving endpoints accept (no path traversal possible)
+    public static final Pattern FILE_NAME = Pattern.compile("([0-9a-f]{64})\\.(jpg|png|gif)");
+
+    private static final Set<String> EXTENSIONS = Set.of("jpg", "png", "gif");
+
+    @Value("${yarncraft.products.images.dir:data/images}")
+    private String directory;
+
+    @Value("${yarncraft.products.images.max-bytes:5242880}")
+    private long maxBytes;
+
+    // Largest width x height a thumbnail is rendered from; bigger images keep their original
+    @Value("${yarncraft.products.images.max-pixels:50000000}")
+    private long maxPixels;
+
+    @Value("${yarncraft.products.images.thumbnail-size:320}")
+    private int thumbnailSize;
+
+    @Value("${yarncraft.products.images.thumbnail-workers:2}")
+    private int thumbnailWorkers;
+
+    @Value("${yarncraft.products.images.thumbnail-queue:256}")
+    private int thumbnailQueue;
+
+    private Path root;
+    private Path thumbs;
+    private ThreadPoolExecutor thumbnailPool;
+    private final Set<String> pending = ConcurrentHashMap.newKeySet();
+    private final Set<String> failed = ConcurrentHashMap.newKeySet(); // rendering threw, not retried
+
+    @PostConstruct
+    void init() throws IOException {
+        root = Paths.get(directory).toAbsolutePath();
+        thumbs = root.resolve(THUMBS);
+        Files.createDirectories(thumbs);
+
+        AtomicInteger threads = new AtomicInteger();
+        thumbnailPool = new ThreadPoolExecutor(thumbnailWorkers, thumbnailWorkers, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(thumbnailQueue), runnable -> {
+            Thread thread = new Thread(runnable, "image-thumbnail-" + threads.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+
+        // Originals whose thumbnail was never rendered (dropped job, crash)
+        try (var files = Files.list(root)) {
+            files.map(path -> path.getFileName().toString())
+                    .filter(name -> FILE_NAME.matcher(name).matches())
+                    .filter(name -> !Files.exists(thumbnailPath(name)))
+                    .forEach(this::scheduleThumbnail);
+        }
+    }
+
+    @PreDestroy
+    void shutdown() {
+        thumbnailPool.shutdownNow();
+    }
+
+    // ========================================================================
+    // 1. STORE
+    // ========================================================================
+
+    /**
+     * @return the stored file name, {@code <sha256>.<ext>}
+     */
+    public String store(MultipartFile upload) throws IOException {
+        if (upload.isEmpty()) {
+            throw new IllegalArgumentException("Image file is empty");
+        }
+        if (upload.getSize() > maxBytes) {
+            throw new IllegalArgumentException("Image must be at most " + maxBytes + " bytes");
+        }
+
+        Path temp = Files.createTempFile(root, "upload-", ".tmp");
+        try {
+            upload.transferTo(temp); // a rename when the container spooled the part to disk
+            String extension = detectExtension(temp);
+            String name = sha256(temp) + "." + extension;
+            Path target = root.resolve(name);
+            try {
+                Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE);
+            } catch (FileAlreadyExistsException e) {
+                // Same bytes stored before; keep the existing file
+            }
+            if (!Files.exists(thumbnailPath(name))) {
+                scheduleThumbnail(name);
+            }
+            return name;
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+
+    // ========================================================================
+    // 2. LOOKUP
+    // ========================================================================
+
+    public Optional<Path> original(String name) {
+        return FILE_NAME.matcher(name).matches() ? existing(root.resolve(name)) : Optional.empty();
+    }
+
+    /**
+     * The thumbnail of an original, or the original itself while the thumbnail is not rendered yet.
+     */
+    public Optional<Path> thumbnail(String name) {
+        if (!FILE_NAME.matcher(name).matches()) {
+            return Optional.empty();
+        }
+        Optional<Path> thumbnail = existing(thumbnailPath(name));
+        if (thumbnail.isPresent()) {
+            return thumbnail;
+        }
+        Optional<Path> original = original(name);
+        original.ifPresent(path -> scheduleThumbnail(name));
+        return original;
+    }
+
+    /**
+     * False when {@link #thumbnail} handed out the original in the thumbnail's place.
+     */
+    public boolean isThumbnail(Path path) {
+        return path.startsWith(thumbs);
+    }
+
+    public static String contentType(String name) {
+        return switch (name.substring(name.lastIndexOf('.') + 1)) {
+            case "png" -> "image/png";
+            case "gif" -> "image/gif";
+            default -> "image/jpeg";
+        };
+    }
+
+    public static String urlFor(String baseUrl, String name) {
+        return baseUrl + URL_PATH + name;
+    }
+
+    /**
+     * Thumbnail URL for an image URL produced by {@link #urlFor}; any other URL is returned as is.
+     */
+    public static String thumbnailUrlFor(String imageUrl) {
+        if (imageUrl == null) {
+            return null;
+        }
+        int at = imageUrl.indexOf(URL_PATH);
+        if (at < 0) {
+            return imageUrl;
+        }
+        Matcher matcher = FILE_NAME.matcher(imageUrl.substring(at + URL_PATH.length()));
+        return matcher.matches() ? imageUrl.substring(0, at + URL_PATH.length()) + THUMBS + matcher.group() : imageUrl;
+    }
+
+    // ========================================================================
+    // 3. THUMBNAILS
+    // ========================================================================
+
+    private void scheduleThumbnail(String name) {
+        if (failed.contains(name) || !pending.add(name)) {
+            return;
+        }
+        try {
+            thumbnailPool.execute(() -> {
+                try {
+                    renderThumbnail(name);
+                } catch (IOException | RuntimeException e) {
+                    failed.add(name);
+                    log.warn("Thumbnail for {} failed, serving the original instead: {}", name, e.getMessage());
+                } finally {
+                    pending.remove(name);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            pending.remove(name); // a later request for the thumbnail retries
+            log.warn("Thumbnail queue full, {} dropped for now", name);
+        }
+    }
+
+    private void renderThumbnail(String name) throws IOException {
+        BufferedImage source = decode(root.resolve(name));
+        double scale = Math.min(1.0, (double) thumbnailSize / Math.max(source.getWidth(), source.getHeight()));
+        int width = Math.max(1, (int) Math.round(source.getWidth() * scale));
+        int height = Math.max(1, (int) Math.round(source.getHeight() * scale));
+
+        BufferedImage thumbnail = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+        Graphics2D graphics = thumbnail.createGraphics();
+        try {
+            graphics.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BICUBIC);
+            graphics.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
+            graphics.drawImage(source, 0, 0, width, height, Color.WHITE, null); // JPEG has no alpha
+        } finally {
+            graphics.dispose();
+        }
+
+        Path temp = Files.createTempFile(thumbs, "thumb-", ".tmp");
+        try {
+            ImageIO.write(thumbnail, "jpg", temp.toFile());
+            Files.move(temp, thumbnailPath(name), StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+
+    // The header is read first; the raster is decoded every n-th pixel, n chosen to keep it no smaller than the thumbnail
+    private BufferedImage decode(Path file) throws IOException {
+        try (ImageInputStream input = ImageIO.createImageInputStream(file.toFile())) {
+            Iterator<ImageReader> readers = input == null ? null : ImageIO.getImageReaders(input);
+            if (readers == null || !readers.hasNext()) {
+                throw new IOException("unreadable image");
+            }
+            ImageReader reader = readers.next();
+            try {
+                reader.setInput(input, true, true);
+                int width = reader.getWidth(0);
+                int height = reader.getHeight(0);
+                if ((long) width * height > maxPixels) {
+                    throw new IOException("image is " + width + "x" + height + ", more than " + maxPixels + " pixels");
+                }
+                int step = Math.max(1, Math.max(width, height) / thumbnailSize);
+                ImageReadParam param = reader.getDefaultReadParam();
+                param.setSourceSubsampling(step, step, 0, 0);
+                return reader.read(0, param);
+            } finally {
+                reader.dispose();
+            }
+        }
+    }
+
+    // ========================================================================
+    // 4. HELPERS
+    // ========================================================================
+
+    private Path thumbnailPath(String name) {
+        return thumbs.resolve(name.substring(0, name.indexOf('.')) + ".jpg");
+    }
+
+    private static Optional<Path> existing(Path path) {
+        return Files.isRegularFile(path) ? Optional.of(path) : Optional.empty();
+    }
+
+    // Trust the magic bytes, not the client's content type or file name
+    private static String detectExtension(Path file) throws IOException {
+        ByteBuffer head = ByteBuffer.allocate(8);
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            channel.read(head);
+        }
+        byte[] magic = head.array();
+        String extension = null;
+        if ((magic[0] & 0xff) == 0xff && (magic[1] & 0xff) == 0xd8) {
+            extension = "jpg";
+        } else if ((magic[0] & 0xff) == 0x89 && magic[1] == 'P' && magic[2] == 'N' && magic[3] == 'G') {
+            extension = "png";
+        } else if (magic[0] == 'G' && magic[1] == 'I' && magic[2] == 'F') {
+            extension = "gif";
+        }
+        if (extension == null || !EXTENSIONS.contains(extension)) {
+            throw new IllegalArgumentException("Only JPEG, PNG and GIF images are supported");
+        }
+        return extension;
+    }
+
+    // Hashed through a direct buffer: the file's bytes are never copied into a Java array
+    private static String sha256(Path file) throws IOException {
+        MessageDigest digest;
+        try {
+            digest = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+        ByteBuffer buffer = ByteBuffer.allocateDirect(64 * 1024);
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            while (channel.read(buffer) != -1) {
+                buffer.flip();
+                digest.update(buffer);
+                buffer.clear();
+            }
+        }
+        return HexFormat.of().formatHex(digest.digest());
+    }
+}
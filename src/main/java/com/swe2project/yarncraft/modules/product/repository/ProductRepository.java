@@ -3,22 +3,49 @@ package com.swe2project.yarncraft.modules.product.repository;
 import com.swe2project.yarncraft.modules.product.entity.Category;
 import com.swe2project.yarncraft.modules.product.entity.Product;
 
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.util.Collection;
 import java.util.List;
 
 @Repository
 public interface ProductRepository extends JpaRepository<Product, Long> {
 
-    // Find all products by a specific vendor
+    // Find all products by a specific vendor (vendor fetched in the same query for the vendor name)
+    @EntityGraph(attributePaths = "vendor")
     List<Product> findByVendorId(Long vendorId);
 
     // Filter products by category (e.g., for the homepage)
     List<Product> findByCategory(Category category);
 
-    // This magic name tells Spring: "Go to Vendor field, check isApproved, and only return True ones"
-    List<Product> findByVendorIsApprovedTrue();
+    // Keyset page of the public catalog: the first `limit` visible products with an id above afterId,
+    // in id order (range scan on idx_visible_id; the vendor join is only for the vendor name)
+    @EntityGraph(attributePaths = "vendor")
+    List<Product> findByVisibleTrueAndIdGreaterThanOrderByIdAsc(Long afterId, Limit limit);
+
+    // One set-based UPDATE for all of a vendor's products when their approval changes
+    @Modifying
+    @Transactional
+    @Query("UPDATE Product p SET p.visible = :visible WHERE p.vendor.id = :vendorId AND p.visible <> :visible")
+    int updateVisibilityByVendor(@Param("vendorId") Long vendorId, @Param("visible") boolean visible);
+
+    // Repair pass: rows that predate the column, or a vendor update that committed without this one
+    @Modifying
+    @Transactional
+    @Query(value = "UPDATE products p JOIN users u ON u.id = p.vendor_id SET p.visible = u.is_approved " +
+            "WHERE p.visible <> u.is_approved", nativeQuery = true)
+    int reconcileVisibility();
 
     long countByVendorId(Long vendorId);
+
+    // Load a page of search hits with their vendors in one query (order not guaranteed)
+    @EntityGraph(attributePaths = "vendor")
+    List<Product> findByIdIn(Collection<Long> ids);
 }
\ No newline at end of file
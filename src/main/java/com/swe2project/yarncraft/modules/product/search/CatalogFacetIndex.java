@@ -0,0 +1,345 @@
+package com.swe2project.yarncraft.modules.product.search;
+
+import com.swe2project.yarncraft.aspect.NoExecutionLogging;
+import com.swe2project.yarncraft.common.util.TransactionHooks;
+import com.swe2project.yarncraft.common.web.ResourceVersions;
+import com.swe2project.yarncraft.modules.inventory.entity.InventoryItem.StockStatus;
+import com.swe2project.yarncraft.modules.inventory.event.StockStatusChangedEvent;
+import com.swe2project.yarncraft.modules.product.entity.Category;
+import com.swe2project.yarncraft.modules.product.entity.Product;
+import com.swe2project.yarncraft.modules.user.event.VendorApprovedEvent;
+import com.swe2project.yarncraft.modules.user.event.VendorRejectedEvent;
+
+import org.roaringbitmap.IntIterator;
+import org.roaringbitmap.RoaringBitmap;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+import lombok.RequiredArgsConstructor;
+import lombok.Value;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Faceted browse over the public catalog with compressed bitmaps.
+ * <p>
+ * Every product id is a bit in one bitmap per Category, PriceRange, vendor and StockStatus, plus
+ * the set of products whose vendor is approved. A browse ORs the selected values inside a facet,
+ * ANDs the facets together (and with "approved"), and pages through the result in id order.
+ * Sidebar counts come from the same call: for each value, the cardinality of its bitmap ANDed
+ * with every *other* facet's selection.
+ * <p>
+ * Kept in place by ProductService (create/update/delete), StockStatusChangedEvent from the
+ * StockLedger, and VendorApprovedEvent / VendorRejectedEvent. Rebuilt from the tables at startup.
+ */
+@Component
+@NoExecutionLogging
+@RequiredArgsConstructor
+@Slf4j
+public class CatalogFacetIndex {
+
+    public static final String CATEGORY = "category";
+    public static final String PRICE = "price";
+    public static final String VENDOR = "vendor";
+    public static final String STATUS = "status";
+
+    private static final int MAX_VENDOR_COUNTS = 20;
+
+    private static final String LOAD_SQL =
+            "SELECT p.id, p.category, p.price, p.vendor_id, u.is_approved, i.status FROM products p " +
+                    "JOIN users u ON u.id = p.vendor_id " +
+                    "LEFT JOIN inventory i ON i.product_id = p.id";
+    private static final String VENDOR_APPROVED_SQL = "SELECT is_approved FROM users WHERE id = ?";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final ResourceVersions resourceVersions;
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Map<Integer, Facets> documents = new HashMap<>();
+    private final Map<Category, RoaringBitmap> byCategory = new HashMap<>();
+    private final Map<PriceRange, RoaringBitmap> byPrice = new HashMap<>();
+    private final Map<Long, RoaringBitmap> byVendor = new HashMap<>();
+    private final Map<StockStatus, RoaringBitmap> byStatus = new HashMap<>();
+    private final Map<Long, Boolean> vendorApproved = new HashMap<>();
+    private final RoaringBitmap approved = new RoaringBitmap();
+
+    /**
+     * Selected values per facet; an empty collection means "no filter" for that facet.
+     */
+    @Value
+    public static class Selection {
+        Collection<Category> categories;
+        Collection<PriceRange> prices;
+        Collection<Long> vendorIds;
+        Collection<StockStatus> statuses;
+    }
+
+    @Value
+    public static class Result {
+        List<Long> productIds;   // one page, id order
+        long total;
+        Map<String, Map<String, Long>> counts;
+    }
+
+    // ========================================================================
+    // 1. BROWSE
+    // ========================================================================
+
+    public Result browse(Selection selection, Long afterId, int limit) {
+        lock.readLock().lock();
+        try {
+            RoaringBitmap categories = union(byCategory, selection.getCategories());
+            RoaringBitmap prices = union(byPrice, selection.getPrices());
+            RoaringBitmap vendors = union(byVendor, selection.getVendorIds());
+            RoaringBitmap statuses = union(byStatus, selection.getStatuses());
+
+            RoaringBitmap matches = intersect(approved, categories, prices, vendors, statuses);
+            long total = matches.getLongCardinality();
+
+            // Disjunctive counts: each facet is counted against the other facets' selections
+            Map<String, Map<String, Long>> counts = new LinkedHashMap<>();
+            counts.put(CATEGORY, count(byCategory, intersect(approved, prices, vendors, statuses), Integer.MAX_VALUE));
+            counts.put(PRICE, count(byPrice, intersect(approved, categories, vendors, statuses), Integer.MAX_VALUE));
+            counts.put(VENDOR, count(byVendor, intersect(approved, categories, prices, statuses), MAX_VENDOR_COUNTS));
+            counts.put(STATUS, count(byStatus, intersect(approved, categories, prices, vendors), Integer.MAX_VALUE));
+
+            if (afterId != null) {
+                matches.remove(0L, afterId + 1);
+            }
+            List<Long> page = new ArrayList<>(limit);
+            IntIterator iterator = matches.getIntIterator();
+            while (iterator.hasNext() && page.size() < limit) {
+                page.add((long) iterator.next());
+            }
+            return new Result(page, total, counts);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // ========================================================================
+    // 2. MAINTENANCE
+    // ========================================================================
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        long start = System.currentTimeMillis();
+        lock.writeLock().lock();
+        try {
+            documents.clear();
+            byCategory.clear();
+            byPrice.clear();
+            byVendor.clear();
+            byStatus.clear();
+            vendorApproved.clear();
+            approved.clear();
+            jdbcTemplate.query(LOAD_SQL, rs -> {
+                String category = rs.getString("category");
+                String status = rs.getString("status");
+                long vendorId = rs.getLong("vendor_id");
+                vendorApproved.put(vendorId, rs.getBoolean("is_approved"));
+                add(docId(rs.getLong("id")), new Facets(
+                        category != null ? Category.valueOf(category) : null,
+                        PriceRange.of(rs.getBigDecimal("price")),
+                        vendorId,
+                        status != null ? StockStatus.valueOf(status) : null));
+            });
+        } finally {
+            lock.writeLock().unlock();
+        }
+        log.info("Catalog facet index built: {} products in {} ms", documents.size(), System.currentTimeMillis() - start);
+    }
+
+    /**
+     * Add or update a product's catalog facets (call after the change has committed).
+     * Its stock status is kept.
+     */
+    public void index(Product product) {
+        int id = docId(product.getId());
+        long vendorId = product.getVendor().getId();
+        lock.writeLock().lock();
+        try {
+            vendorApproved.putIfAbsent(vendorId, product.getVendor().isApproved());
+            Facets previous = documents.get(id);
+            if (previous != null) {
+                removeDocument(id, previous);
+            }
+            add(id, new Facets(product.getCategory(), PriceRange.of(product.getPrice()), vendorId,
+                    previous != null ? previous.status : StockStatus.IN_STOCK));
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void remove(long productId) {
+        int id = docId(productId);
+        lock.writeLock().lock();
+        try {
+            Facets previous = documents.get(id);
+            if (previous != null) {
+                removeDocument(id, previous);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @EventListener
+    public void onStockStatusChanged(StockStatusChangedEvent event) {
+        int id = docId(event.getProductId());
+        lock.writeLock().lock();
+        try {
+            Facets previous = documents.get(id);
+            if (previous != null && previous.status != event.getStatus()) {
+                removeDocument(id, previous);
+                add(id, new Facets(previous.category, previous.price, previous.vendorId, event.getStatus()));
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+        resourceVersions.touch(ResourceVersions.STOCK_STATUS);
+    }
+
+    @EventListener
+    public void onVendorApproved(VendorApprovedEvent event) {
+        setVendorApproved(event.getVendorId(), true);
+    }
+
+    /**
+     * A rejection does not revoke an earlier approval by itself, so read the flag back after commit.
+     */
+    @EventListener
+    public void onVendorRejected(VendorRejectedEvent event) {
+        long vendorId = event.getVendorId();
+        TransactionHooks.afterCommit(() -> {
+            List<Boolean> flags = jdbcTemplate.queryForList(VENDOR_APPROVED_SQL, Boolean.class, vendorId);
+            setVendorApproved(vendorId, !flags.isEmpty() && Boolean.TRUE.equals(flags.get(0)));
+        });
+    }
+
+    private void setVendorApproved(long vendorId, boolean isApproved) {
+        lock.writeLock().lock();
+        try {
+            vendorApproved.put(vendorId, isApproved);
+            RoaringBitmap products = byVendor.get(vendorId);
+            if (products != null) {
+                if (isApproved) {
+                    approved.or(products);
+                } else {
+                    approved.andNot(products);
+                }
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // ========================================================================
+    // 3. INTERNALS
+    // ========================================================================
+
+    // Caller holds the write lock
+    private void add(int id, Facets facets) {
+        documents.put(id, facets);
+        if (facets.category != null) byCategory.computeIfAbsent(facets.category, k -> new RoaringBitmap()).add(id);
+        if (facets.price != null) byPrice.computeIfAbsent(facets.price, k -> new RoaringBitmap()).add(id);
+        if (facets.status != null) byStatus.computeIfAbsent(facets.status, k -> new RoaringBitmap()).add(id);
+        byVendor.computeIfAbsent(facets.vendorId, k -> new RoaringBitmap()).add(id);
+        if (vendorApproved.getOrDefault(facets.vendorId, false)) {
+            approved.add(id);
+        }
+    }
+
+    // Caller holds the write lock
+    private void removeDocument(int id, Facets facets) {
+        documents.remove(id);
+        if (facets.category != null) removeFrom(byCategory, facets.category, id);
+        if (facets.price != null) removeFrom(byPrice, facets.price, id);
+        if (facets.status != null) removeFrom(byStatus, facets.status, id);
+        removeFrom(byVendor, facets.vendorId, id);
+        approved.remove(id);
+    }
+
+    private static <K> void removeFrom(Map<K, RoaringBitmap> bitmaps, K key, int id) {
+        RoaringBitmap bitmap = bitmaps.get(key);
+        if (bitmap != null) {
+            bitmap.remove(id);
+            if (bitmap.isEmpty()) {
+                bitmaps.remove(key);
+            }
+        }
+    }
+
+    /**
+     * OR of the selected values' bitmaps, or null when nothing is selected (no filter).
+     */
+    private static <K> RoaringBitmap union(Map<K, RoaringBitmap> bitmaps, Collection<K> selected) {
+        if (selected == null || selected.isEmpty()) {
+            return null;
+        }
+        RoaringBitmap union = new RoaringBitmap();
+        for (K key : selected) {
+            RoaringBitmap bitmap = bitmaps.get(key);
+            if (bitmap != null) {
+                union.or(bitmap);
+            }
+        }
+        return union;
+    }
+
+    /**
+     * AND of the given bitmaps, skipping nulls (unfiltered facets). Returns a fresh bitmap.
+     */
+    private static RoaringBitmap intersect(RoaringBitmap base, RoaringBitmap... filters) {
+        RoaringBitmap result = base.clone();
+        for (RoaringBitmap filter : filters) {
+            if (filter != null) {
+                result.and(filter);
+            }
+        }
+        return result;
+    }
+
+    private static <K> Map<String, Long> count(Map<K, RoaringBitmap> bitmaps, RoaringBitmap scope, int max) {
+        List<Map.Entry<String, Long>> counts = new ArrayList<>();
+        bitmaps.forEach((key, bitmap) -> {
+            long count = RoaringBitmap.andCardinality(bitmap, scope);
+            if (count > 0) {
+                counts.add(Map.entry(String.valueOf(key), count));
+            }
+        });
+        counts.sort(Map.Entry.<String, Long>comparingByValue().reversed());
+        Map<String, Long> top = new LinkedHashMap<>();
+        for (int i = 0; i < counts.size() && i < max; i++) {
+            top.put(counts.get(i).getKey(), counts.get(i).getValue());
+        }
+        return top;
+    }
+
+    private static int docId(long productId) {
+        return Math.toIntExact(productId); // bitmaps hold 32-bit ids
+    }
+
+    private static final class Facets {
+        final Category category;
+        final PriceRange price;
+        final long vendorId;
+        final StockStatus status;
+
+        Facets(Category category, PriceRange price, long vendorId, StockStatus status) {
+            this.category = category;
+            this.price = price;
+            this.vendorId = vendorId;
+            this.status = status;
+        }
+    }
+}
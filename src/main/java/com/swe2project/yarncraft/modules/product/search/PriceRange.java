@@ -0,0 +1,35 @@
+package com.swe2project.yarncraft.modules.product.search;
+
+import java.math.BigDecimal;
+
+/**
+ * Price buckets used as a browse facet. Lower bound inclusive, upper bound exclusive.
+ */
+public enum PriceRange {
+    UNDER_10(null, "10"),
+    FROM_10_TO_25("10", "25"),
+    FROM_25_TO_50("25", "50"),
+    FROM_50_TO_100("50", "100"),
+    OVER_100("100", null);
+
+    private final BigDecimal from;
+    private final BigDecimal to;
+
+    PriceRange(String from, String to) {
+        this.from = from != null ? new BigDecimal(from) : null;
+        this.to = to != null ? new BigDecimal(to) : null;
+    }
+
+    public static PriceRange of(BigDecimal price) {
+        if (price == null) {
+            return null;
+        }
+        for (PriceRange range : values()) {
+            if ((range.from == null || price.compareTo(range.from) >= 0)
+                    && (range.to == null || price.compareTo(range.to) < 0)) {
+                return range;
+            }
+        }
+        return null;
+    }
+}
@@ -0,0 +1,383 @@
+package com.swe2project.yarncraft.modules.product.search;
+
+import com.swe2project.yarncraft.aspect.NoExecutionLogging;
+import com.swe2project.yarncraft.common.util.TransactionHooks;
+import com.swe2project.yarncraft.modules.product.entity.Category;
+import com.swe2project.yarncraft.modules.product.entity.Product;
+import com.swe2project.yarncraft.modules.user.event.VendorApprovedEvent;
+import com.swe2project.yarncraft.modules.user.event.VendorRejectedEvent;
+
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Embedded full-text index for the public catalog: Product.name and Product.description.
+ * <p>
+ * Each term has a posting map of productId -> term frequency per field. Queries are ranked with
+ * BM25, scored per field and summed with name matches weighted {@value #NAME_WEIGHT}x.
+ * <p>
+ * Each query term is also expanded to vocabulary terms within a small edit distance. The allowed distance is 0 below 4 characters, 1 up to
+ * 7 characters, and 2 beyond that. The expansion is bounded: only terms of a compatible
+ * length are compared, the comparison stops once the distance is exceeded, and at most
+ * {@value #MAX_EXPANSIONS} variants are kept. A variant's score is discounted by its distance.
+ * <p>
+ * Only visible products (Product.visible, which follows the vendor's approval) are returned.
+ * ProductService updates the index after each commit, and a vendor approval or rejection reloads
+ * that vendor's flags; it is rebuilt from the table at startup.
+ */
+@Component
+@NoExecutionLogging
+@RequiredArgsConstructor
+@Slf4j
+public class ProductSearchIndex {
+
+    private static final double K1 = 1.2;
+    private static final double B = 0.75;
+    private static final double NAME_WEIGHT = 2.0;
+    private static final int MAX_EXPANSIONS = 5;
+    private static final int MAX_RESULTS = 1000;
+
+    private static final String LOAD_SQL =
+            "SELECT id, name, description, price, category, visible FROM products";
+    private static final String VENDOR_VISIBILITY_SQL = "SELECT id, visible FROM products WHERE vendor_id = ?";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Map<Long, Document> documents = new HashMap<>();
+    private final Map<String, Map<Long, int[]>> postings = new HashMap<>(); // term -> productId -> {name tf, description tf}
+    private final Map<Integer, Set<String>> termsByLength = new HashMap<>();
+    private long totalNameLength;
+    private long totalDescriptionLength;
+
+    // ========================================================================
+    // 1. BUILD & MAINTENANCE
+    // ========================================================================
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        long start = System.currentTimeMillis();
+        lock.writeLock().lock();
+        try {
+            documents.clear();
+            postings.clear();
+            termsByLength.clear();
+            totalNameLength = 0;
+            totalDescriptionLength = 0;
+            jdbcTemplate.query(LOAD_SQL, rs -> {
+                String category = rs.getString("category");
+                add(new Document(rs.getLong("id"), rs.getString("name"), rs.getString("description"),
+                        category != null ? Category.valueOf(category) : null, rs.getBigDecimal("price"),
+                        rs.getBoolean("visible")));
+            });
+        } finally {
+            lock.writeLock().unlock();
+        }
+        log.info("Product search index built: {} products, {} terms in {} ms", documents.size(), postings.size(),
+                System.currentTimeMillis() - start);
+    }
+
+    /**
+     * Add or replace a product (call after the change has committed).
+     */
+    public void index(Product product) {
+        Document document = new Document(product.getId(), product.getName(), product.getDescription(),
+                product.getCategory(), product.getPrice(), product.isVisible());
+        lock.writeLock().lock();
+        try {
+            Document previous = documents.get(document.productId);
+            if (previous != null) {
+                removeDocument(previous);
+            }
+            add(document);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void remove(long productId) {
+        lock.writeLock().lock();
+        try {
+            Document previous = documents.get(productId);
+            if (previous != null) {
+                removeDocument(previous);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @EventListener
+    public void onVendorApproved(VendorApprovedEvent event) {
+        TransactionHooks.afterCommit(() -> reloadVisibility(event.getVendorId()));
+    }
+
+    @EventListener
+    public void onVendorRejected(VendorRejectedEvent event) {
+        TransactionHooks.afterCommit(() -> reloadVisibility(event.getVendorId()));
+    }
+
+    /**
+     * Copy the vendor's products' visible flags from the table (UserService has just updated them).
+     */
+    private void reloadVisibility(long vendorId) {
+        Map<Long, Boolean> visibility = new HashMap<>();
+        jdbcTemplate.query(VENDOR_VISIBILITY_SQL, rs -> {
+            visibility.put(rs.getLong("id"), rs.getBoolean("visible"));
+        }, vendorId);
+        lock.writeLock().lock();
+        try {
+            visibility.forEach((productId, visible) -> {
+                Document document = documents.get(productId);
+                if (document != null) {
+                    document.visible = visible;
+                }
+            });
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // ========================================================================
+    // 2. SEARCH
+    // ========================================================================
+
+    /**
+     * Product ids ranked by BM25 score (best first), {@code offset} .. {@code offset + limit - 1}.
+     * Category and price bounds are optional filters (null = any).
+     */
+    public List<Long> search(String query, Category category, BigDecimal minPrice, BigDecimal maxPrice,
+                             int offset, int limit) {
+        List<String> queryTerms = tokenize(query);
+        int wanted = Math.min(offset + limit, MAX_RESULTS);
+        if (queryTerms.isEmpty() || offset >= wanted) {
+            return List.of();
+        }
+
+        lock.readLock().lock();
+        try {
+            if (documents.isEmpty()) {
+                return List.of();
+            }
+            double averageName = Math.max(1.0, (double) totalNameLength / documents.size());
+            double averageDescription = Math.max(1.0, (double) totalDescriptionLength / documents.size());
+
+            Map<Long, Double> scores = new HashMap<>();
+            for (String queryTerm : new LinkedHashSet<>(queryTerms)) {
+                // Best variant per product, so a typo and its correction are not counted twice
+                Map<Long, Double> termScores = new HashMap<>();
+                for (Map.Entry<String, Integer> variant : expand(queryTerm).entrySet()) {
+                    Map<Long, int[]> posting = postings.get(variant.getKey());
+                    double idf = idf(posting.size());
+                    double discount = 1.0 / (1 + variant.getValue());
+                    for (Map.Entry<Long, int[]> hit : posting.entrySet()) {
+                        Document document = documents.get(hit.getKey());
+                        if (!visible(document, category, minPrice, maxPrice)) {
+                            continue;
+                        }
+                        int[] tf = hit.getValue();
+                        double score = discount * idf * (
+                                NAME_WEIGHT * saturate(tf[0], document.nameLength, averageName)
+                                        + saturate(tf[1], document.descriptionLength, averageDescription));
+                        termScores.merge(hit.getKey(), score, Math::max);
+                    }
+                }
+                termScores.forEach((productId, score) -> scores.merge(productId, score, Double::sum));
+            }
+
+            // Bounded min-heap keeps the best `wanted` products
+            Comparator<Map.Entry<Long, Double>> ranking = Map.Entry.<Long, Double>comparingByValue()
+                    .thenComparing(Map.Entry.<Long, Double>comparingByKey().reversed());
+            PriorityQueue<Map.Entry<Long, Double>> best = new PriorityQueue<>(wanted + 1, ranking);
+            for (Map.Entry<Long, Double> entry : scores.entrySet()) {
+                best.add(entry);
+                if (best.size() > wanted) {
+                    best.poll();
+                }
+            }
+            List<Long> ranked = new ArrayList<>(best.size());
+            while (!best.isEmpty()) {
+                ranked.add(best.poll().getKey());
+            }
+            Collections.reverse(ranked);
+            return offset < ranked.size() ? ranked.subList(offset, ranked.size()) : List.of();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * The term itself (distance 0) if indexed, plus the closest vocabulary terms within the
+     * allowed edit distance. Caller holds the read lock.
+     */
+    private Map<String, Integer> expand(String term) {
+        Map<String, Integer> variants = new LinkedHashMap<>();
+        if (postings.containsKey(term)) {
+            variants.put(term, 0);
+        }
+        int maxDistance = term.length() < 4 ? 0 : term.length() <= 7 ? 1 : 2;
+        if (maxDistance == 0) {
+            return variants;
+        }
+
+        List<Map.Entry<String, Integer>> candidates = new ArrayList<>();
+        for (int length = term.length() - maxDistance; length <= term.length() + maxDistance; length++) {
+            for (String candidate : termsByLength.getOrDefault(length, Set.of())) {
+                if (candidate.equals(term)) {
+                    continue;
+                }
+                int distance = boundedDistance(term, candidate, maxDistance);
+                if (distance <= maxDistance) {
+                    candidates.add(Map.entry(candidate, distance));
+                }
+            }
+        }
+        // Closest first, then the more common term
+        candidates.sort(Comparator.<Map.Entry<String, Integer>>comparingInt(Map.Entry::getValue)
+                .thenComparing(entry -> -postings.get(entry.getKey()).size()));
+        for (int i = 0; i < candidates.size() && variants.size() < MAX_EXPANSIONS; i++) {
+            variants.put(candidates.get(i).getKey(), candidates.get(i).getValue());
+        }
+        return variants;
+    }
+
+    // ========================================================================
+    // 3. INTERNALS
+    // ========================================================================
+
+    private boolean visible(Document document, Category category, BigDecimal minPrice, BigDecimal maxPrice) {
+        return document.visible
+                && (category == null || category == document.category)
+                && (minPrice == null || (document.price != null && document.price.compareTo(minPrice) >= 0))
+                && (maxPrice == null || (document.price != null && document.price.compareTo(maxPrice) <= 0));
+    }
+
+    private double idf(int documentFrequency) {
+        return Math.log(1 + (documents.size() - documentFrequency + 0.5) / (documentFrequency + 0.5));
+    }
+
+    private static double saturate(int tf, int length, double averageLength) {
+        if (tf == 0) {
+            return 0;
+        }
+        return tf * (K1 + 1) / (tf + K1 * (1 - B + B * length / averageLength));
+    }
+
+    // Caller holds the write lock
+    private void add(Document document) {
+        documents.put(document.productId, document);
+        totalNameLength += document.nameLength;
+        totalDescriptionLength += document.descriptionLength;
+        document.frequencies.forEach((term, tf) -> {
+            Map<Long, int[]> posting = postings.computeIfAbsent(term, t -> {
+                termsByLength.computeIfAbsent(t.length(), l -> new HashSet<>()).add(t);
+                return new HashMap<>();
+            });
+            posting.put(document.productId, tf);
+        });
+    }
+
+    // Caller holds the write lock
+    private void removeDocument(Document document) {
+        documents.remove(document.productId);
+        totalNameLength -= document.nameLength;
+        totalDescriptionLength -= document.descriptionLength;
+        for (String term : document.frequencies.keySet()) {
+            Map<Long, int[]> posting = postings.get(term);
+            if (posting != null) {
+                posting.remove(document.productId);
+                if (posting.isEmpty()) {
+                    postings.remove(term);
+                    termsByLength.get(term.length()).remove(term);
+                }
+            }
+        }
+    }
+
+    /**
+     * Levenshtein distance, or {@code max + 1} as soon as it is known to exceed {@code max}.
+     */
+    static int boundedDistance(String a, String b, int max) {
+        if (Math.abs(a.length() - b.length()) > max) {
+            return max + 1;
+        }
+        int[] previous = new int[b.length() + 1];
+        int[] current = new int[b.length() + 1];
+        for (int j = 0; j <= b.length(); j++) {
+            previous[j] = j;
+        }
+        for (int i = 1; i <= a.length(); i++) {
+            current[0] = i;
+            int rowMin = current[0];
+            for (int j = 1; j <= b.length(); j++) {
+                int cost = a.charAt(i - 1) == b.charAt(j - 1) ? 0 : 1;
+                current[j] = Math.min(Math.min(current[j - 1] + 1, previous[j] + 1), previous[j - 1] + cost);
+                rowMin = Math.min(rowMin, current[j]);
+            }
+            if (rowMin > max) {
+                return max + 1;
+            }
+            int[] swap = previous;
+            previous = current;
+            current = swap;
+        }
+        return previous[b.length()];
+    }
+
+    static List<String> tokenize(String text) {
+        List<String> tokens = new ArrayList<>();
+        if (text == null) {
+            return tokens;
+        }
+        for (String token : text.toLowerCase(Locale.ROOT).split("[^\\p{L}\\p{N}]+")) {
+            if (!token.isEmpty()) {
+                tokens.add(token);
+            }
+        }
+        return tokens;
+    }
+
+    private static final class Document {
+        final long productId;
+        final Category category;
+        final BigDecimal price;
+        final int nameLength;
+        final int descriptionLength;
+        final Map<String, int[]> frequencies = new HashMap<>(); // term -> {name tf, description tf}
+        boolean visible; // guarded by the index lock
+
+        Document(long productId, String name, String description, Category category, BigDecimal price,
+                 boolean visible) {
+            this.productId = productId;
+            this.category = category;
+            this.price = price;
+            this.visible = visible;
+            List<String> nameTerms = tokenize(name);
+            List<String> descriptionTerms = tokenize(description);
+            this.nameLength = nameTerms.size();
+            this.descriptionLength = descriptionTerms.size();
+            nameTerms.forEach(term -> frequencies.computeIfAbsent(term, t -> new int[2])[0]++);
+            descriptionTerms.forEach(term -> frequencies.computeIfAbsent(term, t -> new int[2])[1]++);
+        }
+    }
+}
@@ -0,0 +1,463 @@
+package com.swe2project.yarncraft.modules.product.search;
+
+import com.swe2project.yarncraft.aspect.NoExecutionLogging;
+import com.swe2project.yarncraft.common.util.TransactionHooks;
+import com.swe2project.yarncraft.modules.product.entity.Product;
+import com.swe2project.yarncraft.modules.user.event.VendorApprovedEvent;
+import com.swe2project.yarncraft.modules.user.event.VendorRejectedEvent;
+
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Function;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Search-as-you-type over product names: a compressed prefix (radix) trie.
+ * <p>
+ * Every product is inserted under its lower-cased name and under each word-start suffix of it,
+ * so "mer" finds "Soft Merino Wool". Each node caches the {@value #TOP_N} most sold products
+ * in its subtree, so a lookup is a walk down at most prefix-length characters and returns a
+ * ready-made list. Nothing touches MySQL on the read path.
+ * <p>
+ * Only visible products are in the trie. Product create/update/delete, and a vendor's approval
+ * or rejection (which flips the visible flag of their products), change it in place: only the
+ * nodes on the affected paths recompute their cached list, from their own entries and their
+ * children's lists. Sold counts move with every sale, so the whole trie is rebuilt every few
+ * minutes off to the side and swapped in.
+ */
+@Component
+@NoExecutionLogging
+@RequiredArgsConstructor
+@Slf4j
+public class ProductSuggester {
+
+    public static final int TOP_N = 10;
+
+    private static final String LOAD_SQL =
+            "SELECT p.id, p.name, COALESCE(i.sold_quantity, 0) AS sold FROM products p " +
+                    "LEFT JOIN inventory i ON i.product_id = p.id " +
+                    "WHERE p.visible = TRUE";
+    private static final String VENDOR_SQL =
+            "SELECT p.id, p.name, p.visible, COALESCE(i.sold_quantity, 0) AS sold FROM products p " +
+                    "LEFT JOIN inventory i ON i.product_id = p.id " +
+                    "WHERE p.vendor_id = ?";
+
+    private static final Comparator<Completion> POPULARITY = Comparator
+            .comparingLong((Completion completion) -> completion.sold).reversed()
+            .thenComparing(completion -> completion.name)
+            .thenComparingLong(completion -> completion.productId);
+
+    private final JdbcTemplate jdbcTemplate;
+    private final MeterRegistry meterRegistry;
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private Trie trie = new Trie();
+
+    @PostConstruct
+    void registerMetrics() {
+        Gauge.builder("yarncraft.products.suggest.memory", this, ProductSuggester::estimatedBytes)
+                .description("Estimated heap used by the autocomplete trie")
+                .baseUnit("bytes")
+                .register(meterRegistry);
+        Gauge.builder("yarncraft.products.suggest.nodes", this, suggester -> suggester.read(trie -> trie.nodeCount))
+                .description("Nodes in the autocomplete trie")
+                .register(meterRegistry);
+    }
+
+    // ========================================================================
+    // 1. LOOKUP
+    // ========================================================================
+
+    /**
+     * Most sold products with a name (or a word of it) starting with {@code prefix}.
+     */
+    public List<Completion> suggest(String prefix, int limit) {
+        String key = normalize(prefix);
+        if (key.isEmpty()) {
+            return List.of();
+        }
+        return read(trie -> {
+            Completion[] top = trie.lookup(key);
+            return List.of(Arrays.copyOf(top, Math.min(limit, top.length)));
+        });
+    }
+
+    // ========================================================================
+    // 2. MAINTENANCE
+    // ========================================================================
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onStartup() {
+        rebuild();
+    }
+
+    @EventListener
+    public void onVendorApproved(VendorApprovedEvent event) {
+        TransactionHooks.afterCommit(() -> reloadVendor(event.getVendorId()));
+    }
+
+    @EventListener
+    public void onVendorRejected(VendorRejectedEvent event) {
+        TransactionHooks.afterCommit(() -> reloadVendor(event.getVendorId()));
+    }
+
+    @Scheduled(fixedDelayString = "${yarncraft.products.suggest.rebuild-interval-ms:300000}",
+            initialDelayString = "${yarncraft.products.suggest.rebuild-interval-ms:300000}")
+    public void rebuild() {
+        long start = System.currentTimeMillis();
+        Trie fresh = new Trie();
+        jdbcTemplate.query(LOAD_SQL, rs -> {
+            fresh.put(rs.getLong("id"), rs.getString("name"), rs.getLong("sold"));
+        });
+        lock.writeLock().lock();
+        try {
+            trie = fresh;
+        } finally {
+            lock.writeLock().unlock();
+        }
+        log.info("Autocomplete trie rebuilt: {} products, {} nodes in {} ms", fresh.entries.size(), fresh.nodeCount,
+                System.currentTimeMillis() - start);
+    }
+
+    /**
+     * Add or rename a product, or drop it if it is no longer visible (call after the change has
+     * committed). Keeps its known sold count.
+     */
+    public void index(Product product) {
+        lock.writeLock().lock();
+        try {
+            if (!product.isVisible()) {
+                trie.remove(product.getId());
+                return;
+            }
+            Completion previous = trie.entries.get(product.getId());
+            trie.put(product.getId(), product.getName(), previous != null ? previous.sold : 0);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void remove(long productId) {
+        lock.writeLock().lock();
+        try {
+            trie.remove(productId);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // ========================================================================
+    // 3. INTERNALS
+    // ========================================================================
+
+    /**
+     * Put or drop each of the vendor's products by its visible flag (UserService has just updated them).
+     */
+    private void reloadVendor(long vendorId) {
+        List<Completion> visible = new ArrayList<>();
+        List<Long> hidden = new ArrayList<>();
+        jdbcTemplate.query(VENDOR_SQL, rs -> {
+            if (rs.getBoolean("visible")) {
+                visible.add(new Completion(rs.getLong("id"), rs.getString("name"), rs.getLong("sold")));
+            } else {
+                hidden.add(rs.getLong("id"));
+            }
+        }, vendorId);
+        lock.writeLock().lock();
+        try {
+            hidden.forEach(trie::remove);
+            visible.forEach(completion -> trie.put(completion.productId, completion.name, completion.sold));
+        } finally {
+            lock.writeLock().unlock();
+        }
+        log.info("Autocomplete updated for vendor {}: {} visible, {} hidden products", vendorId, visible.size(),
+                hidden.size());
+    }
+
+    private <T> T read(Function<Trie, T> reader) {
+        lock.readLock().lock();
+        try {
+            return reader.apply(trie);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private long estimatedBytes() {
+        return read(Trie::estimatedBytes);
+    }
+
+    static String normalize(String text) {
+        return text == null ? "" : text.trim().toLowerCase(Locale.ROOT).replaceAll("\\s+", " ");
+    }
+
+    /**
+     * The name and every suffix of it that starts at a word.
+     */
+    static Set<String> keysFor(String name) {
+        String normalized = normalize(name);
+        Set<String> keys = new LinkedHashSet<>();
+        if (normalized.isEmpty()) {
+            return keys;
+        }
+        keys.add(normalized);
+        for (int i = normalized.indexOf(' '); i >= 0; i = normalized.indexOf(' ', i + 1)) {
+            keys.add(normalized.substring(i + 1));
+        }
+        return keys;
+    }
+
+    public static final class Completion {
+        public final long productId;
+        public final String name;
+        final long sold;
+
+        Completion(long productId, String name, long sold) {
+            this.productId = productId;
+            this.name = name;
+            this.sold = sold;
+        }
+    }
+
+    private static final class Node {
+        private static final Node[] NO_CHILDREN = new Node[0];
+        private static final Completion[] NO_COMPLETIONS = new Completion[0];
+
+        char[] label;                          // edge label from the parent
+        Node[] children = NO_CHILDREN;         // sorted by first label char
+        Completion[] terminals = NO_COMPLETIONS; // products with a key ending exactly here
+        Completion[] top = NO_COMPLETIONS;     // best TOP_N of the subtree
+
+        Node(char[] label) {
+            this.label = label;
+        }
+
+        int childIndex(char first) {
+            int low = 0;
+            int high = children.length - 1;
+            while (low <= high) {
+                int mid = (low + high) >>> 1;
+                char c = children[mid].label[0];
+                if (c < first) low = mid + 1;
+                else if (c > first) high = mid - 1;
+                else return mid;
+            }
+            return -(low + 1);
+        }
+
+        void addChild(Node child) {
+            int index = -(childIndex(child.label[0]) + 1);
+            Node[] grown = new Node[children.length + 1];
+            System.arraycopy(children, 0, grown, 0, index);
+            grown[index] = child;
+            System.arraycopy(children, index, grown, index + 1, children.length - index);
+            children = grown;
+        }
+
+        void removeChild(int index) {
+            Node[] shrunk = new Node[children.length - 1];
+            System.arraycopy(children, 0, shrunk, 0, index);
+            System.arraycopy(children, index + 1, shrunk, index, children.length - index - 1);
+            children = shrunk;
+        }
+
+        /**
+         * Best TOP_N of own terminals and children's cached lists, one entry per product.
+         */
+        void recomputeTop() {
+            List<Completion> candidates = new ArrayList<>(Arrays.asList(terminals));
+            for (Node child : children) {
+                candidates.addAll(Arrays.asList(child.top));
+            }
+            candidates.sort(POPULARITY);
+            List<Completion> best = new ArrayList<>(TOP_N);
+            Set<Long> seen = new HashSet<>();
+            for (Completion candidate : candidates) {
+                if (best.size() == TOP_N) break;
+                if (seen.add(candidate.productId)) best.add(candidate);
+            }
+            top = best.toArray(NO_COMPLETIONS);
+        }
+    }
+
+    /**
+     * The radix trie plus productId -> entry (to find a product's keys on update/delete).
+     * Not thread-safe; guarded by the suggester's lock once published.
+     */
+    private static final class Trie {
+        final Node root = new Node(new char[0]);
+        final Map<Long, Completion> entries = new HashMap<>();
+        int nodeCount = 1;
+
+        void put(long productId, String name, long sold) {
+            remove(productId);
+            Completion completion = new Completion(productId, name, sold);
+            entries.put(productId, completion);
+            for (String key : keysFor(name)) {
+                insert(key.toCharArray(), completion);
+            }
+        }
+
+        void remove(long productId) {
+            Completion completion = entries.remove(productId);
+            if (completion == null) {
+                return;
+            }
+            for (String key : keysFor(completion.name)) {
+                delete(key.toCharArray(), productId);
+            }
+        }
+
+        Completion[] lookup(String prefix) {
+            char[] key = prefix.toCharArray();
+            Node node = root;
+            int i = 0;
+            while (i < key.length) {
+                int index = node.childIndex(key[i]);
+                if (index < 0) {
+                    return Node.NO_COMPLETIONS;
+                }
+                Node child = node.children[index];
+                int matched = 0;
+                while (matched < child.label.length && i < key.length) {
+                    if (child.label[matched] != key[i]) {
+                        return Node.NO_COMPLETIONS;
+                    }
+                    matched++;
+                    i++;
+                }
+                node = child; // the prefix may end inside the label: the child's subtree is the answer
+            }
+            return node.top;
+        }
+
+        private void insert(char[] key, Completion completion) {
+            Deque<Node> path = new ArrayDeque<>();
+            Node node = root;
+            path.push(node);
+            int i = 0;
+            while (i < key.length) {
+                int index = node.childIndex(key[i]);
+                if (index < 0) {
+                    Node leaf = new Node(Arrays.copyOfRange(key, i, key.length));
+                    node.addChild(leaf);
+                    nodeCount++;
+                    node = leaf;
+                    path.push(node);
+                    i = key.length;
+                    break;
+                }
+                Node child = node.children[index];
+                int common = 0;
+                while (common < child.label.length && i + common < key.length && child.label[common] == key[i + common]) {
+                    common++;
+                }
+                if (common < child.label.length) {
+                    // Split the edge: node -> middle (shared part) -> child (rest)
+                    Node middle = new Node(Arrays.copyOf(child.label, common));
+                    child.label = Arrays.copyOfRange(child.label, common, child.label.length);
+                    middle.children = new Node[]{child};
+                    middle.top = child.top;
+                    node.children[index] = middle;
+                    nodeCount++;
+                    child = middle;
+                }
+                i += common;
+                node = child;
+                path.push(node);
+            }
+
+            Completion[] grown = Arrays.copyOf(node.terminals, node.terminals.length + 1);
+            grown[grown.length - 1] = completion;
+            node.terminals = grown;
+            while (!path.isEmpty()) {
+                path.pop().recomputeTop();
+            }
+        }
+
+        private void delete(char[] key, long productId) {
+            List<Node> path = new ArrayList<>();
+            Node node = root;
+            path.add(node);
+            int i = 0;
+            while (i < key.length) {
+                int index = node.childIndex(key[i]);
+                if (index < 0) return;
+                Node child = node.children[index];
+                if (key.length - i < child.label.length
+                        || !Arrays.equals(child.label, 0, child.label.length, key, i, i + child.label.length)) {
+                    return;
+                }
+                i += child.label.length;
+                node = child;
+                path.add(node);
+            }
+
+            node.terminals = Arrays.stream(node.terminals)
+                    .filter(completion -> completion.productId != productId)
+                    .toArray(Completion[]::new);
+
+            // Bottom-up: drop empty leaves, merge pass-through nodes, refresh cached lists
+            for (int depth = path.size() - 1; depth > 0; depth--) {
+                Node current = path.get(depth);
+                Node parent = path.get(depth - 1);
+                int index = parent.childIndex(current.label[0]);
+                if (current.terminals.length == 0 && current.children.length == 0) {
+                    parent.removeChild(index);
+                    nodeCount--;
+                } else if (current.terminals.length == 0 && current.children.length == 1) {
+                    Node only = current.children[0];
+                    char[] merged = Arrays.copyOf(current.label, current.label.length + only.label.length);
+                    System.arraycopy(only.label, 0, merged, current.label.length, only.label.length);
+                    only.label = merged;
+                    parent.children[index] = only;
+                    nodeCount--;
+                } else {
+                    current.recomputeTop();
+                }
+            }
+            root.recomputeTop();
+        }
+
+        long estimatedBytes() {
+            // Rough object sizes for a 64-bit JVM with compressed pointers
+            long bytes = 0;
+            Deque<Node> pending = new ArrayDeque<>();
+            pending.push(root);
+            while (!pending.isEmpty()) {
+                Node node = pending.pop();
+                bytes += 32 + 16 + 2L * node.label.length + 16 + 4L * node.children.length
+                        + 16 + 4L * node.terminals.length + 16 + 4L * node.top.length;
+                for (Node child : node.children) {
+                    pending.push(child);
+                }
+            }
+            for (Completion completion : entries.values()) {
+                bytes += 32 + 40 + completion.name.length() + 48; // entry, name, map node
+            }
+            return bytes;
+        }
+    }
+}
@@ -0,0 +1,78 @@
+package com.swe2project.yarncraft.modules.product.service;
+
+import com.swe2project.yarncraft.aspect.NoExecutionLogging;
+import com.swe2project.yarncraft.modules.product.dto.ProductResponse;
+import com.swe2project.yarncraft.modules.product.entity.Category;
+import com.swe2project.yarncraft.modules.product.image.ProductImageStore;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+
+import java.io.OutputStream;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import tools.jackson.core.JsonGenerator;
+import tools.jackson.databind.ObjectMapper;
+
+/**
+ * Unbounded export of the public catalog as one JSON array of ProductResponses.
+ * <p>
+ * Rows come from a forward-only, read-only JDBC cursor (MySQL streams row by row when the fetch
+ * size is Integer.MIN_VALUE) and go straight into a streaming JSON generator, so the heap holds
+ * one row at a time however large the catalog is. Nothing passes through the persistence context.
+ */
+@Service
+@NoExecutionLogging
+@RequiredArgsConstructor
+@Slf4j
+public class CatalogExportService {
+
+    private static final int FLUSH_EVERY = 500;
+
+    private static final String EXPORT_SQL =
+            "SELECT p.id, p.name, p.description, p.price, p.category, p.image_url, u.name AS vendor_name " +
+                    "FROM products p JOIN users u ON u.id = p.vendor_id " +
+                    "WHERE p.visible = TRUE ORDER BY p.id";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final ObjectMapper objectMapper;
+
+    /**
+     * @return number of products written
+     */
+    public long exportPublicCatalog(OutputStream out) {
+        long start = System.currentTimeMillis();
+        long[] written = {0};
+        try (JsonGenerator generator = objectMapper.createGenerator(out)) {
+            generator.writeStartArray();
+            jdbcTemplate.query(connection -> {
+                PreparedStatement statement = connection.prepareStatement(EXPORT_SQL,
+                        ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+                statement.setFetchSize(Integer.MIN_VALUE);
+                return statement;
+            }, rs -> {
+                String category = rs.getString("category");
+                String imageUrl = rs.getString("image_url");
+                generator.writePOJO(ProductResponse.builder()
+                        .id(rs.getLong("id"))
+                        .name(rs.getString("name"))
+                        .description(rs.getString("description"))
+                        .price(rs.getBigDecimal("price"))
+                        .category(category != null ? Category.valueOf(category) : null)
+                        .imageUrl(imageUrl)
+                        .thumbnailUrl(ProductImageStore.thumbnailUrlFor(imageUrl))
+                        .vendorName(rs.getString("vendor_name"))
+                        .build());
+                if (++written[0] % FLUSH_EVERY == 0) {
+                    generator.flush();
+                }
+            });
+            generator.writeEndArray();
+        }
+        log.info("Catalog export: {} products in {} ms", written[0], System.currentTimeMillis() - start);
+        return written[0];
+    }
+}
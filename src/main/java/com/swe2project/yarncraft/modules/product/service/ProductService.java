@@ -1,31 +1,67 @@
 package com.swe2project.yarncraft.modules.product.service;
 
 import com.swe2project.yarncraft.common.exception.ResourceNotFoundException;
+import com.swe2project.yarncraft.common.dto.CursorPage;
+import com.swe2project.yarncraft.common.util.CursorCodec;
+import com.swe2project.yarncraft.common.util.TransactionHooks;
+import com.swe2project.yarncraft.common.web.PreSerializedJson;
+import com.swe2project.yarncraft.modules.inventory.entity.InventoryItem.StockStatus;
 import com.swe2project.yarncraft.modules.inventory.service.InventoryService;
+import com.swe2project.yarncraft.modules.product.cache.CatalogCache;
+import com.swe2project.yarncraft.modules.product.dto.CatalogBrowseResult;
 import com.swe2project.yarncraft.modules.product.dto.ProductRequest;
 import com.swe2project.yarncraft.modules.product.dto.ProductResponse;
+import com.swe2project.yarncraft.modules.product.dto.ProductSuggestion;
 import com.swe2project.yarncraft.modules.product.entity.Category;
 import com.swe2project.yarncraft.modules.product.entity.Product;
+import com.swe2project.yarncraft.modules.product.image.ProductImageStore;
 import com.swe2project.yarncraft.modules.product.repository.ProductRepository;
+import com.swe2project.yarncraft.modules.product.search.CatalogFacetIndex;
+import com.swe2project.yarncraft.modules.product.search.PriceRange;
+import com.swe2project.yarncraft.modules.product.search.ProductSearchIndex;
+import com.swe2project.yarncraft.modules.product.search.ProductSuggester;
 import com.swe2project.yarncraft.modules.user.entity.Role;
 import com.swe2project.yarncraft.modules.user.entity.User;
 import com.swe2project.yarncraft.modules.user.repository.UserRepository;
 
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
+import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
 
 @Service
 @RequiredArgsConstructor
+@Slf4j
 public class ProductService {
 
+    private static final int MAX_SEARCH_PAGE_SIZE = 100;
+    private static final int MAX_BROWSE_PAGE_SIZE = 100;
+    private static final int DEFAULT_CATALOG_PAGE_SIZE = 50;
+    private static final int MAX_CATALOG_PAGE_SIZE = 200;
+
     private final ProductRepository productRepository;
     private final UserRepository userRepository;
     private final InventoryService inventoryService;
+    private final ProductSearchIndex productSearchIndex;
+    private final ProductSuggester productSuggester;
+    private final CatalogFacetIndex catalogFacetIndex;
+    private final CatalogCache catalogCache;
+    private final ProductImageStore productImageStore;
 
     // --- CREATE ---
     @Transactional
@@ -43,46 +79,122 @@ public class ProductService {
                 .category(request.getCategory())
                 .imageUrl(request.getImageUrl())
                 .vendor(user)
+                .visible(user.isApproved())
                 .build();
 
         Product savedProduct = productRepository.save(product);
         inventoryService.initializeInventory(savedProduct);
+        TransactionHooks.afterCommit(() -> {
+            productSearchIndex.index(savedProduct);
+            productSuggester.index(savedProduct);
+            catalogFacetIndex.index(savedProduct);
+            catalogCache.productChanged(savedProduct.getId(), user.getId(), user.isApproved());
+        });
 
         return savedProduct;
     }
 
     // --- READ (UPDATED TO RETURN DTOs) ---
 
-    // 1. Get All Public Products
-    public List<ProductResponse> getAllProducts() {
-        List<Product> products = productRepository.findByVendorIsApprovedTrue();
+    // 1. Public catalog, keyset-paginated by id: ?size=, then ?cursor=<nextCursor>
+    public CursorPage<ProductResponse> getCatalogPage(String cursor, Integer size) {
+        int limit = size != null ? size : DEFAULT_CATALOG_PAGE_SIZE;
+        if (limit < 1 || limit > MAX_CATALOG_PAGE_SIZE) {
+            throw new IllegalArgumentException("size must be between 1 and " + MAX_CATALOG_PAGE_SIZE);
+        }
+        Long afterId = afterIdFromCursor(cursor);
+        return loadCatalogPage(afterId != null ? afterId : 0L, limit);
+    }
 
-        // Convert List<Product> -> List<ProductResponse>
-        return products.stream()
-                .map(this::mapToProductResponse)
-                .collect(Collectors.toList());
+    // The homepage's first page, served pre-serialized from the catalog cache once warm
+    public CatalogCache.SerializedPage getCatalogFirstPageJson() {
+        return catalogCache.publicFirstPageJson(() -> loadCatalogPage(0L, DEFAULT_CATALOG_PAGE_SIZE));
     }
 
     // 2. Get Single Product
     public ProductResponse getProductById(Long id) {
-        Product product = productRepository.findById(id)
-                .orElseThrow(() -> new ResourceNotFoundException("Product not found with id: " + id));
-        return mapToProductResponse(product);
+        return catalogCache.product(id, this::loadProduct);
+    }
+
+    public PreSerializedJson getProductJsonById(Long id) {
+        return catalogCache.productJson(id, this::loadProduct);
     }
 
-    // 3. Get Vendor Products (Keep returning Entities for dashboard, or convert to DTO if you prefer)
-    // For now, let's convert it so the dashboard is consistent
+    // 3. Get Vendor Products (cached per vendor, shared with the vendor's own dashboard)
     public List<ProductResponse> getProductsByVendor(Long vendorId) {
-        List<Product> products = productRepository.findByVendorId(vendorId);
-        return products.stream()
+        return catalogCache.vendorProducts(vendorId, () -> productRepository.findByVendorId(vendorId).stream()
                 .map(this::mapToProductResponse)
-                .collect(Collectors.toList());
+                .collect(Collectors.toList()));
     }
 
     public List<Product> getProductsByCategory(Category category) {
         return productRepository.findByCategory(category);
     }
 
+    // 4. Full-text search (BM25 ranked, typo tolerant), best match first
+    public List<ProductResponse> searchProducts(String query, Category category, BigDecimal minPrice,
+                                                BigDecimal maxPrice, int page, int size) {
+        if (page < 0 || size < 1 || size > MAX_SEARCH_PAGE_SIZE) {
+            throw new IllegalArgumentException("page must be >= 0 and size between 1 and " + MAX_SEARCH_PAGE_SIZE);
+        }
+        List<Long> ids = productSearchIndex.search(query, category, minPrice, maxPrice, page * size, size);
+        if (ids.isEmpty()) {
+            return List.of();
+        }
+
+        // Only the page's rows are loaded; put them back in rank order
+        Map<Long, Product> byId = productRepository.findByIdIn(ids).stream()
+                .collect(Collectors.toMap(Product::getId, Function.identity()));
+        return ids.stream()
+                .map(byId::get)
+                .filter(Objects::nonNull)
+                .map(this::mapToProductResponse)
+                .collect(Collectors.toList());
+    }
+
+    // 5. Autocomplete: most sold products whose name (or a word of it) starts with the prefix
+    public List<ProductSuggestion> suggestProducts(String prefix, int limit) {
+        return productSuggester.suggest(prefix, Math.max(1, Math.min(limit, ProductSuggester.TOP_N))).stream()
+                .map(completion -> new ProductSuggestion(completion.productId, completion.name))
+                .collect(Collectors.toList());
+    }
+
+    // 6. Faceted browse: OR within a facet, AND across facets, id order, sidebar counts in the same call
+    public CatalogBrowseResult browseProducts(Collection<Category> categories, Collection<PriceRange> prices,
+                                              Collection<Long> vendorIds, Collection<StockStatus> statuses,
+                                              String cursor, int size) {
+        if (size < 1 || size > MAX_BROWSE_PAGE_SIZE) {
+            throw new IllegalArgumentException("size must be between 1 and " + MAX_BROWSE_PAGE_SIZE);
+        }
+        Long afterId = afterIdFromCursor(cursor);
+        CatalogFacetIndex.Result result = catalogFacetIndex.browse(
+                new CatalogFacetIndex.Selection(categories, prices, vendorIds, statuses), afterId, size + 1);
+        List<Long> ids = result.getProductIds();
+        String nextCursor = null;
+        if (ids.size() > size) {
+            ids = ids.subList(0, size);
+            nextCursor = CursorCodec.encode(String.valueOf(ids.get(size - 1)));
+        }
+
+        Map<Long, Product> byId = ids.isEmpty() ? Map.of() : productRepository.findByIdIn(ids).stream()
+                .collect(Collectors.toMap(Product::getId, Function.identity()));
+        List<ProductResponse> items = ids.stream()
+                .map(byId::get)
+                .filter(Objects::nonNull)
+                .map(this::mapToProductResponse)
+                .collect(Collectors.toList());
+        return new CatalogBrowseResult(items, result.getTotal(), result.getCounts(), nextCursor);
+    }
+
+    // Backfill / repair the denormalized visible flag once at startup
+    @EventListener(ApplicationReadyEvent.class)
+    public void reconcileVisibility() {
+        int fixed = productRepository.reconcileVisibility();
+        if (fixed > 0) {
+            log.info("Product visibility reconciled for {} products", fixed);
+        }
+    }
+
     // --- UPDATE ---
     public Product updateProduct(Long productId, String userEmail, ProductRequest request) {
         // (Keep existing logic...)
@@ -101,7 +213,35 @@ public class ProductService {
         if (request.getCategory() != null) product.setCategory(request.getCategory());
         if (request.getImageUrl() != null) product.setImageUrl(request.getImageUrl());
 
-        return productRepository.save(product);
+        Product saved = productRepository.save(product);
+        TransactionHooks.afterCommit(() -> {
+            productSearchIndex.index(saved);
+            productSuggester.index(saved);
+            catalogFacetIndex.index(saved);
+            catalogCache.productChanged(saved.getId(), user.getId(), user.isApproved());
+        });
+        return saved;
+    }
+
+    // Upload an image: stored on our disk by content hash, served (with a thumbnail) from /api/products/images/
+    public Product updateProductImage(Long productId, String userEmail, MultipartFile file) throws IOException {
+        Product product = productRepository.findById(productId)
+                .orElseThrow(() -> new ResourceNotFoundException("Product not found"));
+
+        User user = getUserByEmail(userEmail);
+
+        if (!product.getVendor().getId().equals(user.getId())) {
+            throw new RuntimeException("You are not authorized to update this product.");
+        }
+
+        String name = productImageStore.store(file);
+        String baseUrl = ServletUriComponentsBuilder.fromCurrentContextPath().toUriString();
+        product.setImageUrl(ProductImageStore.urlFor(baseUrl, name));
+
+        Product saved = productRepository.save(product);
+        TransactionHooks.afterCommit(() ->
+                catalogCache.productChanged(saved.getId(), user.getId(), user.isApproved()));
+        return saved;
     }
 
     // --- DELETE ---
@@ -126,6 +266,42 @@ public class ProductService {
 
         // 💥 Finally, delete the Product
         productRepository.delete(product);
+        TransactionHooks.afterCommit(() -> {
+            productSearchIndex.remove(productId);
+            productSuggester.remove(productId);
+            catalogFacetIndex.remove(productId);
+            catalogCache.productChanged(productId, user.getId(), user.isApproved());
+        });
+    }
+
+    // One row more than the page tells whether there is a next one
+    private CursorPage<ProductResponse> loadCatalogPage(long afterId, int size) {
+        List<Product> rows = productRepository.findByVisibleTrueAndIdGreaterThanOrderByIdAsc(
+                afterId, Limit.of(size + 1));
+        String nextCursor = null;
+        if (rows.size() > size) {
+            rows = rows.subList(0, size);
+            nextCursor = CursorCodec.encode(String.valueOf(rows.get(size - 1).getId()));
+        }
+        return new CursorPage<>(rows.stream().map(this::mapToProductResponse).collect(Collectors.toList()), nextCursor);
+    }
+
+    // Catalog and browse cursors are the last product id of the page
+    private static Long afterIdFromCursor(String cursor) {
+        if (cursor == null || cursor.isBlank()) {
+            return null;
+        }
+        try {
+            return Long.parseLong(CursorCodec.decode(cursor, 1)[0]);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid cursor");
+        }
+    }
+
+    private ProductResponse loadProduct(Long id) {
+        return productRepository.findById(id)
+                .map(this::mapToProductResponse)
+                .orElseThrow(() -> new ResourceNotFoundException("Product not found with id: " + id));
     }
 
     private User getUserByEmail(String email) {
@@ -141,9 +317,6 @@ public class ProductService {
             vName = product.getVendor().getName();
         }
 
-        // 🔍 DEBUG: Print to console to prove it found the name
-        System.out.println("Mapping Product: " + product.getName() + " | Vendor: " + vName);
-
         return ProductResponse.builder()
                 .id(product.getId())
                 .name(product.getName())
@@ -151,6 +324,7 @@ public class ProductService {
                 .price(product.getPrice())
                 .category(product.getCategory())
                 .imageUrl(product.getImageUrl())
+                .thumbnailUrl(ProductImageStore.thumbnailUrlFor(product.getImageUrl()))
                 .vendorName(vName) // 👈 Ensure this matches your DTO field exactly!
                 .build();
     }
@@ -158,12 +332,6 @@ public class ProductService {
     // 👇 ADD THIS METHOD
     public List<ProductResponse> getMyProducts(String userEmail) {
         User user = getUserByEmail(userEmail); // Uses your existing helper method
-
-        // Use the existing repository method (findByVendorId)
-        List<Product> products = productRepository.findByVendorId(user.getId());
-
-        return products.stream()
-                .map(this::mapToProductResponse)
-                .collect(Collectors.toList());
+        return getProductsByVendor(user.getId());
     }
 }
\ No newline at end of file
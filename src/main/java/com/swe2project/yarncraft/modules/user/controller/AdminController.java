@@ -47,6 +47,15 @@ public class AdminController {
         ));
     }
 
+    @PostMapping("/applications/{id}/suspend")
+    public ResponseEntity<ApiResponse<String>> suspendVendor(@PathVariable Long id) {
+        userService.suspendVendor(id);
+        return ResponseEntity.ok(ApiResponse.success(
+                "Vendor suspended",
+                "Vendor suspended. Their products are hidden until they are approved again."
+        ));
+    }
+
     @GetMapping("/vendor-stats")
     public ResponseEntity<ApiResponse<List<VendorPerformanceDto>>> getVendorStats() {
         return ResponseEntity.ok(ApiResponse.success(
@@ -0,0 +1,11 @@
+package com.swe2project.yarncraft.modules.user.event;
+
+import lombok.Value;
+
+/**
+ * Published by UserService when an admin approves a vendor, so their products become public.
+ */
+@Value
+public class VendorApprovedEvent {
+    long vendorId;
+}
@@ -0,0 +1,12 @@
+package com.swe2project.yarncraft.modules.user.event;
+
+import lombok.Value;
+
+/**
+ * Published by UserService when an admin rejects a vendor application or suspends a vendor.
+ * The vendor may still be approved (a rejected re-application), so listeners read the approval back.
+ */
+@Value
+public class VendorRejectedEvent {
+    long vendorId;
+}
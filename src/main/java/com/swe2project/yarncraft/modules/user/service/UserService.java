@@ -9,9 +9,12 @@ import com.swe2project.yarncraft.modules.user.entity.ApplicationStatus;
 import com.swe2project.yarncraft.modules.user.entity.Role;
 import com.swe2project.yarncraft.modules.user.entity.User;
 import com.swe2project.yarncraft.modules.user.entity.VendorApplication;
+import com.swe2project.yarncraft.modules.user.event.VendorApprovedEvent;
+import com.swe2project.yarncraft.modules.user.event.VendorRejectedEvent;
 import com.swe2project.yarncraft.modules.user.repository.UserRepository;
 import com.swe2project.yarncraft.modules.user.repository.VendorApplicationRepository;
 
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 
 import java.util.List;
@@ -29,6 +32,7 @@ public class UserService {
 
     private final OrderRepository orderRepository;
     private final ProductRepository productRepository;
+    private final ApplicationEventPublisher eventPublisher;
 
     // --- 1. Vendor Logic: Submit Application ---
     public void applyAsVendor(String userEmail, VendorApplicationDto dto) {
@@ -93,6 +97,8 @@ public class UserService {
         User vendor = application.getUser();
         vendor.setApproved(true);
         userRepository.save(vendor);
+        syncProductVisibility(vendor);
+        eventPublisher.publishEvent(new VendorApprovedEvent(vendor.getId()));
     }
 
     // --- 4. Admin Logic: Reject Vendor (NEW) ---
@@ -102,7 +108,28 @@ public class UserService {
 
         application.setStatus(ApplicationStatus.REJECTED);
         vendorApplicationRepository.save(application);
-        // Note: We do NOT enable the user. They remain approved=false.
+        // Note: We do NOT change the user's approval. Their products stay as visible as that makes them.
+        User vendor = application.getUser();
+        syncProductVisibility(vendor);
+        eventPublisher.publishEvent(new VendorRejectedEvent(vendor.getId()));
+    }
+
+    // --- 4b. Admin Logic: Suspend an approved Vendor ---
+    public void suspendVendor(Long applicationId) {
+        VendorApplication application = vendorApplicationRepository.findById(applicationId)
+                .orElseThrow(() -> new RuntimeException("Application not found"));
+
+        // The application keeps its status; approving it again lifts the suspension
+        User vendor = application.getUser();
+        vendor.setApproved(false);
+        userRepository.save(vendor);
+        syncProductVisibility(vendor);
+        eventPublisher.publishEvent(new VendorRejectedEvent(vendor.getId()));
+    }
+
+    // products.visible mirrors users.is_approved (the search indexes reload it after commit)
+    private void syncProductVisibility(User vendor) {
+        productRepository.updateVisibilityByVendor(vendor.getId(), vendor.isApproved());
     }
 
     // --- 5. Get User Profile (NEW) ---
@@ -0,0 +1,48 @@
+package com.swe2project.yarncraft.common.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+import java.util.zip.CRC32;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class Crc32CombineTest {
+
+    @Test
+    void combiningThePartsGivesTheCrcOfTheWhole() {
+        Random random = new Random(7);
+        for (int length : new int[]{0, 1, 2, 3, 31, 1000, 70_000}) {
+            byte[] bytes = new byte[length];
+            random.nextBytes(bytes);
+            for (int split : new int[]{0, length / 3, length / 2, length}) {
+                long first = crc(bytes, 0, split);
+                long second = crc(bytes, split, length - split);
+
+                assertEquals(crc(bytes, 0, length), Crc32Combine.combine(first, second, length - split));
+            }
+        }
+    }
+
+    @Test
+    void combinesThreeParts() {
+        byte[] head = "{\"success\":true,\"data\":".getBytes();
+        byte[] payload = "[{\"id\":1,\"name\":\"Merino\"}]".getBytes();
+        byte[] tail = "}".getBytes();
+        CRC32 whole = new CRC32();
+        whole.update(head);
+        whole.update(payload);
+        whole.update(tail);
+
+        long headAndPayload = Crc32Combine.combine(crc(head, 0, head.length), crc(payload, 0, payload.length),
+                payload.length);
+
+        assertEquals(whole.getValue(), Crc32Combine.combine(headAndPayload, crc(tail, 0, tail.length), tail.length));
+    }
+
+    private static long crc(byte[] bytes, int offset, int length) {
+        CRC32 crc = new CRC32();
+        crc.update(bytes, offset, length);
+        return crc.getValue();
+    }
+}
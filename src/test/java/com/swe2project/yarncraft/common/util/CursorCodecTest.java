@@ -0,0 +1,59 @@
+package com.swe2project.yarncraft.common.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class CursorCodecTest {
+
+    @Test
+    void partsSurviveTheRoundTrip() {
+        String cursor = CursorCodec.encode("2026-10-16T23:07:51.123", "4711");
+
+        assertEquals(List.of("2026-10-16T23:07:51.123", "4711"), List.of(CursorCodec.decode(cursor, 2)));
+    }
+
+    @Test
+    void emptyAndNonAsciiPartsAreKept() {
+        String cursor = CursorCodec.encode("", "Laine Mérinos ✓", "");
+
+        assertEquals(List.of("", "Laine Mérinos ✓", ""), List.of(CursorCodec.decode(cursor, 3)));
+    }
+
+    @Test
+    void cursorsAreUrlSafe() {
+        // The standard alphabet would give "fn5+Px8/Pz8=" for these parts
+        String cursor = CursorCodec.encode("~~~?", "???");
+
+        assertEquals("fn5-Px8_Pz8", cursor);
+        assertEquals(List.of("~~~?", "???"), List.of(CursorCodec.decode(cursor, 2)));
+    }
+
+    @Test
+    void aCursorWithTheWrongNumberOfPartsIsRejected() {
+        String cursor = CursorCodec.encode("2026-10-16T23:07:51", "4711");
+
+        assertThrows(IllegalArgumentException.class, () -> CursorCodec.decode(cursor, 1));
+        assertThrows(IllegalArgumentException.class, () -> CursorCodec.decode(cursor, 3));
+    }
+
+    @Test
+    void malformedCursorsAreRejected() {
+        assertThrows(IllegalArgumentException.class, () -> CursorCodec.decode("not base64!", 1));
+        assertThrows(IllegalArgumentException.class, () -> CursorCodec.decode("a", 1)); // truncated
+    }
+
+    @Test
+    void aHandBuiltCursorDecodesOnlyIfItHasTheRightShape() {
+        String handBuilt = Base64.getUrlEncoder().withoutPadding()
+                .encodeToString("4711".getBytes(StandardCharsets.UTF_8));
+
+        assertEquals("4711", CursorCodec.decode(handBuilt, 1)[0]);
+        assertThrows(IllegalArgumentException.class, () -> CursorCodec.decode(handBuilt, 2));
+    }
+}
@@ -0,0 +1,87 @@
+package com.swe2project.yarncraft.common.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class HierarchicalTimingWheelTest {
+
+    private final HierarchicalTimingWheel<String> wheel = new HierarchicalTimingWheel<>(10, 0);
+
+    @Test
+    void firesOnTheTickTheDeadlineFallsIn() {
+        wheel.schedule("a", 25); // rounded up to tick 3
+
+        assertTrue(wheel.advance(29).isEmpty());
+        assertEquals(List.of("a"), wheel.advance(30));
+        assertEquals(0, wheel.size());
+    }
+
+    @Test
+    void aPastDeadlineFiresOnTheNextTick() {
+        wheel.advance(100);
+        wheel.schedule("late", 5);
+
+        assertEquals(List.of("late"), wheel.advance(110));
+    }
+
+    @Test
+    void cancelledTimeoutsNeverFire() {
+        HierarchicalTimingWheel.Timeout<String> timeout = wheel.schedule("a", 50);
+        wheel.schedule("b", 50);
+
+        assertTrue(wheel.cancel(timeout));
+        assertFalse(wheel.cancel(timeout));
+        assertEquals(List.of("b"), wheel.advance(50));
+    }
+
+    @Test
+    void cascadesFromTheHigherLevels() {
+        // Level 0 covers 256 ticks; these land on levels 1, 2 and 3
+        long[] deadlines = {257 * 10, 70_000 * 10, 17_000_000L * 10};
+        for (long deadline : deadlines) {
+            wheel.schedule("t" + deadline, deadline);
+        }
+
+        for (long deadline : deadlines) {
+            assertTrue(wheel.advance(deadline - 10).isEmpty(), "early at " + deadline);
+            assertEquals(List.of("t" + deadline), wheel.advance(deadline));
+        }
+        assertEquals(0, wheel.size());
+    }
+
+    @Test
+    void firesEveryTimeoutExactlyOnceOnItsOwnTick() {
+        Map<String, Long> deadlines = new HashMap<>();
+        for (int i = 1; i <= 2000; i++) {
+            long deadline = (i * 7919L) % 100_000;
+            deadlines.put("t" + i, deadline);
+            wheel.schedule("t" + i, deadline);
+        }
+
+        Set<String> fired = new HashSet<>();
+        for (long now = 0; now <= 100_000; now += 10) {
+            for (String payload : wheel.advance(now)) {
+                long dueTick = Math.max(1, (deadlines.get(payload) + 9) / 10);
+                assertEquals(dueTick, now / 10, payload);
+                assertTrue(fired.add(payload), payload + " fired twice");
+            }
+        }
+        assertEquals(deadlines.keySet(), fired);
+        assertEquals(0, wheel.size());
+    }
+
+    @Test
+    void rejectsANonPositiveTick() {
+        assertThrows(IllegalArgumentException.class, () -> new HierarchicalTimingWheel<String>(0, 0));
+    }
+}
@@ -0,0 +1,126 @@
+package com.swe2project.yarncraft.common.web;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.GZIPInputStream;
+
+import jakarta.servlet.ServletOutputStream;
+import jakarta.servlet.WriteListener;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import tools.jackson.databind.JsonNode;
+import tools.jackson.databind.ObjectMapper;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class ApiResponseWriterTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final ApiResponseWriter writer = new ApiResponseWriter(objectMapper);
+    private final HttpServletRequest request = mock(HttpServletRequest.class);
+    private final HttpServletResponse response = mock(HttpServletResponse.class);
+    private final ByteArrayOutputStream body = new ByteArrayOutputStream();
+
+    @BeforeEach
+    void setUp() throws IOException {
+        when(response.getOutputStream()).thenReturn(new ServletOutputStream() {
+            @Override
+            public void write(int b) {
+                body.write(b);
+            }
+
+            @Override
+            public boolean isReady() {
+                return true;
+            }
+
+            @Override
+            public void setWriteListener(WriteListener listener) {
+            }
+        });
+    }
+
+    @Test
+    void aGzipClientGetsAValidStreamWithTheDeclaredLength() throws IOException {
+        when(request.getHeader("Accept-Encoding")).thenReturn("gzip, deflate, br");
+        PreSerializedJson data = PreSerializedJson.of(List.of(Map.of("name", "Merino"), Map.of("name", "Merino")),
+                1, objectMapper);
+
+        writer.writeSuccess(data, "cursor-2", "Products", request, response);
+
+        verify(response).setHeader("Content-Encoding", "gzip");
+        verify(response).setContentLength(body.size());
+        JsonNode json = objectMapper.readTree(gunzip(body.toByteArray()));
+        assertTrue(json.path("success").asBoolean());
+        assertEquals("Products", json.path("message").asString());
+        assertEquals("Merino", json.path("data").path(1).path("name").asString());
+        assertEquals("cursor-2", json.path("nextCursor").asString());
+    }
+
+    @Test
+    void anEnvelopeLongerThanOneStoredBlockIsSplit() throws IOException {
+        when(request.getHeader("Accept-Encoding")).thenReturn("gzip");
+        String message = "m".repeat(70_000);
+        PreSerializedJson data = PreSerializedJson.of("x".repeat(100_000), 1, objectMapper);
+
+        writer.writeSuccess(data, message, request, response);
+
+        verify(response).setContentLength(body.size());
+        JsonNode json = objectMapper.readTree(gunzip(body.toByteArray()));
+        assertEquals(message, json.path("message").asString());
+        assertEquals(100_000, json.path("data").asString().length());
+    }
+
+    @Test
+    void otherClientsGetPlainJson() throws IOException {
+        PreSerializedJson data = PreSerializedJson.of(Map.of("id", 1), 1, objectMapper);
+
+        writer.writeSuccess(data, "One", request, response);
+
+        verify(response, never()).setHeader("Content-Encoding", "gzip");
+        verify(response).setContentLength(body.size());
+        JsonNode json = objectMapper.readTree(body.toByteArray());
+        assertEquals(1, json.path("data").path("id").asInt());
+        assertTrue(json.path("nextCursor").isMissingNode());
+    }
+
+    @Test
+    void qValuesDecideWhetherGzipIsAccepted() {
+        assertTrue(accepts("gzip"));
+        assertTrue(accepts("deflate, GZIP;q=0.5"));
+        assertTrue(accepts("x-gzip"));
+        assertTrue(accepts("br, *;q=0.1"));
+        assertFalse(accepts(null));
+        assertFalse(accepts("gzip;q=0"));
+        assertFalse(accepts("gzip; q=0.000"));
+        assertFalse(accepts("br, gzip;q=0, *"));   // the explicit entry wins over *
+        assertFalse(accepts("*;q=0"));
+        assertFalse(accepts("identity, deflate"));
+        assertFalse(accepts("gzip;q=abc"));
+    }
+
+    private boolean accepts(String acceptEncoding) {
+        HttpServletRequest withHeader = mock(HttpServletRequest.class);
+        when(withHeader.getHeader("Accept-Encoding")).thenReturn(acceptEncoding);
+        return ApiResponseWriter.acceptsGzip(withHeader);
+    }
+
+    // GZIPInputStream checks the CRC-32 and length in the trailer
+    private static byte[] gunzip(byte[] gzipped) throws IOException {
+        try (GZIPInputStream in = new GZIPInputStream(new ByteArrayInputStream(gzipped))) {
+            return in.readAllBytes();
+        }
+    }
+}
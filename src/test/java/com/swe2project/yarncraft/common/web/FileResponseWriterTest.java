@@ -0,0 +1,179 @@
+package com.swe2project.yarncraft.common.web;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import jakarta.servlet.ServletOutputStream;
+import jakarta.servlet.WriteListener;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class FileResponseWriterTest {
+
+    private final FileResponseWriter writer = new FileResponseWriter();
+    private final HttpServletRequest request = mock(HttpServletRequest.class);
+    private final HttpServletResponse response = mock(HttpServletResponse.class);
+    private final ByteArrayOutputStream body = new ByteArrayOutputStream();
+
+    @TempDir
+    Path dir;
+
+    private Path file;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        file = Files.writeString(dir.resolve("image.png"), "0123456789");
+        when(request.getMethod()).thenReturn("GET");
+        when(response.getOutputStream()).thenReturn(new ServletOutputStream() {
+            @Override
+            public void write(int b) {
+                body.write(b);
+            }
+
+            @Override
+            public boolean isReady() {
+                return true;
+            }
+
+            @Override
+            public void setWriteListener(WriteListener listener) {
+            }
+        });
+    }
+
+    @Test
+    void withoutARangeTheWholeFileIsSent() throws IOException {
+        write(null);
+
+        verify(response).setStatus(HttpServletResponse.SC_OK);
+        verify(response).setContentLengthLong(10);
+        verify(response).setHeader("Cache-Control", "public, max-age=31536000, immutable");
+        assertEquals("0123456789", sent());
+    }
+
+    @Test
+    void aBoundedRangeSendsThoseBytes() throws IOException {
+        write("bytes=2-5");
+
+        verify(response).setStatus(HttpServletResponse.SC_PARTIAL_CONTENT);
+        verify(response).setHeader("Content-Range", "bytes 2-5/10");
+        verify(response).setContentLengthLong(4);
+        assertEquals("2345", sent());
+    }
+
+    @Test
+    void anOpenRangeRunsToTheEndAndAnOverlongOneIsClamped() throws IOException {
+        write("bytes=7-");
+        assertEquals("789", sent());
+
+        body.reset();
+        write("bytes=8-100");
+        verify(response).setHeader("Content-Range", "bytes 8-9/10");
+        assertEquals("89", sent());
+    }
+
+    @Test
+    void aSuffixRangeSendsTheLastBytes() throws IOException {
+        write("bytes=-3");
+
+        verify(response).setHeader("Content-Range", "bytes 7-9/10");
+        assertEquals("789", sent());
+    }
+
+    @Test
+    void aRangePastTheEndIsNotSatisfiable() throws IOException {
+        write("bytes=10-");
+
+        verify(response).setStatus(HttpServletResponse.SC_REQUESTED_RANGE_NOT_SATISFIABLE);
+        verify(response).setHeader("Content-Range", "bytes */10");
+        verify(response, never()).setContentLengthLong(anyLong());
+        assertEquals("", sent());
+    }
+
+    @Test
+    void multiAndMalformedRangesGetTheWholeFile() throws IOException {
+        write("bytes=0-1,4-5");
+        assertEquals("0123456789", sent());
+
+        body.reset();
+        write("bytes=-");
+        assertEquals("0123456789", sent());
+        verify(response, times(2)).setStatus(HttpServletResponse.SC_OK);
+    }
+
+    @Test
+    void aStaleIfRangeGetsTheWholeFile() throws IOException {
+        when(request.getHeader("If-Range")).thenReturn("\"old\"");
+        write("bytes=2-5");
+        verify(response).setStatus(HttpServletResponse.SC_OK);
+        assertEquals("0123456789", sent());
+
+        body.reset();
+        when(request.getHeader("If-Range")).thenReturn("\"v1\"");
+        write("bytes=2-5");
+        assertEquals("2345", sent());
+    }
+
+    @Test
+    void aMatchingEtagIsNotModified() throws IOException {
+        when(request.getHeader("If-None-Match")).thenReturn("\"v1\"");
+
+        write("bytes=2-5");
+
+        verify(response).setStatus(HttpServletResponse.SC_NOT_MODIFIED);
+        assertEquals("", sent());
+    }
+
+    @Test
+    void headSendsTheHeadersOnly() throws IOException {
+        when(request.getMethod()).thenReturn("HEAD");
+
+        write("bytes=2-5");
+
+        verify(response).setContentLengthLong(4);
+        assertEquals("", sent());
+    }
+
+    @Test
+    void tomcatGetsTheRangeAsSendfileAttributes() throws IOException {
+        when(request.getAttribute("org.apache.tomcat.sendfile.support")).thenReturn(Boolean.TRUE);
+
+        write("bytes=2-5");
+
+        verify(request).setAttribute("org.apache.tomcat.sendfile.start", 2L);
+        verify(request).setAttribute("org.apache.tomcat.sendfile.end", 6L);
+        assertEquals("", sent());
+    }
+
+    @Test
+    void aProvisionalFileIsOnlyCachedBriefly() throws IOException {
+        writer.writeProvisional(file, "v1", "image/png", request, response);
+
+        verify(response).setHeader("Cache-Control", "public, max-age=60");
+        assertEquals("0123456789", sent());
+    }
+
+    private void write(String range) throws IOException {
+        when(request.getHeader("Range")).thenReturn(range);
+        writer.writeImmutable(file, "v1", "image/png", request, response);
+    }
+
+    private String sent() {
+        return body.toString(StandardCharsets.UTF_8);
+    }
+}
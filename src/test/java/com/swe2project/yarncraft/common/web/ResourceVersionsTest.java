@@ -0,0 +1,117 @@
+package com.swe2project.yarncraft.common.web;
+
+import jakarta.servlet.http.HttpServletResponse;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.context.request.NativeWebRequest;
+import org.springframework.web.context.request.WebRequest;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class ResourceVersionsTest {
+
+    private final ResourceVersions versions = new ResourceVersions();
+    private final List<String> etags = new ArrayList<>();
+    private final List<Long> lastModified = new ArrayList<>();
+
+    @Test
+    void lastModifiedIsRoundedUpToAWholeSecond() {
+        long before = System.currentTimeMillis();
+        versions.touch(ResourceVersions.PRODUCTS);
+
+        versions.notModified(request("/api/products", "alice"), ResourceVersions.PRODUCTS);
+
+        long sent = lastModified.get(0);
+        assertEquals(0, sent % 1000);
+        assertTrue(sent >= before, "never earlier than the change");
+        assertTrue(sent < System.currentTimeMillis() + 1000);
+    }
+
+    @Test
+    void ceilToSecondKeepsWholeSeconds() {
+        assertEquals(5000, ResourceVersions.ceilToSecond(5000));
+        assertEquals(6000, ResourceVersions.ceilToSecond(5001));
+        assertEquals(6000, ResourceVersions.ceilToSecond(5999));
+    }
+
+    @Test
+    void theEtagFollowsTheNewestKey() {
+        versions.touch(ResourceVersions.product(1));
+        versions.notModified(request("/api/products/1", null), ResourceVersions.PRODUCTS, ResourceVersions.product(1));
+        versions.touch(ResourceVersions.product(2));
+        versions.notModified(request("/api/products/1", null), ResourceVersions.PRODUCTS, ResourceVersions.product(1));
+        versions.touch(ResourceVersions.PRODUCTS);
+        versions.notModified(request("/api/products/1", null), ResourceVersions.PRODUCTS, ResourceVersions.product(1));
+
+        assertEquals(etags.get(0), etags.get(1)); // product 2 is not a dependency
+        assertNotEquals(etags.get(1), etags.get(2));
+    }
+
+    @Test
+    void urlsAndCallersSharingKeysGetDifferentEtags() {
+        versions.notModified(request("/api/products", "alice"), ResourceVersions.PRODUCTS);
+        versions.notModified(request("/api/products", "bob"), ResourceVersions.PRODUCTS);
+        versions.notModified(request("/api/products/search", "alice"), ResourceVersions.PRODUCTS);
+
+        assertEquals(3, etags.stream().distinct().count());
+    }
+
+    @Test
+    void theEtagIsWeak() {
+        versions.notModified(request("/api/products", null), ResourceVersions.PRODUCTS);
+
+        assertTrue(etags.get(0).startsWith("W/\""), etags.get(0));
+    }
+
+    @Test
+    void aNotModifiedResponseVariesOnAcceptEncoding() {
+        HttpServletResponse response = mock(HttpServletResponse.class);
+        NativeWebRequest request = nativeRequest(response, true);
+
+        assertTrue(versions.notModified(request, ResourceVersions.PRODUCTS));
+        verify(response).addHeader("Vary", "Accept-Encoding");
+    }
+
+    @Test
+    void aModifiedResponseLeavesVaryToTheBodyWriter() {
+        HttpServletResponse response = mock(HttpServletResponse.class);
+        NativeWebRequest request = nativeRequest(response, false);
+
+        versions.notModified(request, ResourceVersions.PRODUCTS);
+
+        verify(response, never()).addHeader("Vary", "Accept-Encoding");
+    }
+
+    private NativeWebRequest nativeRequest(HttpServletResponse response, boolean notModified) {
+        NativeWebRequest request = mock(NativeWebRequest.class);
+        when(request.getParameterMap()).thenReturn(Map.of());
+        when(request.getDescription(false)).thenReturn("uri=/api/products");
+        when(request.getNativeResponse(HttpServletResponse.class)).thenReturn(response);
+        when(request.checkNotModified(anyString(), anyLong())).thenReturn(notModified);
+        return request;
+    }
+
+    private WebRequest request(String uri, String user) {
+        WebRequest request = mock(WebRequest.class);
+        when(request.getParameterMap()).thenReturn(Map.of());
+        when(request.getDescription(false)).thenReturn("uri=" + uri);
+        when(request.getRemoteUser()).thenReturn(user);
+        when(request.checkNotModified(anyString(), anyLong())).thenAnswer(invocation -> {
+            etags.add(invocation.getArgument(0));
+            lastModified.add(invocation.getArgument(1));
+            return false;
+        });
+        return request;
+    }
+}
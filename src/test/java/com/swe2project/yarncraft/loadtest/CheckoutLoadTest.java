@@ -0,0 +1,196 @@
+package com.swe2project.yarncraft.loadtest;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import tools.jackson.databind.JsonNode;
+import tools.jackson.databind.ObjectMapper;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Checkout contention load test against a running instance. Skipped unless
+ * {@code -Dloadtest.baseUrl=http://localhost:8080} is given, e.g.
+ * <pre>
+ * mvn test -Dtest=CheckoutLoadTest -Dloadtest.baseUrl=http://localhost:8080 \
+ *     -Dloadtest.email=buyer@example.com -Dloadtest.password=secret -Dloadtest.products=1,2,3,4
+ * </pre>
+ * Every client places orders of {@code loadtest.itemsPerOrder} products drawn from the same small
+ * set in random order, the pattern that deadlocked the old per-item checkout loop. It reports
+ * p50/p95/p99 latency, throughput, and how many orders failed on stock, on a deadlock or otherwise.
+ * It also reads the {@code orders.intake.commits} / {@code orders.intake.orders} counters from
+ * /actuator/metrics before and after, which gives commits/sec against orders/sec for the group commit.
+ * Run it once against this build and once against the build to compare with; the products need
+ * enough stock for the whole run (clients x ordersPerClient x itemsPerOrder units in total).
+ * <p>
+ * Options: {@code loadtest.clients} (200), {@code loadtest.ordersPerClient} (20),
+ * {@code loadtest.itemsPerOrder} (3).
+ */
+@EnabledIfSystemProperty(named = "loadtest.baseUrl", matches = ".+")
+class CheckoutLoadTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final HttpClient http = HttpClient.newBuilder().connectTimeout(Duration.ofSeconds(10)).build();
+    private final String baseUrl = System.getProperty("loadtest.baseUrl");
+
+    @Test
+    void concurrentOverlappingCarts() throws Exception {
+        int clients = Integer.getInteger("loadtest.clients", 200);
+        int ordersPerClient = Integer.getInteger("loadtest.ordersPerClient", 20);
+        int itemsPerOrder = Integer.getInteger("loadtest.itemsPerOrder", 3);
+        List<Long> products = Arrays.stream(System.getProperty("loadtest.products", "1,2,3").split(","))
+                .map(String::trim)
+                .map(Long::valueOf)
+                .toList();
+        String token = login();
+
+        ConcurrentLinkedQueue<Long> latencies = new ConcurrentLinkedQueue<>();
+        AtomicInteger placed = new AtomicInteger();
+        AtomicInteger outOfStock = new AtomicInteger();
+        AtomicInteger deadlocks = new AtomicInteger();
+        AtomicInteger otherErrors = new AtomicInteger();
+        CountDownLatch start = new CountDownLatch(1);
+        CountDownLatch finished = new CountDownLatch(clients);
+
+        for (int c = 0; c < clients; c++) {
+            Thread client = new Thread(() -> {
+                try {
+                    start.await();
+                    for (int i = 0; i < ordersPerClient; i++) {
+                        long began = System.nanoTime();
+                        HttpResponse<String> response = placeOrder(token, cart(products, itemsPerOrder));
+                        latencies.add(System.nanoTime() - began);
+                        String body = response.body();
+                        if (response.statusCode() == 200) {
+                            placed.incrementAndGet();
+                        } else if (body.toLowerCase().contains("deadlock")) {
+                            deadlocks.incrementAndGet();
+                        } else if (body.contains("stock")) {
+                            outOfStock.incrementAndGet();
+                        } else {
+                            otherErrors.incrementAndGet();
+                        }
+                    }
+                } catch (Exception e) {
+                    otherErrors.incrementAndGet();
+                } finally {
+                    finished.countDown();
+                }
+            });
+            client.setDaemon(true);
+            client.start();
+        }
+
+        double commitsBefore = counter(token, "orders.intake.commits");
+        double ordersBefore = counter(token, "orders.intake.orders");
+        long began = System.nanoTime();
+        start.countDown();
+        finished.await();
+        double seconds = (System.nanoTime() - began) / 1e9;
+        double commits = counter(token, "orders.intake.commits") - commitsBefore;
+        double intakeOrders = counter(token, "orders.intake.orders") - ordersBefore;
+
+        List<Long> sorted = new ArrayList<>(latencies);
+        Collections.sort(sorted);
+        System.out.printf("%d clients x %d orders in %.1fs: %.0f orders/s%n",
+                clients, ordersPerClient, seconds, sorted.size() / seconds);
+        System.out.printf("latency p50 %.1fms, p95 %.1fms, p99 %.1fms, max %.1fms%n",
+                percentile(sorted, 50), percentile(sorted, 95), percentile(sorted, 99), percentile(sorted, 100));
+        System.out.printf("placed %d, out of stock %d, deadlocks %d, other errors %d%n",
+                placed.get(), outOfStock.get(), deadlocks.get(), otherErrors.get());
+        if (!Double.isNaN(commits) && !Double.isNaN(intakeOrders)) {
+            System.out.printf("intake: %.0f commits/s for %.0f orders/s (%.1f orders per commit)%n",
+                    commits / seconds, intakeOrders / seconds, commits > 0 ? intakeOrders / commits : 0);
+        } else {
+            System.out.println("intake: counters not available under /actuator/metrics");
+        }
+
+        assertEquals(0, deadlocks.get(), "checkouts must never deadlock");
+    }
+
+    private String login() throws Exception {
+        Map<String, String> credentials = Map.of(
+                "email", System.getProperty("loadtest.email", "customer@example.com"),
+                "password", System.getProperty("loadtest.password", "password"));
+        HttpResponse<String> response = http.send(post("/api/auth/login", null, credentials),
+                HttpResponse.BodyHandlers.ofString());
+        JsonNode token = objectMapper.readTree(response.body()).path("data").path("token");
+        if (response.statusCode() != 200 || token.isMissingNode()) {
+            throw new IllegalStateException("Login failed: " + response.body());
+        }
+        return token.asString();
+    }
+
+    // Value of a Micrometer counter, NaN if the endpoint or the meter is missing
+    private double counter(String token, String name) throws Exception {
+        HttpRequest request = HttpRequest.newBuilder(URI.create(baseUrl + "/actuator/metrics/" + name))
+                .timeout(Duration.ofSeconds(10))
+                .header("Authorization", "Bearer " + token)
+                .GET()
+                .build();
+        HttpResponse<String> response = http.send(request, HttpResponse.BodyHandlers.ofString());
+        if (response.statusCode() != 200) {
+            return Double.NaN;
+        }
+        for (JsonNode measurement : objectMapper.readTree(response.body()).path("measurements")) {
+            if ("COUNT".equals(measurement.path("statistic").asString())) {
+                return measurement.path("value").asDouble();
+            }
+        }
+        return Double.NaN;
+    }
+
+    private HttpResponse<String> placeOrder(String token, List<Map<String, Object>> items) throws Exception {
+        Map<String, Object> order = new HashMap<>();
+        order.put("shippingAddress", "Load test");
+        order.put("phone", "000");
+        order.put("items", items);
+        return http.send(post("/api/orders", token, order), HttpResponse.BodyHandlers.ofString());
+    }
+
+    private HttpRequest post(String path, String token, Object body) {
+        HttpRequest.Builder request = HttpRequest.newBuilder(URI.create(baseUrl + path))
+                .timeout(Duration.ofSeconds(60))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofByteArray(objectMapper.writeValueAsBytes(body)));
+        if (token != null) {
+            request.header("Authorization", "Bearer " + token);
+        }
+        return request.build();
+    }
+
+    // Distinct products in random order: two carts often share products in opposite orders
+    private static List<Map<String, Object>> cart(List<Long> products, int size) {
+        List<Long> shuffled = new ArrayList<>(products);
+        Collections.shuffle(shuffled, ThreadLocalRandom.current());
+        List<Map<String, Object>> items = new ArrayList<>();
+        for (Long productId : shuffled.subList(0, Math.min(size, shuffled.size()))) {
+            items.add(Map.of("productId", productId, "quantity", 1));
+        }
+        return items;
+    }
+
+    private static double percentile(List<Long> sorted, int percentile) {
+        if (sorted.isEmpty()) {
+            return 0;
+        }
+        int index = (int) Math.ceil(percentile / 100.0 * sorted.size()) - 1;
+        return sorted.get(Math.max(0, index)) / 1e6;
+    }
+}
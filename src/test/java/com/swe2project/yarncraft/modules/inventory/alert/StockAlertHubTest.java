@@ -0,0 +1,134 @@
+package com.swe2project.yarncraft.modules.inventory.alert;
+
+import com.swe2project.yarncraft.modules.inventory.entity.InventoryItem.StockStatus;
+import com.swe2project.yarncraft.modules.inventory.event.StockStatusChangedEvent;
+import com.swe2project.yarncraft.modules.user.entity.Role;
+import com.swe2project.yarncraft.modules.user.entity.User;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class StockAlertHubTest {
+
+    private final StockAlertHub hub = new StockAlertHub();
+
+    private final User vendor = User.builder().id(7L).email("v@example.com").role(Role.VENDOR).isApproved(true).build();
+    private final User admin = User.builder().id(1L).email("a@example.com").role(Role.ADMIN).build();
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(hub, "bufferSize", 2);
+        ReflectionTestUtils.setField(hub, "streamTimeoutMillis", 60_000L);
+    }
+
+    @Test
+    void routesToTheProductsVendorAndToAdmins() {
+        SseEmitter vendorStream = hub.subscribe(vendor);
+        SseEmitter adminStream = hub.subscribe(admin);
+
+        hub.onStatusChanged(change(1, 7, StockStatus.IN_STOCK, StockStatus.LOW_STOCK));
+        hub.onStatusChanged(change(2, 8, StockStatus.IN_STOCK, StockStatus.LOW_STOCK));
+        hub.dispatch();
+
+        assertEquals(List.of(1L), productIds(vendorStream));
+        assertEquals(List.of(1L, 2L), productIds(adminStream));
+    }
+
+    @Test
+    void transitionsBetweenDispatchesCollapseIntoOne() {
+        SseEmitter stream = hub.subscribe(vendor);
+
+        hub.onStatusChanged(change(1, 7, StockStatus.IN_STOCK, StockStatus.LOW_STOCK));
+        hub.onStatusChanged(change(1, 7, StockStatus.LOW_STOCK, StockStatus.OUT_OF_STOCK));
+        hub.dispatch();
+
+        List<StockStatusChangedEvent> sent = events(stream);
+        assertEquals(1, sent.size());
+        assertEquals(StockStatus.IN_STOCK, sent.get(0).getPreviousStatus());
+        assertEquals(StockStatus.OUT_OF_STOCK, sent.get(0).getStatus());
+    }
+
+    @Test
+    void aRoundTripBackToTheLastSeenStatusIsDropped() {
+        SseEmitter stream = hub.subscribe(vendor);
+
+        hub.onStatusChanged(change(1, 7, StockStatus.IN_STOCK, StockStatus.LOW_STOCK));
+        hub.onStatusChanged(change(1, 7, StockStatus.LOW_STOCK, StockStatus.IN_STOCK));
+        hub.dispatch();
+
+        assertTrue(events(stream).isEmpty());
+    }
+
+    @Test
+    void anOverflowingBufferDropsTheOldestAndAsksForAResync() {
+        SseEmitter stream = hub.subscribe(vendor);
+
+        for (long productId = 1; productId <= 3; productId++) {
+            hub.onStatusChanged(change(productId, 7, StockStatus.IN_STOCK, StockStatus.LOW_STOCK));
+        }
+        hub.dispatch();
+
+        assertTrue(text(stream).contains("event:resync"));
+        assertEquals(List.of(2L, 3L), productIds(stream));
+    }
+
+    @Test
+    void customersCannotSubscribe() {
+        User customer = User.builder().id(3L).role(Role.CUSTOMER).build();
+        User pendingVendor = User.builder().id(4L).role(Role.VENDOR).build();
+
+        assertThrows(SecurityException.class, () -> hub.subscribe(customer));
+        assertThrows(SecurityException.class, () -> hub.subscribe(pendingVendor));
+    }
+
+    private static StockStatusChangedEvent change(long productId, long vendorId, StockStatus from, StockStatus to) {
+        return new StockStatusChangedEvent(productId, vendorId, from, to, 5, 10, System.currentTimeMillis());
+    }
+
+    // An emitter that no request picked up yet keeps what was sent to it
+    @SuppressWarnings("unchecked")
+    private static List<Object> sent(SseEmitter emitter) {
+        Set<ResponseBodyEmitter.DataWithMediaType> early =
+                (Set<ResponseBodyEmitter.DataWithMediaType>) ReflectionTestUtils.getField(emitter, "earlySendAttempts");
+        List<Object> data = new ArrayList<>();
+        for (ResponseBodyEmitter.DataWithMediaType part : early) {
+            data.add(part.getData());
+        }
+        return data;
+    }
+
+    private static List<StockStatusChangedEvent> events(SseEmitter emitter) {
+        List<StockStatusChangedEvent> events = new ArrayList<>();
+        for (Object data : sent(emitter)) {
+            if (data instanceof StockStatusChangedEvent event) {
+                events.add(event);
+            }
+        }
+        return events;
+    }
+
+    private static List<Long> productIds(SseEmitter emitter) {
+        return events(emitter).stream().map(StockStatusChangedEvent::getProductId).toList();
+    }
+
+    private static String text(SseEmitter emitter) {
+        StringBuilder text = new StringBuilder();
+        for (Object data : sent(emitter)) {
+            if (data instanceof String part) {
+                text.append(part);
+            }
+        }
+        return text.toString();
+    }
+}
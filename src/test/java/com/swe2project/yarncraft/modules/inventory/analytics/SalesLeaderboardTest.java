@@ -0,0 +1,104 @@
+package com.swe2project.yarncraft.modules.inventory.analytics;
+
+import com.swe2project.yarncraft.support.FakeDatabase;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static com.swe2project.yarncraft.support.FakeDatabase.row;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class SalesLeaderboardTest {
+
+    // Rows the seed queries return
+    private final List<Map<String, Object>> global = new ArrayList<>();
+    private final List<Map<String, Object>> categories = new ArrayList<>();
+    private final List<Map<String, Object>> vendors = new ArrayList<>();
+    private FakeDatabase db;
+    private SalesLeaderboard leaderboard;
+
+    @BeforeEach
+    void setUp() {
+        db = new FakeDatabase()
+                .onQuery("PARTITION BY p.category", params -> categories)
+                .onQuery("PARTITION BY vendor_id", params -> vendors)
+                .onQuery("ORDER BY sold_quantity DESC LIMIT", params -> global);
+        leaderboard = new SalesLeaderboard(db.jdbcTemplate());
+        ReflectionTestUtils.setField(leaderboard, "capacity", 10);
+    }
+
+    @Test
+    void theLedgerIsFlushedBeforeTheSeedIsRead() {
+        AtomicInteger queriesBeforeFlush = new AtomicInteger(-1);
+
+        leaderboard.reseed(() -> queriesBeforeFlush.set(db.executed("FROM inventory").size()));
+
+        assertEquals(0, queriesBeforeFlush.get());
+        assertEquals(3, db.executed("FROM inventory").size());
+    }
+
+    @Test
+    void seedsEveryBoard() {
+        global.add(row("product_id", 1L, "sold_quantity", 8L));
+        global.add(row("product_id", 2L, "sold_quantity", 3L));
+        categories.add(row("product_id", 2L, "category", "YARN", "sold_quantity", 3L));
+        vendors.add(row("product_id", 1L, "vendor_id", 7L, "sold_quantity", 8L));
+
+        leaderboard.reseed(() -> { });
+
+        assertEquals(List.of(1L, 2L), leaderboard.top(null, null, 0, 10));
+        assertEquals(List.of(2L), leaderboard.top(null, "YARN", 0, 10));
+        assertEquals(List.of(1L), leaderboard.top(7L, null, 0, 10));
+    }
+
+    @Test
+    void boardsMissingFromTheSeedAreEmptied() {
+        leaderboard.onSold(1, 7, "YARN", true, 4);
+
+        leaderboard.reseed(() -> { }); // product 1 was deactivated in the database meanwhile
+
+        assertEquals(List.of(), leaderboard.top(null, null, 0, 10));
+        assertEquals(List.of(), leaderboard.top(null, "YARN", 0, 10));
+        assertEquals(List.of(), leaderboard.top(7L, null, 0, 10));
+    }
+
+    @Test
+    void aSaleDuringTheReseedIsNotOverwrittenBySeedRows() {
+        leaderboard.onSold(1, 7, "YARN", true, 2);
+        global.add(row("product_id", 2L, "sold_quantity", 5L));
+        global.add(row("product_id", 1L, "sold_quantity", 2L)); // read before the sale below
+        vendors.add(row("product_id", 1L, "vendor_id", 7L, "sold_quantity", 2L));
+
+        leaderboard.reseed(() -> {
+            leaderboard.onSold(1, 7, "YARN", true, 9);
+            leaderboard.onSold(3, 8, null, true, 1); // a vendor board created mid-reseed
+        });
+
+        assertEquals(List.of(1L, 2L, 3L), leaderboard.top(null, null, 0, 10));
+        assertEquals(List.of(1L), leaderboard.top(7L, null, 0, 10));
+        assertEquals(List.of(3L), leaderboard.top(8L, null, 0, 10));
+        assertEquals(List.of(1L), leaderboard.top(null, "YARN", 0, 10));
+    }
+
+    @Test
+    void aFailedFlushLeavesTheLiveBoardsInPlace() {
+        leaderboard.onSold(1, 7, "YARN", true, 4);
+
+        assertThrows(IllegalStateException.class, () -> leaderboard.reseed(() -> {
+            throw new IllegalStateException("flush failed");
+        }));
+
+        assertEquals(0, db.executed("FROM inventory").size());
+        assertEquals(List.of(1L), leaderboard.top(null, null, 0, 10));
+
+        leaderboard.reseed(() -> { });
+        assertEquals(List.of(), leaderboard.top(null, null, 0, 10));
+    }
+}
@@ -0,0 +1,90 @@
+package com.swe2project.yarncraft.modules.inventory.analytics;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class TopKBoardTest {
+
+    private final TopKBoard board = new TopKBoard(3);
+
+    @Test
+    void keepsTheHighestScoresUpToCapacity() {
+        board.offer(1, 10);
+        board.offer(2, 30);
+        board.offer(3, 20);
+        board.offer(4, 5);  // below the floor of a full board
+        board.offer(5, 25);
+
+        assertEquals(List.of(2L, 5L, 3L), board.page(0, 10));
+        assertEquals(List.of(5L), board.page(1, 1));
+    }
+
+    @Test
+    void aMemberIsReRankedWhenItsScoreChanges() {
+        board.offer(1, 10);
+        board.offer(2, 20);
+        board.offer(3, 30);
+
+        board.offer(3, 1);  // below the floor, but a member
+        board.offer(1, 40);
+
+        assertEquals(List.of(1L, 2L, 3L), board.page(0, 10));
+    }
+
+    @Test
+    void removeFreesASlot() {
+        board.offer(1, 10);
+        board.offer(2, 20);
+        board.offer(3, 30);
+
+        board.remove(3);
+        board.offer(4, 1);
+
+        assertEquals(List.of(2L, 1L, 4L), board.page(0, 10));
+    }
+
+    @Test
+    void changesDuringAReplaceAreReplayedOnTopOfTheSeed() {
+        board.offer(1, 10);
+        board.offer(2, 20);
+
+        board.beginReplace();
+        board.offer(1, 50);  // newer than the seed read below
+        board.remove(2);
+        board.replaceAll(List.of(entry(1, 10), entry(2, 20), entry(3, 5)));
+
+        assertEquals(List.of(1L, 3L), board.page(0, 10));
+    }
+
+    @Test
+    void offersBelowTheFloorAreRecordedDuringAReplace() {
+        board.offer(1, 100);
+        board.offer(2, 90);
+        board.offer(3, 80);
+
+        board.beginReplace();
+        board.offer(4, 5);  // would be rejected outside a replace
+        board.replaceAll(List.of());
+
+        assertEquals(List.of(4L), board.page(0, 10));
+    }
+
+    @Test
+    void cancelReplaceKeepsTheLiveBoard() {
+        board.offer(1, 10);
+        board.beginReplace();
+        board.offer(2, 20);
+
+        board.cancelReplace();
+        board.replaceAll(List.of(entry(3, 30)));
+
+        assertEquals(List.of(3L), board.page(0, 10)); // nothing replayed once cancelled
+    }
+
+    private static TopKBoard.Entry entry(long productId, long score) {
+        return new TopKBoard.Entry(productId, score);
+    }
+}
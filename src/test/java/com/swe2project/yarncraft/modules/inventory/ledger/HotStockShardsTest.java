@@ -0,0 +1,174 @@
+package com.swe2project.yarncraft.modules.inventory.ledger;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class HotStockShardsTest {
+
+    private static final long PRODUCT = 42L;
+
+    private final StockLedger stockLedger = mock(StockLedger.class);
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final AtomicInteger available = new AtomicInteger();
+    private final AtomicInteger leased = new AtomicInteger();
+    private final AtomicInteger sold = new AtomicInteger();
+    private HotStockShards shards;
+
+    @BeforeEach
+    void setUp() {
+        // A ledger reduced to the lease bookkeeping
+        when(stockLedger.lease(anyLong(), anyInt())).thenAnswer(invocation -> {
+            int wanted = invocation.getArgument(1);
+            int granted = Math.min(wanted, available.get());
+            available.addAndGet(-granted);
+            leased.addAndGet(granted);
+            return granted;
+        });
+        when(stockLedger.settleLease(anyLong(), anyInt(), anyInt())).thenAnswer(invocation -> {
+            int soldNow = invocation.getArgument(1);
+            int returned = invocation.getArgument(2);
+            leased.addAndGet(-soldNow - returned);
+            sold.addAndGet(soldNow);
+            available.addAndGet(returned);
+            return null;
+        });
+
+        shards = new HotStockShards(stockLedger, mock(JdbcTemplate.class), meterRegistry);
+        ReflectionTestUtils.setField(shards, "configuredShards", 4);
+        ReflectionTestUtils.setField(shards, "shardBatch", 8);
+    }
+
+    @Test
+    void enablingLeasesAFullBatchPerShard() {
+        available.set(100);
+
+        shards.enable(PRODUCT);
+
+        assertTrue(shards.isHot(PRODUCT));
+        assertEquals(32, leased.get());
+        assertEquals(4, meterRegistry.find("yarncraft.inventory.hot_sku.shard.units").gauges().size());
+    }
+
+    @Test
+    void buyersStealFromOtherShardsBeforeGivingUp() {
+        available.set(32);
+        shards.enable(PRODUCT);
+
+        assertTrue(shards.take(PRODUCT, 20)); // more than any single shard holds
+        assertFalse(shards.take(PRODUCT, 13)); // 12 left across the shards
+        shards.rebalanceAll(); // the partial grab goes back into a shard
+        assertTrue(shards.take(PRODUCT, 12));
+    }
+
+    @Test
+    void theRebalancerSettlesSalesAndTopsUpDrainedShards() {
+        available.set(100);
+        shards.enable(PRODUCT);
+        shards.take(PRODUCT, 30);
+
+        shards.rebalanceAll();
+
+        assertEquals(30, sold.get());
+        assertEquals(32, leased.get()); // refilled to a batch per shard
+        assertEquals(38, available.get());
+    }
+
+    @Test
+    void unitsGivenBackAreSoldAgainAfterTheNextRebalance() {
+        available.set(32);
+        shards.enable(PRODUCT);
+        assertTrue(shards.take(PRODUCT, 32));
+        assertFalse(shards.take(PRODUCT, 1));
+
+        shards.giveBack(PRODUCT, 5);
+        shards.rebalanceAll();
+
+        assertEquals(27, sold.get());
+        assertTrue(shards.take(PRODUCT, 5));
+    }
+
+    @Test
+    void disablingSettlesSalesAndReturnsUnsoldUnits() {
+        available.set(100);
+        shards.enable(PRODUCT);
+        shards.take(PRODUCT, 10);
+
+        shards.disable(PRODUCT);
+
+        verify(stockLedger).settleLease(PRODUCT, 10, 22);
+        assertFalse(shards.isHot(PRODUCT));
+        assertFalse(shards.take(PRODUCT, 1));
+        assertEquals(0, leased.get());
+        assertTrue(meterRegistry.find("yarncraft.inventory.hot_sku.shard.units").gauges().isEmpty());
+    }
+
+    @Test
+    void aGiveBackAfterRetirementIsRestoredInTheLedger() {
+        available.set(100);
+        shards.enable(PRODUCT);
+        shards.take(PRODUCT, 3);
+        shards.disable(PRODUCT);
+
+        shards.giveBack(PRODUCT, 3);
+
+        verify(stockLedger).restoreSale(PRODUCT, 3);
+    }
+
+    @Test
+    void concurrentBuyersNeverSellMoreThanWasLeased() throws Exception {
+        available.set(5000);
+        shards.enable(PRODUCT);
+
+        AtomicInteger taken = new AtomicInteger();
+        AtomicBoolean done = new AtomicBoolean();
+        Thread rebalancer = new Thread(() -> {
+            while (!done.get()) {
+                shards.rebalanceAll();
+            }
+        });
+        List<Thread> buyers = new ArrayList<>();
+        for (int t = 0; t < 8; t++) {
+            int quantity = 1 + t % 2;
+            buyers.add(new Thread(() -> {
+                int misses = 0;
+                while (misses < 10_000) {
+                    if (shards.take(PRODUCT, quantity)) {
+                        taken.addAndGet(quantity);
+                    } else {
+                        misses++;
+                    }
+                }
+            }));
+        }
+        rebalancer.start();
+        buyers.forEach(Thread::start);
+        for (Thread buyer : buyers) {
+            buyer.join();
+        }
+        done.set(true);
+        rebalancer.join();
+        shards.disable(PRODUCT);
+
+        assertEquals(taken.get(), sold.get());
+        assertEquals(0, leased.get());
+        assertEquals(5000, sold.get() + available.get());
+    }
+}
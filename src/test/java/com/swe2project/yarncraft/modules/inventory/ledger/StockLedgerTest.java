@@ -0,0 +1,340 @@
+package com.swe2project.yarncraft.modules.inventory.ledger;
+
+import com.swe2project.yarncraft.common.web.ResourceVersions;
+import com.swe2project.yarncraft.modules.inventory.analytics.SalesLeaderboard;
+import com.swe2project.yarncraft.modules.inventory.entity.InventoryItem.StockStatus;
+import com.swe2project.yarncraft.modules.inventory.event.StockStatusChangedEvent;
+import com.swe2project.yarncraft.support.FakeDatabase;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.dao.TransientDataAccessResourceException;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static com.swe2project.yarncraft.support.FakeDatabase.row;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class StockLedgerTest {
+
+    @TempDir
+    Path walDir;
+
+    // product_id -> inventory row, as the flush left it
+    private final Map<Long, Map<String, Object>> inventory = new ConcurrentHashMap<>();
+    private final List<Object> events = new CopyOnWriteArrayList<>();
+    private FakeDatabase db;
+    private VendorDashboardAggregates dashboard;
+    private SalesLeaderboard leaderboard;
+    private StockLedger ledger;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        inventory.put(1L, inventoryRow(1, 10, 0));
+        inventory.put(2L, inventoryRow(2, 5, 0));
+        db = new FakeDatabase()
+                .onQuery("FROM inventory WHERE product_id = ?", params -> {
+                    Map<String, Object> row = inventory.get((Long) params.get(0));
+                    return row == null ? List.of() : List.of(row);
+                })
+                .onUpdate("UPDATE inventory SET stock_quantity", params -> {
+                    Map<String, Object> row = inventory.get((Long) params.get(5));
+                    row.put("stock_quantity", params.get(0));
+                    row.put("reserved_quantity", params.get(1));
+                    row.put("sold_quantity", params.get(2));
+                    return 1;
+                });
+        ledger = newLedger();
+    }
+
+    @AfterEach
+    void tearDown() throws IOException {
+        ledger.shutdown();
+    }
+
+    @Test
+    void deductAllIsAllOrNothing() {
+        IllegalStateException error = assertThrows(IllegalStateException.class,
+                () -> ledger.deductAll(Map.of(1L, 3, 2L, 6)));
+
+        assertTrue(error.getMessage().contains("product 2"));
+        assertEquals(10, ledger.levels(1).getStockQuantity());
+        assertEquals(5, ledger.levels(2).getStockQuantity());
+    }
+
+    @Test
+    void deductAllMovesEveryLine() {
+        List<StockLevels> after = ledger.deductAll(Map.of(1L, 3, 2L, 5));
+
+        assertEquals(2, after.size());
+        assertEquals(7, ledger.levels(1).getStockQuantity());
+        assertEquals(3, ledger.levels(1).getSoldQuantity());
+        assertEquals(0, ledger.levels(2).getStockQuantity());
+    }
+
+    @Test
+    void publishesStatusTransitions() {
+        ledger.deductAll(Map.of(2L, 5));
+
+        StockStatusChangedEvent changed = (StockStatusChangedEvent) events.get(0);
+        assertEquals(2L, changed.getProductId());
+        assertEquals(StockStatus.OUT_OF_STOCK, changed.getStatus());
+    }
+
+    @Test
+    void concurrentOverlappingCartsNeverOversell() throws Exception {
+        inventory.put(1L, inventoryRow(1, 1000, 0));
+        inventory.put(2L, inventoryRow(2, 1000, 0));
+        ledger.shutdown();
+        ledger = newLedger();
+
+        AtomicInteger accepted = new AtomicInteger();
+        CountDownLatch start = new CountDownLatch(1);
+        List<Thread> buyers = new ArrayList<>();
+        for (int t = 0; t < 8; t++) {
+            boolean reversed = t % 2 == 0;
+            buyers.add(new Thread(() -> {
+                await(start);
+                for (int i = 0; i < 200; i++) {
+                    try {
+                        ledger.deductAll(reversed ? Map.of(2L, 1, 1L, 2) : Map.of(1L, 2, 2L, 1));
+                        accepted.incrementAndGet();
+                    } catch (IllegalStateException soldOut) {
+                        // expected once product 1 runs out
+                    }
+                }
+            }));
+        }
+        buyers.forEach(Thread::start);
+        start.countDown();
+        for (Thread buyer : buyers) {
+            buyer.join();
+        }
+
+        assertEquals(500, accepted.get()); // 1000 units of product 1, two per cart
+        assertEquals(0, ledger.levels(1).getStockQuantity());
+        assertEquals(1000, ledger.levels(1).getSoldQuantity());
+        assertEquals(500, ledger.levels(2).getStockQuantity());
+    }
+
+    @Test
+    void revertingAnAdjustmentKeepsTheSalesMadeSince() {
+        AtomicInteger added = new AtomicInteger();
+        ledger.setStock(1, 25, "Recount", added::set);
+        ledger.deduct(1, 4);
+
+        ledger.revertStock(1, added.get());
+
+        assertEquals(15, added.get());
+        assertEquals(6, ledger.levels(1).getStockQuantity()); // 10 before the recount, less the sale
+        assertEquals(4, ledger.levels(1).getSoldQuantity());
+    }
+
+    @Test
+    void flushWritesDirtyRowsBack() {
+        ledger.deductAll(Map.of(1L, 4));
+        ledger.flush();
+
+        assertEquals(6, inventory.get(1L).get("stock_quantity"));
+        assertEquals(4, inventory.get(1L).get("sold_quantity"));
+    }
+
+    @Test
+    void recoversUnflushedMovementsFromTheWal() throws IOException {
+        ledger.deductAll(Map.of(1L, 4));
+        ledger.restock(2L, 7);
+        ledger.syncWal();
+        // crash: no flush, no shutdown
+        assertEquals(10, inventory.get(1L).get("stock_quantity"));
+
+        StockLedger restarted = newLedger();
+        try {
+            assertTrue(restarted.isRecoveredFromWal());
+            assertEquals(6, inventory.get(1L).get("stock_quantity"));
+            assertEquals(12, inventory.get(2L).get("stock_quantity"));
+            assertEquals(6, restarted.levels(1).getStockQuantity());
+        } finally {
+            restarted.shutdown();
+        }
+    }
+
+    @Test
+    void aMovementAfterAFlushSurvivesACrash() throws IOException {
+        ledger.deductAll(Map.of(1L, 1));
+        ledger.flush();
+        ledger.deductAll(Map.of(1L, 2));
+        ledger.syncWal();
+
+        StockLedger restarted = newLedger();
+        try {
+            assertEquals(7, inventory.get(1L).get("stock_quantity"));
+        } finally {
+            restarted.shutdown();
+        }
+    }
+
+    @Test
+    void leasedUnitsComeBackAsSoldAfterACrash() throws IOException {
+        assertEquals(4, ledger.lease(1, 4));
+        ledger.syncWal();
+
+        StockLedger restarted = newLedger();
+        try {
+            assertEquals(6, inventory.get(1L).get("stock_quantity"));
+            assertEquals(4, inventory.get(1L).get("sold_quantity"));
+            assertEquals(6, restarted.levels(1).getAvailableStock());
+        } finally {
+            restarted.shutdown();
+        }
+    }
+
+    @Test
+    void anOpenLeaseOutlivesTheFlushThatDropsItsSegment() throws IOException {
+        ledger.lease(1, 4);
+        ledger.deductAll(Map.of(1L, 1));
+        ledger.flush();
+        assertEquals(9, inventory.get(1L).get("stock_quantity")); // the table gets the exact counters
+
+        StockLedger restarted = newLedger();
+        try {
+            assertEquals(5, inventory.get(1L).get("stock_quantity"));
+            assertEquals(5, inventory.get(1L).get("sold_quantity"));
+        } finally {
+            restarted.shutdown();
+        }
+    }
+
+    @Test
+    void aSettledLeaseIsReplayedExactly() throws IOException {
+        ledger.lease(1, 4);
+        ledger.flush();
+        ledger.settleLease(1, 1, 3);
+        ledger.syncWal();
+
+        StockLedger restarted = newLedger();
+        try {
+            assertEquals(9, inventory.get(1L).get("stock_quantity"));
+            assertEquals(1, inventory.get(1L).get("sold_quantity"));
+        } finally {
+            restarted.shutdown();
+        }
+    }
+
+    @Test
+    void theWalSegmentOutlivesAFailedDashboardWrite() throws IOException {
+        db.onUpdate("INTO vendor_dashboard_stats", params -> {
+            throw new TransientDataAccessResourceException("database down");
+        });
+        dashboard.reset(100L, new long[VendorDashboardAggregates.FIELDS]);
+        ledger.deductAll(Map.of(1L, 4));
+        ledger.flush();
+        assertEquals(6, inventory.get(1L).get("stock_quantity"));
+
+        // crash before the dashboard caught up: the replay tells the restart to rebuild it
+        StockLedger restarted = newLedger();
+        try {
+            assertTrue(restarted.isRecoveredFromWal());
+        } finally {
+            restarted.shutdown();
+        }
+    }
+
+    @Test
+    void aFlushPersistsTheDashboardBeforeDroppingTheWal() throws IOException {
+        dashboard.reset(100L, new long[VendorDashboardAggregates.FIELDS]);
+        ledger.deductAll(Map.of(1L, 4));
+        ledger.flush();
+
+        assertEquals(1, db.committed("INTO vendor_dashboard_stats").size());
+        StockLedger restarted = newLedger();
+        try {
+            assertFalse(restarted.isRecoveredFromWal());
+        } finally {
+            restarted.shutdown();
+        }
+    }
+
+    @Test
+    void whileFrozenWritesDirtyRowsAndHoldsOffMovements() throws Exception {
+        ledger.deductAll(Map.of(1L, 4));
+        CountDownLatch frozen = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        AtomicInteger stockSeenByBuyer = new AtomicInteger(-1);
+
+        Thread freezer = new Thread(() -> ledger.whileFrozen(() -> {
+            frozen.countDown();
+            await(release);
+            return null;
+        }));
+        freezer.start();
+        await(frozen);
+        assertEquals(6, inventory.get(1L).get("stock_quantity")); // written before the action ran
+
+        Thread buyer = new Thread(() -> stockSeenByBuyer.set(ledger.deductAll(Map.of(1L, 1)).get(0).getStockQuantity()));
+        buyer.start();
+        buyer.join(200);
+        assertTrue(buyer.isAlive(), "a movement must wait while the ledger is frozen");
+
+        release.countDown();
+        buyer.join();
+        freezer.join();
+        assertEquals(5, stockSeenByBuyer.get());
+    }
+
+    @Test
+    void theLeaderboardReseedReadsTheFlushedSoldCounters() {
+        List<Object> soldAtSeed = new ArrayList<>();
+        db.onQuery("ORDER BY sold_quantity DESC LIMIT", params -> {
+            soldAtSeed.add(inventory.get(1L).get("sold_quantity"));
+            return List.of(row("product_id", 1L, "sold_quantity", 4L));
+        });
+        ledger.deductAll(Map.of(1L, 4));
+
+        ledger.reseedLeaderboard();
+
+        assertEquals(List.of(4), soldAtSeed);
+        assertEquals(List.of(1L), leaderboard.top(null, null, 0, 10));
+    }
+
+    private StockLedger newLedger() throws IOException {
+        ResourceVersions versions = new ResourceVersions();
+        leaderboard = new SalesLeaderboard(db.jdbcTemplate());
+        ReflectionTestUtils.setField(leaderboard, "capacity", 10);
+        dashboard = new VendorDashboardAggregates(db.jdbcTemplate());
+        StockLedger created = new StockLedger(db.jdbcTemplate(), db.transactionTemplate(),
+                new StockMovementLog(db.jdbcTemplate()), events::add, dashboard, leaderboard, versions);
+        ReflectionTestUtils.setField(created, "walDirectory", walDir.toString());
+        ReflectionTestUtils.setField(created, "walBufferBytes", 4096);
+        created.recover();
+        return created;
+    }
+
+    private static Map<String, Object> inventoryRow(long productId, int stock, int reserved) {
+        return new ConcurrentHashMap<>(row("product_id", productId, "vendor_id", 100L, "stock_quantity", stock,
+                "reserved_quantity", reserved, "sold_quantity", 0, "reorder_level", 2, "is_active", true,
+                "unit_cost", new BigDecimal("1.00"), "unit_price", new BigDecimal("2.50"), "category", "YARN"));
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,94 @@
+package com.swe2project.yarncraft.modules.inventory.ledger;
+
+import com.swe2project.yarncraft.modules.inventory.entity.StockMovement.MovementType;
+import com.swe2project.yarncraft.support.FakeDatabase;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.TransientDataAccessResourceException;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static com.swe2project.yarncraft.support.FakeDatabase.row;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class StockMovementLogTest {
+
+    private final FakeDatabase db = new FakeDatabase();
+    private final StockMovementLog movementLog = new StockMovementLog(db.jdbcTemplate());
+
+    @AfterEach
+    void tearDown() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    void flushInsertsQueuedMovementsInOrderWithTheirDeltas() {
+        movementLog.record(MovementType.RESTOCK, levels(1, 10, 0, 0), levels(1, 15, 0, 0), null);
+        movementLog.record(MovementType.CONFIRM, levels(1, 15, 2, 0), levels(1, 13, 0, 2), null);
+
+        movementLog.flush();
+
+        List<List<Object>> inserted = db.committed("INSERT INTO stock_movements");
+        assertEquals(2, inserted.size());
+        // product, type, stock/reserved/sold delta, stock/reserved/sold after, actor, reason, at, product
+        assertEquals(List.of(1L, "RESTOCK", 5, 0, 0, 15, 0, 0, "system"), inserted.get(0).subList(0, 9));
+        assertEquals(List.of(1L, "CONFIRM", -2, -2, 2, 13, 0, 2, "system"), inserted.get(1).subList(0, 9));
+        assertNull(inserted.get(0).get(9));
+    }
+
+    @Test
+    void recordsTheAuthenticatedUserAndTheReason() {
+        SecurityContextHolder.getContext().setAuthentication(
+                new UsernamePasswordAuthenticationToken("admin@example.com", null, List.of()));
+
+        movementLog.record(MovementType.ADJUST, levels(3, 10, 0, 0), levels(3, 8, 0, 0), "recount");
+        movementLog.flush();
+
+        List<Object> inserted = db.committed("INSERT INTO stock_movements").get(0);
+        assertEquals("admin@example.com", inserted.get(8));
+        assertEquals("recount", inserted.get(9));
+    }
+
+    @Test
+    void aFailedBatchIsRetriedBeforeNewerMovements() {
+        AtomicBoolean down = new AtomicBoolean(true);
+        db.onUpdate("INSERT INTO stock_movements", params -> {
+            if (down.get()) {
+                throw new TransientDataAccessResourceException("database down");
+            }
+            return 1;
+        });
+        movementLog.record(MovementType.SALE, levels(1, 10, 0, 0), levels(1, 9, 0, 1), null);
+        movementLog.flush();
+
+        down.set(false);
+        movementLog.record(MovementType.SALE, levels(1, 9, 0, 1), levels(1, 8, 0, 2), null);
+        movementLog.flush();
+
+        List<List<Object>> inserted = db.committed("INSERT INTO stock_movements");
+        assertEquals(3, inserted.size()); // the failed attempt, then both in order
+        assertEquals(9, inserted.get(1).get(5));
+        assertEquals(8, inserted.get(2).get(5));
+
+        movementLog.flush();
+        assertEquals(3, db.committed("INSERT INTO stock_movements").size());
+    }
+
+    @Test
+    void snapshotsStartAfterTheLastSnapshottedMovement() {
+        db.onQuery("FROM stock_snapshots", params -> List.of(row("high_water", 17L)));
+
+        movementLog.snapshot();
+
+        assertEquals(List.of(List.of(17L)), db.committed("INSERT INTO stock_snapshots"));
+    }
+
+    private static StockLevels levels(long productId, int stock, int reserved, int sold) {
+        return new StockLevels(productId, stock, reserved, sold, 0, 0);
+    }
+}
@@ -0,0 +1,172 @@
+package com.swe2project.yarncraft.modules.inventory.ledger;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class StockWriteAheadLogTest {
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void replaysTheLastRecordOfEachProductFromSealedSegments() throws IOException {
+        try (StockWriteAheadLog wal = new StockWriteAheadLog(dir, 4096)) {
+            wal.append(levels(1, 10));
+            wal.append(levels(2, 20));
+            wal.rotate();
+            wal.append(levels(1, 9));
+            wal.sync();
+        }
+
+        // A new log opens a fresh segment, so everything written before is sealed
+        try (StockWriteAheadLog wal = new StockWriteAheadLog(dir, 4096)) {
+            Map<Long, StockLevels> replayed = wal.replaySealedSegments();
+            assertEquals(2, replayed.size());
+            assertEquals(9, replayed.get(1L).getStockQuantity());
+            assertEquals(20, replayed.get(2L).getStockQuantity());
+        }
+    }
+
+    @Test
+    void ignoresTheSegmentStillBeingWritten() throws IOException {
+        try (StockWriteAheadLog wal = new StockWriteAheadLog(dir, 4096)) {
+            wal.append(levels(1, 10));
+            wal.sync();
+            assertTrue(wal.replaySealedSegments().isEmpty());
+        }
+    }
+
+    @Test
+    void stopsAtATornTailRecord() throws IOException {
+        try (StockWriteAheadLog wal = new StockWriteAheadLog(dir, 4096)) {
+            wal.append(levels(1, 10));
+            wal.append(levels(1, 11));
+        }
+        Path segment = segments().get(0);
+        try (FileChannel channel = FileChannel.open(segment, StandardOpenOption.WRITE)) {
+            channel.truncate(StockWriteAheadLog.RECORD_SIZE + 7); // crash halfway through the second record
+        }
+
+        try (StockWriteAheadLog wal = new StockWriteAheadLog(dir, 4096)) {
+            assertEquals(10, wal.replaySealedSegments().get(1L).getStockQuantity());
+        }
+    }
+
+    @Test
+    void stopsAtACorruptRecord() throws IOException {
+        try (StockWriteAheadLog wal = new StockWriteAheadLog(dir, 4096)) {
+            wal.append(levels(1, 10));
+            wal.append(levels(1, 11));
+        }
+        Path segment = segments().get(0);
+        byte[] bytes = Files.readAllBytes(segment);
+        bytes[StockWriteAheadLog.RECORD_SIZE + 9] ^= 0x7F; // flip bits in the second record's stock
+        Files.write(segment, bytes);
+
+        try (StockWriteAheadLog wal = new StockWriteAheadLog(dir, 4096)) {
+            assertEquals(10, wal.replaySealedSegments().get(1L).getStockQuantity());
+        }
+    }
+
+    @Test
+    void deletesOnlySealedSegmentsUpToTheGivenOne() throws IOException {
+        try (StockWriteAheadLog wal = new StockWriteAheadLog(dir, 4096)) {
+            wal.append(levels(1, 10));
+            long first = wal.rotate();
+            wal.append(levels(1, 9));
+            long second = wal.rotate();
+            wal.append(levels(1, 8));
+
+            wal.deleteSegmentsUpTo(first);
+            assertEquals(2, segments().size());
+
+            wal.deleteSegmentsUpTo(second + 10); // never the current segment
+            assertEquals(1, segments().size());
+            assertEquals(wal.currentSegment(), second + 1);
+        }
+    }
+
+    @Test
+    void aFullBufferIsWrittenOutByTheAppender() throws IOException {
+        // The smallest buffer holds 16 records
+        try (StockWriteAheadLog wal = new StockWriteAheadLog(dir, 1)) {
+            for (int i = 1; i <= 1000; i++) {
+                wal.append(levels(i, i));
+            }
+        }
+        try (StockWriteAheadLog wal = new StockWriteAheadLog(dir, 1)) {
+            Map<Long, StockLevels> replayed = wal.replaySealedSegments();
+            assertEquals(1000, replayed.size());
+            assertEquals(1000, replayed.get(1000L).getStockQuantity());
+        }
+    }
+
+    @Test
+    void concurrentSyncsKeepEachProductsRecordsInOrder() throws Exception {
+        int products = 8;
+        int perProduct = 5000;
+        AtomicBoolean done = new AtomicBoolean();
+        try (StockWriteAheadLog wal = new StockWriteAheadLog(dir, 1024)) {
+            Thread syncer = new Thread(() -> {
+                while (!done.get()) {
+                    wal.sync();
+                }
+            });
+            Thread rotator = new Thread(() -> {
+                while (!done.get()) {
+                    wal.rotate();
+                    Thread.onSpinWait();
+                }
+            });
+            List<Thread> writers = new ArrayList<>();
+            for (int p = 1; p <= products; p++) {
+                long productId = p;
+                writers.add(new Thread(() -> {
+                    for (int stock = 1; stock <= perProduct; stock++) {
+                        wal.append(levels(productId, stock));
+                    }
+                }));
+            }
+            syncer.start();
+            rotator.start();
+            writers.forEach(Thread::start);
+            for (Thread writer : writers) {
+                writer.join();
+            }
+            done.set(true);
+            syncer.join();
+            rotator.join();
+        }
+
+        try (StockWriteAheadLog wal = new StockWriteAheadLog(dir, 1024)) {
+            Map<Long, StockLevels> replayed = wal.replaySealedSegments();
+            for (long p = 1; p <= products; p++) {
+                assertEquals(perProduct, replayed.get(p).getStockQuantity(), "product " + p);
+            }
+        }
+    }
+
+    private List<Path> segments() throws IOException {
+        try (Stream<Path> files = Files.list(dir)) {
+            return files.sorted().toList();
+        }
+    }
+
+    private static StockLevels levels(long productId, int stock) {
+        return new StockLevels(productId, stock, 0, 0, 0, 0);
+    }
+}
@@ -0,0 +1,90 @@
+package com.swe2project.yarncraft.modules.inventory.ledger;
+
+import com.swe2project.yarncraft.support.FakeDatabase;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.TransientDataAccessResourceException;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static com.swe2project.yarncraft.modules.inventory.ledger.VendorDashboardAggregates.FIELDS;
+import static com.swe2project.yarncraft.modules.inventory.ledger.VendorDashboardAggregates.SOLD;
+import static com.swe2project.yarncraft.modules.inventory.ledger.VendorDashboardAggregates.STOCK;
+import static com.swe2project.yarncraft.modules.inventory.ledger.VendorDashboardAggregates.VALUE_CENTS;
+import static com.swe2project.yarncraft.support.FakeDatabase.row;
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class VendorDashboardAggregatesTest {
+
+    private final FakeDatabase db = new FakeDatabase();
+    private final VendorDashboardAggregates aggregates = new VendorDashboardAggregates(db.jdbcTemplate());
+
+    @Test
+    void deltasAloneAreNotATotal() {
+        aggregates.apply(7L, vector(STOCK, 0), vector(STOCK, 5));
+
+        assertTrue(aggregates.current(7L).isEmpty());
+        assertTrue(aggregates.persist());
+        assertTrue(db.executed("vendor_dashboard_stats").isEmpty());
+    }
+
+    @Test
+    void resetSeedsAndReportsTheDrift() {
+        aggregates.apply(7L, vector(STOCK, 0), vector(STOCK, 5));
+
+        long[] drift = aggregates.reset(7L, vector(STOCK, 8));
+
+        assertArrayEquals(vector(STOCK, 3), drift);
+        assertEquals(8, aggregates.current(7L).orElseThrow()[STOCK]);
+        aggregates.apply(7L, vector(STOCK, 8), vector(STOCK, 6));
+        assertEquals(6, aggregates.current(7L).orElseThrow()[STOCK]);
+    }
+
+    @Test
+    void loadsPersistedTotalsUnderEarlierDeltas() {
+        db.onQuery("FROM vendor_dashboard_stats", params -> List.of(row("vendor_id", 7L,
+                "total_products", 2L, "active_products", 2L, "low_stock_count", 0L, "out_of_stock_count", 0L,
+                "total_stock", 20L, "total_reserved", 0L, "total_sold", 3L,
+                "total_inventory_value", new BigDecimal("12.50"), "potential_revenue", new BigDecimal("40.00"))));
+        aggregates.apply(7L, vector(SOLD, 0), vector(SOLD, 1));
+
+        aggregates.loadPersisted();
+
+        long[] totals = aggregates.current(7L).orElseThrow();
+        assertEquals(4, totals[SOLD]);
+        assertEquals(1250, totals[VALUE_CENTS]);
+    }
+
+    @Test
+    void aFailedWriteIsReportedAndRetried() {
+        AtomicBoolean down = new AtomicBoolean(true);
+        db.onUpdate("INTO vendor_dashboard_stats", params -> {
+            if (down.get()) {
+                throw new TransientDataAccessResourceException("database down");
+            }
+            return 1;
+        });
+        aggregates.reset(7L, vector(STOCK, 8));
+
+        assertFalse(aggregates.persist());
+        down.set(false);
+        assertTrue(aggregates.persist());
+
+        List<List<Object>> writes = db.executed("INTO vendor_dashboard_stats");
+        assertEquals(2, writes.size());
+        assertEquals(8L, writes.get(1).get(5));
+        assertTrue(aggregates.persist());
+        assertEquals(2, db.executed("INTO vendor_dashboard_stats").size()); // nothing dirty any more
+    }
+
+    private static long[] vector(int field, long value) {
+        long[] vector = new long[FIELDS];
+        vector[field] = value;
+        return vector;
+    }
+}
@@ -0,0 +1,99 @@
+package com.swe2project.yarncraft.modules.inventory.search;
+
+import com.swe2project.yarncraft.modules.inventory.entity.InventoryItem;
+import com.swe2project.yarncraft.modules.user.entity.User;
+import com.swe2project.yarncraft.support.FakeDatabase;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+
+import static com.swe2project.yarncraft.support.FakeDatabase.row;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class InventorySearchIndexTest {
+
+    private InventorySearchIndex index;
+
+    @BeforeEach
+    void setUp() {
+        List<Map<String, Object>> rows = List.of(
+                document(1, 7, "Merino Wool Skein", "MW-100", "YARN", true),
+                document(2, 7, "Bamboo Needles", "BN-8", "TOOLS", true),
+                document(3, 8, "Chunky Wool Blanket Kit", "KIT-3", "KITS", true),
+                document(4, 8, "Wool Wash", "WW-1", "CARE", false),
+                document(5, 7, "Alpaca Wool", "AW-2", "YARN", true),
+                document(6, 9, "abc bcd", null, null, true));
+        FakeDatabase db = new FakeDatabase().onQuery("FROM inventory", params -> rows);
+        index = new InventorySearchIndex(db.jdbcTemplate());
+        index.rebuild();
+    }
+
+    @Test
+    void matchesASubstringOfAnyFieldIgnoringCase() {
+        assertEquals(List.of(1L, 3L, 5L), search("WOOL"));
+        assertEquals(List.of(2L), search("bn-8"));
+        assertEquals(List.of(3L), search("kits"));
+        assertEquals(List.of(), search("cashmere"));
+    }
+
+    @Test
+    void trigramsThatDoNotFormTheTermAreNotAMatch() {
+        assertEquals(List.of(), search("abcd")); // "abc" and "bcd" are both there, but apart
+        assertEquals(List.of(6L), search("c bc"));
+    }
+
+    @Test
+    void nameOnlySkipsSkuAndCategory() {
+        assertEquals(List.of(1L, 5L), index.search("yarn", false, null, null, null, true, 10));
+        assertEquals(List.of(), index.search("yarn", true, null, null, null, true, 10));
+    }
+
+    @Test
+    void filtersByVendorAndCategoryAndHidesInactiveRows() {
+        assertEquals(List.of(1L, 5L), index.search("wool", false, 7L, null, null, true, 10));
+        assertEquals(List.of(3L), index.search("wool", false, 8L, null, null, true, 10)); // 4 is inactive
+        assertEquals(List.of(1L, 5L), index.search(null, false, null, "YARN", null, true, 10));
+        assertEquals(List.of(), index.search(null, false, 42L, null, null, true, 10));
+    }
+
+    @Test
+    void pagesPastTheCursorInEitherDirection() {
+        assertEquals(List.of(1L, 3L), index.search("wool", false, null, null, null, true, 2));
+        assertEquals(List.of(5L), index.search("wool", false, null, null, 3L, true, 2));
+        assertEquals(List.of(5L, 3L), index.search("wool", false, null, null, null, false, 2));
+        assertEquals(List.of(1L), index.search("wool", false, null, null, 3L, false, 2));
+    }
+
+    @Test
+    void termsShorterThanATrigramAreCheckedRowByRow() {
+        assertEquals(List.of(1L, 2L, 3L, 5L), search("oo")); // Bamboo too
+        assertEquals(List.of(2L), search("bn"));
+    }
+
+    @Test
+    void reindexingARowReplacesItsTrigrams() {
+        User vendor = User.builder().id(7L).build();
+        index.index(InventoryItem.builder().id(1L).vendor(vendor).productName("Cotton Skein")
+                .productSku("CT-1").productCategory("YARN").isActive(true).build());
+
+        assertEquals(List.of(3L, 5L), search("wool"));
+        assertEquals(List.of(1L), search("cotton"));
+
+        index.remove(1L);
+        assertEquals(List.of(), search("cotton"));
+        assertEquals(List.of(5L), index.search(null, false, null, "YARN", null, true, 10));
+    }
+
+    private List<Long> search(String term) {
+        return index.search(term, false, null, null, null, true, 10);
+    }
+
+    private static Map<String, Object> document(long id, long vendorId, String name, String sku, String category,
+                                                boolean active) {
+        return row("id", id, "vendor_id", vendorId, "product_name", name, "product_sku", sku,
+                "product_category", category, "is_active", active);
+    }
+}
@@ -0,0 +1,141 @@
+package com.swe2project.yarncraft.modules.inventory.service;
+
+import com.swe2project.yarncraft.modules.inventory.ledger.StockLedger;
+import com.swe2project.yarncraft.modules.inventory.ledger.StockLevels;
+import com.swe2project.yarncraft.modules.inventory.service.BulkStockService.Format;
+import com.swe2project.yarncraft.modules.user.entity.Role;
+import com.swe2project.yarncraft.modules.user.entity.User;
+import com.swe2project.yarncraft.support.FakeDatabase;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import tools.jackson.databind.JsonNode;
+import tools.jackson.databind.ObjectMapper;
+
+import static com.swe2project.yarncraft.support.FakeDatabase.row;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class BulkStockServiceTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final StockLedger stockLedger = mock(StockLedger.class);
+    private final FakeDatabase db = new FakeDatabase();
+    private final BulkStockService service = new BulkStockService(stockLedger, db.jdbcTemplate(), objectMapper);
+
+    // product 1 and 2 belong to vendor 7, product 3 to vendor 8 and needs approval to restock
+    private final Map<Long, Map<String, Object>> owners = Map.of(
+            1L, row("product_id", 1L, "vendor_id", 7L, "requires_approval", false),
+            2L, row("product_id", 2L, "vendor_id", 7L, "requires_approval", false),
+            3L, row("product_id", 3L, "vendor_id", 8L, "requires_approval", true));
+
+    private final User admin = User.builder().id(1L).email("admin@example.com").role(Role.ADMIN).build();
+    private final User vendor = User.builder().id(7L).email("v@example.com").role(Role.VENDOR).isApproved(true).build();
+
+    @BeforeEach
+    void setUp() {
+        db.onQuery("FROM inventory WHERE product_id IN", params -> {
+            List<Map<String, Object>> rows = new ArrayList<>();
+            for (Object productId : params) {
+                if (owners.containsKey(productId)) {
+                    rows.add(owners.get(productId));
+                }
+            }
+            return rows;
+        });
+        when(stockLedger.restock(1L, 5)).thenReturn(new StockLevels(1L, 15, 2, 0, 0, 0));
+        when(stockLedger.setStock(2L, 40, "recount, aisle 3")).thenReturn(new StockLevels(2L, 40, 0, 0, 0, 0));
+    }
+
+    @Test
+    void appliesCsvLinesAndStreamsResultsInInputOrder() throws IOException {
+        List<JsonNode> results = run(Format.CSV, admin,
+                "op,productId,quantity,reason",
+                "RESTOCK,1,5",
+                "",
+                "adjust,2,40,recount, aisle 3");
+
+        assertEquals(2, results.size());
+        assertEquals(2, results.get(0).path("line").asInt());
+        assertEquals(13, results.get(0).path("availableStock").asInt());
+        assertEquals(4, results.get(1).path("line").asInt());
+        assertEquals(40, results.get(1).path("stockQuantity").asInt());
+        assertEquals(1, db.executed("FROM inventory WHERE product_id IN").size()); // one lookup per chunk
+    }
+
+    @Test
+    void badLinesFailAloneWithoutStoppingTheUpload() throws IOException {
+        List<JsonNode> results = run(Format.NDJSON, admin,
+                "{\"op\":\"RESTOCK\",\"productId\":1,\"quantity\":5}",
+                "not json",
+                "{\"op\":\"RESTOCK\",\"productId\":1}",
+                "{\"op\":\"RESTOCK\",\"productId\":99,\"quantity\":5}",
+                "{\"op\":\"RESTOCK\",\"productId\":1,\"quantity\":0}");
+
+        assertTrue(results.get(0).path("success").asBoolean());
+        assertTrue(results.get(1).path("error").asString().startsWith("Unreadable line"));
+        assertEquals("op, productId and quantity are required", results.get(2).path("error").asString());
+        assertEquals("Inventory not found for product: 99", results.get(3).path("error").asString());
+        assertEquals("Restock quantity must be positive", results.get(4).path("error").asString());
+    }
+
+    @Test
+    void vendorsOnlyRestockTheirOwnUnapprovedInventory() throws IOException {
+        List<JsonNode> results = run(Format.CSV, vendor,
+                "RESTOCK,1,5",
+                "RESTOCK,3,5",
+                "ADJUST,2,40");
+
+        assertTrue(results.get(0).path("success").asBoolean());
+        assertEquals("You don't have permission to modify this inventory", results.get(1).path("error").asString());
+        assertEquals("Only admins can manually adjust stock", results.get(2).path("error").asString());
+        verify(stockLedger, never()).restock(3L, 5);
+    }
+
+    @Test
+    void restockingInventoryThatRequiresApprovalIsAdminOnly() throws IOException {
+        User otherVendor = User.builder().id(8L).email("w@example.com").role(Role.VENDOR).isApproved(true).build();
+
+        List<JsonNode> results = run(Format.CSV, otherVendor, "RESTOCK,3,5");
+
+        assertFalse(results.get(0).path("success").asBoolean());
+        assertEquals("This inventory requires admin approval for restocking", results.get(0).path("error").asString());
+    }
+
+    @Test
+    void largeUploadsAreAppliedInChunks() throws IOException {
+        String[] lines = new String[2500];
+        for (int i = 0; i < lines.length; i++) {
+            lines[i] = "RESTOCK,1,5";
+        }
+
+        assertEquals(2500, run(Format.CSV, admin, lines).size());
+        assertEquals(3, db.executed("FROM inventory WHERE product_id IN").size());
+    }
+
+    private List<JsonNode> run(Format format, User user, String... lines) throws IOException {
+        byte[] body = String.join("\n", lines).getBytes(StandardCharsets.UTF_8);
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        service.process(new ByteArrayInputStream(body), format, user, out);
+
+        List<JsonNode> results = new ArrayList<>();
+        for (String line : out.toString(StandardCharsets.UTF_8).split("\n")) {
+            results.add(objectMapper.readTree(line));
+        }
+        return results;
+    }
+}
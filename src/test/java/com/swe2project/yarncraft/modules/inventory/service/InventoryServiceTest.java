@@ -0,0 +1,186 @@
+package com.swe2project.yarncraft.modules.inventory.service;
+
+import com.swe2project.yarncraft.common.dto.CursorPage;
+import com.swe2project.yarncraft.common.util.CursorCodec;
+import com.swe2project.yarncraft.common.web.ResourceVersions;
+import com.swe2project.yarncraft.modules.inventory.analytics.SalesLeaderboard;
+import com.swe2project.yarncraft.modules.inventory.dto.InventoryPageRequest;
+import com.swe2project.yarncraft.modules.inventory.dto.InventorySort;
+import com.swe2project.yarncraft.modules.inventory.entity.InventoryItem;
+import com.swe2project.yarncraft.modules.inventory.ledger.HotStockShards;
+import com.swe2project.yarncraft.modules.inventory.ledger.StockLedger;
+import com.swe2project.yarncraft.modules.inventory.ledger.StockLevels;
+import com.swe2project.yarncraft.modules.inventory.repository.InventoryRepository;
+import com.swe2project.yarncraft.modules.inventory.search.InventorySearchIndex;
+import com.swe2project.yarncraft.modules.user.entity.Role;
+import com.swe2project.yarncraft.modules.user.entity.User;
+import com.swe2project.yarncraft.modules.user.repository.UserRepository;
+import com.swe2project.yarncraft.support.FakeDatabase;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.function.IntConsumer;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class InventoryServiceTest {
+
+    private final InventoryRepository inventoryRepository = mock(InventoryRepository.class);
+    private final StockLedger stockLedger = mock(StockLedger.class);
+    private final HotStockShards hotStockShards = mock(HotStockShards.class);
+    private final InventoryService service = new InventoryService(inventoryRepository, mock(UserRepository.class),
+            stockLedger, hotStockShards, mock(VendorDashboardService.class),
+            mock(SalesLeaderboard.class), mock(InventorySearchIndex.class), new ResourceVersions());
+    private final FakeDatabase database = new FakeDatabase();
+
+    private final User admin = User.builder().id(1L).role(Role.ADMIN).build();
+    private final List<String> calls = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        doAnswer(invocation -> calls.add("flush")).when(stockLedger).flush();
+        doAnswer(invocation -> {
+            calls.add("query");
+            return new ArrayList<>(List.of(item(1, 4), item(2, 6), item(3, 9)));
+        }).when(inventoryRepository).findBy(any(Specification.class), any());
+        when(stockLedger.peek(anyLong())).thenReturn(Optional.empty());
+    }
+
+    @Test
+    void sortingByAStockColumnFlushesTheLedgerFirst() {
+        service.getActiveInventory(request(InventorySort.SOLD, null));
+
+        assertEquals(List.of("flush", "query"), calls);
+    }
+
+    @Test
+    void stockFiltersFlushTheLedgerFirst() {
+        service.getLowStockItems(admin, request(InventorySort.ID, null));
+        service.getOutOfStockItems(admin, request(InventorySort.ID, null));
+
+        assertEquals(List.of("flush", "query", "flush", "query"), calls);
+    }
+
+    @Test
+    void otherPagesDoNotFlush() {
+        service.getActiveInventory(request(InventorySort.NAME, null));
+
+        verify(stockLedger, never()).flush();
+    }
+
+    @Test
+    void theCursorIsTakenFromTheStoredRowNotTheLiveCounters() {
+        when(stockLedger.peek(2L)).thenReturn(Optional.of(new StockLevels(2, 1, 0, 0, 0, 0)));
+
+        CursorPage<InventoryItem> page = service.getActiveInventory(request(InventorySort.STOCK, null));
+
+        assertEquals(2, page.getItems().size());
+        assertEquals(1, page.getItems().get(1).getStockQuantity()); // live
+        assertEquals(List.of("STOCK", "ASC", "6", "2"), List.of(CursorCodec.decode(page.getNextCursor(), 4)));
+    }
+
+    @Test
+    void aCursorFromAnotherSortIsRejected() {
+        String cursor = CursorCodec.encode("NAME", "ASC", "Wool", "2");
+
+        assertThrows(IllegalArgumentException.class,
+                () -> service.getActiveInventory(request(InventorySort.STOCK, cursor)));
+    }
+
+    @Test
+    void aDeleteRolledBackByItsCallerLeavesTheLedgerIntact() {
+        when(inventoryRepository.findByProductId(5L)).thenReturn(Optional.of(item(5, 3)));
+
+        // ProductService.deleteProduct: the product row is still referenced by order_items
+        assertThrows(DataIntegrityViolationException.class, () ->
+                database.transactionTemplate().executeWithoutResult(status -> {
+                    service.deleteInventoryByProductId(5L);
+                    throw new DataIntegrityViolationException("fk_order_items_product");
+                }));
+
+        verify(stockLedger, never()).evict(anyLong());
+        verify(hotStockShards, never()).disable(anyLong());
+    }
+
+    @Test
+    void aCommittedDeleteDropsTheProductFromTheLedger() {
+        when(inventoryRepository.findByProductId(5L)).thenReturn(Optional.of(item(5, 3)));
+
+        database.transactionTemplate().executeWithoutResult(status -> service.deleteInventoryByProductId(5L));
+
+        verify(hotStockShards).disable(5L);
+        verify(stockLedger).evict(5L);
+    }
+
+    @Test
+    void aRolledBackRestockIsTakenBackOut() {
+        when(inventoryRepository.findByProductId(5L)).thenReturn(Optional.of(item(5, 3)));
+        when(stockLedger.restock(5L, 10)).thenReturn(new StockLevels(5, 13, 0, 0, 0, 0));
+        when(inventoryRepository.save(any(InventoryItem.class)))
+                .thenThrow(new DataIntegrityViolationException("Data too long for 'notes'"));
+
+        assertThrows(DataIntegrityViolationException.class, () ->
+                database.transactionTemplate().executeWithoutResult(status ->
+                        service.restockInventory(5L, 10, admin)));
+
+        verify(stockLedger).revertStock(5L, 10);
+    }
+
+    @Test
+    void aRolledBackAdjustmentMovesStockBackByWhatItChanged() {
+        when(inventoryRepository.findByProductId(5L)).thenReturn(Optional.of(item(5, 12)));
+        doAnswer(invocation -> {
+            IntConsumer added = invocation.getArgument(3);
+            added.accept(-4); // counted 8, the ledger held 12
+            return new StockLevels(5, 8, 0, 0, 0, 0);
+        }).when(stockLedger).setStock(anyLong(), anyInt(), anyString(), any());
+        when(inventoryRepository.save(any(InventoryItem.class)))
+                .thenThrow(new DataIntegrityViolationException("Data too long for 'notes'"));
+
+        assertThrows(DataIntegrityViolationException.class, () ->
+                database.transactionTemplate().executeWithoutResult(status ->
+                        service.adjustStock(5L, 8, "Recount", admin)));
+
+        verify(stockLedger).revertStock(5L, -4);
+    }
+
+    @Test
+    void aCommittedRestockIsKept() {
+        when(inventoryRepository.findByProductId(5L)).thenReturn(Optional.of(item(5, 3)));
+        when(stockLedger.restock(5L, 10)).thenReturn(new StockLevels(5, 13, 0, 0, 0, 0));
+        when(inventoryRepository.save(any(InventoryItem.class))).thenAnswer(invocation -> invocation.getArgument(0));
+
+        database.transactionTemplate().executeWithoutResult(status -> service.restockInventory(5L, 10, admin));
+
+        verify(stockLedger, never()).revertStock(anyLong(), anyInt());
+    }
+
+    private static InventoryPageRequest request(InventorySort sort, String cursor) {
+        InventoryPageRequest request = new InventoryPageRequest();
+        request.setSort(sort);
+        request.setSize(2);
+        request.setCursor(cursor);
+        return request;
+    }
+
+    private static InventoryItem item(long id, int stock) {
+        return InventoryItem.builder().id(id).productId(id).productName("Yarn " + id)
+                .stockQuantity(stock).build();
+    }
+}
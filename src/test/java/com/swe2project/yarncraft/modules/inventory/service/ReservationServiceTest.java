@@ -0,0 +1,132 @@
+package com.swe2project.yarncraft.modules.inventory.service;
+
+import com.swe2project.yarncraft.modules.inventory.dto.ReservationRequest;
+import com.swe2project.yarncraft.modules.inventory.ledger.StockLedger;
+import com.swe2project.yarncraft.support.FakeDatabase;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.sql.Timestamp;
+import java.util.List;
+import java.util.Map;
+
+import static com.swe2project.yarncraft.support.FakeDatabase.row;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+
+class ReservationServiceTest {
+
+    private final StockLedger stockLedger = mock(StockLedger.class);
+    private FakeDatabase db;
+    private ReservationService reservations;
+
+    @BeforeEach
+    void setUp() {
+        db = new FakeDatabase();
+        reservations = newService();
+    }
+
+    @Test
+    void reserveHoldsEveryLineAndPersistsTheHold() {
+        String id = reservations.reserve(request(line(2L, 1), line(1L, 2), line(2L, 3)), "a@example.com")
+                .getReservationId();
+
+        verify(stockLedger).reserveAll(Map.of(1L, 2, 2L, 4));
+        assertEquals(2, db.committed("INSERT INTO stock_reservations").size());
+        assertEquals(id, db.committed("INSERT INTO stock_reservations").get(0).get(0));
+    }
+
+    @Test
+    void onlyTheOwnerCanConfirm() {
+        String id = reservations.reserve(request(line(1L, 1)), "a@example.com").getReservationId();
+
+        assertThrows(SecurityException.class, () -> reservations.confirm(id, "b@example.com"));
+        assertEquals(Map.of(1L, 1), reservations.confirm(id, "a@example.com"));
+        assertThrows(IllegalStateException.class, () -> reservations.confirm(id, "a@example.com"));
+    }
+
+    @Test
+    void aRolledBackConfirmPutsTheHoldBack() {
+        String id = reservations.reserve(request(line(1L, 2)), "a@example.com").getReservationId();
+
+        db.transactionTemplate().executeWithoutResult(status -> {
+            reservations.confirm(id, "a@example.com");
+            status.setRollbackOnly();
+        });
+
+        verify(stockLedger).unconfirmAll(Map.of(1L, 2));
+        // the row survives through the rollback alone, nothing deletes it afterwards
+        assertTrue(db.committed("DELETE FROM stock_reservations").isEmpty());
+        assertEquals(1, db.executed("DELETE FROM stock_reservations").size());
+        // pending again, so it can still be confirmed
+        assertEquals(Map.of(1L, 2), reservations.confirm(id, "a@example.com"));
+    }
+
+    @Test
+    void aCommittedConfirmDeletesTheRow() {
+        String id = reservations.reserve(request(line(1L, 2)), "a@example.com").getReservationId();
+
+        db.transactionTemplate().executeWithoutResult(status -> reservations.confirm(id, "a@example.com"));
+
+        verify(stockLedger).confirmAll(Map.of(1L, 2));
+        verify(stockLedger, never()).unconfirmAll(Map.of(1L, 2));
+        assertEquals(1, db.committed("DELETE FROM stock_reservations").size());
+    }
+
+    @Test
+    void holdsThatExpiredWhileDownAreReleasedOnStartup() {
+        long past = System.currentTimeMillis() - 60_000;
+        long future = System.currentTimeMillis() + 600_000;
+        db.onQuery("FROM stock_reservations", params -> List.of(
+                row("reservation_id", "old", "product_id", 1L, "quantity", 2,
+                        "owner_email", "a@example.com", "expires_at", new Timestamp(past)),
+                row("reservation_id", "old", "product_id", 2L, "quantity", 1,
+                        "owner_email", "a@example.com", "expires_at", new Timestamp(past)),
+                row("reservation_id", "live", "product_id", 1L, "quantity", 5,
+                        "owner_email", "a@example.com", "expires_at", new Timestamp(future))));
+
+        ReservationService restarted = newService();
+
+        verify(stockLedger).release(1L, 2);
+        verify(stockLedger).release(2L, 1);
+        assertEquals(List.of(List.of("old")), db.committed("DELETE FROM stock_reservations"));
+        assertEquals(Map.of(1L, 5), restarted.confirm("live", "a@example.com"));
+    }
+
+    @Test
+    void rejectsEmptyRequestsAndOutOfRangeTtls() {
+        assertThrows(IllegalArgumentException.class, () -> reservations.reserve(request(), "a@example.com"));
+
+        ReservationRequest tooLong = request(line(1L, 1));
+        tooLong.setTtlSeconds(7200);
+        assertThrows(IllegalArgumentException.class, () -> reservations.reserve(tooLong, "a@example.com"));
+    }
+
+    private ReservationService newService() {
+        ReservationService service = new ReservationService(stockLedger, db.jdbcTemplate());
+        ReflectionTestUtils.setField(service, "defaultTtlSeconds", 900L);
+        ReflectionTestUtils.setField(service, "maxTtlSeconds", 3600L);
+        ReflectionTestUtils.setField(service, "tickMillis", 100L);
+        service.restore();
+        return service;
+    }
+
+    private static ReservationRequest request(ReservationRequest.Line... lines) {
+        ReservationRequest request = new ReservationRequest();
+        request.setItems(List.of(lines));
+        return request;
+    }
+
+    private static ReservationRequest.Line line(Long productId, int quantity) {
+        ReservationRequest.Line line = new ReservationRequest.Line();
+        line.setProductId(productId);
+        line.setQuantity(quantity);
+        return line;
+    }
+}
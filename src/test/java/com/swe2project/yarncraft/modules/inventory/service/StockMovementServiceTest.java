@@ -0,0 +1,77 @@
+package com.swe2project.yarncraft.modules.inventory.service;
+
+import com.swe2project.yarncraft.common.exception.ResourceNotFoundException;
+import com.swe2project.yarncraft.modules.inventory.ledger.StockLedger;
+import com.swe2project.yarncraft.modules.inventory.ledger.StockLevels;
+import com.swe2project.yarncraft.modules.inventory.repository.InventoryRepository;
+import com.swe2project.yarncraft.modules.inventory.repository.StockMovementRepository;
+import com.swe2project.yarncraft.modules.user.entity.Role;
+import com.swe2project.yarncraft.modules.user.entity.User;
+import com.swe2project.yarncraft.support.FakeDatabase;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+
+import static com.swe2project.yarncraft.support.FakeDatabase.row;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class StockMovementServiceTest {
+
+    private final FakeDatabase db = new FakeDatabase();
+    private final StockLedger stockLedger = mock(StockLedger.class);
+    private final StockMovementService service = new StockMovementService(mock(StockMovementRepository.class),
+            mock(InventoryRepository.class), stockLedger, db.jdbcTemplate());
+
+    private final User admin = User.builder().id(1L).role(Role.ADMIN).build();
+
+    @Test
+    void rebuildsFromTheLatestSnapshotPlusTheTail() {
+        db.onQuery("FROM stock_snapshots", params -> List.of(row("last_movement_id", 40L,
+                        "stock_quantity", 20, "reserved_quantity", 2, "sold_quantity", 5)))
+                .onQuery("AND id > ?", params -> List.of(row("movements", 3L,
+                        "stock_delta", -4, "reserved_delta", 1, "sold_delta", 4)));
+        when(stockLedger.levels(7L)).thenReturn(new StockLevels(7L, 16, 3, 9, 0, 0));
+
+        Map<String, Object> rebuilt = service.rebuildLevels(7L, admin);
+
+        assertEquals(List.of(List.of(7L, 40L)), db.executed("AND id > ?"));
+        assertEquals(16, rebuilt.get("stockQuantity"));
+        assertEquals(3, rebuilt.get("reservedQuantity"));
+        assertEquals(9, rebuilt.get("soldQuantity"));
+        assertEquals(true, rebuilt.get("fromSnapshot"));
+        assertEquals(3, rebuilt.get("tailMovements"));
+        assertEquals(true, rebuilt.get("matchesLedger"));
+    }
+
+    @Test
+    void withoutASnapshotStartsBeforeTheFirstMovement() {
+        db.onQuery("ORDER BY id LIMIT 1", params -> List.of(row("last_movement_id", 0L,
+                        "stock_quantity", 10, "reserved_quantity", 0, "sold_quantity", 0)))
+                .onQuery("AND id > ?", params -> List.of(row("movements", 1L,
+                        "stock_delta", 5, "reserved_delta", 0, "sold_delta", 0)));
+        when(stockLedger.levels(7L)).thenReturn(new StockLevels(7L, 14, 0, 0, 0, 0));
+
+        Map<String, Object> rebuilt = service.rebuildLevels(7L, admin);
+
+        assertEquals(15, rebuilt.get("stockQuantity"));
+        assertEquals(false, rebuilt.get("fromSnapshot"));
+        assertEquals(false, rebuilt.get("matchesLedger")); // e.g. a movement still queued for insert
+    }
+
+    @Test
+    void aProductWithoutMovementsCannotBeRebuilt() {
+        assertThrows(ResourceNotFoundException.class, () -> service.rebuildLevels(7L, admin));
+    }
+
+    @Test
+    void onlyAdminsCanRebuild() {
+        User vendor = User.builder().id(2L).role(Role.VENDOR).build();
+
+        assertThrows(SecurityException.class, () -> service.rebuildLevels(7L, vendor));
+    }
+}
@@ -0,0 +1,86 @@
+package com.swe2project.yarncraft.modules.inventory.service;
+
+import com.swe2project.yarncraft.modules.inventory.ledger.StockLedger;
+import com.swe2project.yarncraft.modules.inventory.ledger.VendorDashboardAggregates;
+import com.swe2project.yarncraft.modules.inventory.service.InventoryService.VendorDashboardStats;
+import com.swe2project.yarncraft.support.FakeDatabase;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Supplier;
+
+import static com.swe2project.yarncraft.modules.inventory.ledger.VendorDashboardAggregates.FIELDS;
+import static com.swe2project.yarncraft.modules.inventory.ledger.VendorDashboardAggregates.STOCK;
+import static com.swe2project.yarncraft.support.FakeDatabase.row;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class VendorDashboardServiceTest {
+
+    private final FakeDatabase db = new FakeDatabase();
+    private final StockLedger stockLedger = mock(StockLedger.class);
+    private final VendorDashboardAggregates aggregates = new VendorDashboardAggregates(db.jdbcTemplate());
+    private final VendorDashboardService service = new VendorDashboardService(aggregates, stockLedger, db.jdbcTemplate());
+
+    // set while the ledger runs the rebuild with its counters frozen
+    private final AtomicBoolean frozen = new AtomicBoolean();
+
+    @BeforeEach
+    void setUp() {
+        when(stockLedger.whileFrozen(any())).thenAnswer(invocation -> {
+            Supplier<?> action = invocation.getArgument(0);
+            frozen.set(true);
+            try {
+                return action.get();
+            } finally {
+                frozen.set(false);
+            }
+        });
+        db.onQuery("FROM inventory", params -> {
+            assertTrue(frozen.get(), "the rebuild query must run with the ledger frozen");
+            return List.of(totalsRow(7L, 20), totalsRow(8L, 5));
+        });
+    }
+
+    @Test
+    void anUnseededVendorIsRebuiltOnFirstRead() {
+        VendorDashboardStats stats = service.getStats(7L);
+
+        assertEquals(20, stats.getTotalStock());
+        assertEquals(List.of(List.of(7L)), db.executed("FROM inventory"));
+        service.getStats(7L);
+        assertEquals(1, db.executed("FROM inventory").size()); // served from the totals now
+    }
+
+    @Test
+    void reconcileResetsEveryVendorInsideTheFrozenSection() {
+        aggregates.reset(7L, new long[FIELDS]);
+        aggregates.reset(9L, stock(4)); // no inventory left
+
+        service.reconcileAll();
+
+        assertEquals(20, aggregates.current(7L).orElseThrow()[STOCK]);
+        assertEquals(5, aggregates.current(8L).orElseThrow()[STOCK]);
+        assertEquals(0, aggregates.current(9L).orElseThrow()[STOCK]);
+    }
+
+    private static long[] stock(long stock) {
+        long[] totals = new long[FIELDS];
+        totals[STOCK] = stock;
+        return totals;
+    }
+
+    private static Map<String, Object> totalsRow(long vendorId, long stock) {
+        return row("vendor_id", vendorId, "products", 1L, "active", 1L, "low_stock", 0L, "out_of_stock", 0L,
+                "stock", stock, "reserved", 0L, "sold", 0L,
+                "inventory_value", BigDecimal.ZERO, "revenue", BigDecimal.ZERO);
+    }
+}
@@ -0,0 +1,227 @@
+package com.swe2project.yarncraft.modules.order.idempotency;
+
+import com.swe2project.yarncraft.support.FakeDatabase;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.nio.charset.StandardCharsets;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+import static com.swe2project.yarncraft.support.FakeDatabase.row;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class OrderIdempotencyStoreTest {
+
+    private final FakeDatabase database = new FakeDatabase();
+    private final OrderIdempotencyStore store = new OrderIdempotencyStore(database.jdbcTemplate(), new SimpleMeterRegistry());
+    private final AtomicInteger placed = new AtomicInteger();
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(store, "ttlHours", 24L);
+        ReflectionTestUtils.setField(store, "cacheMaxBytes", 1024L * 1024);
+        ReflectionTestUtils.setField(store, "waitSeconds", 5L);
+        store.init();
+    }
+
+    @Test
+    void aRepeatedKeyReplaysTheFirstResponse() {
+        OrderIdempotencyStore.Result first = store.execute("c@example.com", "key-1", "hash", place("order 1"));
+        OrderIdempotencyStore.Result second = store.execute("c@example.com", "key-1", "hash", place("order 2"));
+
+        assertFalse(first.isReplayed());
+        assertTrue(second.isReplayed());
+        assertEquals("order 1", text(second));
+        assertEquals(1, placed.get());
+    }
+
+    @Test
+    void aConcurrentDuplicateWaitsForTheRunningRequest() throws Exception {
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        CompletableFuture<OrderIdempotencyStore.Result> first = CompletableFuture.supplyAsync(() ->
+                store.execute("c@example.com", "key-1", "hash", () -> {
+                    started.countDown();
+                    await(release);
+                    placed.incrementAndGet();
+                    return bytes("order 1");
+                }));
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+
+        CompletableFuture<OrderIdempotencyStore.Result> duplicate = CompletableFuture.supplyAsync(() ->
+                store.execute("c@example.com", "key-1", "hash", place("order 2")));
+        Thread.sleep(100);
+        assertFalse(duplicate.isDone()); // parked on the in-flight future, not placing a second order
+
+        release.countDown();
+        assertFalse(first.get(5, TimeUnit.SECONDS).isReplayed());
+        OrderIdempotencyStore.Result replayed = duplicate.get(5, TimeUnit.SECONDS);
+        assertTrue(replayed.isReplayed());
+        assertEquals("order 1", text(replayed));
+        assertEquals(1, placed.get());
+    }
+
+    @Test
+    void aFailedRequestFailsItsWaitersAndLeavesTheKeyFree() throws Exception {
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        IllegalArgumentException outOfStock = new IllegalArgumentException("Insufficient stock");
+        CompletableFuture<OrderIdempotencyStore.Result> first = CompletableFuture.supplyAsync(() ->
+                store.execute("c@example.com", "key-1", "hash", () -> {
+                    started.countDown();
+                    await(release);
+                    throw outOfStock;
+                }));
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+        CompletableFuture<OrderIdempotencyStore.Result> duplicate = CompletableFuture.supplyAsync(() ->
+                store.execute("c@example.com", "key-1", "hash", place("order 2")));
+        Thread.sleep(100);
+        assertFalse(duplicate.isDone());
+
+        release.countDown();
+        assertSame(outOfStock, cause(first));
+        assertSame(outOfStock, cause(duplicate));
+        assertEquals(0, placed.get());
+
+        OrderIdempotencyStore.Result retried = store.execute("c@example.com", "key-1", "hash", place("order 3"));
+        assertFalse(retried.isReplayed());
+        assertEquals("order 3", text(retried));
+    }
+
+    @Test
+    void aWaiterGivesUpAfterTheWaitWithoutPlacingAnOrder() throws Exception {
+        ReflectionTestUtils.setField(store, "waitSeconds", 0L);
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        CompletableFuture<OrderIdempotencyStore.Result> first = CompletableFuture.supplyAsync(() ->
+                store.execute("c@example.com", "key-1", "hash", () -> {
+                    started.countDown();
+                    await(release);
+                    return bytes("order 1");
+                }));
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+
+        assertThrows(IllegalStateException.class,
+                () -> store.execute("c@example.com", "key-1", "hash", place("order 2")));
+        release.countDown();
+        first.get(5, TimeUnit.SECONDS);
+        assertEquals(0, placed.get());
+    }
+
+    @Test
+    void aKeyReusedForADifferentRequestIsRejected() {
+        store.execute("c@example.com", "key-1", "hash", place("order 1"));
+
+        assertThrows(IllegalArgumentException.class,
+                () -> store.execute("c@example.com", "key-1", "other-hash", place("order 2")));
+        assertEquals(1, placed.get());
+    }
+
+    @Test
+    void keysAreScopedToTheirOwner() {
+        store.execute("a@example.com", "key-1", "hash", place("order 1"));
+        OrderIdempotencyStore.Result other = store.execute("b@example.com", "key-1", "hash", place("order 2"));
+
+        assertFalse(other.isReplayed());
+        assertEquals(2, placed.get());
+    }
+
+    @Test
+    void aKeyCommittedOnAnotherNodeIsReplayedFromTheTable() {
+        database.onQuery("FROM idempotency_keys", params -> List.of(row("request_hash", "hash",
+                "response_body", bytes("order on node 2"), "expires_at", Timestamp.valueOf(LocalDateTime.now().plusHours(1)))));
+
+        OrderIdempotencyStore.Result result = store.execute("c@example.com", "key-1", "hash", place("order 1"));
+
+        assertTrue(result.isReplayed());
+        assertEquals("order on node 2", text(result));
+        assertEquals(0, placed.get());
+    }
+
+    @Test
+    void aCachedKeyExpiresWithItsRowNotAFullTtlAfterLoading() throws Exception {
+        // Created almost a full TTL ago on another node
+        database.onQuery("FROM idempotency_keys", params -> List.of(row("request_hash", "hash",
+                "response_body", bytes("order on node 2"), "expires_at",
+                Timestamp.valueOf(LocalDateTime.now().plusNanos(TimeUnit.MILLISECONDS.toNanos(500))))));
+        store.execute("c@example.com", "key-1", "hash", place("order 1"));
+        store.execute("c@example.com", "key-1", "hash", place("order 1"));
+        assertEquals(1, database.executed("FROM idempotency_keys").size()); // second one from memory
+
+        Thread.sleep(700);
+        store.execute("c@example.com", "key-1", "hash", place("order 1"));
+
+        assertEquals(2, database.executed("FROM idempotency_keys").size());
+    }
+
+    @Test
+    void aClaimThatLosesTheRaceReplaysTheWinner() {
+        AtomicInteger loads = new AtomicInteger();
+        database.onQuery("FROM idempotency_keys", params -> loads.incrementAndGet() == 1 ? List.of()
+                : List.of(row("request_hash", "hash", "response_body", bytes("order on node 2"),
+                        "expires_at", Timestamp.valueOf(LocalDateTime.now().plusHours(1)))));
+
+        OrderIdempotencyStore.Result result = store.execute("c@example.com", "key-1", "hash", () -> {
+            throw new DuplicateKeyException("uk_idempotency_owner_key");
+        });
+
+        assertTrue(result.isReplayed());
+        assertEquals("order on node 2", text(result));
+    }
+
+    @Test
+    void blankAndOverlongKeysAreRejected() {
+        assertThrows(IllegalArgumentException.class, () -> store.execute("c@example.com", " ", "hash", place("x")));
+        assertThrows(IllegalArgumentException.class,
+                () -> store.execute("c@example.com", "k".repeat(101), "hash", place("x")));
+        assertEquals(0, placed.get());
+    }
+
+    private Supplier<byte[]> place(String response) {
+        return () -> {
+            placed.incrementAndGet();
+            return bytes(response);
+        };
+    }
+
+    private static byte[] bytes(String text) {
+        return text.getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static String text(OrderIdempotencyStore.Result result) {
+        return new String(result.getBody(), StandardCharsets.UTF_8);
+    }
+
+    private static Throwable cause(CompletableFuture<?> future) {
+        try {
+            future.get(5, TimeUnit.SECONDS);
+            return null;
+        } catch (Exception e) {
+            return e.getCause();
+        }
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,213 @@
+package com.swe2project.yarncraft.modules.order.readmodel;
+
+import com.swe2project.yarncraft.common.dto.CursorPage;
+import com.swe2project.yarncraft.common.util.CursorCodec;
+import com.swe2project.yarncraft.modules.order.dto.OrderSummary;
+import com.swe2project.yarncraft.modules.order.event.OrderPlacedEvent;
+import com.swe2project.yarncraft.support.FakeDatabase;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+
+import static com.swe2project.yarncraft.support.FakeDatabase.row;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class OrderReadModelTest {
+
+    // The live inserts; the backfill statements share their INSERT clause but select instead
+    private static final String CUSTOMER_INSERT = "vendor_id, quantity, price_at_purchase) VALUES";
+    private static final String VENDOR_INSERT = "product_name, quantity, price_at_purchase) VALUES";
+    private static final String CUSTOMER_BACKFILL = "LEFT JOIN customer_order_lines";
+    private static final LocalDateTime PLACED = LocalDateTime.of(2026, 3, 1, 12, 0);
+
+    private final FakeDatabase database = new FakeDatabase();
+    private final OrderReadModel readModel = new OrderReadModel(database.jdbcTemplate());
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(readModel, "queueCapacity", 16);
+        ReflectionTestUtils.setField(readModel, "maxBatch", 8);
+        ReflectionTestUtils.setField(readModel, "queue", new ArrayBlockingQueue<OrderPlacedEvent>(16));
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (ReflectionTestUtils.getField(readModel, "projector") != null) {
+            readModel.stop();
+        }
+    }
+
+    // ========================================================================
+    // PROJECT
+    // ========================================================================
+
+    @Test
+    void anOrderIsProjectedOnlyAfterItsTransactionCommits() {
+        database.transactionTemplate().executeWithoutResult(status -> {
+            readModel.onOrderPlaced(event(501L));
+            readModel.projectQueued();
+            assertTrue(database.executed(CUSTOMER_INSERT).isEmpty()); // not queued yet
+        });
+
+        readModel.projectQueued();
+
+        assertEquals(2, database.executed(CUSTOMER_INSERT).size());
+        assertEquals(2, database.executed(VENDOR_INSERT).size());
+        List<Object> first = database.executed(CUSTOMER_INSERT).get(0);
+        assertEquals(3L, first.get(0));   // customer
+        assertEquals(501L, first.get(1)); // order
+        assertEquals(7L, database.executed(VENDOR_INSERT).get(0).get(0)); // vendor
+    }
+
+    @Test
+    void aRolledBackOrderIsNeverProjected() {
+        database.transactionTemplate().executeWithoutResult(status -> {
+            readModel.onOrderPlaced(event(501L));
+            status.setRollbackOnly();
+        });
+
+        readModel.projectQueued();
+
+        assertTrue(database.executed(CUSTOMER_INSERT).isEmpty());
+        assertTrue(database.executed(VENDOR_INSERT).isEmpty());
+    }
+
+    @Test
+    void theProjectorThreadWritesQueuedOrders() throws InterruptedException {
+        readModel.start();
+
+        readModel.onOrderPlaced(event(501L));
+        readModel.onOrderPlaced(event(502L));
+        for (int i = 0; i < 500 && database.committed(VENDOR_INSERT).size() < 4; i++) {
+            Thread.sleep(10);
+        }
+
+        assertEquals(4, database.committed(CUSTOMER_INSERT).size());
+        assertEquals(4, database.committed(VENDOR_INSERT).size());
+    }
+
+    @Test
+    void aFailedWriteIsLeftToTheRepairPass() {
+        database.onUpdate(CUSTOMER_INSERT, params -> {
+            throw new IllegalStateException("Connection reset");
+        });
+        readModel.onOrderPlaced(event(501L));
+
+        readModel.projectQueued();
+        readModel.repair();
+        readModel.repair(); // nothing left to repair
+
+        assertEquals(1, database.executed(CUSTOMER_BACKFILL).size());
+        assertEquals(1, database.executed("LEFT JOIN vendor_order_lines").size());
+    }
+
+    @Test
+    void anOrderThatDoesNotFitTheQueueIsLeftToTheRepairPass() {
+        ReflectionTestUtils.setField(readModel, "queue", new ArrayBlockingQueue<OrderPlacedEvent>(1));
+        readModel.onOrderPlaced(event(501L));
+        readModel.onOrderPlaced(event(502L));
+
+        readModel.projectQueued();
+        readModel.repair();
+
+        assertEquals(2, database.executed(CUSTOMER_INSERT).size()); // the order that fit
+        assertEquals(1, database.executed(CUSTOMER_BACKFILL).size());
+    }
+
+    @Test
+    void aFailedRepairIsRetried() {
+        database.onUpdate(CUSTOMER_INSERT, params -> {
+            throw new IllegalStateException("Connection reset");
+        });
+        database.onUpdate(CUSTOMER_BACKFILL, params -> {
+            throw new IllegalStateException("Connection reset");
+        });
+        readModel.onOrderPlaced(event(501L));
+        readModel.projectQueued();
+
+        readModel.repair();
+        readModel.repair();
+
+        assertEquals(2, database.executed(CUSTOMER_BACKFILL).size());
+    }
+
+    // ========================================================================
+    // READ
+    // ========================================================================
+
+    @Test
+    void aPageHoldsWholeOrdersAndPointsPastTheLastOne() {
+        // limit 1 reads up to 5 rows; the second order is cut off and left for the next page
+        database.onQuery("ORDER BY order_date DESC", params -> List.of(
+                line(9, 95), line(9, 94), line(8, 85), line(8, 84), line(8, 83)));
+
+        CursorPage<OrderSummary> page = readModel.customerOrders(3L, null, 1);
+
+        assertEquals(1, page.getItems().size());
+        OrderSummary order = page.getItems().get(0);
+        assertEquals(9L, order.getId());
+        assertEquals(List.of(95L, 94L), order.getItems().stream().map(OrderSummary.Line::getId).toList());
+        assertEquals(List.of(PLACED.toString(), "9"), List.of(CursorCodec.decode(page.getNextCursor(), 2)));
+    }
+
+    @Test
+    void aCursorContinuesBelowTheLastOrder() {
+        database.onQuery("ORDER BY order_date DESC", params -> List.of(line(8, 85)));
+
+        CursorPage<OrderSummary> page = readModel.customerOrders(3L,
+                CursorCodec.encode(PLACED.toString(), "9"), 1);
+
+        List<Object> params = database.executed("ORDER BY order_date DESC").get(0);
+        assertEquals(List.of(3L, Timestamp.valueOf(PLACED), Timestamp.valueOf(PLACED), 9L, 5), params);
+        assertEquals(8L, page.getItems().get(0).getId());
+        assertNull(page.getNextCursor());
+    }
+
+    @Test
+    void anOrderLongerThanAPageIsCompleted() {
+        database.onQuery("AND order_id = ?", params -> List.of(line(9, 94), line(9, 93)));
+        database.onQuery("ORDER BY order_date DESC", params -> List.of(
+                line(9, 99), line(9, 98), line(9, 97), line(9, 96), line(9, 95)));
+
+        CursorPage<OrderSummary> page = readModel.customerOrders(3L, null, 1);
+
+        assertEquals(1, page.getItems().size());
+        assertEquals(7, page.getItems().get(0).getItems().size());
+        assertEquals(List.of(List.of(3L, 9L, 95L)), database.executed("AND order_id = ?"));
+        assertEquals(List.of(PLACED.toString(), "9"), List.of(CursorCodec.decode(page.getNextCursor(), 2)));
+    }
+
+    @Test
+    void aMalformedCursorIsRejected() {
+        assertThrows(IllegalArgumentException.class, () -> readModel.customerOrders(3L, "not-a-cursor", 10));
+        assertThrows(IllegalArgumentException.class,
+                () -> readModel.customerOrders(3L, CursorCodec.encode("yesterday", "9"), 10));
+    }
+
+    private static Map<String, Object> line(long orderId, long orderItemId) {
+        return row("order_id", orderId, "order_date", Timestamp.valueOf(PLACED), "status", "PENDING",
+                "order_total", new BigDecimal("8.00"), "order_item_id", orderItemId, "product_id", 1L,
+                "product_name", "Yarn 1", "quantity", 1, "price_at_purchase", new BigDecimal("4.00"));
+    }
+
+    private static OrderPlacedEvent event(long orderId) {
+        List<OrderPlacedEvent.Line> lines = new ArrayList<>();
+        lines.add(new OrderPlacedEvent.Line(orderId * 10 + 1, 1L, "Yarn 1", 7L, 1, new BigDecimal("4.00")));
+        lines.add(new OrderPlacedEvent.Line(orderId * 10 + 2, 2L, "Yarn 2", 7L, 1, new BigDecimal("4.00")));
+        return new OrderPlacedEvent(orderId, 3L, "Customer", PLACED, "PENDING", new BigDecimal("8.00"),
+                "1 Wool Street", "555-0100", lines);
+    }
+}
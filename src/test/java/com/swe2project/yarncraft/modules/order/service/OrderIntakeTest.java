@@ -0,0 +1,151 @@
+package com.swe2project.yarncraft.modules.order.service;
+
+import com.swe2project.yarncraft.modules.inventory.service.InventoryService;
+import com.swe2project.yarncraft.modules.inventory.service.ReservationService;
+import com.swe2project.yarncraft.modules.order.dto.OrderRequest;
+import com.swe2project.yarncraft.modules.order.entity.Order;
+import com.swe2project.yarncraft.modules.order.idempotency.OrderIdempotencyStore;
+import com.swe2project.yarncraft.modules.order.readmodel.OrderReadModel;
+import com.swe2project.yarncraft.modules.order.repository.OrderRepository;
+import com.swe2project.yarncraft.modules.product.entity.Product;
+import com.swe2project.yarncraft.modules.product.repository.ProductRepository;
+import com.swe2project.yarncraft.modules.user.entity.Role;
+import com.swe2project.yarncraft.modules.user.entity.User;
+import com.swe2project.yarncraft.modules.user.repository.UserRepository;
+import com.swe2project.yarncraft.support.FakeDatabase;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import tools.jackson.databind.ObjectMapper;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class OrderIntakeTest {
+
+    private final FakeDatabase database = new FakeDatabase();
+    private final OrderRepository orderRepository = mock(OrderRepository.class);
+    private final ProductRepository productRepository = mock(ProductRepository.class);
+    private final UserRepository userRepository = mock(UserRepository.class);
+    private final InventoryService inventoryService = mock(InventoryService.class);
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private OrderIntake intake;
+
+    private final User vendor = User.builder().id(7L).name("Vendor").role(Role.VENDOR).build();
+    private final User customer = User.builder().id(3L).name("Customer").email("c@example.com").role(Role.CUSTOMER).build();
+    private final IllegalArgumentException outOfStock = new IllegalArgumentException("Insufficient stock for product 2");
+
+    @BeforeEach
+    void setUp() {
+        OrderService orderService = new OrderService(orderRepository, productRepository, userRepository,
+                inventoryService, mock(ReservationService.class), mock(OrderIdempotencyStore.class),
+                new ObjectMapper(), mock(TransactionTemplate.class), mock(OrderReadModel.class),
+                mock(ApplicationEventPublisher.class));
+        intake = new OrderIntake(orderService, inventoryService, userRepository, productRepository,
+                database.jdbcTemplate(), database.transactionTemplate(), meterRegistry,
+                mock(ApplicationEventPublisher.class));
+        ReflectionTestUtils.setField(intake, "enabled", true);
+        ReflectionTestUtils.setField(intake, "windowMillis", 2000L);
+        ReflectionTestUtils.setField(intake, "maxBatch", 3);
+        ReflectionTestUtils.setField(intake, "queueCapacity", 16);
+        ReflectionTestUtils.setField(intake, "workers", 1);
+        ReflectionTestUtils.setField(intake, "waitSeconds", 5L);
+
+        when(userRepository.findByEmail("c@example.com")).thenReturn(Optional.of(customer));
+        when(productRepository.findAllById(any())).thenReturn(List.of(product(1), product(2)));
+        doAnswer(invocation -> {
+            Map<Long, Integer> quantities = invocation.getArgument(0);
+            if (quantities.containsKey(2L)) {
+                throw outOfStock;
+            }
+            return null;
+        }).when(inventoryService).takeStockBatch(any());
+    }
+
+    @AfterEach
+    void tearDown() {
+        intake.stop();
+    }
+
+    @Test
+    void anOutOfStockOrderFailsAloneAndTheRestOfTheBatchCommitsOnce() throws Exception {
+        intake.start();
+
+        // max-batch is 3, so the worker closes the batch as soon as the third order arrives
+        CompletableFuture<Order> first = submit(1L);
+        CompletableFuture<Order> soldOut = submit(2L);
+        CompletableFuture<Order> third = submit(1L);
+
+        assertNotNull(first.get(5, TimeUnit.SECONDS).getId());
+        assertNotNull(third.get(5, TimeUnit.SECONDS).getId());
+        ExecutionException failure = assertThrows(ExecutionException.class, () -> soldOut.get(5, TimeUnit.SECONDS));
+        assertSame(outOfStock, failure.getCause());
+
+        assertEquals(1, database.commits());
+        assertEquals(0, database.rollbacks());
+        assertEquals(2, database.committed("INSERT INTO orders").size());
+        assertEquals(2, database.committed("INSERT INTO order_items").size());
+        verify(orderRepository, never()).save(any(Order.class)); // no one-by-one retry
+        verify(inventoryService, never()).deductStockBatch(any());
+        assertEquals(1.0, meterRegistry.counter("orders.intake.commits").count());
+        assertEquals(2.0, meterRegistry.counter("orders.intake.orders").count());
+    }
+
+    @Test
+    void anOrderStillQueuedAtTheDeadlineIsWithdrawn() throws Exception {
+        ReflectionTestUtils.setField(intake, "waitSeconds", 0L);
+        ReflectionTestUtils.setField(intake, "workers", 0); // nobody takes it off the queue
+        intake.start();
+
+        IllegalStateException timeout = assertThrows(IllegalStateException.class,
+                () -> intake.placeOrder("c@example.com", request(1L)));
+
+        assertTrue(timeout.getMessage().contains("please retry"));
+        assertTrue(((Collection<?>) ReflectionTestUtils.getField(intake, "queue")).isEmpty());
+        verify(inventoryService, never()).takeStockBatch(any());
+    }
+
+    private CompletableFuture<Order> submit(long productId) {
+        return CompletableFuture.supplyAsync(() -> intake.placeOrder("c@example.com", request(productId)));
+    }
+
+    private Product product(long id) {
+        return Product.builder().id(id).name("Yarn " + id).price(new BigDecimal("4.00")).vendor(vendor).build();
+    }
+
+    private static OrderRequest request(long productId) {
+        OrderRequest.OrderItemRequest line = new OrderRequest.OrderItemRequest();
+        line.setProductId(productId);
+        line.setQuantity(1);
+        OrderRequest request = new OrderRequest();
+        request.setShippingAddress("1 Wool Street");
+        request.setPhone("555-0100");
+        request.setItems(new ArrayList<>(List.of(line)));
+        return request;
+    }
+}
@@ -0,0 +1,203 @@
+package com.swe2project.yarncraft.modules.order.service;
+
+import com.swe2project.yarncraft.modules.order.dto.OrderRequest;
+import com.swe2project.yarncraft.modules.order.entity.Order;
+import com.swe2project.yarncraft.support.FakeDatabase;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.CannotAcquireLockException;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.DeadlockLoserDataAccessException;
+import org.springframework.jdbc.CannotGetJdbcConnectionException;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.CannotCreateTransactionException;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicLong;
+
+import tools.jackson.databind.ObjectMapper;
+
+import static com.swe2project.yarncraft.support.FakeDatabase.row;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class OrderPipelineTest {
+
+    private final FakeDatabase database = new FakeDatabase();
+    private final OrderService orderService = mock(OrderService.class);
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final OrderPipeline pipeline = new OrderPipeline(orderService, database.jdbcTemplate(),
+            database.transactionTemplate(), objectMapper);
+
+    // Stands in for SKIP LOCKED: a claimed row is never handed to a second worker
+    private final Queue<Long> queued = new ConcurrentLinkedQueue<>();
+    private final AtomicLong orderIds = new AtomicLong(500);
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(pipeline, "workers", 2);
+        ReflectionTestUtils.setField(pipeline, "pollMillis", 10L);
+        String payload = objectMapper.writeValueAsString(request());
+        database.onQuery("FOR UPDATE SKIP LOCKED", params -> {
+            Long id = queued.poll();
+            return id == null ? List.of()
+                    : List.of(row("id", id, "handle", "h" + id, "owner_email", "c@example.com", "payload", payload));
+        });
+        database.onQuery("WHERE s.handle IN", params -> List.of(row("handle", params.get(0),
+                "owner_email", "c@example.com", "state", "PLACED", "order_id", 501L, "error", null,
+                "created_at", Timestamp.valueOf(LocalDateTime.now()), "completed_at", null, "order_status", "PENDING")));
+        when(orderService.placeOrder(anyString(), any(OrderRequest.class))).thenAnswer(invocation -> {
+            Order order = new Order();
+            order.setId(orderIds.incrementAndGet());
+            return order;
+        });
+    }
+
+    @AfterEach
+    void tearDown() {
+        pipeline.stop();
+    }
+
+    @Test
+    void aPlacedOrderMarksItsRowInTheSameTransaction() {
+        queued.add(1L);
+
+        assertTrue(pipeline.placeNext());
+
+        List<List<Object>> placed = database.committed("SET state = 'PLACED'");
+        assertEquals(1, placed.size());
+        assertEquals(501L, placed.get(0).get(0)); // order id
+        assertEquals(1L, placed.get(0).get(2));   // submission id
+        assertEquals(1, database.commits());
+        assertFalse(pipeline.placeNext()); // queue empty
+    }
+
+    @Test
+    void aBusinessFailureMarksTheRowFailed() {
+        queued.add(1L);
+        database.onQuery("SELECT state FROM order_submissions", params -> List.of(row("state", "QUEUED")));
+        when(orderService.placeOrder(anyString(), any(OrderRequest.class)))
+                .thenThrow(new IllegalArgumentException("Insufficient stock for product 2"));
+
+        assertTrue(pipeline.placeNext());
+
+        assertEquals(1, database.rollbacks());
+        assertTrue(database.committed("SET state = 'PLACED'").isEmpty());
+        List<List<Object>> failed = database.committed("SET state = 'FAILED'");
+        assertEquals(1, failed.size());
+        assertEquals("Insufficient stock for product 2", failed.get(0).get(0));
+        assertEquals(1L, failed.get(0).get(2));
+        assertEquals(List.of(List.of(1L)), database.committed("WHERE id = ? FOR UPDATE")); // locked again first
+    }
+
+    @Test
+    void aRowClaimedAgainBeforeItIsMarkedFailedKeepsItsNewOutcome() {
+        queued.add(1L);
+        // Another worker placed it between the rollback and the re-lock
+        database.onQuery("SELECT state FROM order_submissions", params -> List.of(row("state", "PLACED")));
+        when(orderService.placeOrder(anyString(), any(OrderRequest.class)))
+                .thenThrow(new IllegalArgumentException("Insufficient stock for product 2"));
+
+        assertTrue(pipeline.placeNext());
+
+        assertEquals(1, database.executed("WHERE id = ? FOR UPDATE").size());
+        assertTrue(database.executed("SET state = 'FAILED'").isEmpty());
+    }
+
+    @Test
+    void aTransientFailureLeavesTheRowQueued() {
+        queued.add(1L);
+        CannotAcquireLockException lockWait = new CannotAcquireLockException("Lock wait timeout exceeded");
+        when(orderService.placeOrder(anyString(), any(OrderRequest.class))).thenThrow(lockWait);
+
+        assertSame(lockWait, assertThrows(CannotAcquireLockException.class, pipeline::placeNext));
+
+        assertEquals(1, database.rollbacks());
+        assertTrue(database.executed("SET state = 'FAILED'").isEmpty());
+        assertTrue(database.committed("SET state = 'PLACED'").isEmpty());
+    }
+
+    @Test
+    void onlyDatabaseHiccupsAreTransient() {
+        assertTrue(OrderPipeline.isTransient(new DeadlockLoserDataAccessException("Deadlock found", null)));
+        assertTrue(OrderPipeline.isTransient(new CannotAcquireLockException("Lock wait timeout exceeded")));
+        assertTrue(OrderPipeline.isTransient(new CannotGetJdbcConnectionException("Connection refused")));
+        assertTrue(OrderPipeline.isTransient(new CannotCreateTransactionException("Pool exhausted")));
+
+        assertFalse(OrderPipeline.isTransient(new IllegalArgumentException("Insufficient stock")));
+        assertFalse(OrderPipeline.isTransient(new DataIntegrityViolationException("Data too long for 'phone'")));
+    }
+
+    @Test
+    void concurrentWorkersPlaceEveryQueuedRowOnce() throws InterruptedException {
+        for (long id = 1; id <= 40; id++) {
+            queued.add(id);
+        }
+
+        pipeline.start();
+        for (int i = 0; i < 500 && database.committed("SET state = 'PLACED'").size() < 40; i++) {
+            Thread.sleep(10);
+        }
+
+        List<Object> placedRows = new ArrayList<>();
+        database.committed("SET state = 'PLACED'").forEach(params -> placedRows.add(params.get(2)));
+        assertEquals(40, placedRows.size());
+        assertEquals(40, Set.copyOf(placedRows).size());
+        verify(orderService, times(40)).placeOrder(anyString(), any(OrderRequest.class));
+    }
+
+    @Test
+    void onlyTheClaimedHandleIsLookedUpForSubscribers() {
+        subscribers().put("h9", ConcurrentHashMap.newKeySet());
+        subscribers().get("h9").add(new SseEmitter());
+        queued.add(1L);
+
+        pipeline.placeNext();
+        assertTrue(database.executed("WHERE s.handle IN").isEmpty());
+
+        subscribers().put("h2", ConcurrentHashMap.newKeySet());
+        subscribers().get("h2").add(new SseEmitter());
+        queued.add(2L);
+
+        pipeline.placeNext();
+        assertEquals(List.of(List.of("h2")), database.executed("WHERE s.handle IN"));
+        assertFalse(subscribers().containsKey("h2"));
+        assertTrue(subscribers().containsKey("h9"));
+    }
+
+    @SuppressWarnings("unchecked")
+    private Map<String, Set<SseEmitter>> subscribers() {
+        return (Map<String, Set<SseEmitter>>) ReflectionTestUtils.getField(pipeline, "subscribers");
+    }
+
+    private static OrderRequest request() {
+        OrderRequest.OrderItemRequest line = new OrderRequest.OrderItemRequest();
+        line.setProductId(1L);
+        line.setQuantity(1);
+        OrderRequest request = new OrderRequest();
+        request.setShippingAddress("1 Wool Street");
+        request.setPhone("555-0100");
+        request.setItems(new ArrayList<>(List.of(line)));
+        return request;
+    }
+}
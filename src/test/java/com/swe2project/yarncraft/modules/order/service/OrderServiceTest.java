@@ -0,0 +1,164 @@
+package com.swe2project.yarncraft.modules.order.service;
+
+import com.swe2project.yarncraft.common.dto.CursorPage;
+import com.swe2project.yarncraft.common.exception.ResourceNotFoundException;
+import com.swe2project.yarncraft.common.util.CursorCodec;
+import com.swe2project.yarncraft.modules.inventory.service.InventoryService;
+import com.swe2project.yarncraft.modules.inventory.service.ReservationService;
+import com.swe2project.yarncraft.modules.order.dto.OrderRequest;
+import com.swe2project.yarncraft.modules.order.dto.OrderSummary;
+import com.swe2project.yarncraft.modules.order.entity.Order;
+import com.swe2project.yarncraft.modules.order.entity.OrderItem;
+import com.swe2project.yarncraft.modules.order.entity.OrderStatus;
+import com.swe2project.yarncraft.modules.order.idempotency.OrderIdempotencyStore;
+import com.swe2project.yarncraft.modules.order.readmodel.OrderReadModel;
+import com.swe2project.yarncraft.modules.order.repository.OrderRepository;
+import com.swe2project.yarncraft.modules.product.entity.Product;
+import com.swe2project.yarncraft.modules.product.repository.ProductRepository;
+import com.swe2project.yarncraft.modules.user.entity.Role;
+import com.swe2project.yarncraft.modules.user.entity.User;
+import com.swe2project.yarncraft.modules.user.repository.UserRepository;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Limit;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+
+import tools.jackson.databind.ObjectMapper;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class OrderServiceTest {
+
+    private final OrderRepository orderRepository = mock(OrderRepository.class);
+    private final ProductRepository productRepository = mock(ProductRepository.class);
+    private final UserRepository userRepository = mock(UserRepository.class);
+    private final InventoryService inventoryService = mock(InventoryService.class);
+    private final OrderReadModel orderReadModel = mock(OrderReadModel.class);
+    private OrderService orderService;
+
+    private final User vendor = User.builder().id(7L).name("Vendor").role(Role.VENDOR).build();
+    private final User customer = User.builder().id(3L).name("Customer").email("c@example.com").role(Role.CUSTOMER).build();
+
+    @BeforeEach
+    void setUp() {
+        orderService = new OrderService(orderRepository, productRepository, userRepository, inventoryService,
+                mock(ReservationService.class), mock(OrderIdempotencyStore.class), new ObjectMapper(),
+                mock(TransactionTemplate.class), orderReadModel, mock(ApplicationEventPublisher.class));
+        when(userRepository.findByEmail("c@example.com")).thenReturn(Optional.of(customer));
+        when(orderRepository.save(any(Order.class))).thenAnswer(invocation -> {
+            Order order = invocation.getArgument(0);
+            order.setId(1L);
+            long itemId = 10;
+            for (OrderItem item : order.getItems()) {
+                item.setId(itemId++);
+            }
+            return order;
+        });
+    }
+
+    @Test
+    void mergesDuplicateLinesAndDeductsTheWholeCartOnce() {
+        when(productRepository.findAllById(any())).thenReturn(List.of(product(1, "4.00"), product(2, "2.50")));
+
+        Order order = orderService.placeOrder("c@example.com", request(line(2L, 1), line(1L, 2), line(2L, 3)));
+
+        // one query for the whole cart, in productId order
+        verify(productRepository).findAllById(argThat((Iterable<Long> ids) -> List.of(1L, 2L).equals(toList(ids))));
+        verify(inventoryService).deductStockBatch(Map.of(1L, 2, 2L, 4));
+        assertEquals(2, order.getItems().size());
+        assertEquals(1L, order.getItems().get(0).getProduct().getId());
+        assertEquals(new BigDecimal("18.00"), order.getTotalAmount());
+    }
+
+    @Test
+    void anUnknownProductFailsBeforeAnyStockIsTaken() {
+        when(productRepository.findAllById(any())).thenReturn(List.of(product(1, "4.00")));
+
+        assertThrows(ResourceNotFoundException.class,
+                () -> orderService.placeOrder("c@example.com", request(line(1L, 1), line(2L, 1))));
+        verify(inventoryService, never()).deductStockBatch(any());
+    }
+
+    @Test
+    void mergeLinesRejectsEmptyCartsAndMissingProductIds() {
+        assertThrows(IllegalArgumentException.class, () -> OrderService.mergeLines(List.of()));
+        assertThrows(IllegalArgumentException.class, () -> OrderService.mergeLines(List.of(line(null, 1))));
+    }
+
+    @Test
+    void theNewestHistoryPageIsReadFromTheOrdersTable() {
+        LocalDateTime placed = LocalDateTime.of(2026, 3, 1, 12, 0);
+        when(orderRepository.findSummaryPage(eq(3L), any(LocalDateTime.class), anyLong(), any(Limit.class)))
+                .thenReturn(new ArrayList<>(List.of(summary(9, placed), summary(8, placed))));
+        when(orderRepository.findSummaryLines(argThat((Collection<Long> ids) -> Set.of(9L).equals(Set.copyOf(ids)))))
+                .thenReturn(List.of(new OrderSummary.Line(9L, 95L, 1L, "Yarn 1", 1, new BigDecimal("4.00"))));
+
+        CursorPage<OrderSummary> page = orderService.getUserOrderHistory("c@example.com", null, null, 1);
+
+        assertEquals(1, page.getItems().size()); // the just-placed order, even if not projected yet
+        assertEquals(9L, page.getItems().get(0).getId());
+        assertEquals(95L, page.getItems().get(0).getItems().get(0).getId());
+        assertEquals(List.of(placed.toString(), "9"), List.of(CursorCodec.decode(page.getNextCursor(), 2)));
+        verify(orderReadModel, never()).customerOrders(anyLong(), any(), anyInt());
+    }
+
+    @Test
+    void olderHistoryPagesAreReadFromTheReadModel() {
+        String cursor = CursorCodec.encode(LocalDateTime.of(2026, 3, 1, 12, 0).toString(), "9");
+        CursorPage<OrderSummary> older = new CursorPage<>(List.of(), null);
+        when(orderReadModel.customerOrders(3L, cursor, 20)).thenReturn(older);
+
+        assertEquals(older, orderService.getUserOrderHistory("c@example.com", null, cursor, null));
+        verify(orderRepository, never()).findSummaryPage(any(), any(), any(), any());
+    }
+
+    private static OrderSummary summary(long id, LocalDateTime placed) {
+        return new OrderSummary(id, placed, OrderStatus.PENDING, new BigDecimal("4.00"));
+    }
+
+    private Product product(long id, String price) {
+        return Product.builder().id(id).name("Yarn " + id).price(new BigDecimal(price)).vendor(vendor).build();
+    }
+
+    private static List<Long> toList(Iterable<Long> ids) {
+        List<Long> list = new ArrayList<>();
+        ids.forEach(list::add);
+        return list;
+    }
+
+    private static OrderRequest request(OrderRequest.OrderItemRequest... lines) {
+        OrderRequest request = new OrderRequest();
+        request.setShippingAddress("1 Wool Street");
+        request.setPhone("555-0100");
+        request.setItems(new ArrayList<>(List.of(lines)));
+        return request;
+    }
+
+    private static OrderRequest.OrderItemRequest line(Long productId, int quantity) {
+        OrderRequest.OrderItemRequest line = new OrderRequest.OrderItemRequest();
+        line.setProductId(productId);
+        line.setQuantity(quantity);
+        return line;
+    }
+}
@@ -0,0 +1,132 @@
+package com.swe2project.yarncraft.modules.product.cache;
+
+import com.swe2project.yarncraft.common.dto.CursorPage;
+import com.swe2project.yarncraft.common.web.PreSerializedJson;
+import com.swe2project.yarncraft.common.web.ResourceVersions;
+import com.swe2project.yarncraft.modules.product.dto.ProductResponse;
+import com.swe2project.yarncraft.modules.user.event.VendorRejectedEvent;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import tools.jackson.databind.ObjectMapper;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class CatalogCacheTest {
+
+    private final ResourceVersions resourceVersions = new ResourceVersions();
+    private final AtomicInteger loads = new AtomicInteger();
+    private CatalogCache cache;
+
+    @BeforeEach
+    void setUp() {
+        cache = newCache(16 * 1024 * 1024, 64 * 1024 * 1024);
+    }
+
+    @Test
+    void aProductIsLoadedOnceUntilItChanges() {
+        cache.product(1, this::load);
+        cache.product(1, this::load);
+        assertEquals(1, loads.get());
+
+        cache.productChanged(1, 7, true);
+        cache.product(1, this::load);
+        assertEquals(2, loads.get());
+        assertTrue(stamps().containsKey(ResourceVersions.product(1)));
+        assertTrue(stamps().containsKey(ResourceVersions.vendorProducts(7)));
+    }
+
+    @Test
+    void theJsonIsSerializedOnceAndReloadsGetANewVersion() {
+        PreSerializedJson first = cache.productJson(1, this::load);
+        assertSame(first, cache.productJson(1, this::load));
+        assertTrue(new String(first.json(), StandardCharsets.UTF_8).contains("\"name\":\"Product 1\""));
+
+        cache.productChanged(1, 7, false);
+        assertNotEquals(first.version(), cache.productJson(1, this::load).version());
+    }
+
+    @Test
+    void theVendorListIsDroppedWithEveryProductChange() {
+        cache.vendorProducts(7, () -> List.of(load(1L)));
+        cache.productChanged(2, 7, false);
+        cache.vendorProducts(7, () -> List.of(load(1L)));
+
+        assertEquals(2, loads.get());
+    }
+
+    @Test
+    void thePublicPageIsDroppedOnlyForPubliclyVisibleProducts() {
+        cache.publicFirstPageJson(this::firstPage);
+        cache.productChanged(2, 8, false); // an unapproved vendor's product
+        CatalogCache.SerializedPage page = cache.publicFirstPageJson(this::firstPage);
+        assertEquals(1, loads.get());
+        assertEquals("next", page.getNextCursor());
+
+        cache.productChanged(2, 7, true);
+        cache.publicFirstPageJson(this::firstPage);
+        assertEquals(2, loads.get());
+    }
+
+    @Test
+    void aVendorDecisionDropsItsListAndThePublicPage() {
+        cache.publicFirstPageJson(this::firstPage);
+        cache.vendorProducts(7, () -> List.of(load(1L)));
+
+        cache.onVendorRejected(new VendorRejectedEvent(7));
+        cache.publicFirstPageJson(this::firstPage);
+        cache.vendorProducts(7, () -> List.of(load(1L)));
+
+        assertEquals(4, loads.get());
+    }
+
+    @Test
+    void entriesAreBoundedByTheirEstimatedSize() {
+        cache = newCache(16 * 1024 * 1024, 4096);
+        String longText = "x".repeat(4096);
+
+        cache.vendorProducts(7, () -> List.of(ProductResponse.builder().id(1L).description(longText).build()));
+        lists().cleanUp();
+
+        assertEquals(0, lists().estimatedSize());
+    }
+
+    private CatalogCache newCache(long productMaxBytes, long listMaxBytes) {
+        CatalogCache created = new CatalogCache(new SimpleMeterRegistry(), new ObjectMapper(), resourceVersions);
+        ReflectionTestUtils.setField(created, "productMaxBytes", productMaxBytes);
+        ReflectionTestUtils.setField(created, "listMaxBytes", listMaxBytes);
+        created.init();
+        return created;
+    }
+
+    private ProductResponse load(Long productId) {
+        loads.incrementAndGet();
+        return ProductResponse.builder().id(productId).name("Product " + productId).build();
+    }
+
+    private CursorPage<ProductResponse> firstPage() {
+        return new CursorPage<>(List.of(load(1L), ProductResponse.builder().id(2L).build()), "next");
+    }
+
+    @SuppressWarnings("unchecked")
+    private Cache<String, ?> lists() {
+        return (Cache<String, ?>) ReflectionTestUtils.getField(cache, "lists");
+    }
+
+    @SuppressWarnings("unchecked")
+    private Map<String, ?> stamps() {
+        return (Map<String, ?>) ReflectionTestUtils.getField(resourceVersions, "stamps");
+    }
+}
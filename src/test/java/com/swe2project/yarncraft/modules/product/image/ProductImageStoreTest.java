@@ -0,0 +1,110 @@
+package com.swe2project.yarncraft.modules.product.image;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Set;
+
+import javax.imageio.ImageIO;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ProductImageStoreTest {
+
+    private static final String PNG = "a".repeat(64) + ".png";
+    private static final String BROKEN = "b".repeat(64) + ".jpg";
+    private static final String HUGE = "d".repeat(64) + ".png";
+
+    @TempDir
+    Path dir;
+
+    private final ProductImageStore store = new ProductImageStore();
+
+    @BeforeEach
+    void setUp() throws IOException {
+        ImageIO.write(new BufferedImage(640, 320, BufferedImage.TYPE_INT_RGB), "png", dir.resolve(PNG).toFile());
+        Files.write(dir.resolve(BROKEN), new byte[]{(byte) 0xff, (byte) 0xd8, 1, 2, 3}); // JPEG magic, no image
+        ReflectionTestUtils.setField(store, "directory", dir.toString());
+        ReflectionTestUtils.setField(store, "maxPixels", 1_000_000L);
+        ReflectionTestUtils.setField(store, "thumbnailSize", 32);
+        ReflectionTestUtils.setField(store, "thumbnailWorkers", 1);
+        ReflectionTestUtils.setField(store, "thumbnailQueue", 8);
+    }
+
+    @AfterEach
+    void tearDown() {
+        store.shutdown();
+    }
+
+    @Test
+    void theStartupSweepRendersMissingThumbnails() throws Exception {
+        store.init();
+        awaitIdle();
+
+        Path thumbnail = store.thumbnail(PNG).orElseThrow();
+        assertTrue(store.isThumbnail(thumbnail));
+        BufferedImage image = ImageIO.read(thumbnail.toFile());
+        assertEquals(32, image.getWidth());
+        assertEquals(16, image.getHeight());
+        assertFalse(store.isThumbnail(store.original(PNG).orElseThrow()));
+    }
+
+    @Test
+    void aFailedThumbnailServesTheOriginalWithoutBeingRescheduled() throws Exception {
+        store.init();
+        awaitIdle();
+
+        Path served = store.thumbnail(BROKEN).orElseThrow();
+
+        assertEquals(dir.resolve(BROKEN).toAbsolutePath(), served);
+        assertFalse(store.isThumbnail(served));
+        assertTrue(pending().isEmpty());
+        assertTrue(failed().contains(BROKEN));
+    }
+
+    @Test
+    void anImageOverThePixelLimitKeepsItsOriginal() throws Exception {
+        ImageIO.write(new BufferedImage(2000, 1000, BufferedImage.TYPE_BYTE_BINARY), "png", dir.resolve(HUGE).toFile());
+
+        store.init();
+        awaitIdle();
+
+        assertFalse(store.isThumbnail(store.thumbnail(HUGE).orElseThrow()));
+        assertTrue(failed().contains(HUGE));
+        assertTrue(store.isThumbnail(store.thumbnail(PNG).orElseThrow()));
+    }
+
+    @Test
+    void namesOutsideTheStoreAreNotFound() throws Exception {
+        store.init();
+
+        assertTrue(store.thumbnail("../" + PNG).isEmpty());
+        assertTrue(store.original("c".repeat(64) + ".png").isEmpty());
+    }
+
+    private void awaitIdle() throws InterruptedException {
+        for (int i = 0; i < 500 && !pending().isEmpty(); i++) {
+            Thread.sleep(10);
+        }
+        assertTrue(pending().isEmpty());
+    }
+
+    @SuppressWarnings("unchecked")
+    private Set<String> pending() {
+        return (Set<String>) ReflectionTestUtils.getField(store, "pending");
+    }
+
+    @SuppressWarnings("unchecked")
+    private Set<String> failed() {
+        return (Set<String>) ReflectionTestUtils.getField(store, "failed");
+    }
+}
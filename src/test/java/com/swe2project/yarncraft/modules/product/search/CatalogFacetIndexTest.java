@@ -0,0 +1,149 @@
+package com.swe2project.yarncraft.modules.product.search;
+
+import com.swe2project.yarncraft.common.web.ResourceVersions;
+import com.swe2project.yarncraft.modules.inventory.entity.InventoryItem.StockStatus;
+import com.swe2project.yarncraft.modules.inventory.event.StockStatusChangedEvent;
+import com.swe2project.yarncraft.modules.product.entity.Category;
+import com.swe2project.yarncraft.modules.product.entity.Product;
+import com.swe2project.yarncraft.modules.product.search.CatalogFacetIndex.Result;
+import com.swe2project.yarncraft.modules.product.search.CatalogFacetIndex.Selection;
+import com.swe2project.yarncraft.modules.user.entity.User;
+import com.swe2project.yarncraft.modules.user.event.VendorApprovedEvent;
+import com.swe2project.yarncraft.modules.user.event.VendorRejectedEvent;
+import com.swe2project.yarncraft.support.FakeDatabase;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static com.swe2project.yarncraft.support.FakeDatabase.row;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class CatalogFacetIndexTest {
+
+    private final AtomicBoolean vendor8Approved = new AtomicBoolean(false);
+    private CatalogFacetIndex index;
+
+    @BeforeEach
+    void setUp() {
+        // Vendor 7 is approved, vendor 8 is not
+        List<Map<String, Object>> products = List.of(
+                product(1, "YARN", "8.00", 7, true, "IN_STOCK"),
+                product(2, "YARN", "30.00", 7, true, "LOW_STOCK"),
+                product(3, "CROCHET_HOOKS", "12.00", 7, true, "IN_STOCK"),
+                product(4, "YARN", "15.00", 7, true, "OUT_OF_STOCK"),
+                product(5, "YARN", "9.00", 8, false, "IN_STOCK"));
+        FakeDatabase db = new FakeDatabase()
+                .onQuery("FROM users WHERE id = ?", params -> List.of(row("is_approved", vendor8Approved.get())))
+                .onQuery("FROM products p", params -> products);
+        index = new CatalogFacetIndex(db.jdbcTemplate(), new ResourceVersions());
+        index.rebuild();
+    }
+
+    @Test
+    void valuesOfAFacetAreOredAndFacetsAreAnded() {
+        assertEquals(List.of(1L, 2L, 3L, 4L), browse(selection(List.of(), List.of(), List.of())).getProductIds());
+        assertEquals(List.of(1L, 2L, 4L),
+                browse(selection(List.of(Category.YARN), List.of(), List.of())).getProductIds());
+        assertEquals(List.of(1L, 3L, 4L), browse(selection(List.of(),
+                List.of(PriceRange.UNDER_10, PriceRange.FROM_10_TO_25), List.of())).getProductIds());
+        assertEquals(List.of(1L, 4L), browse(selection(List.of(Category.YARN),
+                List.of(PriceRange.UNDER_10, PriceRange.FROM_10_TO_25), List.of())).getProductIds());
+    }
+
+    @Test
+    void eachFacetIsCountedAgainstTheOtherFacetsOnly() {
+        Result result = browse(selection(List.of(Category.YARN), List.of(PriceRange.UNDER_10), List.of()));
+
+        assertEquals(1, result.getTotal());
+        // Categories ignore the category selection, prices ignore the price selection
+        assertEquals(Map.of("YARN", 1L), result.getCounts().get(CatalogFacetIndex.CATEGORY));
+        assertEquals(Map.of("UNDER_10", 1L, "FROM_25_TO_50", 1L, "FROM_10_TO_25", 1L),
+                result.getCounts().get(CatalogFacetIndex.PRICE));
+        assertEquals(Map.of("IN_STOCK", 1L), result.getCounts().get(CatalogFacetIndex.STATUS));
+    }
+
+    @Test
+    void pagesInIdOrderAfterTheCursor() {
+        Result result = index.browse(selection(List.of(), List.of(), List.of()), 1L, 2);
+
+        assertEquals(List.of(2L, 3L), result.getProductIds());
+        assertEquals(4, result.getTotal()); // the total ignores the cursor
+    }
+
+    @Test
+    void aStatusChangeMovesTheProductBetweenStatusBitmaps() {
+        index.onStockStatusChanged(new StockStatusChangedEvent(3L, 7L, StockStatus.IN_STOCK, StockStatus.OUT_OF_STOCK,
+                0, 2, System.currentTimeMillis()));
+
+        assertEquals(List.of(3L, 4L),
+                browse(selection(List.of(), List.of(), List.of(StockStatus.OUT_OF_STOCK))).getProductIds());
+        assertEquals(List.of(1L),
+                browse(selection(List.of(), List.of(), List.of(StockStatus.IN_STOCK))).getProductIds());
+    }
+
+    @Test
+    void approvalAndRejectionShowAndHideTheVendorsProducts() {
+        index.onVendorApproved(new VendorApprovedEvent(8));
+        assertEquals(List.of(1L, 2L, 4L, 5L),
+                browse(selection(List.of(Category.YARN), List.of(), List.of())).getProductIds());
+
+        index.onVendorRejected(new VendorRejectedEvent(8)); // users.is_approved reads false
+        assertEquals(List.of(1L, 2L, 4L),
+                browse(selection(List.of(Category.YARN), List.of(), List.of())).getProductIds());
+    }
+
+    @Test
+    void aRejectionKeepsAnEarlierApproval() {
+        vendor8Approved.set(true);
+        index.onVendorApproved(new VendorApprovedEvent(8));
+
+        index.onVendorRejected(new VendorRejectedEvent(8));
+
+        assertEquals(List.of(1L, 2L, 3L, 4L, 5L), browse(selection(List.of(), List.of(), List.of())).getProductIds());
+    }
+
+    @Test
+    void reindexingKeepsTheStockStatus() {
+        User vendor = User.builder().id(7L).isApproved(true).build();
+        index.index(Product.builder().id(4L).vendor(vendor).category(Category.CROCHET_HOOKS)
+                .price(new BigDecimal("60.00")).build());
+
+        assertEquals(List.of(3L, 4L),
+                browse(selection(List.of(Category.CROCHET_HOOKS), List.of(), List.of())).getProductIds());
+        assertEquals(List.of(4L),
+                browse(selection(List.of(), List.of(PriceRange.FROM_50_TO_100), List.of(StockStatus.OUT_OF_STOCK)))
+                        .getProductIds());
+
+        index.remove(4L);
+        assertEquals(List.of(3L),
+                browse(selection(List.of(Category.CROCHET_HOOKS), List.of(), List.of())).getProductIds());
+    }
+
+    @Test
+    void priceRangesIncludeTheLowerBoundOnly() {
+        assertEquals(PriceRange.UNDER_10, PriceRange.of(new BigDecimal("9.99")));
+        assertEquals(PriceRange.FROM_10_TO_25, PriceRange.of(new BigDecimal("10")));
+        assertEquals(PriceRange.OVER_100, PriceRange.of(new BigDecimal("100.00")));
+        assertNull(PriceRange.of(null));
+    }
+
+    private Result browse(Selection selection) {
+        return index.browse(selection, null, 10);
+    }
+
+    private static Selection selection(List<Category> categories, List<PriceRange> prices, List<StockStatus> statuses) {
+        return new Selection(categories, prices, List.of(), statuses);
+    }
+
+    private static Map<String, Object> product(long id, String category, String price, long vendorId,
+                                               boolean approved, String status) {
+        return row("id", id, "category", category, "price", new BigDecimal(price), "vendor_id", vendorId,
+                "is_approved", approved, "status", status);
+    }
+}
@@ -0,0 +1,112 @@
+package com.swe2project.yarncraft.modules.product.search;
+
+import com.swe2project.yarncraft.modules.product.entity.Category;
+import com.swe2project.yarncraft.modules.product.entity.Product;
+import com.swe2project.yarncraft.modules.user.entity.User;
+import com.swe2project.yarncraft.modules.user.event.VendorApprovedEvent;
+import com.swe2project.yarncraft.modules.user.event.VendorRejectedEvent;
+import com.swe2project.yarncraft.support.FakeDatabase;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static com.swe2project.yarncraft.support.FakeDatabase.row;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class ProductSearchIndexTest {
+
+    // The products table; vendor 7 owns 1-3, vendor 8 owns 4
+    private final List<Map<String, Object>> products = new ArrayList<>();
+    private ProductSearchIndex index;
+
+    @BeforeEach
+    void setUp() {
+        products.add(product(1, 7, "Merino Wool Skein", "Soft and warm", "YARN", "12.00", true));
+        products.add(product(2, 7, "Bamboo Needles", "For merino and cotton yarn", "KNITTING_NEEDLES", "8.50", true));
+        products.add(product(3, 7, "Hat Pattern", "A merino wool hat", "ACCESSORIES", "4.00", true));
+        products.add(product(4, 8, "Merino Roving", "Unspun merino", "YARN", "20.00", false));
+        FakeDatabase db = new FakeDatabase()
+                .onQuery("WHERE vendor_id = ?", params -> products.stream()
+                        .filter(row -> row.get("vendor_id").equals(params.get(0)))
+                        .toList())
+                .onQuery("FROM products", params -> products);
+        index = new ProductSearchIndex(db.jdbcTemplate());
+        index.rebuild();
+    }
+
+    @Test
+    void nameMatchesOutrankDescriptionMatches() {
+        assertEquals(List.of(1L, 3L, 2L), search("merino"));
+        assertEquals(List.of(3L, 1L), search("wool hat").subList(0, 2));
+    }
+
+    @Test
+    void aTypoWithinTheAllowedDistanceStillMatches() {
+        assertEquals(List.of(1L, 3L, 2L), search("merno"));     // 1 edit, 5 chars
+        assertEquals(List.of(2L), search("bambooo"));           // 1 edit, 7 chars
+        assertEquals(List.of(), search("hut"));                 // under 4 chars: exact only
+    }
+
+    @Test
+    void boundedDistanceStopsOnceTheLimitIsExceeded() {
+        assertEquals(3, ProductSearchIndex.boundedDistance("kitten", "sitting", 3));
+        assertEquals(3, ProductSearchIndex.boundedDistance("kitten", "sitting", 2)); // max + 1
+        assertEquals(0, ProductSearchIndex.boundedDistance("wool", "wool", 1));
+        assertEquals(2, ProductSearchIndex.boundedDistance("ab", "abcdef", 1));
+    }
+
+    @Test
+    void filtersByCategoryAndPrice() {
+        assertEquals(List.of(1L), index.search("merino", Category.YARN, null, null, 0, 10));
+        assertEquals(List.of(1L, 2L),
+                index.search("merino", null, new BigDecimal("5"), new BigDecimal("15"), 0, 10));
+    }
+
+    @Test
+    void pagesTheRanking() {
+        assertEquals(List.of(3L), index.search("merino", null, null, null, 1, 1));
+        assertEquals(List.of(), index.search("merino", null, null, null, 5, 10));
+    }
+
+    @Test
+    void visibilityFollowsVendorApprovalAndRejection() {
+        assertEquals(List.of(1L, 3L, 2L), search("merino")); // product 4 is not visible
+
+        products.get(3).put("visible", true);
+        index.onVendorApproved(new VendorApprovedEvent(8));
+        assertEquals(List.of(4L, 1L, 3L, 2L), search("merino"));
+
+        products.get(3).put("visible", false);
+        index.onVendorRejected(new VendorRejectedEvent(8));
+        assertEquals(List.of(1L, 3L, 2L), search("merino"));
+    }
+
+    @Test
+    void reindexingAProductReplacesItsTerms() {
+        index.index(Product.builder().id(3L).vendor(User.builder().id(7L).build()).name("Cowl Pattern")
+                .description("Chunky cowl").category(Category.ACCESSORIES).price(new BigDecimal("4.00"))
+                .visible(true).build());
+
+        assertEquals(List.of(3L), search("cowl"));
+        assertEquals(List.of(), search("hat"));
+
+        index.remove(3L);
+        assertEquals(List.of(), search("cowl"));
+    }
+
+    private List<Long> search(String query) {
+        return index.search(query, null, null, null, 0, 10);
+    }
+
+    private static Map<String, Object> product(long id, long vendorId, String name, String description, String category,
+                                               String price, boolean visible) {
+        return new HashMap<>(row("id", id, "vendor_id", vendorId, "name", name, "description", description,
+                "category", category, "price", new BigDecimal(price), "visible", visible));
+    }
+}
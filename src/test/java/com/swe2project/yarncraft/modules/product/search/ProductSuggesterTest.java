@@ -0,0 +1,114 @@
+package com.swe2project.yarncraft.modules.product.search;
+
+import com.swe2project.yarncraft.modules.product.entity.Product;
+import com.swe2project.yarncraft.modules.product.search.ProductSuggester.Completion;
+import com.swe2project.yarncraft.modules.user.event.VendorApprovedEvent;
+import com.swe2project.yarncraft.modules.user.event.VendorRejectedEvent;
+import com.swe2project.yarncraft.support.FakeDatabase;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+import static com.swe2project.yarncraft.support.FakeDatabase.row;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class ProductSuggesterTest {
+
+    // The products table joined with sold counts; vendor 7 owns 1-3, vendor 8 owns 4
+    private final List<Map<String, Object>> products = new ArrayList<>();
+    private ProductSuggester suggester;
+
+    @BeforeEach
+    void setUp() {
+        products.add(product(1, 7, "Soft Merino Wool", 30, true));
+        products.add(product(2, 7, "Merino Blend", 50, true));
+        products.add(product(3, 7, "Wooden Hook", 10, true));
+        products.add(product(4, 8, "Mercerized Cotton", 99, false));
+        FakeDatabase db = new FakeDatabase()
+                .onQuery("WHERE p.vendor_id = ?", params -> products.stream()
+                        .filter(row -> row.get("vendor_id").equals(params.get(0)))
+                        .collect(Collectors.toList()))
+                .onQuery("WHERE p.visible = TRUE", params -> products.stream()
+                        .filter(row -> (Boolean) row.get("visible"))
+                        .collect(Collectors.toList()));
+        suggester = new ProductSuggester(db.jdbcTemplate(), new SimpleMeterRegistry());
+        suggester.rebuild();
+    }
+
+    @Test
+    void matchesTheNameOrAnyWordOfItMostSoldFirst() {
+        assertEquals(List.of(2L, 1L), suggest("mer"));
+        assertEquals(List.of(1L, 3L), suggest("woo"));
+        assertEquals(List.of(1L), suggest("  SOFT   merino "));
+        assertEquals(List.of(), suggest("xyz"));
+        assertEquals(List.of(), suggest(""));
+    }
+
+    @Test
+    void theLimitCutsTheCachedList() {
+        assertEquals(List.of(2L), ids(suggester.suggest("m", 1)));
+    }
+
+    @Test
+    void keysAreTheNameAndEveryWordStartSuffix() {
+        assertEquals(List.of("soft merino wool", "merino wool", "wool"),
+                new ArrayList<>(ProductSuggester.keysFor("Soft  Merino Wool")));
+    }
+
+    @Test
+    void renamingAndRemovingKeepTheTrieConsistent() {
+        suggester.index(product(3L, "Wool Winder"));   // hangs below product 1's "wool" node
+        assertEquals(List.of(1L, 3L), suggest("wool"));
+        assertEquals(List.of(), suggest("wooden"));
+
+        suggester.remove(1L);                         // which then merges into its only child
+        assertEquals(List.of(3L), suggest("wool"));
+        assertEquals(List.of(2L), suggest("merino"));
+    }
+
+    @Test
+    void aProductThatIsNoLongerVisibleIsDropped() {
+        Product hidden = product(2L, "Merino Blend");
+        hidden.setVisible(false);
+
+        suggester.index(hidden);
+
+        assertEquals(List.of(1L), suggest("mer"));
+    }
+
+    @Test
+    void vendorApprovalAndRejectionUpdateTheTrieInPlace() {
+        products.get(3).put("visible", true);
+        suggester.onVendorApproved(new VendorApprovedEvent(8));
+        assertEquals(List.of(4L, 2L, 1L), suggest("mer"));
+
+        products.forEach(row -> row.put("visible", false));
+        suggester.onVendorRejected(new VendorRejectedEvent(7));
+        assertEquals(List.of(4L), suggest("mer"));
+        assertEquals(List.of(), suggest("woo"));
+    }
+
+    private List<Long> suggest(String prefix) {
+        return ids(suggester.suggest(prefix, ProductSuggester.TOP_N));
+    }
+
+    private static List<Long> ids(List<Completion> completions) {
+        return completions.stream().map(completion -> completion.productId).collect(Collectors.toList());
+    }
+
+    private static Product product(long id, String name) {
+        return Product.builder().id(id).name(name).visible(true).build();
+    }
+
+    private static Map<String, Object> product(long id, long vendorId, String name, long sold, boolean visible) {
+        return new HashMap<>(row("id", id, "vendor_id", vendorId, "name", name, "sold", sold, "visible", visible));
+    }
+}
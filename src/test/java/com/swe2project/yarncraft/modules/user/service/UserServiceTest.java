@@ -0,0 +1,102 @@
+package com.swe2project.yarncraft.modules.user.service;
+
+import com.swe2project.yarncraft.modules.order.repository.OrderRepository;
+import com.swe2project.yarncraft.modules.product.repository.ProductRepository;
+import com.swe2project.yarncraft.modules.user.entity.ApplicationStatus;
+import com.swe2project.yarncraft.modules.user.entity.Role;
+import com.swe2project.yarncraft.modules.user.entity.User;
+import com.swe2project.yarncraft.modules.user.entity.VendorApplication;
+import com.swe2project.yarncraft.modules.user.event.VendorApprovedEvent;
+import com.swe2project.yarncraft.modules.user.event.VendorRejectedEvent;
+import com.swe2project.yarncraft.modules.user.repository.UserRepository;
+import com.swe2project.yarncraft.modules.user.repository.VendorApplicationRepository;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.context.ApplicationEventPublisher;
+
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyBoolean;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class UserServiceTest {
+
+    private final UserRepository userRepository = mock(UserRepository.class);
+    private final VendorApplicationRepository applicationRepository = mock(VendorApplicationRepository.class);
+    private final ProductRepository productRepository = mock(ProductRepository.class);
+    private final ApplicationEventPublisher eventPublisher = mock(ApplicationEventPublisher.class);
+    private final UserService service = new UserService(userRepository, applicationRepository,
+            mock(OrderRepository.class), productRepository, eventPublisher);
+
+    @Test
+    void approvingAVendorShowsTheirProducts() {
+        User vendor = vendor(7L, false);
+        when(applicationRepository.findById(1L)).thenReturn(Optional.of(application(vendor)));
+
+        service.approveVendor(1L);
+
+        verify(productRepository).updateVisibilityByVendor(7L, true);
+        verify(eventPublisher).publishEvent(new VendorApprovedEvent(7L));
+    }
+
+    @Test
+    void rejectingAnApplicationOfAnApprovedVendorKeepsTheirProductsVisible() {
+        User vendor = vendor(7L, true);
+        VendorApplication application = application(vendor);
+        when(applicationRepository.findById(1L)).thenReturn(Optional.of(application));
+
+        service.rejectVendor(1L);
+
+        assertEquals(ApplicationStatus.REJECTED, application.getStatus());
+        verify(productRepository).updateVisibilityByVendor(7L, true);
+        verify(productRepository, never()).updateVisibilityByVendor(7L, false);
+        verify(eventPublisher).publishEvent(new VendorRejectedEvent(7L));
+    }
+
+    @Test
+    void rejectingAnUnapprovedVendorKeepsTheirProductsHidden() {
+        when(applicationRepository.findById(1L)).thenReturn(Optional.of(application(vendor(7L, false))));
+
+        service.rejectVendor(1L);
+
+        verify(productRepository).updateVisibilityByVendor(7L, false);
+    }
+
+    @Test
+    void suspendingAVendorRevokesTheApprovalAndHidesTheirProducts() {
+        User vendor = vendor(7L, true);
+        when(applicationRepository.findById(1L)).thenReturn(Optional.of(application(vendor)));
+
+        service.suspendVendor(1L);
+
+        assertFalse(vendor.isApproved());
+        verify(userRepository).save(vendor);
+        verify(productRepository).updateVisibilityByVendor(7L, false);
+        verify(eventPublisher).publishEvent(new VendorRejectedEvent(7L));
+    }
+
+    @Test
+    void anUnknownApplicationChangesNothing() {
+        when(applicationRepository.findById(anyLong())).thenReturn(Optional.empty());
+
+        assertThrows(RuntimeException.class, () -> service.suspendVendor(9L));
+        verify(productRepository, never()).updateVisibilityByVendor(anyLong(), anyBoolean());
+        verify(eventPublisher, never()).publishEvent(any(Object.class));
+    }
+
+    private static User vendor(long id, boolean approved) {
+        return User.builder().id(id).role(Role.VENDOR).isApproved(approved).build();
+    }
+
+    private static VendorApplication application(User vendor) {
+        return VendorApplication.builder().id(1L).status(ApplicationStatus.PENDING).user(vendor).build();
+    }
+}
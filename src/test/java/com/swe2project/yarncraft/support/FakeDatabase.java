@@ -0,0 +1,474 @@
+package com.swe2project.yarncraft.support;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.AbstractDataSource;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.math.BigDecimal;
+import java.sql.Connection;
+import java.sql.DatabaseMetaData;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.sql.Savepoint;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+import java.util.function.ToIntFunction;
+
+import javax.sql.DataSource;
+
+/**
+ * A scripted stand-in for MySQL at the JDBC level, so the real JdbcTemplate and
+ * DataSourceTransactionManager run unchanged in unit tests.
+ * <p>
+ * Tests register what a query returns and what an update does, keyed by a fragment of the
+ * SQL (the first registered match wins), and assert on the statements that were executed.
+ * Every statement is logged with the transaction it ran in; a rollback (or a rollback to a
+ * savepoint) marks the statements it undid, so {@link #committed} sees only what a real
+ * database would have kept. Handlers themselves run immediately and are never undone.
+ * Inserts prepared with RETURN_GENERATED_KEYS get keys from one sequence.
+ */
+public class FakeDatabase {
+
+    private final List<Rule<List<Map<String, Object>>>> queries = new ArrayList<>();
+    private final List<Rule<Integer>> updates = new ArrayList<>();
+    private final List<Execution> log = Collections.synchronizedList(new ArrayList<>());
+    private final AtomicLong keys = new AtomicLong(1000);
+    private final AtomicInteger commits = new AtomicInteger();
+    private final AtomicInteger rollbacks = new AtomicInteger();
+
+    private final DataSource dataSource = new AbstractDataSource() {
+        @Override
+        public Connection getConnection() {
+            return new FakeConnection().proxy;
+        }
+
+        @Override
+        public Connection getConnection(String username, String password) {
+            return getConnection();
+        }
+    };
+
+    // ========================================================================
+    // 1. SCRIPT
+    // ========================================================================
+
+    public FakeDatabase onQuery(String sqlFragment, Function<List<Object>, List<Map<String, Object>>> rows) {
+        queries.add(new Rule<>(sqlFragment, rows));
+        return this;
+    }
+
+    /**
+     * @param handler gets the parameters of one execution (one row of a batch), returns the update count
+     */
+    public FakeDatabase onUpdate(String sqlFragment, ToIntFunction<List<Object>> handler) {
+        updates.add(new Rule<>(sqlFragment, handler::applyAsInt));
+        return this;
+    }
+
+    public static Map<String, Object> row(Object... columnsAndValues) {
+        Map<String, Object> row = new LinkedHashMap<>();
+        for (int i = 0; i < columnsAndValues.length; i += 2) {
+            row.put((String) columnsAndValues[i], columnsAndValues[i + 1]);
+        }
+        return row;
+    }
+
+    // ========================================================================
+    // 2. WIRING
+    // ========================================================================
+
+    public DataSource dataSource() {
+        return dataSource;
+    }
+
+    public JdbcTemplate jdbcTemplate() {
+        return new JdbcTemplate(dataSource);
+    }
+
+    public PlatformTransactionManager transactionManager() {
+        return new DataSourceTransactionManager(dataSource);
+    }
+
+    public TransactionTemplate transactionTemplate() {
+        return new TransactionTemplate(transactionManager());
+    }
+
+    // ========================================================================
+    // 3. ASSERTIONS
+    // ========================================================================
+
+    /**
+     * Parameters of every execution of matching SQL, rolled back or not.
+     */
+    public List<List<Object>> executed(String sqlFragment) {
+        return select(sqlFragment, false);
+    }
+
+    /**
+     * Parameters of every execution of matching SQL that was committed (or ran in auto-commit).
+     */
+    public List<List<Object>> committed(String sqlFragment) {
+        return select(sqlFragment, true);
+    }
+
+    public int commits() {
+        return commits.get();
+    }
+
+    public int rollbacks() {
+        return rollbacks.get();
+    }
+
+    private List<List<Object>> select(String sqlFragment, boolean committedOnly) {
+        List<List<Object>> found = new ArrayList<>();
+        synchronized (log) {
+            for (Execution execution : log) {
+                if (execution.sql.contains(sqlFragment) && (!committedOnly || execution.committed)) {
+                    found.add(execution.params);
+                }
+            }
+        }
+        return found;
+    }
+
+    // ========================================================================
+    // 4. JDBC PROXIES
+    // ========================================================================
+
+    private static final class Rule<T> {
+        final String fragment;
+        final Function<List<Object>, T> handler;
+
+        Rule(String fragment, Function<List<Object>, T> handler) {
+            this.fragment = fragment;
+            this.handler = handler;
+        }
+    }
+
+    private static final class Execution {
+        final String sql;
+        final List<Object> params;
+        volatile boolean committed;
+        volatile boolean undone;
+
+        Execution(String sql, List<Object> params) {
+            this.sql = sql;
+            this.params = params;
+        }
+    }
+
+    private static <T> T proxy(Class<T> type, InvocationHandler handler) {
+        return type.cast(Proxy.newProxyInstance(FakeDatabase.class.getClassLoader(), new Class<?>[]{type},
+                (proxy, method, args) -> {
+                    try {
+                        return handler.invoke(proxy, method, args);
+                    } catch (InvocationTargetException e) {
+                        throw e.getCause();
+                    }
+                }));
+    }
+
+    private static Object defaultValue(Class<?> type) {
+        if (type == boolean.class) return false;
+        if (type == int.class) return 0;
+        if (type == long.class) return 0L;
+        return null;
+    }
+
+    private final class FakeConnection {
+        final Connection proxy = proxy(Connection.class, this::invoke);
+        final List<Execution> pending = new ArrayList<>(); // since the last commit/rollback
+        boolean autoCommit = true;
+        boolean closed;
+
+        Object invoke(Object self, java.lang.reflect.Method method, Object[] args) throws SQLException {
+            switch (method.getName()) {
+                case "getAutoCommit":
+                    return autoCommit;
+                case "setAutoCommit":
+                    autoCommit = (Boolean) args[0];
+                    return null;
+                case "commit":
+                    pending.forEach(execution -> execution.committed = !execution.undone);
+                    pending.clear();
+                    commits.incrementAndGet();
+                    return null;
+                case "rollback":
+                    if (args == null) {
+                        pending.forEach(execution -> execution.undone = true);
+                        pending.clear();
+                        rollbacks.incrementAndGet();
+                    } else {
+                        int mark = ((FakeSavepoint) args[0]).mark;
+                        for (int i = mark; i < pending.size(); i++) {
+                            pending.get(i).undone = true;
+                        }
+                    }
+                    return null;
+                case "setSavepoint":
+                    return new FakeSavepoint(pending.size());
+                case "releaseSavepoint":
+                    return null;
+                case "prepareStatement":
+                    return new FakeStatement(this, (String) args[0]).proxy;
+                case "createStatement":
+                    return new FakeStatement(this, null).proxy;
+                case "getMetaData":
+                    return proxy(DatabaseMetaData.class, (p, m, a) -> switch (m.getName()) {
+                        case "supportsBatchUpdates", "supportsSavepoints", "supportsGetGeneratedKeys" -> true;
+                        case "getDatabaseProductName" -> "MySQL";
+                        default -> defaultValue(m.getReturnType());
+                    });
+                case "close":
+                    closed = true;
+                    return null;
+                case "isClosed":
+                    return closed;
+                case "getTransactionIsolation":
+                    return Connection.TRANSACTION_REPEATABLE_READ;
+                case "isWrapperFor":
+                    return false;
+                case "toString":
+                    return "FakeConnection";
+                case "hashCode":
+                    return System.identityHashCode(self);
+                case "equals":
+                    return self == args[0];
+                default:
+                    return defaultValue(method.getReturnType());
+            }
+        }
+
+        void record(Execution execution) {
+            log.add(execution);
+            if (autoCommit) {
+                execution.committed = true;
+            } else {
+                pending.add(execution);
+            }
+        }
+    }
+
+    private static final class FakeSavepoint implements Savepoint {
+        final int mark;
+
+        FakeSavepoint(int mark) {
+            this.mark = mark;
+        }
+
+        @Override
+        public int getSavepointId() {
+            return mark;
+        }
+
+        @Override
+        public String getSavepointName() {
+            return "sp" + mark;
+        }
+    }
+
+    private final class FakeStatement {
+        final FakeConnection connection;
+        final PreparedStatement proxy = proxy(PreparedStatement.class, this::invoke);
+        String sql;
+        final Map<Integer, Object> params = new TreeMap<>();
+        final List<List<Object>> batch = new ArrayList<>();
+        final List<Long> generated = new ArrayList<>();
+        int updateCount = -1;
+
+        FakeStatement(FakeConnection connection, String sql) {
+            this.connection = connection;
+            this.sql = sql;
+        }
+
+        Object invoke(Object self, java.lang.reflect.Method method, Object[] args) {
+            String name = method.getName();
+            if (name.startsWith("set") && args != null && args.length >= 2 && args[0] instanceof Integer index
+                    && !name.equals("setFetchSize") && !name.equals("setMaxRows")) {
+                params.put(index, name.equals("setNull") ? null : args[1]);
+                return null;
+            }
+            switch (name) {
+                case "addBatch":
+                    batch.add(new ArrayList<>(params.values()));
+                    params.clear();
+                    return null;
+                case "executeBatch": {
+                    int[] counts = new int[batch.size()];
+                    for (int i = 0; i < batch.size(); i++) {
+                        counts[i] = update(batch.get(i));
+                    }
+                    batch.clear();
+                    return counts;
+                }
+                case "executeUpdate":
+                    if (args != null && args.length > 0) {
+                        sql = (String) args[0];
+                    }
+                    updateCount = update(new ArrayList<>(params.values()));
+                    return updateCount;
+                case "executeLargeUpdate":
+                    return (long) update(new ArrayList<>(params.values()));
+                case "execute":
+                    if (args != null && args.length > 0) {
+                        sql = (String) args[0];
+                    }
+                    updateCount = update(new ArrayList<>(params.values()));
+                    return false;
+                case "executeQuery":
+                    if (args != null && args.length > 0) {
+                        sql = (String) args[0];
+                    }
+                    return resultSet(query(new ArrayList<>(params.values())));
+                case "getGeneratedKeys": {
+                    List<Map<String, Object>> rows = new ArrayList<>();
+                    generated.forEach(key -> rows.add(row("GENERATED_KEY", key)));
+                    return resultSet(rows);
+                }
+                case "getUpdateCount":
+                    return updateCount;
+                case "getConnection":
+                    return connection.proxy;
+                case "clearParameters":
+                    params.clear();
+                    return null;
+                case "isWrapperFor":
+                    return false;
+                case "toString":
+                    return "FakeStatement[" + sql + "]";
+                case "hashCode":
+                    return System.identityHashCode(self);
+                case "equals":
+                    return self == args[0];
+                default:
+                    return defaultValue(method.getReturnType());
+            }
+        }
+
+        int update(List<Object> values) {
+            connection.record(new Execution(sql, values));
+            generated.add(keys.incrementAndGet());
+            for (Rule<Integer> rule : updates) {
+                if (sql.contains(rule.fragment)) {
+                    return rule.handler.apply(values);
+                }
+            }
+            return 1;
+        }
+
+        List<Map<String, Object>> query(List<Object> values) {
+            connection.record(new Execution(sql, values));
+            for (Rule<List<Map<String, Object>>> rule : queries) {
+                if (sql.contains(rule.fragment)) {
+                    return rule.handler.apply(values);
+                }
+            }
+            return List.of();
+        }
+    }
+
+    private static ResultSet resultSet(List<Map<String, Object>> rows) {
+        return new FakeResultSet(rows).proxy;
+    }
+
+    private static final class FakeResultSet {
+        final ResultSet proxy = proxy(ResultSet.class, this::invoke);
+        final List<Map<String, Object>> rows;
+        int position = -1;
+        boolean wasNull;
+
+        FakeResultSet(List<Map<String, Object>> rows) {
+            this.rows = rows;
+        }
+
+        Object invoke(Object self, java.lang.reflect.Method method, Object[] args) throws SQLException {
+            String name = method.getName();
+            switch (name) {
+                case "next":
+                    return ++position < rows.size();
+                case "wasNull":
+                    return wasNull;
+                case "close", "clearWarnings":
+                    return null;
+                case "getMetaData":
+                    return metaData();
+                case "isWrapperFor":
+                    return false;
+                case "toString":
+                    return "FakeResultSet" + rows;
+                case "hashCode":
+                    return System.identityHashCode(self);
+                case "equals":
+                    return self == args[0];
+                default:
+                    break;
+            }
+            if (!name.startsWith("get") || args == null || args.length == 0) {
+                return defaultValue(method.getReturnType());
+            }
+            Object value = column(args[0]);
+            wasNull = value == null;
+            return convert(value, name.equals("getObject") && args.length > 1 ? (Class<?>) args[1]
+                    : method.getReturnType());
+        }
+
+        Object column(Object key) throws SQLException {
+            Map<String, Object> row = rows.get(position);
+            if (key instanceof Integer index) {
+                return new ArrayList<>(row.values()).get(index - 1);
+            }
+            for (Map.Entry<String, Object> entry : row.entrySet()) {
+                if (entry.getKey().equalsIgnoreCase((String) key)) {
+                    return entry.getValue();
+                }
+            }
+            throw new SQLException("Column not found: " + key);
+        }
+
+        ResultSetMetaData metaData() {
+            List<String> labels = rows.isEmpty() ? List.of() : new ArrayList<>(rows.get(0).keySet());
+            return proxy(ResultSetMetaData.class, (p, m, a) -> switch (m.getName()) {
+                case "getColumnCount" -> labels.size();
+                case "getColumnLabel", "getColumnName" -> labels.get((Integer) a[0] - 1);
+                default -> defaultValue(m.getReturnType());
+            });
+        }
+
+        static Object convert(Object value, Class<?> type) {
+            if (value == null) {
+                return defaultValue(type);
+            }
+            if (type == Object.class || type.isInstance(value)) {
+                return value;
+            }
+            if (type == long.class || type == Long.class) return ((Number) value).longValue();
+            if (type == int.class || type == Integer.class) return ((Number) value).intValue();
+            if (type == double.class || type == Double.class) return ((Number) value).doubleValue();
+            if (type == boolean.class || type == Boolean.class) {
+                return value instanceof Number number ? number.intValue() != 0 : value;
+            }
+            if (type == String.class) return value.toString();
+            if (type == BigDecimal.class) return new BigDecimal(value.toString());
+            if (type == Timestamp.class && value instanceof LocalDateTime time) return Timestamp.valueOf(time);
+            if (type == LocalDateTime.class && value instanceof Timestamp time) return time.toLocalDateTime();
+            return value;
+        }
+    }
+}